@@ -41,10 +41,18 @@ public class DataCarrier<T> {
     }
 
     public DataCarrier(String name, String envPrefix, int channelSize, int bufferSize) {
+        this(name, envPrefix, channelSize, bufferSize, BufferStrategy.BLOCKING);
+    }
+
+    /**
+     * @param strategy decides the buffer implementation of the channels, see {@link Channels}. Use {@link
+     * BufferStrategy#PARKING} to choose the lock-free {@link MpscRingBuffer}.
+     */
+    public DataCarrier(String name, String envPrefix, int channelSize, int bufferSize, BufferStrategy strategy) {
         this.name = name;
         this.bufferSize = EnvUtil.getInt(envPrefix + "_BUFFER_SIZE", bufferSize);
         this.channelSize = EnvUtil.getInt(envPrefix + "_CHANNEL_SIZE", channelSize);
-        channels = new Channels<T>(channelSize, bufferSize, new SimpleRollingPartitioner<T>(), BufferStrategy.BLOCKING);
+        channels = new Channels<T>(channelSize, bufferSize, new SimpleRollingPartitioner<T>(), strategy);
     }
 
     /**
@@ -24,5 +24,10 @@ package org.apache.skywalking.apm.commons.datacarrier.buffer;
  */
 public enum BufferStrategy {
     BLOCKING,
-    IF_POSSIBLE
+    IF_POSSIBLE,
+    /**
+     * Block the producer when the channel is full, like {@link #BLOCKING}, but the channel is backed by the lock-free
+     * {@link MpscRingBuffer}, which parks the producer rather than sleeping, and wakes up the idle consumer.
+     */
+    PARKING
 }
@@ -37,6 +37,8 @@ public class Channels<T> {
         for (int i = 0; i < channelSize; i++) {
             if (BufferStrategy.BLOCKING.equals(strategy)) {
                 bufferChannels[i] = new ArrayBlockingQueueBuffer<T>(bufferSize, strategy);
+            } else if (BufferStrategy.PARKING.equals(strategy)) {
+                bufferChannels[i] = new MpscRingBuffer<T>(bufferSize, strategy);
             } else {
                 bufferChannels[i] = new Buffer<T>(bufferSize, strategy);
             }
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * MpscRingBuffer is a lock-free, multiple producers and single consumer ring. Each slot carries a sequence number, a
+ * producer claims a slot by moving the tail cursor forward, then publishes the slot by setting its sequence. The
+ * consumer drains the published slots in order from its own cursor, and stops at the first unpublished one, so there is
+ * no need to scan the whole ring.
+ *
+ * When the ring is full, the producer backs off by spinning, yielding, then parking. The consumer thread is unparked by
+ * the producers when it found the ring empty at its last obtain.
+ *
+ * The tail cursor is padded to avoid false sharing between the producers and the consumer.
+ */
+public class MpscRingBuffer<T> implements QueueBuffer<T> {
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 10;
+    private static final long MAX_PARK_NANOS = 1000 * 1000L;
+
+    /**
+     * Same trick as {@link org.apache.skywalking.apm.commons.datacarrier.common.AtomicRangeInteger}, only use the
+     * middle element of the array, to keep the cursor in its own cache line.
+     */
+    private static final int CURSOR_OFFSET = 7;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> entries;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray tail;
+    private volatile BufferStrategy strategy;
+
+    /**
+     * Only read and written by the consumer thread.
+     */
+    private long head;
+
+    private volatile Thread consumer;
+    private volatile boolean consumerIdle;
+
+    MpscRingBuffer(int bufferSize, BufferStrategy strategy) {
+        this.capacity = ceilingPowerOfTwo(bufferSize);
+        this.mask = capacity - 1;
+        this.entries = new AtomicReferenceArray<T>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.tail = new AtomicLongArray(CURSOR_OFFSET * 2 + 1);
+        this.strategy = strategy;
+    }
+
+    @Override public boolean save(T data) {
+        int backoff = 0;
+        while (true) {
+            long position = tail.get(CURSOR_OFFSET);
+            int index = (int)position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(CURSOR_OFFSET, position, position + 1)) {
+                    entries.lazySet(index, data);
+                    sequences.lazySet(index, position + 1);
+                    wakeUpConsumer();
+                    return true;
+                }
+            } else if (diff < 0) {
+                // The slot hasn't been released by the consumer, the ring is full.
+                if (BufferStrategy.IF_POSSIBLE.equals(strategy)) {
+                    return false;
+                }
+                backoff = backoff(backoff);
+            }
+        }
+    }
+
+    private int backoff(int times) {
+        if (times < SPIN_TRIES) {
+            // busy spin
+        } else if (times < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            wakeUpConsumer();
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << Math.min(times - SPIN_TRIES - YIELD_TRIES, 10)));
+        }
+        return times + 1;
+    }
+
+    private void wakeUpConsumer() {
+        if (consumerIdle) {
+            consumerIdle = false;
+            Thread thread = consumer;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    @Override public void setStrategy(BufferStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Drain all published data from the consumer cursor. This method must be called by only one thread, the consumer
+     * of this buffer.
+     */
+    @Override public void obtain(List<T> consumeList) {
+        if (consumer == null) {
+            consumer = Thread.currentThread();
+        }
+
+        long position = head;
+        while (true) {
+            int index = (int)position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            consumeList.add(entries.get(index));
+            entries.lazySet(index, null);
+            // Release the slot to the producers of next round.
+            sequences.lazySet(index, position + capacity);
+            position++;
+        }
+
+        if (position == head) {
+            consumerIdle = true;
+        } else {
+            head = position;
+        }
+    }
+
+    @Override public int getBufferSize() {
+        return capacity;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        if (value <= 1) {
+            return 2;
+        }
+        return Integer.highestOneBit(value - 1) << 1;
+    }
+}
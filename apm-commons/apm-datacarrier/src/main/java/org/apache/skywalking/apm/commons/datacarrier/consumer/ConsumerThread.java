@@ -21,6 +21,8 @@ package org.apache.skywalking.apm.commons.datacarrier.consumer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Buffer;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.QueueBuffer;
 
@@ -57,10 +59,8 @@ public class ConsumerThread<T> extends Thread {
         final List<T> consumeList = new ArrayList<T>(1500);
         while (running) {
             if (!consume(consumeList)) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
-                }
+                // Park rather than sleep, the buffer could unpark the consumer once new data arrives.
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(consumeCycle));
             }
         }
 
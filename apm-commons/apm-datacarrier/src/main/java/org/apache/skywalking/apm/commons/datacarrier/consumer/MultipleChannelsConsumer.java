@@ -20,6 +20,8 @@ package org.apache.skywalking.apm.commons.datacarrier.consumer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.QueueBuffer;
 
@@ -54,10 +56,8 @@ public class MultipleChannelsConsumer extends Thread {
             }
 
             if (!hasData) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
-                }
+                // Park rather than sleep, the buffer could unpark the consumer once new data arrives.
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(consumeCycle));
             }
         }
 
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.apache.skywalking.apm.commons.datacarrier.SampleData;
+import org.apache.skywalking.apm.commons.datacarrier.partition.SimpleRollingPartitioner;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MpscRingBufferTest {
+    @Test
+    public void testCapacity() {
+        Assert.assertEquals(128, new MpscRingBuffer<SampleData>(100, BufferStrategy.PARKING).getBufferSize());
+        Assert.assertEquals(64, new MpscRingBuffer<SampleData>(64, BufferStrategy.PARKING).getBufferSize());
+    }
+
+    @Test
+    public void testObtainInOrder() {
+        MpscRingBuffer<SampleData> buffer = new MpscRingBuffer<SampleData>(4, BufferStrategy.PARKING);
+        List<SampleData> result = new ArrayList<SampleData>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 3; i++) {
+                Assert.assertTrue(buffer.save(new SampleData().setIntValue(i)));
+            }
+            buffer.obtain(result);
+            Assert.assertEquals(3, result.size());
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals(i, result.get(i).getIntValue());
+            }
+            result.clear();
+        }
+        buffer.obtain(result);
+        Assert.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void testIfPossibleWhenFull() {
+        MpscRingBuffer<SampleData> buffer = new MpscRingBuffer<SampleData>(4, BufferStrategy.IF_POSSIBLE);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.save(new SampleData().setIntValue(i)));
+        }
+        Assert.assertFalse(buffer.save(new SampleData().setIntValue(4)));
+
+        List<SampleData> result = new ArrayList<SampleData>();
+        buffer.obtain(result);
+        Assert.assertEquals(4, result.size());
+        Assert.assertTrue(buffer.save(new SampleData().setIntValue(5)));
+    }
+
+    @Test
+    public void testMultipleProducers() throws InterruptedException {
+        final Channels<SampleData> channels = new Channels<SampleData>(1, 64, new SimpleRollingPartitioner<SampleData>(), BufferStrategy.PARKING);
+        final int producerNum = 4;
+        final int perProducer = 10000;
+        final CountDownLatch latch = new CountDownLatch(producerNum);
+        for (int p = 0; p < producerNum; p++) {
+            new Thread() {
+                @Override public void run() {
+                    for (int i = 0; i < perProducer; i++) {
+                        channels.save(new SampleData().setIntValue(i));
+                    }
+                    latch.countDown();
+                }
+            }.start();
+        }
+
+        QueueBuffer<SampleData> buffer = channels.getBuffer(0);
+        Assert.assertTrue(buffer instanceof MpscRingBuffer);
+        List<SampleData> result = new ArrayList<SampleData>();
+        int total = 0;
+        while (latch.getCount() > 0 || !result.isEmpty()) {
+            result.clear();
+            buffer.obtain(result);
+            total += result.size();
+        }
+        result.clear();
+        buffer.obtain(result);
+        total += result.size();
+        Assert.assertEquals(producerNum * perProducer, total);
+    }
+}
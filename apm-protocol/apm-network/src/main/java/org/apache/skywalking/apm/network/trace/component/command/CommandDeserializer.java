@@ -28,6 +28,8 @@ public class CommandDeserializer {
         final String commandName = command.getCommand();
         if (ServiceResetCommand.NAME.equals(commandName)) {
             return ServiceResetCommand.DESERIALIZER.deserialize(command);
+        } else if (SamplingRateCommand.NAME.equals(commandName)) {
+            return SamplingRateCommand.DESERIALIZER.deserialize(command);
         }
         throw new UnsupportedCommandException(command);
     }
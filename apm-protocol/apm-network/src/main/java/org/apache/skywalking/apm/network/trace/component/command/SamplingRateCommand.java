@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.network.trace.component.command;
+
+import org.apache.skywalking.apm.network.common.Command;
+import org.apache.skywalking.apm.network.common.KeyStringValuePair;
+
+import java.util.List;
+
+/**
+ * Change the number of sampled traces in 3 seconds of the agent, negative or zero means using the local setting.
+ */
+public class SamplingRateCommand extends BaseCommand implements Serializable, Deserializable<SamplingRateCommand> {
+    public static final Deserializable<SamplingRateCommand> DESERIALIZER = new SamplingRateCommand("", 0);
+    public static final String NAME = "SamplingRate";
+
+    private final int sampleNPer3Secs;
+
+    public SamplingRateCommand(String serialNumber, int sampleNPer3Secs) {
+        super(NAME, serialNumber);
+        this.sampleNPer3Secs = sampleNPer3Secs;
+
+        KeyStringValuePair.Builder arguments = KeyStringValuePair.newBuilder();
+        arguments.setKey("SampleNPer3Secs");
+        arguments.setValue(String.valueOf(sampleNPer3Secs));
+        commandBuilder().addArgs(arguments);
+    }
+
+    @Override
+    public Command.Builder serialize() {
+        return commandBuilder();
+    }
+
+    @Override
+    public SamplingRateCommand deserialize(Command command) {
+        final List<KeyStringValuePair> argsList = command.getArgsList();
+        String serialNumber = null;
+        int sampleNPer3Secs = 0;
+        for (final KeyStringValuePair pair : argsList) {
+            if ("SerialNumber".equals(pair.getKey())) {
+                serialNumber = pair.getValue();
+            } else if ("SampleNPer3Secs".equals(pair.getKey())) {
+                sampleNPer3Secs = Integer.parseInt(pair.getValue());
+            }
+        }
+        return new SamplingRateCommand(serialNumber, sampleNPer3Secs);
+    }
+
+    public int getSampleNPer3Secs() {
+        return sampleNPer3Secs;
+    }
+}
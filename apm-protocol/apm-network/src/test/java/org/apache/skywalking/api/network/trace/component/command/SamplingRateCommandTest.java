@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.api.network.trace.component.command;
+
+import org.apache.skywalking.apm.network.common.Command;
+import org.apache.skywalking.apm.network.trace.component.command.BaseCommand;
+import org.apache.skywalking.apm.network.trace.component.command.CommandDeserializer;
+import org.apache.skywalking.apm.network.trace.component.command.SamplingRateCommand;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SamplingRateCommandTest {
+
+    @Test
+    public void testSerializeAndDeserialize() {
+        SamplingRateCommand command = new SamplingRateCommand("aa", 300);
+        Command serialized = command.serialize().build();
+
+        Assert.assertEquals(SamplingRateCommand.NAME, serialized.getCommand());
+
+        BaseCommand deserialized = CommandDeserializer.deserialize(serialized);
+        Assert.assertTrue(deserialized instanceof SamplingRateCommand);
+        Assert.assertEquals("aa", deserialized.getSerialNumber());
+        Assert.assertEquals(300, ((SamplingRateCommand)deserialized).getSampleNPer3Secs());
+    }
+
+    @Test
+    public void testSerializeTwice() {
+        SamplingRateCommand command = new SamplingRateCommand("aa", 300);
+        command.serialize();
+
+        Assert.assertEquals(2, command.serialize().getArgsCount());
+    }
+}
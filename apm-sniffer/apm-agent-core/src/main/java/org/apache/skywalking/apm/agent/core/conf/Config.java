@@ -58,6 +58,18 @@ public class Config {
          */
         public static int SAMPLE_N_PER_3_SECS = -1;
 
+        /**
+         * If true, the sampling budget is shared by the endpoints fairly, and shrinks when the segments pile up in the
+         * agent. The traces out of the budget are still traced, and kept if they have error or are slower than {@link
+         * #SAMPLE_SLOW_TRACE_THRESHOLD}.
+         */
+        public static boolean SAMPLE_ADAPTIVE = false;
+
+        /**
+         * The threshold in milliseconds, the unsampled traces slower than it are kept in the adaptive sampling.
+         */
+        public static int SAMPLE_SLOW_TRACE_THRESHOLD = 1000;
+
         /**
          * If the operation name of the first span is included in this set, this segment should be ignored.
          */
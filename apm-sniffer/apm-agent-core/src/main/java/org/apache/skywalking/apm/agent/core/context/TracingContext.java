@@ -92,10 +92,23 @@ public class TracingContext implements AbstractTracerContext {
 
     private volatile boolean running;
 
+    /**
+     * The trace is out of the sampling budget, the segment is kept only if it has error or is slow. The context isn't
+     * propagated, so the downstream services make their own decisions, as the trace is not sampled.
+     *
+     * @see SamplingService#tryTailSampling(TraceSegment)
+     */
+    private final boolean tailSampling;
+
     /**
      * Initialize all fields with default value.
      */
     TracingContext() {
+        this(false);
+    }
+
+    TracingContext(boolean tailSampling) {
+        this.tailSampling = tailSampling;
         this.segment = new TraceSegment();
         this.spanIdGenerator = 0;
         samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
@@ -116,6 +129,9 @@ public class TracingContext implements AbstractTracerContext {
         if (!span.isExit()) {
             throw new IllegalStateException("Inject can be done only in Exit Span");
         }
+        if (tailSampling) {
+            return;
+        }
 
         WithPeerInfo spanWithPeer = (WithPeerInfo)span;
         String peer = spanWithPeer.getPeer();
@@ -457,7 +473,11 @@ public class TracingContext implements AbstractTracerContext {
                  *
                  * @see {@link #createSpan(String, long, boolean)}
                  */
-                if (!segment.hasRef() && segment.isSingleSpanSegment()) {
+                if (tailSampling) {
+                    if (!samplingService.tryTailSampling(finishedSegment)) {
+                        finishedSegment.setIgnore(true);
+                    }
+                } else if (!segment.hasRef() && segment.isSingleSpanSegment()) {
                     if (!samplingService.trySampling()) {
                         finishedSegment.setIgnore(true);
                     }
@@ -23,6 +23,7 @@ import org.apache.skywalking.apm.agent.core.context.*;
 import org.apache.skywalking.apm.agent.core.context.tag.*;
 import org.apache.skywalking.apm.agent.core.context.util.*;
 import org.apache.skywalking.apm.agent.core.dictionary.DictionaryUtil;
+import org.apache.skywalking.apm.network.common.KeyStringValuePair;
 import org.apache.skywalking.apm.network.language.agent.SpanType;
 import org.apache.skywalking.apm.network.language.agent.v2.SpanObjectV2;
 import org.apache.skywalking.apm.network.trace.component.Component;
@@ -34,9 +35,17 @@ import org.apache.skywalking.apm.network.trace.component.Component;
  * @author wusheng
  */
 public abstract class AbstractTracingSpan implements AbstractSpan {
+    private static final int INITIAL_TAG_CAPACITY = 4;
+
     protected int spanId;
     protected int parentSpanId;
-    protected List<TagValuePair> tags;
+    /**
+     * The tags are kept in the flat arrays, rather than a list of key/value pairs, to avoid the allocation per tag. The
+     * tags are usually static constants of {@link Tags}.
+     */
+    protected AbstractTag[] tagKeys;
+    protected String[] tagValues;
+    protected int tagCount;
     protected String operationName;
     protected int operationId;
     protected SpanLayer layer;
@@ -106,20 +115,27 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
 
     @Override
     public AbstractTracingSpan tag(AbstractTag tag, String value) {
-        if (tags == null) {
-            tags = new ArrayList<TagValuePair>(8);
+        if (tagKeys == null) {
+            tagKeys = new AbstractTag[INITIAL_TAG_CAPACITY];
+            tagValues = new String[INITIAL_TAG_CAPACITY];
         }
 
         if (tag.isCanOverwrite()) {
-            for (TagValuePair pair : tags) {
-                if (pair.sameWith(tag)) {
-                    pair.setValue(value);
+            for (int i = 0; i < tagCount; i++) {
+                if (tagKeys[i].sameWith(tag)) {
+                    tagValues[i] = value;
                     return this;
                 }
             }
         }
 
-        tags.add(new TagValuePair(tag, value));
+        if (tagCount == tagKeys.length) {
+            tagKeys = Arrays.copyOf(tagKeys, tagCount * 2);
+            tagValues = Arrays.copyOf(tagValues, tagCount * 2);
+        }
+        tagKeys[tagCount] = tag;
+        tagValues[tagCount] = value;
+        tagCount++;
         return this;
     }
 
@@ -150,7 +166,7 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
     @Override
     public AbstractTracingSpan log(Throwable t) {
         if (logs == null) {
-            logs = new LinkedList<LogDataEntity>();
+            logs = new ArrayList<LogDataEntity>(1);
         }
         logs.add(new LogDataEntity.Builder()
             .add(new KeyValuePair("event", "error"))
@@ -170,9 +186,9 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
     @Override
     public AbstractTracingSpan log(long timestampMicroseconds, Map<String, ?> fields) {
         if (logs == null) {
-            logs = new LinkedList<LogDataEntity>();
+            logs = new ArrayList<LogDataEntity>(1);
         }
-        LogDataEntity.Builder builder = new LogDataEntity.Builder();
+        LogDataEntity.Builder builder = new LogDataEntity.Builder(fields.size());
         for (Map.Entry<String, ?> entry : fields.entrySet()) {
             builder.add(new KeyValuePair(entry.getKey(), entry.getValue().toString()));
         }
@@ -300,14 +316,15 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
             }
         }
         spanBuilder.setIsError(errorOccurred);
-        if (this.tags != null) {
-            for (TagValuePair tag : this.tags) {
-                spanBuilder.addTags(tag.transform());
+        for (int i = 0; i < tagCount; i++) {
+            KeyStringValuePair.Builder tagBuilder = spanBuilder.addTagsBuilder().setKey(tagKeys[i].key());
+            if (tagValues[i] != null) {
+                tagBuilder.setValue(tagValues[i]);
             }
         }
         if (this.logs != null) {
             for (LogDataEntity log : this.logs) {
-                spanBuilder.addLogs(log.transform());
+                log.transform(spanBuilder.addLogsBuilder());
             }
         }
         if (this.refs != null) {
@@ -321,7 +338,7 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
 
     @Override public void ref(TraceSegmentRef ref) {
         if (refs == null) {
-            refs = new LinkedList<TraceSegmentRef>();
+            refs = new ArrayList<TraceSegmentRef>(1);
         }
         if (!refs.contains(ref)) {
             refs.add(ref);
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.apm.agent.core.context.trace;
 
+import java.util.Arrays;
 import org.apache.skywalking.apm.agent.core.dictionary.DictionaryUtil;
 import org.apache.skywalking.apm.network.trace.component.Component;
 
@@ -131,6 +132,11 @@ public class EntrySpan extends StackBasedTracingSpan {
         this.componentName = null;
         this.layer = null;
         this.logs = null;
-        this.tags = null;
+        if (this.tagKeys != null) {
+            // Keep the arrays for the tags of the restarted span.
+            Arrays.fill(this.tagKeys, 0, this.tagCount, null);
+            Arrays.fill(this.tagValues, 0, this.tagCount, null);
+            this.tagCount = 0;
+        }
     }
 }
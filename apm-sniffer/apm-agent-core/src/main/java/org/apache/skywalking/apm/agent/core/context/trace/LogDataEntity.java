@@ -18,7 +18,7 @@
 
 package org.apache.skywalking.apm.agent.core.context.trace;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.apm.agent.core.context.util.KeyValuePair;
 import org.apache.skywalking.apm.network.language.agent.v2.Log;
@@ -46,7 +46,11 @@ public class LogDataEntity {
         protected List<KeyValuePair> logs;
 
         public Builder() {
-            logs = new LinkedList<KeyValuePair>();
+            this(4);
+        }
+
+        public Builder(int expectedSize) {
+            logs = new ArrayList<KeyValuePair>(expectedSize);
         }
 
         public Builder add(KeyValuePair... fields) {
@@ -63,10 +67,17 @@ public class LogDataEntity {
 
     public Log transform() {
         Log.Builder logMessageBuilder = Log.newBuilder();
+        transform(logMessageBuilder);
+        return logMessageBuilder.build();
+    }
+
+    /**
+     * Fill the given builder, which is usually created by the span builder, to avoid building the log twice.
+     */
+    public void transform(Log.Builder logMessageBuilder) {
         for (KeyValuePair log : logs) {
             logMessageBuilder.addData(log.transform());
         }
         logMessageBuilder.setTime(timestamp);
-        return logMessageBuilder.build();
     }
 }
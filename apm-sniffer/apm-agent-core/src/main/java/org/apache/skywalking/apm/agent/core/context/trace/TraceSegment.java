@@ -19,6 +19,7 @@
 
 package org.apache.skywalking.apm.agent.core.context.trace;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
@@ -38,6 +39,8 @@ import org.apache.skywalking.apm.network.language.agent.v2.SegmentObject;
  * @author wusheng
  */
 public class TraceSegment {
+    private static final int INITIAL_SPAN_CAPACITY = 8;
+
     /**
      * The id of this trace segment. Every segment has its unique-global-id.
      */
@@ -79,7 +82,7 @@ public class TraceSegment {
      */
     public TraceSegment() {
         this.traceSegmentId = GlobalIdGenerator.generate();
-        this.spans = new LinkedList<AbstractTracingSpan>();
+        this.spans = new ArrayList<AbstractTracingSpan>(INITIAL_SPAN_CAPACITY);
         this.relatedGlobalTraces = new DistributedTraceIds();
         this.relatedGlobalTraces.append(new NewDistributedTraceId());
         this.createTime = System.currentTimeMillis();
@@ -148,6 +151,19 @@ public class TraceSegment {
         return this.spans != null && this.spans.size() == 1;
     }
 
+    /**
+     * @param thresholdMillis the duration threshold of the slow span.
+     * @return true if any span has error, or lasts longer than the threshold.
+     */
+    public boolean isErrorOrSlowerThan(long thresholdMillis) {
+        for (AbstractTracingSpan span : spans) {
+            if (span.errorOccurred || span.endTime - span.startTime >= thresholdMillis) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean isIgnore() {
         return ignore;
     }
@@ -22,6 +22,8 @@ import io.grpc.Channel;
 import io.grpc.stub.StreamObserver;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.skywalking.apm.agent.core.boot.*;
 import org.apache.skywalking.apm.agent.core.commands.CommandService;
@@ -50,6 +52,14 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
     private long lastLogTime;
     private long segmentUplinkedCounter;
     private long segmentAbandonedCounter;
+    /**
+     * The segments in the carrier, or being sent.
+     */
+    private final AtomicInteger pendingSegments = new AtomicInteger(0);
+    /**
+     * The segments abandoned because the carrier is full.
+     */
+    private final AtomicLong bufferAbandonedCounter = new AtomicLong(0);
     private volatile DataCarrier<TraceSegment> carrier;
     private volatile TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub serviceStub;
     private volatile GRPCChannelStatus status = GRPCChannelStatus.DISCONNECT;
@@ -126,6 +136,7 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
         } else {
             segmentAbandonedCounter += data.size();
         }
+        pendingSegments.addAndGet(-data.size());
 
         printUplinkStatus();
     }
@@ -160,13 +171,31 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
         if (traceSegment.isIgnore()) {
             return;
         }
+        pendingSegments.incrementAndGet();
         if (!carrier.produce(traceSegment)) {
+            pendingSegments.decrementAndGet();
+            bufferAbandonedCounter.incrementAndGet();
             if (logger.isDebugEnable()) {
                 logger.debug("One trace segment has been abandoned, cause by buffer is full.");
             }
         }
     }
 
+    /**
+     * @return the ratio of the pending segments to the capacity of the carrier, the segments being sent by gRPC are
+     * included.
+     */
+    public double getBacklogRatio() {
+        return (double)pendingSegments.get() / (CHANNEL_SIZE * BUFFER_SIZE);
+    }
+
+    /**
+     * @return the number of the segments abandoned because the carrier is full, since the last call.
+     */
+    public long getAndResetBufferAbandoned() {
+        return bufferAbandonedCounter.getAndSet(0);
+    }
+
     @Override
     public void statusChanged(GRPCChannelStatus status) {
         if (CONNECTED.equals(status)) {
@@ -19,6 +19,7 @@
 
 package org.apache.skywalking.apm.agent.core.sampling;
 
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -27,10 +28,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.apm.agent.core.boot.BootService;
 import org.apache.skywalking.apm.agent.core.boot.DefaultImplementor;
 import org.apache.skywalking.apm.agent.core.boot.DefaultNamedThreadFactory;
+import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
 import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.remote.TraceSegmentServiceClient;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 
 /**
@@ -39,6 +42,13 @@ import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
  * send all of them to collector, if SAMPLING is on.
  * <p>
  * By default, SAMPLING is on, and  {@link Config.Agent#SAMPLE_N_PER_3_SECS }
+ * <p>
+ * In the adaptive mode, {@link Config.Agent#SAMPLE_ADAPTIVE}, the budget of every 3 seconds is shared by the endpoints
+ * seen in the last period, so the rare endpoints are not starved by the busy ones. The budget shrinks by half when the
+ * segments pile up in {@link TraceSegmentServiceClient}, and grows back slowly when the backlog is gone. The traces out
+ * of the budget are traced too, and kept only if they have error or are slow, see {@link #tryTailSampling(TraceSegment)}.
+ * <p>
+ * The backend could change the budget through the SamplingRate command.
  *
  * @author wusheng
  */
@@ -46,9 +56,28 @@ import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 public class SamplingService implements BootService {
     private static final ILog logger = LogManager.getLogger(SamplingService.class);
 
+    private static final int MAX_ENDPOINTS = 1000;
+    private static final String OTHER_ENDPOINTS = "";
+    private static final double MIN_RATE_FACTOR = 1 / 16d;
+    private static final double RATE_FACTOR_STEP = 1 / 8d;
+    private static final double MIN_TAIL_SAMPLING_RATE_FACTOR = 1 / 2d;
+    private static final double HIGH_BACKLOG_RATIO = 0.5;
+    private static final double LOW_BACKLOG_RATIO = 0.1;
+
     private volatile boolean on = false;
     private volatile AtomicInteger samplingFactorHolder;
     private volatile ScheduledFuture<?> scheduledFuture;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * The rate pushed by backend, overrides {@link Config.Agent#SAMPLE_N_PER_3_SECS} if positive.
+     */
+    private volatile int targetRate = 0;
+    private volatile int effectiveRate;
+    private volatile double rateFactor = 1;
+    private volatile int endpointQuota;
+    private volatile ConcurrentHashMap<String, AtomicInteger> endpointFactors = new ConcurrentHashMap<String, AtomicInteger>();
+    private volatile AtomicInteger tailFactorHolder;
 
     @Override
     public void prepare() throws Throwable {
@@ -63,23 +92,13 @@ public class SamplingService implements BootService {
              * cancel the old one.
              */
             scheduledFuture.cancel(true);
+            scheduledFuture = null;
         }
-        if (Config.Agent.SAMPLE_N_PER_3_SECS > 0) {
-            on = true;
-            this.resetSamplingFactor();
-            ScheduledExecutorService service = Executors
-                .newSingleThreadScheduledExecutor(new DefaultNamedThreadFactory("SamplingService"));
-            scheduledFuture = service.scheduleAtFixedRate(new RunnableWithExceptionProtection(new Runnable() {
-                @Override
-                public void run() {
-                    resetSamplingFactor();
-                }
-            }, new RunnableWithExceptionProtection.CallbackWhenException() {
-                @Override public void handle(Throwable t) {
-                    logger.error("unexpected exception.", t);
-                }
-            }), 0, 3, TimeUnit.SECONDS);
-            logger.debug("Agent sampling mechanism started. Sample {} traces in 3 seconds.", Config.Agent.SAMPLE_N_PER_3_SECS);
+        rateFactor = 1;
+        this.resetSamplingFactor(false);
+        if (on) {
+            scheduleResetSamplingFactor();
+            logger.debug("Agent sampling mechanism started. Sample {} traces in 3 seconds, adaptive: {}.", effectiveRate, Config.Agent.SAMPLE_ADAPTIVE);
         }
     }
 
@@ -100,17 +119,53 @@ public class SamplingService implements BootService {
      */
     public boolean trySampling() {
         if (on) {
-            int factor = samplingFactorHolder.get();
-            if (factor < Config.Agent.SAMPLE_N_PER_3_SECS) {
-                boolean success = samplingFactorHolder.compareAndSet(factor, factor + 1);
-                return success;
-            } else {
-                return false;
-            }
+            return tryIncrease(samplingFactorHolder, effectiveRate);
         }
         return true;
     }
 
+    /**
+     * In the adaptive mode, the endpoint can't take more than its share of the budget. Otherwise, same as {@link
+     * #trySampling()}.
+     *
+     * @param endpointName the operation name of the first span.
+     * @return true, if sampling mechanism is on, and getDefault the sampling factor successfully.
+     */
+    public boolean trySampling(String endpointName) {
+        if (!on || !Config.Agent.SAMPLE_ADAPTIVE) {
+            return trySampling();
+        }
+
+        AtomicInteger endpointFactor = endpointFactor(endpointName);
+        if (endpointFactor.get() >= endpointQuota) {
+            return false;
+        }
+        if (!tryIncrease(samplingFactorHolder, effectiveRate)) {
+            return false;
+        }
+        endpointFactor.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return true, if the trace out of the budget should be traced, and checked by {@link
+     * #tryTailSampling(TraceSegment)} at the end.
+     */
+    public boolean isTailSamplingEnabled() {
+        return on && Config.Agent.SAMPLE_ADAPTIVE && rateFactor >= MIN_TAIL_SAMPLING_RATE_FACTOR;
+    }
+
+    /**
+     * The segment out of the budget is kept, only if it has error or is slow. The kept ones in 3 seconds are no more
+     * than the budget.
+     *
+     * @return true, if the segment should be sent.
+     */
+    public boolean tryTailSampling(TraceSegment segment) {
+        return segment.isErrorOrSlowerThan(Config.Agent.SAMPLE_SLOW_TRACE_THRESHOLD)
+            && tryIncrease(tailFactorHolder, effectiveRate);
+    }
+
     /**
      * Increase the sampling factor by force,
      * to avoid sampling too many traces.
@@ -123,7 +178,113 @@ public class SamplingService implements BootService {
         }
     }
 
-    private void resetSamplingFactor() {
+    /**
+     * Change the number of sampled traces in 3 seconds, takes effect immediately. The backend sends the same rate in
+     * every heartbeat response, only a different one resets the sampling factor.
+     *
+     * @param sampleNPer3Secs negative or zero means using {@link Config.Agent#SAMPLE_N_PER_3_SECS}.
+     */
+    public synchronized void setTargetRate(int sampleNPer3Secs) {
+        if (sampleNPer3Secs == targetRate || sampleNPer3Secs <= 0 && targetRate <= 0) {
+            return;
+        }
+        this.targetRate = sampleNPer3Secs;
+        resetSamplingFactor(false);
+        if (on) {
+            scheduleResetSamplingFactor();
+            logger.info("Sampling rate is changed to {} traces in 3 seconds.", effectiveRate);
+        } else {
+            if (scheduledFuture != null) {
+                scheduledFuture.cancel(true);
+                scheduledFuture = null;
+            }
+            logger.info("Sampling is turned off.");
+        }
+    }
+
+    /**
+     * Reset the sampling factor every 3 seconds, only when the sampling is on.
+     */
+    private synchronized void scheduleResetSamplingFactor() {
+        if (scheduledFuture != null) {
+            return;
+        }
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new DefaultNamedThreadFactory("SamplingService"));
+        }
+        scheduledFuture = scheduler.scheduleAtFixedRate(new RunnableWithExceptionProtection(new Runnable() {
+            @Override
+            public void run() {
+                resetSamplingFactor(true);
+            }
+        }, new RunnableWithExceptionProtection.CallbackWhenException() {
+            @Override public void handle(Throwable t) {
+                logger.error("unexpected exception.", t);
+            }
+        }), 3, 3, TimeUnit.SECONDS);
+    }
+
+    private AtomicInteger endpointFactor(String endpointName) {
+        ConcurrentHashMap<String, AtomicInteger> factors = endpointFactors;
+        String key = endpointName == null || factors.size() >= MAX_ENDPOINTS ? OTHER_ENDPOINTS : endpointName;
+        AtomicInteger factor = factors.get(key);
+        if (factor == null) {
+            factor = new AtomicInteger(0);
+            AtomicInteger previous = factors.putIfAbsent(key, factor);
+            if (previous != null) {
+                factor = previous;
+            }
+        }
+        return factor;
+    }
+
+    private static boolean tryIncrease(AtomicInteger factorHolder, int limit) {
+        while (true) {
+            int factor = factorHolder.get();
+            if (factor >= limit) {
+                return false;
+            }
+            if (factorHolder.compareAndSet(factor, factor + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param adjustRate true, if called by the scheduler at the beginning of a new 3 seconds.
+     */
+    private synchronized void resetSamplingFactor(boolean adjustRate) {
+        int rate = targetRate > 0 ? targetRate : Config.Agent.SAMPLE_N_PER_3_SECS;
+        if (rate > 0 && Config.Agent.SAMPLE_ADAPTIVE) {
+            if (adjustRate) {
+                adjustRateFactor();
+            }
+            rate = Math.max(1, (int)(rate * rateFactor));
+
+            int endpoints = Math.max(1, endpointFactors.size());
+            endpointQuota = (rate + endpoints - 1) / endpoints;
+            endpointFactors = new ConcurrentHashMap<String, AtomicInteger>(endpoints * 2);
+            tailFactorHolder = new AtomicInteger(0);
+        }
+        effectiveRate = rate;
         samplingFactorHolder = new AtomicInteger(0);
+        on = rate > 0;
+    }
+
+    /**
+     * Halve the rate when the segments are dropped or pile up, increase it a little when the backlog is low.
+     */
+    private void adjustRateFactor() {
+        TraceSegmentServiceClient client = ServiceManager.INSTANCE.findService(TraceSegmentServiceClient.class);
+        if (client == null) {
+            return;
+        }
+        double backlogRatio = client.getBacklogRatio();
+        long abandoned = client.getAndResetBufferAbandoned();
+        if (abandoned > 0 || backlogRatio > HIGH_BACKLOG_RATIO) {
+            rateFactor = Math.max(MIN_RATE_FACTOR, rateFactor / 2);
+        } else if (backlogRatio < LOW_BACKLOG_RATIO && rateFactor < 1) {
+            rateFactor = Math.min(1, rateFactor + RATE_FACTOR_STEP);
+        }
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.sampling;
+
+import java.lang.reflect.Field;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SamplingServiceTest {
+
+    private SamplingService samplingService;
+
+    @Before
+    public void setUp() {
+        Config.Agent.SAMPLE_N_PER_3_SECS = -1;
+        Config.Agent.SAMPLE_ADAPTIVE = false;
+        samplingService = new SamplingService();
+    }
+
+    @After
+    public void tearDown() throws Throwable {
+        samplingService.shutdown();
+        Config.Agent.SAMPLE_N_PER_3_SECS = -1;
+    }
+
+    @Test
+    public void testNotScheduledWhenSamplingIsOff() throws Throwable {
+        samplingService.boot();
+
+        Assert.assertNull(getFieldValue(samplingService, "scheduledFuture"));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(samplingService.trySampling());
+        }
+    }
+
+    @Test
+    public void testPushedRateTurnsSamplingOn() throws Throwable {
+        samplingService.boot();
+        samplingService.setTargetRate(5);
+
+        Assert.assertNotNull(getFieldValue(samplingService, "scheduledFuture"));
+        Assert.assertEquals(5, countSampled(100));
+    }
+
+    @Test
+    public void testPushedRateOverridesLocalRate() throws Throwable {
+        Config.Agent.SAMPLE_N_PER_3_SECS = 10;
+        samplingService.boot();
+        samplingService.setTargetRate(3);
+        Assert.assertEquals(3, countSampled(100));
+
+        // The same rate of every heartbeat doesn't reset the sampling factor.
+        samplingService.setTargetRate(3);
+        Assert.assertEquals(0, countSampled(100));
+
+        samplingService.setTargetRate(0);
+        Assert.assertEquals(10, countSampled(100));
+    }
+
+    @Test
+    public void testRevertingPushedRateTurnsSamplingOff() throws Throwable {
+        samplingService.boot();
+        samplingService.setTargetRate(5);
+        samplingService.setTargetRate(0);
+
+        Assert.assertNull(getFieldValue(samplingService, "scheduledFuture"));
+        Assert.assertEquals(100, countSampled(100));
+    }
+
+    private int countSampled(int traces) {
+        int sampled = 0;
+        for (int i = 0; i < traces; i++) {
+            if (samplingService.trySampling()) {
+                sampled++;
+            }
+        }
+        return sampled;
+    }
+
+    private <T> T getFieldValue(Object instance, String fieldName) throws Exception {
+        Field field = instance.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return (T)field.get(instance);
+    }
+}
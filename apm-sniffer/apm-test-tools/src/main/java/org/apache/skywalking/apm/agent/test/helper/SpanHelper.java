@@ -19,8 +19,10 @@
 
 package org.apache.skywalking.apm.agent.test.helper;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import org.apache.skywalking.apm.agent.core.context.tag.AbstractTag;
 import org.apache.skywalking.apm.agent.core.context.trace.AbstractSpan;
 import org.apache.skywalking.apm.agent.core.context.trace.LogDataEntity;
 import org.apache.skywalking.apm.agent.core.context.trace.SpanLayer;
@@ -63,16 +65,14 @@ public class SpanHelper {
 
     public static List<TagValuePair> getTags(AbstractSpan tracingSpan) {
         try {
-            List<TagValuePair> tags = FieldGetter.get2LevelParentFieldValue(tracingSpan, "tags");
-            if (tags != null) {
-                return tags;
-            }
+            return toTagValuePairs(FieldGetter.<AbstractTag[]>get2LevelParentFieldValue(tracingSpan, "tagKeys"),
+                FieldGetter.<String[]>get2LevelParentFieldValue(tracingSpan, "tagValues"),
+                FieldGetter.<Integer>get2LevelParentFieldValue(tracingSpan, "tagCount"));
         } catch (Exception e) {
             try {
-                List<TagValuePair> tags = FieldGetter.getParentFieldValue(tracingSpan, "tags");
-                if (tags != null) {
-                    return tags;
-                }
+                return toTagValuePairs(FieldGetter.<AbstractTag[]>getParentFieldValue(tracingSpan, "tagKeys"),
+                    FieldGetter.<String[]>getParentFieldValue(tracingSpan, "tagValues"),
+                    FieldGetter.<Integer>getParentFieldValue(tracingSpan, "tagCount"));
             } catch (Exception e1) {
 
             }
@@ -81,6 +81,14 @@ public class SpanHelper {
         return Collections.emptyList();
     }
 
+    private static List<TagValuePair> toTagValuePairs(AbstractTag[] tagKeys, String[] tagValues, int tagCount) {
+        List<TagValuePair> tags = new ArrayList<TagValuePair>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            tags.add(new TagValuePair(tagKeys[i], tagValues[i]));
+        }
+        return tags;
+    }
+
     public static SpanLayer getLayer(AbstractSpan tracingSpan) {
         try {
             return FieldGetter.get2LevelParentFieldValue(tracingSpan, "layer");
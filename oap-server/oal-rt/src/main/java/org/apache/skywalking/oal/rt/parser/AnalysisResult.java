@@ -139,6 +139,9 @@ public class AnalysisResult {
                 case "IntKeyLongValueHashMap":
                     serializeFields.addIntKeyLongValueHashMapField(column.getFieldName());
                     break;
+                case "QuantileSketch":
+                    serializeFields.addQuantileSketchField(column.getFieldName());
+                    break;
                 default:
                     throw new IllegalStateException("Unexpected field type [" + type + "] of persistence column [" + column.getFieldName() + "]");
             }
@@ -26,6 +26,8 @@ import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.*;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
 
 public class DeepAnalysis {
+    private static final String SOURCE_PACKAGE = "org.apache.skywalking.oap.server.core.source.";
+
     public AnalysisResult analysis(AnalysisResult result) {
         // 1. Set sub package name by source.metrics
         result.setPackageName(result.getSourceName().toLowerCase());
@@ -36,43 +38,11 @@ public class DeepAnalysis {
         result.setMetricsClassName(metricsClassSimpleName);
 
         // Optional for filter
+        Class<?> sourceClass = findSourceClass(result.getSourceName());
         List<ConditionExpression> expressions = result.getFilterExpressionsParserResult();
         if (expressions != null && expressions.size() > 0) {
             for (ConditionExpression expression : expressions) {
-                Expression filterExpression = new Expression();
-                if ("booleanMatch".equals(expression.getExpressionType())) {
-                    filterExpression.setExpressionObject("EqualMatch");
-                    filterExpression.setLeft("source." + ClassMethodUtil.toIsMethod(expression.getAttribute()) + "()");
-                    filterExpression.setRight(expression.getValue());
-                    result.addFilterExpressions(filterExpression);
-                } else if ("stringMatch".equals(expression.getExpressionType())) {
-                    filterExpression.setExpressionObject("EqualMatch");
-                    filterExpression.setLeft("source." + ClassMethodUtil.toGetMethod(expression.getAttribute()) + "()");
-                    filterExpression.setRight(expression.getValue());
-                    result.addFilterExpressions(filterExpression);
-                } else if ("greaterMatch".equals(expression.getExpressionType())) {
-                    filterExpression.setExpressionObject("GreaterMatch");
-                    filterExpression.setLeft("source." + ClassMethodUtil.toGetMethod(expression.getAttribute()) + "()");
-                    filterExpression.setRight(expression.getValue());
-                    result.addFilterExpressions(filterExpression);
-                } else if ("lessMatch".equals(expression.getExpressionType())) {
-                    filterExpression.setExpressionObject("LessMatch");
-                    filterExpression.setLeft("source." + ClassMethodUtil.toGetMethod(expression.getAttribute()) + "()");
-                    filterExpression.setRight(expression.getValue());
-                    result.addFilterExpressions(filterExpression);
-                } else if ("greaterEqualMatch".equals(expression.getExpressionType())) {
-                    filterExpression.setExpressionObject("GreaterEqualMatch");
-                    filterExpression.setLeft("source." + ClassMethodUtil.toGetMethod(expression.getAttribute()) + "()");
-                    filterExpression.setRight(expression.getValue());
-                    result.addFilterExpressions(filterExpression);
-                } else if ("lessEqualMatch".equals(expression.getExpressionType())) {
-                    filterExpression.setExpressionObject("LessEqualMatch");
-                    filterExpression.setLeft("source." + ClassMethodUtil.toGetMethod(expression.getAttribute()) + "()");
-                    filterExpression.setRight(expression.getValue());
-                    result.addFilterExpressions(filterExpression);
-                } else {
-                    throw new IllegalArgumentException("filter expression [" + expression.getExpressionType() + "] not found");
-                }
+                result.addFilterExpressions(buildExpression(sourceClass, expression));
             }
         }
 
@@ -113,35 +83,7 @@ public class DeepAnalysis {
                 if (result.getFuncConditionExpressions().size() == 1) {
                     ConditionExpression expression = result.getFuncConditionExpressions().get(0);
 
-                    Expression argExpression = new Expression();
-                    if ("booleanMatch".equals(expression.getExpressionType())) {
-                        argExpression.setExpressionObject("EqualMatch");
-                        argExpression.setLeft("source." + ClassMethodUtil.toIsMethod(expression.getAttribute()) + "()");
-                        argExpression.setRight(expression.getValue());
-                    } else if ("stringMatch".equals(expression.getExpressionType())) {
-                        argExpression.setExpressionObject("EqualMatch");
-                        argExpression.setLeft("source." + ClassMethodUtil.toGetMethod(expression.getAttribute()) + "()");
-                        argExpression.setRight(expression.getValue());
-                    } else if ("greaterMatch".equals(expression.getExpressionType())) {
-                        argExpression.setExpressionObject("GreaterMatch");
-                        argExpression.setLeft("source." + ClassMethodUtil.toGetMethod(expression.getAttribute()) + "()");
-                        argExpression.setRight(expression.getValue());
-                    } else if ("lessMatch".equals(expression.getExpressionType())) {
-                        argExpression.setExpressionObject("LessMatch");
-                        argExpression.setLeft("source." + ClassMethodUtil.toGetMethod(expression.getAttribute()) + "()");
-                        argExpression.setRight(expression.getValue());
-                    } else if ("greaterEqualMatch".equals(expression.getExpressionType())) {
-                        argExpression.setExpressionObject("GreaterEqualMatch");
-                        argExpression.setLeft("source." + ClassMethodUtil.toGetMethod(expression.getAttribute()) + "()");
-                        argExpression.setRight(expression.getValue());
-                    } else if ("lessEqualMatch".equals(expression.getExpressionType())) {
-                        argExpression.setExpressionObject("LessEqualMatch");
-                        argExpression.setLeft("source." + ClassMethodUtil.toGetMethod(expression.getAttribute()) + "()");
-                        argExpression.setRight(expression.getValue());
-                    } else {
-                        throw new IllegalArgumentException("filter expression [" + expression.getExpressionType() + "] not found");
-                    }
-
+                    Expression argExpression = buildExpression(sourceClass, expression);
                     entryMethod.addArg(argExpression);
                 } else {
                     throw new IllegalArgumentException("Entrance method:" + entranceMethod + " argument can't find funcParamExpression.");
@@ -174,4 +116,81 @@ public class DeepAnalysis {
         return result;
     }
 
+    private Expression buildExpression(Class<?> sourceClass, ConditionExpression expression) {
+        Expression matchExpression = new Expression();
+        String getter;
+        String operator;
+        if ("booleanMatch".equals(expression.getExpressionType())) {
+            matchExpression.setExpressionObject("EqualMatch");
+            getter = ClassMethodUtil.toIsMethod(expression.getAttribute());
+            operator = "==";
+        } else if ("stringMatch".equals(expression.getExpressionType())) {
+            matchExpression.setExpressionObject("EqualMatch");
+            getter = ClassMethodUtil.toGetMethod(expression.getAttribute());
+            operator = "==";
+        } else if ("greaterMatch".equals(expression.getExpressionType())) {
+            matchExpression.setExpressionObject("GreaterMatch");
+            getter = ClassMethodUtil.toGetMethod(expression.getAttribute());
+            operator = ">";
+        } else if ("lessMatch".equals(expression.getExpressionType())) {
+            matchExpression.setExpressionObject("LessMatch");
+            getter = ClassMethodUtil.toGetMethod(expression.getAttribute());
+            operator = "<";
+        } else if ("greaterEqualMatch".equals(expression.getExpressionType())) {
+            matchExpression.setExpressionObject("GreaterEqualMatch");
+            getter = ClassMethodUtil.toGetMethod(expression.getAttribute());
+            operator = ">=";
+        } else if ("lessEqualMatch".equals(expression.getExpressionType())) {
+            matchExpression.setExpressionObject("LessEqualMatch");
+            getter = ClassMethodUtil.toGetMethod(expression.getAttribute());
+            operator = "<=";
+        } else {
+            throw new IllegalArgumentException("filter expression [" + expression.getExpressionType() + "] not found");
+        }
+        matchExpression.setLeft("source." + getter + "()");
+        matchExpression.setRight(expression.getValue());
+        matchExpression.setInlineCode(inlineCode(sourceClass, getter, operator, matchExpression));
+        return matchExpression;
+    }
+
+    /**
+     * Compare the primitive, enum and string attributes of source directly in the generated code, rather than
+     * creating a match object for every source. Javassist doesn't box, so the other types still go through the
+     * overloaded match methods.
+     */
+    private String inlineCode(Class<?> sourceClass, String getter, String operator, Expression expression) {
+        String left = expression.getLeft();
+        String right = expression.getRight();
+        Class<?> attributeType = null;
+        if (sourceClass != null) {
+            try {
+                attributeType = sourceClass.getMethod(getter).getReturnType();
+            } catch (NoSuchMethodException e) {
+                attributeType = null;
+            }
+        }
+
+        if (attributeType != null) {
+            if (attributeType.isPrimitive()) {
+                return "(" + left + " " + operator + " " + right + ")";
+            } else if ("==".equals(operator) && attributeType.isEnum()) {
+                return "(" + left + " == " + right + ")";
+            } else if ("==".equals(operator) && attributeType.equals(String.class)) {
+                if (right.startsWith("\"")) {
+                    return right + ".equals(" + left + ")";
+                }
+                return "java.util.Objects.equals(" + left + ", " + right + ")";
+            }
+        }
+        return "new org.apache.skywalking.oap.server.core.analysis.metrics.expression." + expression.getExpressionObject() + "().match(" + left + ", " + right + ")";
+    }
+
+    private Class<?> findSourceClass(String sourceName) {
+        try {
+            return Class.forName(SOURCE_PACKAGE + sourceName);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
 }
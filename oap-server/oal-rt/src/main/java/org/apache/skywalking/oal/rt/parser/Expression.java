@@ -28,6 +28,10 @@ public class Expression {
     private String expressionObject;
     private String left;
     private String right;
+    /**
+     * The boolean expression in java, generated into the dispatcher.
+     */
+    private String inlineCode;
 
     public void setLeft(String left) {
         this.left = left;
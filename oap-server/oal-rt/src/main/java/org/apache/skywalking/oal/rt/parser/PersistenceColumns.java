@@ -26,6 +26,7 @@ public class PersistenceColumns {
     private List<PersistenceField> doubleFields = new LinkedList<>();
     private List<PersistenceField> intFields = new LinkedList<>();
     private List<PersistenceField> intKeyLongValueHashMap = new LinkedList<>();
+    private List<PersistenceField> quantileSketchFields = new LinkedList<>();
 
     public void addStringField(String fieldName) {
         stringFields.add(new PersistenceField(fieldName));
@@ -47,6 +48,10 @@ public class PersistenceColumns {
         intKeyLongValueHashMap.add(new PersistenceField(fieldName));
     }
 
+    public void addQuantileSketchField(String fieldName) {
+        quantileSketchFields.add(new PersistenceField(fieldName));
+    }
+
     public List<PersistenceField> getStringFields() {
         return stringFields;
     }
@@ -66,4 +71,8 @@ public class PersistenceColumns {
     public List<PersistenceField> getIntKeyLongValueHashMapFields() {
         return intKeyLongValueHashMap;
     }
+
+    public List<PersistenceField> getQuantileSketchFields() {
+        return quantileSketchFields;
+    }
 }
@@ -1,14 +1,13 @@
 private void do${metricsName}(org.apache.skywalking.oap.server.core.source.${sourceName} source) {
-    org.apache.skywalking.oal.rt.metrics.${metricsName}Metrics metrics = new org.apache.skywalking.oal.rt.metrics.${metricsName}Metrics();
-
     <#if filterExpressions??>
         <#list filterExpressions as filterExpression>
-            if (!new org.apache.skywalking.oap.server.core.analysis.metrics.expression.${filterExpression.expressionObject}().match(${filterExpression.left}, ${filterExpression.right})) {
+            if (!${filterExpression.inlineCode}) {
                 return;
             }
         </#list>
     </#if>
 
+    org.apache.skywalking.oal.rt.metrics.${metricsName}Metrics metrics = new org.apache.skywalking.oal.rt.metrics.${metricsName}Metrics();
     metrics.setTimeBucket(source.getTimeBucket());
     <#list fieldsFromSource as field>
         metrics.${field.fieldSetter}(source.${field.fieldGetter}());
@@ -18,7 +17,7 @@ private void do${metricsName}(org.apache.skywalking.oap.server.core.source.${sou
             <#if entryMethod.argTypes[arg_index] == 1>
                 ${arg}
             <#else>
-                 new org.apache.skywalking.oap.server.core.analysis.metrics.expression.${arg.expressionObject}().match(${arg.left}, ${arg.right})
+                ${arg.inlineCode}
             </#if><#if arg_has_next>, </#if>
         </#list>);
 
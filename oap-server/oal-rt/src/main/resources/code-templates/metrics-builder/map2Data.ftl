@@ -14,6 +14,8 @@ public org.apache.skywalking.oap.server.core.storage.StorageData map2Data(java.u
             metrics.${field.fieldSetter}(((Number)dbMap.get("${field.columnName}")).${field.typeName}Value());
         <#elseif field.typeName == "java.lang.String">
             metrics.${field.fieldSetter}((String)dbMap.get("${field.columnName}"));
+        <#elseif field.typeName == "org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap">
+            metrics.${field.fieldSetter}(${field.typeName}.fromStorageData(dbMap.get("${field.columnName}")));
         <#else>
             metrics.${field.fieldSetter}(new ${field.typeName}((String)dbMap.get("${field.columnName}")));
         </#if>
@@ -2,6 +2,9 @@ public void deserialize(org.apache.skywalking.oap.server.core.remote.grpc.proto.
     <#list serializeFields.stringFields as field>
         ${field.setter}(remoteData.getDataStrings(${field?index}));
     </#list>
+    <#list serializeFields.quantileSketchFields as field>
+        ${field.setter}(new org.apache.skywalking.oap.server.core.analysis.metrics.QuantileSketch(remoteData.getDataStrings(${serializeFields.stringFields?size + field?index})));
+    </#list>
 
     <#list serializeFields.longFields as field>
         ${field.setter}(remoteData.getDataLongs(${field?index}));
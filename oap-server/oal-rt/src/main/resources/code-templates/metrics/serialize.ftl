@@ -3,6 +3,9 @@ public org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData.Builde
     <#list serializeFields.stringFields as field>
         remoteBuilder.addDataStrings(${field.getter}());
     </#list>
+    <#list serializeFields.quantileSketchFields as field>
+        remoteBuilder.addDataStrings(${field.getter}().toStorageData());
+    </#list>
 
     <#list serializeFields.longFields as field>
         remoteBuilder.addDataLongs(${field.getter}());
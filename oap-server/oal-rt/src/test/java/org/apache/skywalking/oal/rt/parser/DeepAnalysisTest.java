@@ -124,5 +124,40 @@ public class DeepAnalysisTest {
         Assert.assertEquals("EqualMatch", filterExpression.getExpressionObject());
         Assert.assertEquals("source.getName()", filterExpression.getLeft());
         Assert.assertEquals("\"/service/prod/save\"", filterExpression.getRight());
+        Assert.assertEquals("\"/service/prod/save\".equals(source.getName())", filterExpression.getInlineCode());
+    }
+
+    @Test
+    public void testInlineFilterAnalysis() {
+        AnalysisResult result = new AnalysisResult();
+        result.setSourceName("Endpoint");
+        result.setPackageName("endpoint.endpointavg");
+        result.setSourceAttribute("latency");
+        result.setMetricsName("EndpointAvg");
+        result.setAggregationFunctionName("longAvg");
+        ConditionExpression latency = new ConditionExpression();
+        latency.setExpressionType("greaterMatch");
+        latency.setAttribute("latency");
+        latency.setValue("1000");
+        result.addFilterExpressionsParserResult(latency);
+        ConditionExpression status = new ConditionExpression();
+        status.setExpressionType("booleanMatch");
+        status.setAttribute("status");
+        status.setValue("false");
+        result.addFilterExpressionsParserResult(status);
+        ConditionExpression type = new ConditionExpression();
+        type.setExpressionType("stringMatch");
+        type.setAttribute("type");
+        type.setValue("org.apache.skywalking.oap.server.core.source.RequestType.RPC");
+        result.addFilterExpressionsParserResult(type);
+
+        DeepAnalysis analysis = new DeepAnalysis();
+        result = analysis.analysis(result);
+
+        List<Expression> filterExpressions = result.getFilterExpressions();
+        Assert.assertEquals(3, filterExpressions.size());
+        Assert.assertEquals("(source.getLatency() > 1000)", filterExpressions.get(0).getInlineCode());
+        Assert.assertEquals("(source.isStatus() == false)", filterExpressions.get(1).getInlineCode());
+        Assert.assertEquals("(source.getType() == org.apache.skywalking.oap.server.core.source.RequestType.RPC)", filterExpressions.get(2).getInlineCode());
     }
 }
@@ -35,15 +35,14 @@ public class ServiceDispatcher implements SourceDispatcher<Service> {
     }
 
     private void doServiceAvg(Service source) {
-        ServiceAvgMetrics metrics = new ServiceAvgMetrics();
-
-        if (!new EqualMatch().setLeft(source.getName()).setRight("/service/prod/save").match()) {
+        if (!"/service/prod/save".equals(source.getName())) {
             return;
         }
-        if (!new GreaterMatch().match(source.getLatency(), 1000)) {
+        if (!(source.getLatency() > 1000)) {
             return;
         }
 
+        ServiceAvgMetrics metrics = new ServiceAvgMetrics();
         metrics.setTimeBucket(source.getTimeBucket());
         metrics.setEntityId(source.getEntityId());
         metrics.combine(source.getLatency(), 1);
@@ -26,27 +26,27 @@ import org.apache.skywalking.oap.server.core.analysis.metrics.LongValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.joda.time.LocalDateTime;
-import org.joda.time.Minutes;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * RunningRule represents each rule in running status. Based on the {@link AlarmRule} definition,
  *
+ * The windows are checked in parallel, by the bulk operation of the {@link ConcurrentHashMap}, when there are more
+ * than {@link #PARALLELISM_THRESHOLD} of them.
+ *
  * @author wusheng
  */
 public class RunningRule {
     private static final Logger logger = LoggerFactory.getLogger(RunningRule.class);
-    private static DateTimeFormatter TIME_BUCKET_FORMATTER = DateTimeFormat.forPattern("yyyyMMddHHmm");
+    private static final long PARALLELISM_THRESHOLD = 1000;
 
     private String ruleName;
     private int period;
@@ -55,7 +55,7 @@ public class RunningRule {
     private final OP op;
     private final int countThreshold;
     private final int silencePeriod;
-    private Map<MetaInAlarm, Window> windows;
+    private ConcurrentHashMap<MetaInAlarm, Window> windows;
     private volatile MetricsValueType valueType;
     private int targetScopeId;
     private List<String> includeNames;
@@ -115,15 +115,28 @@ public class RunningRule {
         }
 
         if (valueType != null) {
+            long minute = minuteOf(metrics.getTimeBucket());
             Window window = windows.get(meta);
             if (window == null) {
-                window = new Window(period);
-                LocalDateTime timebucket = TIME_BUCKET_FORMATTER.parseLocalDateTime(metrics.getTimeBucket() + "");
-                window.moveTo(timebucket);
-                windows.put(meta, window);
+                window = windows.computeIfAbsent(meta, key -> new Window(period, minute));
             }
 
-            window.add(metrics);
+            window.add(minute, valueBits(metrics));
+        }
+    }
+
+    /**
+     * The value is kept as the raw bits of long, the double value is converted by {@link
+     * Double#doubleToRawLongBits(double)}.
+     */
+    private long valueBits(Metrics metrics) {
+        switch (valueType) {
+            case LONG:
+                return ((LongValueHolder)metrics).getValue();
+            case INT:
+                return ((IntValueHolder)metrics).getValue();
+            default:
+                return Double.doubleToRawLongBits(((DoubleValueHolder)metrics).getValue());
         }
     }
 
@@ -133,18 +146,17 @@ public class RunningRule {
      * @param targetTime of moving target
      */
     public void moveTo(LocalDateTime targetTime) {
-        windows.values().forEach(window -> window.moveTo(targetTime));
+        long minute = minuteOf(targetTime);
+        windows.forEachValue(PARALLELISM_THRESHOLD, window -> window.moveTo(minute));
     }
 
     /**
      * Check the conditions, decide to whether trigger alarm.
      */
     public List<AlarmMessage> check() {
-        List<AlarmMessage> alarmMessageList = new ArrayList<>(30);
+        ConcurrentLinkedQueue<AlarmMessage> alarmMessages = new ConcurrentLinkedQueue<>();
 
-        windows.entrySet().forEach(entry -> {
-            MetaInAlarm meta = entry.getKey();
-            Window window = entry.getValue();
+        windows.forEach(PARALLELISM_THRESHOLD, (meta, window) -> {
             AlarmMessage alarmMessage = window.checkAlarm();
             if (alarmMessage != AlarmMessage.NONE) {
                 alarmMessage.setScopeId(meta.getScopeId());
@@ -155,93 +167,91 @@ public class RunningRule {
                 alarmMessage.setRuleName(this.ruleName);
                 alarmMessage.setAlarmMessage(formatter.format(meta));
                 alarmMessage.setStartTime(System.currentTimeMillis());
-                alarmMessageList.add(alarmMessage);
+                alarmMessages.add(alarmMessage);
             }
         });
 
-        return alarmMessageList;
+        return new ArrayList<>(alarmMessages);
     }
 
+    /**
+     * @param timeBucket in the format of yyyyMMddHHmm
+     * @return the minutes since 1970-01-01 00:00, computed from the digits directly rather than parsing the date.
+     */
+    static long minuteOf(long timeBucket) {
+        int minute = (int)(timeBucket % 100);
+        int hour = (int)(timeBucket / 100 % 100);
+        int day = (int)(timeBucket / 10000 % 100);
+        int month = (int)(timeBucket / 1000000 % 100);
+        int year = (int)(timeBucket / 100000000);
+        return minuteOf(year, month, day, hour, minute);
+    }
 
+    static long minuteOf(LocalDateTime time) {
+        return minuteOf(time.getYear(), time.getMonthOfYear(), time.getDayOfMonth(), time.getHourOfDay(), time.getMinuteOfHour());
+    }
+
+    /**
+     * The days of the proleptic Gregorian calendar since 1970-01-01, the year starts from March in the computation, so
+     * the leap day is the last day of the year.
+     */
+    private static long minuteOf(int year, int month, int day, int hour, int minute) {
+        int y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long epochDay = era * 146097 + dayOfEra - 719468;
+        return (epochDay * 24 + hour) * 60 + minute;
+    }
 
     /**
      * A metrics window, based on {@link AlarmRule#period}. This window slides with time, just keeps the recent
      * N(period) buckets.
      *
+     * The buckets are a ring indexed by the minute modulo the period. Every slot keeps the minute it belongs to, the
+     * value is valid only if the minute is still in the window, so moving the window doesn't touch the slots. The value
+     * is written before its minute, the checker reads the minute first, then the value written with it is visible.
+     *
      * @author wusheng
      */
     public class Window {
-        private LocalDateTime endTime;
+        private final AtomicLong endMinute;
         private int period;
         private int counter;
         private int silenceCountdown;
 
-        private LinkedList<Metrics> values;
-        private ReentrantLock lock = new ReentrantLock();
+        private final AtomicLongArray minutes;
+        private final AtomicLongArray values;
 
-        public Window(int period) {
+        public Window(int period, long endMinute) {
             this.period = period;
+            this.endMinute = new AtomicLong(endMinute);
             // -1 means silence countdown is not running.
             silenceCountdown = -1;
             counter = 0;
-            init();
-        }
-
-        public void moveTo(LocalDateTime current) {
-            lock.lock();
-            try {
-                if (endTime == null) {
-                    init();
-                    endTime = current;
-                } else {
-                    int minutes = Minutes.minutesBetween(endTime, current).getMinutes();
-                    if (minutes <= 0) {
-                        return;
-                    }
-                    if (minutes > values.size()) {
-                        // re-init
-                        init();
-                    } else {
-                        for (int i = 0; i < minutes; i++) {
-                            values.removeFirst();
-                            values.addLast(null);
-                        }
-                    }
-                    endTime = current;
-                }
-            } finally {
-                lock.unlock();
+            minutes = new AtomicLongArray(period);
+            for (int i = 0; i < period; i++) {
+                minutes.set(i, Long.MIN_VALUE);
             }
+            values = new AtomicLongArray(period);
         }
 
-        public void add(Metrics metrics) {
-            long bucket = metrics.getTimeBucket();
-
-            LocalDateTime timebucket = TIME_BUCKET_FORMATTER.parseLocalDateTime(bucket + "");
-
-            int minutes = Minutes.minutesBetween(timebucket, endTime).getMinutes();
-            if (minutes == -1) {
-                this.moveTo(timebucket);
+        public void moveTo(long minute) {
+            endMinute.accumulateAndGet(minute, Math::max);
+        }
 
+        public void add(long minute, long valueBits) {
+            long end = endMinute.accumulateAndGet(minute, Math::max);
+            if (minute <= end - period) {
+                // too old data
+                // also should happen, but maybe if agent/probe mechanism time is not right.
+                return;
             }
 
-            lock.lock();
-            try {
-                if (minutes < 0) {
-                    moveTo(timebucket);
-                    minutes = 0;
-                }
-
-                if (minutes >= values.size()) {
-                    // too old data
-                    // also should happen, but maybe if agent/probe mechanism time is not right.
-                    return;
-                }
-
-                values.set(values.size() - minutes - 1, metrics);
-            } finally {
-                lock.unlock();
-            }
+            int slot = (int)Math.floorMod(minute, (long)period);
+            values.set(slot, valueBits);
+            minutes.set(slot, minute);
         }
 
         public AlarmMessage checkAlarm() {
@@ -272,51 +282,36 @@ public class RunningRule {
         }
 
         private boolean isMatch() {
+            long end = endMinute.get();
             int matchCount = 0;
-            for (Metrics metrics : values) {
-                if (metrics == null) {
+            for (int i = 0; i < period; i++) {
+                long minute = minutes.get(i);
+                if (minute <= end - period || minute > end) {
                     continue;
                 }
 
+                long bits = values.get(i);
                 switch (valueType) {
                     case LONG:
-                        long lvalue = ((LongValueHolder)metrics).getValue();
-                        long lexpected = RunningRule.this.threshold.getLongThreshold();
+                    case INT:
+                        long lexpected = valueType == MetricsValueType.LONG ? RunningRule.this.threshold.getLongThreshold() : RunningRule.this.threshold.getIntThreshold();
                         switch (op) {
                             case GREATER:
-                                if (lvalue > lexpected)
-                                    matchCount++;
-                                break;
-                            case LESS:
-                                if (lvalue < lexpected)
-                                    matchCount++;
-                                break;
-                            case EQUAL:
-                                if (lvalue == lexpected)
+                                if (bits > lexpected)
                                     matchCount++;
                                 break;
-                        }
-                        break;
-                    case INT:
-                        int ivalue = ((IntValueHolder)metrics).getValue();
-                        int iexpected = RunningRule.this.threshold.getIntThreshold();
-                        switch (op) {
                             case LESS:
-                                if (ivalue < iexpected)
-                                    matchCount++;
-                                break;
-                            case GREATER:
-                                if (ivalue > iexpected)
+                                if (bits < lexpected)
                                     matchCount++;
                                 break;
                             case EQUAL:
-                                if (ivalue == iexpected)
+                                if (bits == lexpected)
                                     matchCount++;
                                 break;
                         }
                         break;
                     case DOUBLE:
-                        double dvalue = ((DoubleValueHolder)metrics).getValue();
+                        double dvalue = Double.longBitsToDouble(bits);
                         double dexpected = RunningRule.this.threshold.getDoubleThreadhold();
                         switch (op) {
                             case EQUAL:
@@ -341,12 +336,5 @@ public class RunningRule {
             // Reach the threshold in current bucket.
             return matchCount >= countThreshold;
         }
-
-        private void init() {
-            values = new LinkedList();
-            for (int i = 0; i < period; i++) {
-                values.add(null);
-            }
-        }
     }
 }
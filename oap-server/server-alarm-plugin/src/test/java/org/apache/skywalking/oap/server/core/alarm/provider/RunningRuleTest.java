@@ -19,11 +19,12 @@
 package org.apache.skywalking.oap.server.core.alarm.provider;
 
 import java.util.*;
+import java.util.concurrent.atomic.*;
 import org.apache.skywalking.oap.server.core.alarm.*;
 import org.apache.skywalking.oap.server.core.analysis.metrics.*;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
-import org.joda.time.LocalDateTime;
+import org.joda.time.*;
 import org.joda.time.format.*;
 import org.junit.*;
 import org.powermock.reflect.Whitebox;
@@ -56,13 +57,24 @@ public class RunningRuleTest {
         Map<MetaInAlarm, RunningRule.Window> windows = Whitebox.getInternalState(runningRule, "windows");
 
         RunningRule.Window window = windows.get(getMetaInAlarm(123));
-        LocalDateTime endTime = Whitebox.getInternalState(window, "endTime");
+        AtomicLong endMinute = Whitebox.getInternalState(window, "endMinute");
         int period = Whitebox.getInternalState(window, "period");
-        LinkedList<Metrics> metricsBuffer = Whitebox.getInternalState(window, "values");
+        AtomicLongArray values = Whitebox.getInternalState(window, "values");
 
-        Assert.assertTrue(startTime.equals(endTime));
+        Assert.assertEquals(RunningRule.minuteOf(startTime), endMinute.get());
         Assert.assertEquals(15, period);
-        Assert.assertEquals(15, metricsBuffer.size());
+        Assert.assertEquals(15, values.length());
+    }
+
+    @Test
+    public void testMinuteOfTimeBucket() {
+        String[] timeBuckets = {"197001010000", "196912312359", "201602282359", "201602291200", "201603010000", "201812312359", "210003011530"};
+        for (String timeBucket : timeBuckets) {
+            LocalDateTime time = TIME_BUCKET_FORMATTER.parseLocalDateTime(timeBucket);
+            long expected = time.toDateTime(DateTimeZone.UTC).getMillis() / 60000;
+            Assert.assertEquals(expected, RunningRule.minuteOf(Long.parseLong(timeBucket)));
+            Assert.assertEquals(expected, RunningRule.minuteOf(time));
+        }
     }
 
     @Test
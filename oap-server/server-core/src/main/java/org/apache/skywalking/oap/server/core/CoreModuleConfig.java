@@ -38,12 +38,75 @@ public class CoreModuleConfig extends ModuleConfig {
     @Setter private int maxConcurrentCallsPerConnection;
     @Setter private int maxMessageSize;
     @Setter private boolean enableDatabaseSession;
+    /**
+     * The max number of metrics cached in the database session of each metrics persistent worker.
+     */
+    @Setter private int maxSizeOfDatabaseSession = 100_000;
+    /**
+     * Save the detail groups of the percentile and thermodynamic metrics in the compact binary encoding, in the binary
+     * columns, rather than the key,value|key,value string. The column type is decided when the table or index is
+     * created, so don't switch it on the existing storage.
+     */
+    @Setter private boolean groupMetricsBinaryEncoding = false;
+    /**
+     * The period of writing the hour, day and month metrics rolled up in memory, they are also written when a newer
+     * time bucket arrives. 0 means writing them in every persistence round. Unit is second.
+     */
+    @Setter private int downsamplingFlushPeriod = 60;
+    /**
+     * The number of the workers, each with its own consumer, sharing the top N of one stream by the key of the data.
+     */
+    @Setter private int topNShards = 2;
+    /**
+     * The period of writing the inventory updates which only move the heartbeat time forward, 0 means writing them
+     * at once. Unit is second.
+     */
+    @Setter private int inventoryHeartbeatFlushPeriod = 10;
+    /**
+     * The seconds to remember the inventory names not found in the storage, the lookups of them in the meantime don't
+     * query the storage again. 0 means never remember. Unit is second.
+     */
+    @Setter private int inventoryMissCacheTTL = 1;
+    /**
+     * The number of sampled traces in 3 seconds pushed to the agents in the heartbeat responses, it overrides the
+     * local settings of the agents. Negative or zero means the agents use their local settings.
+     */
+    @Setter private int agentSampleNPer3Secs = 0;
     private final List<String> downsampling;
     /**
      * The period of doing data persistence.
      * Unit is second.
      */
     @Setter private long persistentPeriod = 3;
+    /**
+     * The number of threads building the batch requests of the persistence workers in parallel.
+     */
+    @Setter private int persistentPrepareThreads = 2;
+    /**
+     * The max number of requests in one batch execution of the storage.
+     */
+    @Setter private int persistentBatchSize = 5000;
+    /**
+     * The max number of prepared batches waiting for the storage execution. The prepare threads are blocked when it is
+     * reached.
+     */
+    @Setter private int persistentMaxPendingBatches = 10;
+    /**
+     * The number of threads executing the independent storage queries of one query concurrently.
+     */
+    @Setter private int queryThreads = 8;
+    /**
+     * The deadline of the concurrent storage queries. Unit is second.
+     */
+    @Setter private int queryTimeout = 30;
+    /**
+     * The max number of cached query results of the finished time ranges, 0 means no cache.
+     */
+    @Setter private int queryResultCacheSize = 1000;
+    /**
+     * The max number of spans of a trace queried at once, the larger traces are queried by pages of the tree order.
+     */
+    @Setter private int maxSpansOfTrace = 10_000;
     @Setter private boolean enableDataKeeperExecutor = true;
     @Setter private int dataKeeperExecutePeriod = 5;
     @Setter private int recordDataTTL;
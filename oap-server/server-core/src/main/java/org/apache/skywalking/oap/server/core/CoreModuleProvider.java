@@ -22,6 +22,7 @@ import java.io.IOException;
 import org.apache.skywalking.oap.server.configuration.api.ConfigurationModule;
 import org.apache.skywalking.oap.server.core.analysis.*;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.analysis.worker.TopNStreamProcessor;
 import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
 import org.apache.skywalking.oap.server.core.cache.*;
 import org.apache.skywalking.oap.server.core.cluster.*;
@@ -30,6 +31,7 @@ import org.apache.skywalking.oap.server.core.config.*;
 import org.apache.skywalking.oap.server.core.oal.rt.*;
 import org.apache.skywalking.oap.server.core.query.*;
 import org.apache.skywalking.oap.server.core.register.service.*;
+import org.apache.skywalking.oap.server.core.register.worker.InventoryStreamProcessor;
 import org.apache.skywalking.oap.server.core.remote.*;
 import org.apache.skywalking.oap.server.core.remote.client.*;
 import org.apache.skywalking.oap.server.core.remote.health.HealthCheckServiceHandler;
@@ -153,16 +155,17 @@ public class CoreModuleProvider extends ModuleProvider {
         this.registerServiceImplementation(NetworkAddressInventoryCache.class, new NetworkAddressInventoryCache(getManager(), moduleConfig));
         this.registerServiceImplementation(INetworkAddressInventoryRegister.class, new NetworkAddressInventoryRegister(getManager()));
 
-        this.registerServiceImplementation(TopologyQueryService.class, new TopologyQueryService(getManager()));
-        this.registerServiceImplementation(MetricQueryService.class, new MetricQueryService(getManager()));
-        this.registerServiceImplementation(TraceQueryService.class, new TraceQueryService(getManager()));
+        QueryExecutor queryExecutor = new QueryExecutor(moduleConfig.getQueryThreads(), moduleConfig.getQueryTimeout(), moduleConfig.getQueryResultCacheSize());
+        this.registerServiceImplementation(TopologyQueryService.class, new TopologyQueryService(getManager(), queryExecutor));
+        this.registerServiceImplementation(MetricQueryService.class, new MetricQueryService(getManager(), queryExecutor));
+        this.registerServiceImplementation(TraceQueryService.class, new TraceQueryService(getManager(), moduleConfig.getMaxSpansOfTrace()));
         this.registerServiceImplementation(LogQueryService.class, new LogQueryService(getManager()));
         this.registerServiceImplementation(MetadataQueryService.class, new MetadataQueryService(getManager()));
         this.registerServiceImplementation(AggregationQueryService.class, new AggregationQueryService(getManager()));
         this.registerServiceImplementation(AlarmQueryService.class, new AlarmQueryService(getManager()));
         this.registerServiceImplementation(TopNRecordsQueryService.class, new TopNRecordsQueryService(getManager()));
 
-        this.registerServiceImplementation(CommandService.class, new CommandService(getManager()));
+        this.registerServiceImplementation(CommandService.class, new CommandService(getManager(), moduleConfig.getAgentSampleNPer3Secs()));
 
         annotationScan.registerListener(streamAnnotationListener);
 
@@ -170,6 +173,10 @@ public class CoreModuleProvider extends ModuleProvider {
         this.registerServiceImplementation(RemoteClientManager.class, remoteClientManager);
 
         MetricsStreamProcessor.getInstance().setEnableDatabaseSession(moduleConfig.isEnableDatabaseSession());
+        MetricsStreamProcessor.getInstance().setMaxSizeOfDatabaseSession(moduleConfig.getMaxSizeOfDatabaseSession());
+        MetricsStreamProcessor.getInstance().setDownsamplingFlushPeriod(moduleConfig.getDownsamplingFlushPeriod());
+        TopNStreamProcessor.getInstance().setShards(moduleConfig.getTopNShards());
+        InventoryStreamProcessor.getInstance().setHeartbeatFlushPeriod(moduleConfig.getInventoryHeartbeatFlushPeriod());
     }
 
     @Override public void start() throws ModuleStartException {
@@ -21,9 +21,14 @@ package org.apache.skywalking.oap.server.core.analysis.data;
 import java.util.*;
 import org.apache.skywalking.oap.server.core.storage.ComparableStorageData;
 
+/**
+ * Keep the top N data of every key, such as the slowest statements of every service. The top N of one key is a min
+ * heap, so a data not greater than the smallest one is rejected by one comparison when the heap is full, otherwise it
+ * replaces the smallest one in O(log N).
+ */
 public class LimitedSizeDataCollection<STORAGE_DATA extends ComparableStorageData> implements SWCollection<STORAGE_DATA> {
 
-    private final HashMap<STORAGE_DATA, LinkedList<STORAGE_DATA>> data;
+    private final HashMap<STORAGE_DATA, PriorityQueue<STORAGE_DATA>> data;
     private final int limitedSize;
     private volatile boolean writing;
     private volatile boolean reading;
@@ -75,41 +80,41 @@ public class LimitedSizeDataCollection<STORAGE_DATA extends ComparableStorageDat
         throw new UnsupportedOperationException("Limited size data collection doesn't support get operation.");
     }
 
-    @Override public void put(STORAGE_DATA value) {
-        LinkedList<STORAGE_DATA> storageDataList = this.data.get(value);
-        if (storageDataList == null) {
-            storageDataList = new LinkedList<>();
-            data.put(value, storageDataList);
-        }
+    @Override public STORAGE_DATA merge(STORAGE_DATA value) {
+        throw new UnsupportedOperationException("Limited size data collection doesn't support merge operation.");
+    }
 
-        if (storageDataList.size() < limitedSize) {
-            storageDataList.add(value);
-            return;
+    @Override public void put(STORAGE_DATA value) {
+        PriorityQueue<STORAGE_DATA> topN = data.get(value);
+        if (topN == null) {
+            topN = new PriorityQueue<>(limitedSize);
+            data.put(value, topN);
         }
 
-        for (int i = 0; i < storageDataList.size(); i++) {
-            STORAGE_DATA storageData = storageDataList.get(i);
-            if (value.compareTo(storageData) <= 0) {
-                if (i == 0) {
-                    // input value is less than the smallest in top N list, ignore
-                } else {
-                    // Remove the smallest in top N list
-                    // add the current value into the right position
-                    storageDataList.add(i, value);
-                    storageDataList.removeFirst();
-                }
-                return;
-            }
+        if (topN.size() < limitedSize) {
+            topN.offer(value);
+        } else if (value.compareTo(topN.peek()) > 0) {
+            // Replace the smallest in top N list
+            topN.poll();
+            topN.offer(value);
         }
-
-        // Add the value as biggest in top N list
-        storageDataList.addLast(value);
-        storageDataList.removeFirst();
     }
 
+    /**
+     * @return the top N of every key, in ascending order of each key.
+     */
     @Override public Collection<STORAGE_DATA> collection() {
-        List<STORAGE_DATA> collection = new ArrayList<>();
-        data.values().forEach(e -> e.forEach(collection::add));
+        int size = 0;
+        for (PriorityQueue<STORAGE_DATA> topN : data.values()) {
+            size += topN.size();
+        }
+
+        List<STORAGE_DATA> collection = new ArrayList<>(size);
+        for (PriorityQueue<STORAGE_DATA> topN : data.values()) {
+            int from = collection.size();
+            collection.addAll(topN);
+            Collections.sort(collection.subList(from, collection.size()));
+        }
         return collection;
     }
 }
@@ -43,6 +43,10 @@ public class MergeDataCache<METRICS extends Metrics> extends Window<METRICS> imp
         lockedMergeDataCollection.put(data);
     }
 
+    public METRICS merge(METRICS data) {
+        return lockedMergeDataCollection.merge(data);
+    }
+
     @Override public void writing() {
         lockedMergeDataCollection = getCurrentAndWriting();
     }
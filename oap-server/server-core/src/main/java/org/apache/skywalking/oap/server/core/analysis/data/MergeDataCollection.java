@@ -19,19 +19,38 @@
 package org.apache.skywalking.oap.server.core.analysis.data;
 
 import java.util.*;
-import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 
 /**
+ * MergeDataCollection is an open-addressing hash table, keyed by the precomputed 64-bit {@link Metrics#idHash()}. The
+ * {@link Metrics#equals(Object)} is only called when the id hashes match, and {@link #merge(Metrics)} finishes the
+ * lookup, combine or insert by one probe sequence.
+ *
+ * The slot arrays are kept after {@link #clear()}, so the collection is reused across the window switches without
+ * reallocating.
+ *
  * @author peng-yongsheng
  */
-public class MergeDataCollection<STREAM_DATA extends StreamData> implements SWCollection<STREAM_DATA> {
+public class MergeDataCollection<METRICS extends Metrics> implements SWCollection<METRICS> {
+
+    private static final int DEFAULT_CAPACITY = 1024;
 
-    private Map<STREAM_DATA, STREAM_DATA> collection;
+    private long[] hashes;
+    private Metrics[] values;
+    private int mask;
+    private int size;
     private volatile boolean writing;
     private volatile boolean reading;
 
     MergeDataCollection() {
-        this.collection = new HashMap<>();
+        this(DEFAULT_CAPACITY);
+    }
+
+    MergeDataCollection(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1;
+        this.hashes = new long[capacity];
+        this.values = new Metrics[capacity];
+        this.mask = capacity - 1;
         this.writing = false;
         this.reading = false;
     }
@@ -60,27 +79,127 @@ public class MergeDataCollection<STREAM_DATA extends StreamData> implements SWCo
         return reading;
     }
 
-    @Override public boolean containsKey(STREAM_DATA key) {
-        return collection.containsKey(key);
+    @Override public boolean containsKey(METRICS key) {
+        return get(key) != null;
+    }
+
+    @Override public void put(METRICS value) {
+        long hash = value.idHash();
+        int index = indexOf(value, hash);
+        if (values[index] == null) {
+            insert(index, hash, value);
+        } else {
+            values[index] = value;
+        }
+    }
+
+    @Override public METRICS get(METRICS key) {
+        return (METRICS)values[indexOf(key, key.idHash())];
     }
 
-    @Override public void put(STREAM_DATA value) {
-        collection.put(value, value);
+    @Override public METRICS merge(METRICS value) {
+        long hash = value.idHash();
+        int index = indexOf(value, hash);
+        Metrics existing = values[index];
+        if (existing == null) {
+            insert(index, hash, value);
+            return value;
+        }
+        existing.combine(value);
+        return (METRICS)existing;
     }
 
-    @Override public STREAM_DATA get(STREAM_DATA key) {
-        return collection.get(key);
+    /**
+     * @return the slot holding the key, or the empty slot where the key should be inserted.
+     */
+    private int indexOf(Metrics key, long hash) {
+        int index = spread(hash) & mask;
+        while (true) {
+            Metrics value = values[index];
+            if (value == null || (hashes[index] == hash && value.equals(key))) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void insert(int index, long hash, Metrics value) {
+        hashes[index] = hash;
+        values[index] = value;
+        size++;
+        // Keep the load factor under 0.5, the probe sequences stay short.
+        if (size << 1 > values.length) {
+            resize(values.length << 1);
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldHashes = hashes;
+        Metrics[] oldValues = values;
+        hashes = new long[capacity];
+        values = new Metrics[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = spread(oldHashes[i]) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                hashes[index] = oldHashes[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private static int spread(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int)hash;
     }
 
     @Override public int size() {
-        return collection.size();
+        return size;
     }
 
     @Override public void clear() {
-        collection.clear();
+        if (size > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    @Override public Collection<METRICS> collection() {
+        return new AbstractCollection<METRICS>() {
+            @Override public Iterator<METRICS> iterator() {
+                return new Iterator<METRICS>() {
+                    private int index = nextIndex(0);
+
+                    @Override public boolean hasNext() {
+                        return index < values.length;
+                    }
+
+                    @Override public METRICS next() {
+                        if (index >= values.length) {
+                            throw new NoSuchElementException();
+                        }
+                        METRICS value = (METRICS)values[index];
+                        index = nextIndex(index + 1);
+                        return value;
+                    }
+                };
+            }
+
+            @Override public int size() {
+                return size;
+            }
+        };
     }
 
-    @Override public Collection<STREAM_DATA> collection() {
-        return collection.values();
+    private int nextIndex(int from) {
+        while (from < values.length && values[from] == null) {
+            from++;
+        }
+        return from;
     }
 }
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.*;
+import lombok.Getter;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * MetricsSessionCache holds the metrics read from the storage, to avoid reading them again in the following
+ * persistence rounds. It is bounded by size, and evicts the least recently used one when full. At the end of each
+ * round, the metrics older than the oldest time bucket flushed in the latest two rounds are evicted, as they are not
+ * going to be updated anymore.
+ *
+ * It is not thread safe, only accessed by the persistence worker when preparing the batch.
+ */
+public class MetricsSessionCache {
+
+    private final LinkedHashMap<Metrics, Metrics> cache;
+    private long currentRoundOldestTimeBucket = Long.MAX_VALUE;
+    private long lastRoundOldestTimeBucket = Long.MAX_VALUE;
+
+    @Getter private long hitCount;
+    @Getter private long missCount;
+    @Getter private long evictionCount;
+
+    public MetricsSessionCache(int maxSize) {
+        this.cache = new LinkedHashMap<Metrics, Metrics>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Metrics, Metrics> eldest) {
+                if (size() > maxSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the cached metrics, or null if it isn't in the cache. The hit and miss are counted.
+     */
+    public Metrics get(Metrics key) {
+        Metrics metrics = cache.get(key);
+        if (metrics == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return metrics;
+    }
+
+    public void put(Metrics metrics) {
+        cache.put(metrics, metrics);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Record the time bucket of the metrics flushed in the current round.
+     */
+    public void flushed(long timeBucket) {
+        if (timeBucket < currentRoundOldestTimeBucket) {
+            currentRoundOldestTimeBucket = timeBucket;
+        }
+    }
+
+    /**
+     * Evict the metrics older than the oldest time bucket flushed in the latest two rounds.
+     */
+    public void endOfRound() {
+        long oldestTimeBucket = Math.min(lastRoundOldestTimeBucket, currentRoundOldestTimeBucket);
+        if (oldestTimeBucket != Long.MAX_VALUE) {
+            Iterator<Metrics> iterator = cache.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getTimeBucket() < oldestTimeBucket) {
+                    iterator.remove();
+                    evictionCount++;
+                }
+            }
+        }
+        lastRoundOldestTimeBucket = currentRoundOldestTimeBucket;
+        currentRoundOldestTimeBucket = Long.MAX_VALUE;
+    }
+}
@@ -76,6 +76,10 @@ public class NonMergeDataCollection<STORAGE_DATA extends StorageData> implements
         throw new UnsupportedOperationException("Non merge data collection doesn't support get operation.");
     }
 
+    @Override public STORAGE_DATA merge(STORAGE_DATA value) {
+        throw new UnsupportedOperationException("Non merge data collection doesn't support merge operation.");
+    }
+
     @Override public void put(STORAGE_DATA value) {
         data.add(value);
     }
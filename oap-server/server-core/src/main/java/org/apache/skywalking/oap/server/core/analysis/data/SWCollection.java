@@ -48,4 +48,12 @@ public interface SWCollection<DATA> {
     DATA get(DATA key);
 
     void put(DATA value);
+
+    /**
+     * Put the value into the collection, or combine it into the existing one with the same id, in one lookup.
+     *
+     * @param value to merge.
+     * @return the value held by the collection after merging.
+     */
+    DATA merge(DATA value);
 }
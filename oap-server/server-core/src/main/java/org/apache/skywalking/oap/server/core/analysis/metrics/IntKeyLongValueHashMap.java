@@ -17,15 +17,19 @@
 
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
+import java.io.ByteArrayOutputStream;
 import java.util.*;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
 
 /**
+ * The storage data is the legacy string format, key,value|key,value, by default. In the binary encoding, see {@link
+ * #toBytes()}, the data is the varint encoded pairs, sorted by key, with the key delta from the previous one, saved in
+ * a binary column. Both formats are readable, see {@link #fromStorageData(Object)}.
+ *
  * @author peng-yongsheng
  */
 public class IntKeyLongValueHashMap extends HashMap<Integer, IntKeyLongValue> implements StorageDataType {
-
     public IntKeyLongValueHashMap() {
         super();
     }
@@ -54,12 +58,78 @@ public class IntKeyLongValueHashMap extends HashMap<Integer, IntKeyLongValue> im
         return data.toString();
     }
 
+    /**
+     * The storage plugins write this format into the binary columns, rather than {@link #toStorageData()}, when the
+     * groupMetricsBinaryEncoding of the core module is on.
+     */
+    public byte[] toBytes() {
+        int[] keys = new int[size()];
+        int index = 0;
+        for (Integer key : keySet()) {
+            keys[index++] = key;
+        }
+        Arrays.sort(keys);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(keys.length * 3);
+        int previousKey = 0;
+        for (int key : keys) {
+            writeVarLong(output, zigZag(key - previousKey));
+            writeVarLong(output, zigZag(get(key).getValue()));
+            previousKey = key;
+        }
+        return output.toByteArray();
+    }
+
     @Override public void toObject(String data) {
-        String[] keyValues = data.split(Const.ARRAY_PARSER_SPLIT);
-        for (String keyValue : keyValues) {
-            IntKeyLongValue value = new IntKeyLongValue();
-            value.toObject(keyValue);
-            this.put(value.getKey(), value);
+        decode(data, (key, value) -> this.put(key, new IntKeyLongValue(key, value)));
+    }
+
+    /**
+     * @param data the column value of either format.
+     */
+    public static IntKeyLongValueHashMap fromStorageData(Object data) {
+        IntKeyLongValueHashMap map = new IntKeyLongValueHashMap();
+        decode(data, (key, value) -> map.put(key, new IntKeyLongValue(key, value)));
+        return map;
+    }
+
+    /**
+     * Read the pairs from the storage data without building the map. The data is the bytes of the binary encoding from
+     * a JDBC binary column, or its base64 from an Elasticsearch binary field, or the legacy string, which is the only
+     * one with {@link Const#KEY_VALUE_SPLIT}.
+     */
+    public static void decode(Object data, KeyValueConsumer consumer) {
+        if (data instanceof byte[]) {
+            decode((byte[])data, consumer);
+        } else if (data != null && !data.toString().isEmpty()) {
+            String text = data.toString();
+            if (text.contains(Const.KEY_VALUE_SPLIT)) {
+                decode(text, consumer);
+            } else {
+                decode(Base64.getDecoder().decode(text), consumer);
+            }
+        }
+    }
+
+    private static void decode(byte[] bytes, KeyValueConsumer consumer) {
+        int[] position = new int[1];
+        int key = 0;
+        while (position[0] < bytes.length) {
+            key += (int)unZigZag(readVarLong(bytes, position));
+            consumer.accept(key, unZigZag(readVarLong(bytes, position)));
+        }
+    }
+
+    private static void decode(String data, KeyValueConsumer consumer) {
+        int start = 0;
+        while (start < data.length()) {
+            int end = data.indexOf(Const.ARRAY_SPLIT, start);
+            if (end < 0) {
+                end = data.length();
+            }
+            int split = data.indexOf(Const.KEY_VALUE_SPLIT, start);
+            consumer.accept(Integer.parseInt(data.substring(start, split)), Long.parseLong(data.substring(split + 1, end)));
+            start = end + 1;
         }
     }
 
@@ -71,4 +141,37 @@ public class IntKeyLongValueHashMap extends HashMap<Integer, IntKeyLongValue> im
             this.put(newValue.getKey(), newValue);
         });
     }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int)value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position[0]++];
+            value |= (long)(b & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public interface KeyValueConsumer {
+        void accept(int key, long value);
+    }
 }
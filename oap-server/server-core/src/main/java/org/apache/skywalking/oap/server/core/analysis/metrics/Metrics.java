@@ -33,10 +33,19 @@ public abstract class Metrics extends StreamData implements StorageData {
     public static final String ENTITY_ID = "entity_id";
 
     @Getter @Setter @Column(columnName = TIME_BUCKET) private long timeBucket;
-    @Getter @Setter private long survivalTime = 0L;
 
     public abstract String id();
 
+    /**
+     * The 64-bit hash of the id, combined by the time bucket and {@link #remoteHashCode()}, without building the id
+     * string. The metrics equal to each other always have the same id hash.
+     *
+     * @return hash of the id.
+     */
+    public long idHash() {
+        return getTimeBucket() * 0x9E3779B97F4A7C15L + remoteHashCode();
+    }
+
     public abstract void combine(Metrics metrics);
 
     public abstract void calculate();
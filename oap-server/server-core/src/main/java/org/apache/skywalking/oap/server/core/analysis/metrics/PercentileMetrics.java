@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import lombok.*;
+import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.*;
+import org.apache.skywalking.oap.server.core.query.sql.Function;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+
+/**
+ * PercentileMetrics calculates p50/p75/p90/p95/p99 from one {@link QuantileSketch}, so the percentiles of one source
+ * share a single dataset, rather than every {@link PxxMetrics} keeping its own detail group.
+ *
+ * No precision is required, the relative error of the sketch is bounded, see {@link QuantileSketch}.
+ *
+ * Every percentile is a value column, p99 is the default one queried by the metrics name, the others are queried by the
+ * metrics name with the suffix, such as endpoint_percentile_p50.
+ */
+@MetricsFunction(functionName = "percentile")
+public abstract class PercentileMetrics extends Metrics {
+
+    protected static final String DATASET = "dataset";
+    protected static final String P50 = "p50";
+    protected static final String P75 = "p75";
+    protected static final String P90 = "p90";
+    protected static final String P95 = "p95";
+    protected static final String P99 = "p99";
+
+    private static final int[] RANKS = {50, 75, 90, 95, 99};
+
+    @Getter @Setter @Column(columnName = DATASET) private QuantileSketch dataset = new QuantileSketch();
+    @Getter @Setter @Column(columnName = P50, isValue = true, function = Function.Avg) private int p50;
+    @Getter @Setter @Column(columnName = P75, isValue = true, function = Function.Avg) private int p75;
+    @Getter @Setter @Column(columnName = P90, isValue = true, function = Function.Avg) private int p90;
+    @Getter @Setter @Column(columnName = P95, isValue = true, function = Function.Avg) private int p95;
+    @Getter @Setter @Column(columnName = P99, isValue = true, isDefaultValue = true, function = Function.Avg) private int p99;
+
+    private final int[] percentiles = new int[RANKS.length];
+    private boolean isCalculated;
+
+    @Entrance
+    public final void combine(@SourceFrom int value) {
+        this.isCalculated = false;
+        dataset.insert(value);
+    }
+
+    @Override
+    public void combine(Metrics metrics) {
+        this.isCalculated = false;
+        dataset.merge(((PercentileMetrics)metrics).getDataset());
+    }
+
+    @Override
+    public final void calculate() {
+        if (!isCalculated) {
+            dataset.quantiles(RANKS, percentiles);
+            p50 = percentiles[0];
+            p75 = percentiles[1];
+            p90 = percentiles[2];
+            p95 = percentiles[3];
+            p99 = percentiles[4];
+            isCalculated = true;
+        }
+    }
+}
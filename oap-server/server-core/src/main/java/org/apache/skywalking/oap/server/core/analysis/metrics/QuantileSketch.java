@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import lombok.Getter;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+
+/**
+ * QuantileSketch is a mergeable log-linear histogram. Values less than {@link #SUB_BUCKETS} are counted exactly, every
+ * larger power of two range is split into {@link #SUB_BUCKETS} linear buckets, so the relative error of any quantile is
+ * less than 1/{@link #SUB_BUCKETS}, whatever the value range is.
+ *
+ * The counters are kept in a single long array, which only covers the bucket range having been seen. Insert is O(1),
+ * merge doesn't allocate once the range of the other sketch is covered, and all percentiles are read in one pass.
+ *
+ * The storage format is the base64 of the varint encoded bucket offset, length and counters.
+ */
+public class QuantileSketch implements StorageDataType {
+    private static final int SUB_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_INDEX = index(Integer.MAX_VALUE);
+    private static final int GROW_STEP = 8;
+    private static final long[] EMPTY = new long[0];
+
+    private long[] counts = EMPTY;
+    /**
+     * Bucket index of counts[0].
+     */
+    private int offset;
+    @Getter private long total;
+
+    public QuantileSketch() {
+    }
+
+    public QuantileSketch(String data) {
+        toObject(data);
+    }
+
+    public void insert(int value) {
+        int index = index(value);
+        if (index < offset || index >= offset + counts.length) {
+            ensureRange(Math.max(0, index - GROW_STEP), Math.min(MAX_INDEX + 1, index + GROW_STEP + 1));
+        }
+        counts[index - offset]++;
+        total++;
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.total == 0) {
+            return;
+        }
+        ensureRange(other.offset, other.offset + other.counts.length);
+        int shift = other.offset - offset;
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[shift + i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * @param rank percentile rank, in [0, 100]
+     * @return the value below which the given percentage of inserted values fall, 0 if the sketch is empty.
+     */
+    public int quantile(int rank) {
+        int[] result = new int[1];
+        quantiles(new int[] {rank}, result);
+        return result[0];
+    }
+
+    /**
+     * Read several percentiles in one pass.
+     *
+     * @param ranks percentile ranks in ascending order
+     * @param results receives the value of each rank, must be as long as ranks.
+     */
+    public void quantiles(int[] ranks, int[] results) {
+        int rankIndex = 0;
+        long count = 0;
+        for (int i = 0; i < counts.length && rankIndex < ranks.length; i++) {
+            count += counts[i];
+            while (rankIndex < ranks.length && count > 0 && count >= roof(ranks[rankIndex])) {
+                results[rankIndex++] = valueOf(offset + i);
+            }
+        }
+        for (; rankIndex < ranks.length; rankIndex++) {
+            results[rankIndex] = 0;
+        }
+    }
+
+    private long roof(int rank) {
+        return Math.round(total * rank / 100d);
+    }
+
+    private void ensureRange(int from, int to) {
+        int end = offset + counts.length;
+        if (counts.length == 0) {
+            counts = new long[to - from];
+            offset = from;
+            return;
+        }
+        if (from >= offset && to <= end) {
+            return;
+        }
+        int newOffset = Math.min(from, offset);
+        long[] newCounts = new long[Math.max(to, end) - newOffset];
+        System.arraycopy(counts, 0, newCounts, offset - newOffset, counts.length);
+        counts = newCounts;
+        offset = newOffset;
+    }
+
+    static int index(int value) {
+        if (value < SUB_BUCKETS) {
+            return Math.max(value, 0);
+        }
+        int shift = 31 - Integer.numberOfLeadingZeros(value) - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * @return the middle value of the bucket.
+     */
+    static int valueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BITS) - 1;
+        int lowerBound = (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+        return lowerBound + ((1 << shift) >>> 1);
+    }
+
+    @Override public String toStorageData() {
+        int from = 0;
+        int to = counts.length;
+        while (from < to && counts[from] == 0) {
+            from++;
+        }
+        while (to > from && counts[to - 1] == 0) {
+            to--;
+        }
+        if (from == to) {
+            return "";
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(4 + to - from);
+        writeVarLong(output, offset + from);
+        writeVarLong(output, to - from);
+        for (int i = from; i < to; i++) {
+            writeVarLong(output, counts[i]);
+        }
+        return Base64.getEncoder().encodeToString(output.toByteArray());
+    }
+
+    @Override public void toObject(String data) {
+        counts = EMPTY;
+        offset = 0;
+        total = 0;
+        if (data == null || data.isEmpty()) {
+            return;
+        }
+
+        byte[] bytes = Base64.getDecoder().decode(data);
+        int[] position = new int[1];
+        offset = (int)readVarLong(bytes, position);
+        counts = new long[(int)readVarLong(bytes, position)];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = readVarLong(bytes, position);
+            total += counts[i];
+        }
+    }
+
+    @Override public void copyFrom(Object source) {
+        QuantileSketch sketch = (QuantileSketch)source;
+        this.counts = sketch.counts.length == 0 ? EMPTY : sketch.counts.clone();
+        this.offset = sketch.offset;
+        this.total = sketch.total;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int)value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position[0]++];
+            value |= (long)(b & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.*;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.*;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.data.MergeDataCache;
@@ -47,7 +48,7 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
         this.nextWorker = nextWorker;
         this.mergeDataCache = new MergeDataCache<>();
         String name = "METRICS_L1_AGGREGATION";
-        this.dataCarrier = new DataCarrier<>("MetricsAggregateWorker." + modelName, name, 2, 10000);
+        this.dataCarrier = new DataCarrier<>("MetricsAggregateWorker." + modelName, name, 2, 10000, BufferStrategy.PARKING);
 
         BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, BulkConsumePool.Creator.recommendMaxSize() * 2, 20);
         try {
@@ -98,12 +99,7 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
 
     private void aggregate(Metrics metrics) {
         mergeDataCache.writing();
-        if (mergeDataCache.containsKey(metrics)) {
-            mergeDataCache.get(metrics).combine(metrics);
-        } else {
-            mergeDataCache.put(metrics);
-        }
-
+        mergeDataCache.merge(metrics);
         mergeDataCache.finishWriting();
     }
 
@@ -18,12 +18,12 @@
 
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.*;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
-import org.apache.skywalking.oap.server.core.analysis.data.MergeDataCache;
+import org.apache.skywalking.oap.server.core.analysis.data.*;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
@@ -31,17 +31,26 @@ import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.*;
 import org.slf4j.*;
 
 /**
+ * The worker of the hour, day and month metrics has a flush period. Between two flushes, the rolled up metrics keep
+ * being merged in the current collection of the {@link MergeDataCache}, and the storage is read and written once per
+ * period, rather than in every persistence round. It also flushes once a newer time bucket arrives, then the
+ * finished bucket is written soon.
+ *
  * @author peng-yongsheng
  */
 public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDataCache<Metrics>> {
 
     private static final Logger logger = LoggerFactory.getLogger(MetricsPersistentWorker.class);
 
+    private static final int BATCH_GET_SIZE = 2000;
+
     private final Model model;
-    private final Map<Metrics, Metrics> databaseSession;
+    private final MetricsSessionCache databaseSession;
     private final MergeDataCache<Metrics> mergeDataCache;
     private final IMetricsDAO metricsDAO;
     private final AbstractWorker<Metrics> nextAlarmWorker;
@@ -49,18 +58,32 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
     private final DataCarrier<Metrics> dataCarrier;
     private final MetricsTransWorker transWorker;
     private final boolean enableDatabaseSession;
+    private final long flushPeriod;
+    private long lastFlushTime;
+    private volatile long latestTimeBucket;
+    private long flushedTimeBucket;
+    private final CounterMetrics sessionHitCounter;
+    private final CounterMetrics sessionMissCounter;
+    private final CounterMetrics sessionEvictionCounter;
+    private final GaugeMetrics sessionSizeGauge;
+    private long reportedHitCount;
+    private long reportedMissCount;
+    private long reportedEvictionCount;
 
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO, AbstractWorker<Metrics> nextAlarmWorker,
-        AbstractWorker<ExportEvent> nextExportWorker, MetricsTransWorker transWorker, boolean enableDatabaseSession) {
-        super(moduleDefineHolder);
+        AbstractWorker<ExportEvent> nextExportWorker, MetricsTransWorker transWorker, boolean enableDatabaseSession,
+        int maxSizeOfDatabaseSession, int flushPeriod) {
+        super(moduleDefineHolder, model.getName());
         this.model = model;
-        this.databaseSession = new HashMap<>(100);
+        this.databaseSession = new MetricsSessionCache(maxSizeOfDatabaseSession);
         this.enableDatabaseSession = enableDatabaseSession;
         this.mergeDataCache = new MergeDataCache<>();
         this.metricsDAO = metricsDAO;
         this.nextAlarmWorker = nextAlarmWorker;
         this.nextExportWorker = nextExportWorker;
         this.transWorker = transWorker;
+        this.flushPeriod = flushPeriod * 1000L;
+        this.lastFlushTime = System.currentTimeMillis();
 
         String name = "METRICS_L2_AGGREGATION";
         int size = BulkConsumePool.Creator.recommendMaxSize() / 8;
@@ -76,6 +99,14 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
 
         this.dataCarrier = new DataCarrier<>("MetricsPersistentWorker." + model.getName(), name, 1, 2000);
         this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new PersistentConsumer(this));
+
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        MetricsTag.Keys keys = new MetricsTag.Keys("metricName");
+        MetricsTag.Values values = new MetricsTag.Values(model.getName());
+        sessionHitCounter = metricsCreator.createCounter("metrics_persistent_session_hit", "The number of hits in the database session", keys, values);
+        sessionMissCounter = metricsCreator.createCounter("metrics_persistent_session_miss", "The number of misses in the database session", keys, values);
+        sessionEvictionCounter = metricsCreator.createCounter("metrics_persistent_session_eviction", "The number of evictions in the database session", keys, values);
+        sessionSizeGauge = metricsCreator.createGauge("metrics_persistent_session_size", "The number of metrics in the database session", keys, values);
     }
 
     @Override void onWork(Metrics metrics) {
@@ -90,11 +121,37 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
         return mergeDataCache;
     }
 
+    /**
+     * @return false if the flush period hasn't elapsed, and no newer time bucket arrived since the last flush.
+     */
+    @Override public boolean flushAndSwitch() {
+        if (flushPeriod <= 0) {
+            return super.flushAndSwitch();
+        }
+
+        long now = System.currentTimeMillis();
+        long timeBucket = latestTimeBucket;
+        if (now - lastFlushTime < flushPeriod && timeBucket <= flushedTimeBucket) {
+            return false;
+        }
+
+        boolean isSwitch = super.flushAndSwitch();
+        if (isSwitch) {
+            lastFlushTime = now;
+            flushedTimeBucket = timeBucket;
+        }
+        return isSwitch;
+    }
+
     @Override public void prepareBatch(Collection<Metrics> lastCollection, List<PrepareRequest> prepareRequests) {
         long start = System.currentTimeMillis();
 
+        if (!enableDatabaseSession) {
+            databaseSession.clear();
+        }
+
         int i = 0;
-        int batchGetSize = 2000;
+        List<Metrics[]> slices = new ArrayList<>(lastCollection.size() / BATCH_GET_SIZE + 1);
         Metrics[] metrics = null;
         for (Metrics data : lastCollection) {
             if (Objects.nonNull(nextExportWorker)) {
@@ -105,39 +162,40 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
                 transWorker.in(data);
             }
 
-            int mod = i % batchGetSize;
+            int mod = i % BATCH_GET_SIZE;
             if (mod == 0) {
-                int residual = lastCollection.size() - i;
-                if (residual >= batchGetSize) {
-                    metrics = new Metrics[batchGetSize];
-                } else {
-                    metrics = new Metrics[residual];
-                }
+                metrics = new Metrics[Math.min(BATCH_GET_SIZE, lastCollection.size() - i)];
+                slices.add(metrics);
             }
             metrics[mod] = data;
+            databaseSession.flushed(data.getTimeBucket());
+            i++;
+        }
 
-            if (mod == metrics.length - 1) {
-                try {
-                    syncStorageToCache(metrics);
-
-                    for (Metrics metric : metrics) {
-                        Metrics cacheMetric = databaseSession.get(metric);
-                        if (cacheMetric != null) {
-                            cacheMetric.combine(metric);
-                            cacheMetric.calculate();
-                            prepareRequests.add(metricsDAO.prepareBatchUpdate(model, cacheMetric));
-                            nextWorker(cacheMetric);
-                        } else {
-                            prepareRequests.add(metricsDAO.prepareBatchInsert(model, metric));
-                            nextWorker(metric);
-                        }
+        // Read the next slice from the storage, while the current slice is being combined.
+        SessionSlice next = slices.isEmpty() ? null : syncStorageToCache(slices.get(0));
+        for (int s = 0; s < slices.size(); s++) {
+            SessionSlice current = next;
+            next = s + 1 < slices.size() ? syncStorageToCache(slices.get(s + 1)) : null;
+            try {
+                current.load();
+
+                for (int j = 0; j < current.metrics.length; j++) {
+                    Metrics metric = current.metrics[j];
+                    Metrics cacheMetric = current.cached[j];
+                    if (cacheMetric != null) {
+                        cacheMetric.combine(metric);
+                        cacheMetric.calculate();
+                        prepareRequests.add(metricsDAO.prepareBatchUpdate(model, cacheMetric));
+                        nextWorker(cacheMetric);
+                    } else {
+                        prepareRequests.add(metricsDAO.prepareBatchInsert(model, metric));
+                        nextWorker(metric);
                     }
-                } catch (Throwable t) {
-                    logger.error(t.getMessage(), t);
                 }
+            } catch (Throwable t) {
+                logger.error(t.getMessage(), t);
             }
-
-            i++;
         }
 
         if (prepareRequests.size() > 0) {
@@ -157,46 +215,75 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
 
     @Override public void cacheData(Metrics input) {
         mergeDataCache.writing();
-        if (mergeDataCache.containsKey(input)) {
-            Metrics metrics = mergeDataCache.get(input);
-            metrics.combine(input);
-            metrics.calculate();
-        } else {
-            input.calculate();
-            mergeDataCache.put(input);
-        }
-
+        mergeDataCache.merge(input).calculate();
         mergeDataCache.finishWriting();
-    }
 
-    private void syncStorageToCache(Metrics[] metrics) throws IOException {
-        if (!enableDatabaseSession) {
-            databaseSession.clear();
+        if (input.getTimeBucket() > latestTimeBucket) {
+            latestTimeBucket = input.getTimeBucket();
         }
+    }
+
+    /**
+     * Look up the metrics in the database session, and start to read the missed ones from the storage asynchronously.
+     */
+    private SessionSlice syncStorageToCache(Metrics[] metrics) {
+        SessionSlice slice = new SessionSlice(metrics);
 
         List<String> notInCacheIds = new ArrayList<>();
-        for (Metrics metric : metrics) {
-            if (!databaseSession.containsKey(metric)) {
-                notInCacheIds.add(metric.id());
+        for (int i = 0; i < metrics.length; i++) {
+            slice.cached[i] = databaseSession.get(metrics[i]);
+            if (slice.cached[i] == null) {
+                notInCacheIds.add(metrics[i].id());
             }
         }
 
         if (notInCacheIds.size() > 0) {
-            List<Metrics> metricsList = metricsDAO.multiGet(model, notInCacheIds);
-            for (Metrics metric : metricsList) {
-                databaseSession.put(metric, metric);
-            }
+            slice.loading = metricsDAO.multiGetAsync(model, notInCacheIds);
         }
+        return slice;
     }
 
     @Override public void endOfRound(long tookTime) {
-        if (enableDatabaseSession) {
-            Iterator<Metrics> iterator = databaseSession.values().iterator();
-            while (iterator.hasNext()) {
-                Metrics metrics = iterator.next();
-                metrics.setSurvivalTime(tookTime + metrics.getSurvivalTime());
-                if (metrics.getSurvivalTime() > 70000) {
-                    iterator.remove();
+        databaseSession.endOfRound();
+
+        sessionHitCounter.inc(databaseSession.getHitCount() - reportedHitCount);
+        sessionMissCounter.inc(databaseSession.getMissCount() - reportedMissCount);
+        sessionEvictionCounter.inc(databaseSession.getEvictionCount() - reportedEvictionCount);
+        reportedHitCount = databaseSession.getHitCount();
+        reportedMissCount = databaseSession.getMissCount();
+        reportedEvictionCount = databaseSession.getEvictionCount();
+        sessionSizeGauge.setValue(databaseSession.size());
+    }
+
+    /**
+     * A slice of the flushed metrics, and the existing ones, found in the database session or read from the storage.
+     */
+    private class SessionSlice {
+        private final Metrics[] metrics;
+        private final Metrics[] cached;
+        private CompletableFuture<List<Metrics>> loading;
+
+        private SessionSlice(Metrics[] metrics) {
+            this.metrics = metrics;
+            this.cached = new Metrics[metrics.length];
+        }
+
+        /**
+         * Wait for the storage reading, put the read metrics into the database session.
+         */
+        private void load() throws InterruptedException, ExecutionException {
+            if (loading == null) {
+                return;
+            }
+
+            Map<Metrics, Metrics> loaded = new HashMap<>();
+            for (Metrics metric : loading.get()) {
+                loaded.put(metric, metric);
+                databaseSession.put(metric);
+            }
+            for (int i = 0; i < metrics.length; i++) {
+                if (cached[i] == null) {
+                    cached[i] = loaded.get(metrics[i]);
                 }
             }
         }
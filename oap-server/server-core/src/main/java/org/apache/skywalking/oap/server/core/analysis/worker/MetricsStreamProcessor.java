@@ -40,6 +40,8 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
     private Map<Class<? extends Metrics>, MetricsAggregateWorker> entryWorkers = new HashMap<>();
     @Getter private List<MetricsPersistentWorker> persistentWorkers = new ArrayList<>();
     @Setter @Getter private boolean enableDatabaseSession;
+    @Setter @Getter private int maxSizeOfDatabaseSession;
+    @Setter @Getter private int downsamplingFlushPeriod;
 
     public static MetricsStreamProcessor getInstance() {
         return PROCESSOR;
@@ -105,14 +107,14 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
         AlarmNotifyWorker alarmNotifyWorker = new AlarmNotifyWorker(moduleDefineHolder);
         ExportWorker exportWorker = new ExportWorker(moduleDefineHolder);
 
-        MetricsPersistentWorker minutePersistentWorker = new MetricsPersistentWorker(moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, transWorker, enableDatabaseSession);
+        MetricsPersistentWorker minutePersistentWorker = new MetricsPersistentWorker(moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, transWorker, enableDatabaseSession, maxSizeOfDatabaseSession, 0);
         persistentWorkers.add(minutePersistentWorker);
 
         return minutePersistentWorker;
     }
 
     private MetricsPersistentWorker worker(ModuleDefineHolder moduleDefineHolder, IMetricsDAO metricsDAO, Model model) {
-        MetricsPersistentWorker persistentWorker = new MetricsPersistentWorker(moduleDefineHolder, model, metricsDAO, null, null, null, enableDatabaseSession);
+        MetricsPersistentWorker persistentWorker = new MetricsPersistentWorker(moduleDefineHolder, model, metricsDAO, null, null, null, enableDatabaseSession, maxSizeOfDatabaseSession, downsamplingFlushPeriod);
         persistentWorkers.add(persistentWorker);
 
         return persistentWorker;
@@ -24,6 +24,8 @@ import org.apache.skywalking.oap.server.core.storage.StorageData;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.*;
 import org.slf4j.*;
 
 /**
@@ -33,8 +35,31 @@ public abstract class PersistenceWorker<INPUT extends StorageData, CACHE extends
 
     private static final Logger logger = LoggerFactory.getLogger(PersistenceWorker.class);
 
-    PersistenceWorker(ModuleDefineHolder moduleDefineHolder) {
+    private final String modelName;
+    private final HistogramMetrics prepareLatency;
+    private final HistogramMetrics executeLatency;
+
+    PersistenceWorker(ModuleDefineHolder moduleDefineHolder, String modelName) {
         super(moduleDefineHolder);
+        this.modelName = modelName;
+
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        prepareLatency = metricsCreator.createHistogramMetric("persistence_timer_model_prepare_latency", "Latency of the prepare stage of the model in persistence timer",
+            new MetricsTag.Keys("metricName"), new MetricsTag.Values(modelName));
+        executeLatency = metricsCreator.createHistogramMetric("persistence_timer_model_execute_latency", "Latency of the execute stage of the model in persistence timer",
+            new MetricsTag.Keys("metricName"), new MetricsTag.Values(modelName));
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    public HistogramMetrics getPrepareLatency() {
+        return prepareLatency;
+    }
+
+    public HistogramMetrics getExecuteLatency() {
+        return executeLatency;
     }
 
     void onWork(INPUT input) {
@@ -19,7 +19,7 @@
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.*;
-import lombok.Getter;
+import lombok.*;
 import org.apache.skywalking.oap.server.core.*;
 import org.apache.skywalking.oap.server.core.analysis.*;
 import org.apache.skywalking.oap.server.core.analysis.record.Record;
@@ -33,6 +33,10 @@ import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
  * TopN is a special process, which hold a certain size of windows, and cache all top N records, save to the persistence
  * in low frequency.
  *
+ * The top N of one stream are sharded by the key of the data, such as the service of the slow statements, every shard
+ * is a worker with its own consumer, and holds the whole top N of the keys belonging to it. So the shards flush the
+ * disjoint parts of the top N, no merge is required.
+ *
  * @author wusheng
  */
 public class TopNStreamProcessor implements StreamProcessor<TopN> {
@@ -40,7 +44,8 @@ public class TopNStreamProcessor implements StreamProcessor<TopN> {
     private static final TopNStreamProcessor PROCESSOR = new TopNStreamProcessor();
 
     @Getter private List<TopNWorker> persistentWorkers = new ArrayList<>();
-    private Map<Class<? extends Record>, TopNWorker> workers = new HashMap<>();
+    private Map<Class<? extends Record>, TopNWorker[]> workers = new HashMap<>();
+    @Setter @Getter private int shards = 2;
 
     public static TopNStreamProcessor getInstance() {
         return PROCESSOR;
@@ -63,15 +68,23 @@ public class TopNStreamProcessor implements StreamProcessor<TopN> {
         IModelSetter modelSetter = moduleDefineHolder.find(CoreModule.NAME).provider().getService(IModelSetter.class);
         Model model = modelSetter.putIfAbsent(topNClass, stream.scopeId(), new Storage(stream.name(), true, true, Downsampling.Second), true);
 
-        TopNWorker persistentWorker = new TopNWorker(moduleDefineHolder, model, 50, recordDAO);
-        persistentWorkers.add(persistentWorker);
-        workers.put(topNClass, persistentWorker);
+        TopNWorker[] shardWorkers = new TopNWorker[Math.max(shards, 1)];
+        for (int i = 0; i < shardWorkers.length; i++) {
+            shardWorkers[i] = new TopNWorker(moduleDefineHolder, model, 50, recordDAO);
+            persistentWorkers.add(shardWorkers[i]);
+        }
+        workers.put(topNClass, shardWorkers);
     }
 
     public void in(TopN topN) {
-        TopNWorker worker = workers.get(topN.getClass());
-        if (worker != null) {
-            worker.in(topN);
+        TopNWorker[] shardWorkers = workers.get(topN.getClass());
+        if (shardWorkers != null) {
+            shardWorkers[shard(topN.hashCode(), shardWorkers.length)].in(topN);
         }
     }
+
+    static int shard(int hashCode, int shards) {
+        int h = hashCode ^ (hashCode >>> 16);
+        return Math.floorMod(h, shards);
+    }
 }
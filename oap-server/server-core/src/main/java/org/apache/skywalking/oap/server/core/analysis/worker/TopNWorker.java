@@ -47,7 +47,7 @@ public class TopNWorker extends PersistenceWorker<TopN, LimitedSizeDataCache<Top
 
     TopNWorker(ModuleDefineHolder moduleDefineHolder, Model model,
         int topNSize, IRecordDAO recordDAO) {
-        super(moduleDefineHolder);
+        super(moduleDefineHolder, model.getName());
         this.limitedSizeDataCache = new LimitedSizeDataCache<>(topNSize);
         this.recordDAO = recordDAO;
         this.model = model;
@@ -26,9 +26,14 @@ import org.apache.skywalking.oap.server.core.register.*;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.cache.*;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.slf4j.*;
 
 /**
+ * The inventory caches are loaded from the storage in pages at the first time, then the inventories registered later
+ * are loaded in every round, so the lookups of the analysis threads hit the cache mostly, even right after restart.
+ *
  * @author peng-yongsheng
  */
 public enum CacheUpdateTimer {
@@ -36,6 +41,8 @@ public enum CacheUpdateTimer {
 
     private static final Logger logger = LoggerFactory.getLogger(CacheUpdateTimer.class);
 
+    private static final int LOAD_PAGE_SIZE = 1000;
+
     private Boolean isStarted = false;
 
     public void start(ModuleDefineHolder moduleDefineHolder) {
@@ -44,19 +51,42 @@ public enum CacheUpdateTimer {
         final long timeInterval = 10;
 
         if (!isStarted) {
+            initTelemetry(moduleDefineHolder);
+
             Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(
                 new RunnableWithExceptionProtection(() -> update(moduleDefineHolder),
-                    t -> logger.error("Cache update failure.", t)), 1, timeInterval, TimeUnit.SECONDS);
+                    t -> logger.error("Cache update failure.", t)), 0, timeInterval, TimeUnit.SECONDS);
 
             this.isStarted = true;
         }
     }
 
+    private void initTelemetry(ModuleDefineHolder moduleDefineHolder) {
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        moduleDefineHolder.find(CoreModule.NAME).provider().getService(ServiceInventoryCache.class).initTelemetry(metricsCreator);
+        moduleDefineHolder.find(CoreModule.NAME).provider().getService(ServiceInstanceInventoryCache.class).initTelemetry(metricsCreator);
+        moduleDefineHolder.find(CoreModule.NAME).provider().getService(EndpointInventoryCache.class).initTelemetry(metricsCreator);
+        moduleDefineHolder.find(CoreModule.NAME).provider().getService(NetworkAddressInventoryCache.class).initTelemetry(metricsCreator);
+    }
+
     private void update(ModuleDefineHolder moduleDefineHolder) {
+        loadNewInventories(moduleDefineHolder);
         updateServiceInventory(moduleDefineHolder);
         updateNetAddressInventory(moduleDefineHolder);
     }
 
+    private void loadNewInventories(ModuleDefineHolder moduleDefineHolder) {
+        long startTime = System.currentTimeMillis();
+        moduleDefineHolder.find(CoreModule.NAME).provider().getService(ServiceInventoryCache.class).loadNewInventories(LOAD_PAGE_SIZE);
+        moduleDefineHolder.find(CoreModule.NAME).provider().getService(NetworkAddressInventoryCache.class).loadNewInventories(LOAD_PAGE_SIZE);
+        moduleDefineHolder.find(CoreModule.NAME).provider().getService(ServiceInstanceInventoryCache.class).loadNewInventories(LOAD_PAGE_SIZE);
+        moduleDefineHolder.find(CoreModule.NAME).provider().getService(EndpointInventoryCache.class).loadNewInventories(LOAD_PAGE_SIZE);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Load the new inventories into cache in {} milliseconds.", System.currentTimeMillis() - startTime);
+        }
+    }
+
     private void updateServiceInventory(ModuleDefineHolder moduleDefineHolder) {
         IServiceInventoryCacheDAO serviceInventoryCacheDAO = moduleDefineHolder.find(StorageModule.NAME).provider().getService(IServiceInventoryCacheDAO.class);
         ServiceInventoryCache serviceInventoryCache = moduleDefineHolder.find(CoreModule.NAME).provider().getService(ServiceInventoryCache.class);
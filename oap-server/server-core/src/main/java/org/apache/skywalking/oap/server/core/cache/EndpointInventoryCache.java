@@ -18,17 +18,16 @@
 
 package org.apache.skywalking.oap.server.core.cache;
 
-import com.google.common.cache.*;
-import java.util.Objects;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.register.EndpointInventory;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.cache.IEndpointInventoryCacheDAO;
 import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.slf4j.*;
 
-import static java.util.Objects.*;
+import static java.util.Objects.isNull;
 
 /**
  * @author peng-yongsheng
@@ -39,8 +38,9 @@ public class EndpointInventoryCache implements Service {
 
     private final ModuleManager moduleManager;
     private final EndpointInventory userEndpoint;
-    private final Cache<String, Integer> endpointNameCache;
-    private final Cache<Integer, EndpointInventory> endpointIdCache;
+    private final InventoryLookupCache<String, Integer> endpointNameCache;
+    private final InventoryLookupCache<Integer, EndpointInventory> endpointIdCache;
+    private int lastLoadedSequence = 0;
 
     private IEndpointInventoryCacheDAO cacheDAO;
 
@@ -52,11 +52,8 @@ public class EndpointInventoryCache implements Service {
         this.userEndpoint.setName(Const.USER_CODE);
         this.userEndpoint.setServiceId(Const.USER_SERVICE_ID);
 
-        long initialSize = moduleConfig.getMaxSizeOfEndpointInventory() / 10L;
-        int initialCapacitySize = (int)(initialSize > Integer.MAX_VALUE ? Integer.MAX_VALUE : initialSize);
-
-        endpointNameCache = CacheBuilder.newBuilder().initialCapacity(initialCapacitySize).maximumSize(moduleConfig.getMaxSizeOfEndpointInventory()).build();
-        endpointIdCache = CacheBuilder.newBuilder().initialCapacity(initialCapacitySize).maximumSize(moduleConfig.getMaxSizeOfEndpointInventory()).build();
+        endpointNameCache = new InventoryLookupCache<>("endpoint_name", moduleConfig.getMaxSizeOfEndpointInventory(), moduleConfig.getInventoryMissCacheTTL());
+        endpointIdCache = new InventoryLookupCache<>("endpoint_id", moduleConfig.getMaxSizeOfEndpointInventory(), moduleConfig.getInventoryMissCacheTTL());
     }
 
     private IEndpointInventoryCacheDAO getCacheDAO() {
@@ -66,18 +63,29 @@ public class EndpointInventoryCache implements Service {
         return cacheDAO;
     }
 
+    void initTelemetry(MetricsCreator metricsCreator) {
+        endpointNameCache.initTelemetry(metricsCreator);
+        endpointIdCache.initTelemetry(metricsCreator);
+    }
+
+    /**
+     * Load the endpoints registered after the last loaded one, all of them at the first time.
+     */
+    void loadNewInventories(int pageSize) {
+        lastLoadedSequence = InventoryLookupCache.loadAfter(lastLoadedSequence, pageSize, getCacheDAO()::loadAfter, endpointInventory -> {
+            endpointIdCache.put(endpointInventory.getSequence(), endpointInventory);
+            endpointNameCache.put(endpointInventory.id(), endpointInventory.getSequence());
+        }, endpointIdCache::isFull);
+    }
+
     public int getEndpointId(int serviceId, String endpointName, int detectPoint) {
         String id = EndpointInventory.buildId(serviceId, endpointName, detectPoint);
 
-        Integer endpointId = endpointNameCache.getIfPresent(id);
-
-        if (Objects.isNull(endpointId) || endpointId == Const.NONE) {
-            endpointId = getCacheDAO().getEndpointId(serviceId, endpointName, detectPoint);
-            if (endpointId != Const.NONE) {
-                endpointNameCache.put(id, endpointId);
-            }
-        }
-        return endpointId;
+        Integer endpointId = endpointNameCache.get(id, key -> {
+            int loaded = getCacheDAO().getEndpointId(serviceId, endpointName, detectPoint);
+            return loaded == Const.NONE ? null : loaded;
+        });
+        return isNull(endpointId) ? Const.NONE : endpointId;
     }
 
     public EndpointInventory get(int endpointId) {
@@ -85,15 +93,10 @@ public class EndpointInventoryCache implements Service {
             return userEndpoint;
         }
 
-        EndpointInventory endpointInventory = endpointIdCache.getIfPresent(endpointId);
+        EndpointInventory endpointInventory = endpointIdCache.get(endpointId, key -> getCacheDAO().get(key));
 
         if (isNull(endpointInventory)) {
-            endpointInventory = getCacheDAO().get(endpointId);
-            if (nonNull(endpointInventory)) {
-                endpointIdCache.put(endpointId, endpointInventory);
-            } else {
-                logger.warn("EndpointInventory id {} is not in cache and persistent storage.", endpointId);
-            }
+            logger.warn("EndpointInventory id {} is not in cache and persistent storage.", endpointId);
         }
 
         return endpointInventory;
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.cache;
+
+import com.google.common.cache.*;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.*;
+import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.telemetry.api.*;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.slf4j.*;
+
+/**
+ * A bounded cache of one inventory lookup. The concurrent misses of the same key are loaded by one storage call, the
+ * other callers wait for its result. The keys not found in the storage are remembered for a short while, so an
+ * unregistered name doesn't query the storage for every span.
+ */
+class InventoryLookupCache<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLookupCache.class);
+
+    private static final NotFoundException NOT_FOUND = new NotFoundException();
+
+    private final String name;
+    private final long maxSize;
+    private final Cache<K, V> cache;
+    private final Cache<K, Boolean> missCache;
+
+    private volatile CounterMetrics hitCounter;
+    private volatile CounterMetrics missCounter;
+    private volatile CounterMetrics negativeHitCounter;
+    private volatile HistogramMetrics loadLatency;
+
+    /**
+     * @param missTTL the seconds to remember the keys not found, 0 means never.
+     */
+    InventoryLookupCache(String name, long maxSize, int missTTL) {
+        this.name = name;
+        this.maxSize = maxSize;
+
+        long initialSize = maxSize / 10L;
+        int initialCapacitySize = (int)(initialSize > Integer.MAX_VALUE ? Integer.MAX_VALUE : initialSize);
+        this.cache = CacheBuilder.newBuilder().initialCapacity(initialCapacitySize).maximumSize(maxSize).build();
+        if (missTTL > 0) {
+            this.missCache = CacheBuilder.newBuilder().maximumSize(Math.max(initialSize, 1)).expireAfterWrite(missTTL, TimeUnit.SECONDS).build();
+        } else {
+            this.missCache = null;
+        }
+
+        initTelemetry(new MetricsCreatorNoop());
+    }
+
+    /**
+     * The telemetry module may be prepared after the core, so the metrics are created when the cache starts.
+     */
+    void initTelemetry(MetricsCreator metricsCreator) {
+        MetricsTag.Keys keys = new MetricsTag.Keys("cache");
+        MetricsTag.Values values = new MetricsTag.Values(name);
+        hitCounter = metricsCreator.createCounter("inventory_cache_hit_count", "The number of inventory lookups hit in cache", keys, values);
+        missCounter = metricsCreator.createCounter("inventory_cache_miss_count", "The number of inventory lookups loaded from storage", keys, values);
+        negativeHitCounter = metricsCreator.createCounter("inventory_cache_negative_hit_count", "The number of inventory lookups hit the recent not found keys", keys, values);
+        loadLatency = metricsCreator.createHistogramMetric("inventory_cache_load_latency", "The latency of loading inventory from storage", keys, values);
+    }
+
+    /**
+     * @param loader returns null if the key is not in the storage.
+     * @return the cached or loaded value, null if not found.
+     */
+    V get(K key, Function<K, V> loader) {
+        V value = cache.getIfPresent(key);
+        if (value != null) {
+            hitCounter.inc();
+            return value;
+        }
+        if (missCache != null && missCache.getIfPresent(key) != null) {
+            negativeHitCounter.inc();
+            return null;
+        }
+
+        missCounter.inc();
+        try {
+            return cache.get(key, () -> {
+                try (HistogramMetrics.Timer timer = loadLatency.createTimer()) {
+                    V loaded = loader.apply(key);
+                    if (loaded == null) {
+                        throw NOT_FOUND;
+                    }
+                    return loaded;
+                }
+            });
+        } catch (ExecutionException e) {
+            if (e.getCause() == NOT_FOUND) {
+                if (missCache != null) {
+                    missCache.put(key, Boolean.TRUE);
+                }
+            } else {
+                logger.error("Load the key {} of inventory cache {} failure.", key, name, e.getCause());
+            }
+            return null;
+        } catch (UncheckedExecutionException e) {
+            logger.error("Load the key {} of inventory cache {} failure.", key, name, e.getCause());
+            return null;
+        }
+    }
+
+    void put(K key, V value) {
+        cache.put(key, value);
+        if (missCache != null) {
+            missCache.invalidate(key);
+        }
+    }
+
+    boolean isFull() {
+        return cache.size() >= maxSize;
+    }
+
+    /**
+     * Load the inventories by the pages of ascending sequence, until the last page or the cache is full.
+     *
+     * @param lastSequence load the inventories whose sequence is greater than it.
+     * @param pageLoader loads at most the given size of inventories after the given sequence.
+     * @return the max sequence having been loaded.
+     */
+    static <T extends RegisterSource> int loadAfter(int lastSequence, int pageSize,
+        BiFunction<Integer, Integer, List<T>> pageLoader, Consumer<T> consumer, BooleanSupplier isFull) {
+        List<T> page;
+        do {
+            page = pageLoader.apply(lastSequence, pageSize);
+            for (T inventory : page) {
+                consumer.accept(inventory);
+                lastSequence = Math.max(lastSequence, inventory.getSequence());
+            }
+        }
+        while (page.size() == pageSize && !isFull.getAsBoolean());
+        return lastSequence;
+    }
+
+    /**
+     * Only a mark of the keys not found, shared without the stack trace.
+     */
+    private static class NotFoundException extends Exception {
+        private NotFoundException() {
+            super("Inventory not found.", null, false, false);
+        }
+    }
+}
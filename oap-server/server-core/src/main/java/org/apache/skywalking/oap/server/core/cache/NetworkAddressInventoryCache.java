@@ -18,17 +18,16 @@
 
 package org.apache.skywalking.oap.server.core.cache;
 
-import com.google.common.cache.*;
-import java.util.Objects;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.register.NetworkAddressInventory;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.cache.INetworkAddressInventoryCacheDAO;
 import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.slf4j.*;
 
-import static java.util.Objects.*;
+import static java.util.Objects.isNull;
 
 /**
  * @author peng-yongsheng
@@ -37,8 +36,9 @@ public class NetworkAddressInventoryCache implements Service {
 
     private static final Logger logger = LoggerFactory.getLogger(NetworkAddressInventoryCache.class);
 
-    private final Cache<String, Integer> networkAddressCache;
-    private final Cache<Integer, NetworkAddressInventory> addressIdCache;
+    private final InventoryLookupCache<String, Integer> networkAddressCache;
+    private final InventoryLookupCache<Integer, NetworkAddressInventory> addressIdCache;
+    private int lastLoadedSequence = 0;
 
     private final ModuleManager moduleManager;
     private INetworkAddressInventoryCacheDAO cacheDAO;
@@ -46,11 +46,8 @@ public class NetworkAddressInventoryCache implements Service {
     public NetworkAddressInventoryCache(ModuleManager moduleManager, CoreModuleConfig moduleConfig) {
         this.moduleManager = moduleManager;
 
-        long initialSize = moduleConfig.getMaxSizeOfNetworkInventory() / 10L;
-        int initialCapacitySize = (int)(initialSize > Integer.MAX_VALUE ? Integer.MAX_VALUE : initialSize);
-
-        networkAddressCache = CacheBuilder.newBuilder().initialCapacity(initialCapacitySize).maximumSize(moduleConfig.getMaxSizeOfNetworkInventory()).build();
-        addressIdCache = CacheBuilder.newBuilder().initialCapacity(initialCapacitySize).maximumSize(moduleConfig.getMaxSizeOfNetworkInventory()).build();
+        networkAddressCache = new InventoryLookupCache<>("network_address", moduleConfig.getMaxSizeOfNetworkInventory(), moduleConfig.getInventoryMissCacheTTL());
+        addressIdCache = new InventoryLookupCache<>("network_address_id", moduleConfig.getMaxSizeOfNetworkInventory(), moduleConfig.getInventoryMissCacheTTL());
     }
 
     private INetworkAddressInventoryCacheDAO getCacheDAO() {
@@ -60,28 +57,31 @@ public class NetworkAddressInventoryCache implements Service {
         return this.cacheDAO;
     }
 
-    public int getAddressId(String networkAddress) {
-        Integer addressId = networkAddressCache.getIfPresent(NetworkAddressInventory.buildId(networkAddress));
+    void initTelemetry(MetricsCreator metricsCreator) {
+        networkAddressCache.initTelemetry(metricsCreator);
+        addressIdCache.initTelemetry(metricsCreator);
+    }
 
-        if (Objects.isNull(addressId) || addressId == Const.NONE) {
-            addressId = getCacheDAO().getAddressId(networkAddress);
-            if (addressId != Const.NONE) {
-                networkAddressCache.put(NetworkAddressInventory.buildId(networkAddress), addressId);
-            }
-        }
+    /**
+     * Load the network addresses registered after the last loaded one, all of them at the first time.
+     */
+    void loadNewInventories(int pageSize) {
+        lastLoadedSequence = InventoryLookupCache.loadAfter(lastLoadedSequence, pageSize, getCacheDAO()::loadAfter, addressInventory -> {
+            addressIdCache.put(addressInventory.getSequence(), addressInventory);
+            networkAddressCache.put(addressInventory.id(), addressInventory.getSequence());
+        }, addressIdCache::isFull);
+    }
 
-        return addressId;
+    public int getAddressId(String networkAddress) {
+        Integer addressId = networkAddressCache.get(NetworkAddressInventory.buildId(networkAddress), key -> {
+            int loaded = getCacheDAO().getAddressId(networkAddress);
+            return loaded == Const.NONE ? null : loaded;
+        });
+
+        return isNull(addressId) ? Const.NONE : addressId;
     }
 
     public NetworkAddressInventory get(int addressId) {
-        NetworkAddressInventory networkAddress = addressIdCache.getIfPresent(addressId);
-
-        if (isNull(networkAddress)) {
-            networkAddress = getCacheDAO().get(addressId);
-            if (nonNull(networkAddress)) {
-                addressIdCache.put(addressId, networkAddress);
-            }
-        }
-        return networkAddress;
+        return addressIdCache.get(addressId, key -> getCacheDAO().get(key));
     }
 }
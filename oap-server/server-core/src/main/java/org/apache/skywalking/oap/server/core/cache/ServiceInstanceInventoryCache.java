@@ -18,7 +18,6 @@
 
 package org.apache.skywalking.oap.server.core.cache;
 
-import com.google.common.cache.*;
 import java.util.Objects;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
@@ -27,6 +26,7 @@ import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.cache.IServiceInstanceInventoryCacheDAO;
 import org.apache.skywalking.oap.server.library.module.*;
 import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.slf4j.*;
 
 import static java.util.Objects.isNull;
@@ -39,9 +39,10 @@ public class ServiceInstanceInventoryCache implements Service {
     private static final Logger logger = LoggerFactory.getLogger(ServiceInstanceInventoryCache.class);
 
     private final ServiceInstanceInventory userServiceInstance;
-    private final Cache<Integer, ServiceInstanceInventory> serviceInstanceIdCache;
-    private final Cache<String, Integer> serviceInstanceNameCache;
-    private final Cache<String, Integer> addressIdCache;
+    private final InventoryLookupCache<Integer, ServiceInstanceInventory> serviceInstanceIdCache;
+    private final InventoryLookupCache<String, Integer> serviceInstanceNameCache;
+    private final InventoryLookupCache<String, Integer> addressIdCache;
+    private int lastLoadedSequence = 0;
     private final ModuleManager moduleManager;
     private IServiceInstanceInventoryCacheDAO cacheDAO;
 
@@ -54,12 +55,9 @@ public class ServiceInstanceInventoryCache implements Service {
         this.userServiceInstance.setServiceId(Const.USER_SERVICE_ID);
         this.userServiceInstance.setIsAddress(BooleanUtils.FALSE);
 
-        long initialSize = moduleConfig.getMaxSizeOfServiceInstanceInventory() / 10L;
-        int initialCapacitySize = (int)(initialSize > Integer.MAX_VALUE ? Integer.MAX_VALUE : initialSize);
-
-        serviceInstanceIdCache = CacheBuilder.newBuilder().initialCapacity(initialCapacitySize).maximumSize(moduleConfig.getMaxSizeOfServiceInstanceInventory()).build();
-        serviceInstanceNameCache = CacheBuilder.newBuilder().initialCapacity(initialCapacitySize).maximumSize(moduleConfig.getMaxSizeOfServiceInstanceInventory()).build();
-        addressIdCache = CacheBuilder.newBuilder().initialCapacity(initialCapacitySize).maximumSize(moduleConfig.getMaxSizeOfServiceInstanceInventory()).build();
+        serviceInstanceIdCache = new InventoryLookupCache<>("service_instance_id", moduleConfig.getMaxSizeOfServiceInstanceInventory(), moduleConfig.getInventoryMissCacheTTL());
+        serviceInstanceNameCache = new InventoryLookupCache<>("service_instance_name", moduleConfig.getMaxSizeOfServiceInstanceInventory(), moduleConfig.getInventoryMissCacheTTL());
+        addressIdCache = new InventoryLookupCache<>("service_instance_address", moduleConfig.getMaxSizeOfServiceInstanceInventory(), moduleConfig.getInventoryMissCacheTTL());
     }
 
     private IServiceInstanceInventoryCacheDAO getCacheDAO() {
@@ -69,43 +67,47 @@ public class ServiceInstanceInventoryCache implements Service {
         return this.cacheDAO;
     }
 
+    void initTelemetry(MetricsCreator metricsCreator) {
+        serviceInstanceIdCache.initTelemetry(metricsCreator);
+        serviceInstanceNameCache.initTelemetry(metricsCreator);
+        addressIdCache.initTelemetry(metricsCreator);
+    }
+
+    /**
+     * Load the service instances registered after the last loaded one, all of them at the first time.
+     */
+    void loadNewInventories(int pageSize) {
+        lastLoadedSequence = InventoryLookupCache.loadAfter(lastLoadedSequence, pageSize, getCacheDAO()::loadAfter, serviceInstanceInventory -> {
+            serviceInstanceIdCache.put(serviceInstanceInventory.getSequence(), serviceInstanceInventory);
+            if (BooleanUtils.TRUE == serviceInstanceInventory.getIsAddress()) {
+                addressIdCache.put(serviceInstanceInventory.id(), serviceInstanceInventory.getSequence());
+            } else {
+                serviceInstanceNameCache.put(serviceInstanceInventory.id(), serviceInstanceInventory.getSequence());
+            }
+        }, serviceInstanceIdCache::isFull);
+    }
+
     public ServiceInstanceInventory get(int serviceInstanceId) {
         if (Const.USER_INSTANCE_ID == serviceInstanceId) {
             return userServiceInstance;
         }
 
-        ServiceInstanceInventory serviceInstanceInventory = serviceInstanceIdCache.getIfPresent(serviceInstanceId);
-
-        if (Objects.isNull(serviceInstanceInventory)) {
-            serviceInstanceInventory = getCacheDAO().get(serviceInstanceId);
-            if (Objects.nonNull(serviceInstanceInventory)) {
-                serviceInstanceIdCache.put(serviceInstanceId, serviceInstanceInventory);
-            }
-        }
-        return serviceInstanceInventory;
+        return serviceInstanceIdCache.get(serviceInstanceId, key -> getCacheDAO().get(key));
     }
 
     public int getServiceInstanceId(int serviceId, String uuid) {
-        Integer serviceInstanceId = serviceInstanceNameCache.getIfPresent(ServiceInstanceInventory.buildId(serviceId, uuid));
-
-        if (Objects.isNull(serviceInstanceId) || serviceInstanceId == Const.NONE) {
-            serviceInstanceId = getCacheDAO().getServiceInstanceId(serviceId, uuid);
-            if (serviceId != Const.NONE) {
-                serviceInstanceNameCache.put(ServiceInstanceInventory.buildId(serviceId, uuid), serviceInstanceId);
-            }
-        }
-        return serviceInstanceId;
+        Integer serviceInstanceId = serviceInstanceNameCache.get(ServiceInstanceInventory.buildId(serviceId, uuid), key -> {
+            int loaded = getCacheDAO().getServiceInstanceId(serviceId, uuid);
+            return loaded == Const.NONE ? null : loaded;
+        });
+        return Objects.isNull(serviceInstanceId) ? Const.NONE : serviceInstanceId;
     }
 
     public int getServiceInstanceId(int serviceId, int addressId) {
-        Integer serviceInstanceId = addressIdCache.getIfPresent(ServiceInstanceInventory.buildId(serviceId, addressId));
-
-        if (Objects.isNull(serviceInstanceId) || serviceInstanceId == Const.NONE) {
-            serviceInstanceId = getCacheDAO().getServiceInstanceId(serviceId, addressId);
-            if (serviceId != Const.NONE) {
-                addressIdCache.put(ServiceInstanceInventory.buildId(serviceId, addressId), serviceInstanceId);
-            }
-        }
-        return serviceInstanceId;
+        Integer serviceInstanceId = addressIdCache.get(ServiceInstanceInventory.buildId(serviceId, addressId), key -> {
+            int loaded = getCacheDAO().getServiceInstanceId(serviceId, addressId);
+            return loaded == Const.NONE ? null : loaded;
+        });
+        return Objects.isNull(serviceInstanceId) ? Const.NONE : serviceInstanceId;
     }
 }
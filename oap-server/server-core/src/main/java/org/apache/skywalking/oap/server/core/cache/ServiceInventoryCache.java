@@ -18,7 +18,6 @@
 
 package org.apache.skywalking.oap.server.core.cache;
 
-import com.google.common.cache.*;
 import java.util.Objects;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
@@ -27,9 +26,10 @@ import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.cache.IServiceInventoryCacheDAO;
 import org.apache.skywalking.oap.server.library.module.*;
 import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.slf4j.*;
 
-import static java.util.Objects.*;
+import static java.util.Objects.isNull;
 
 /**
  * @author peng-yongsheng
@@ -39,9 +39,10 @@ public class ServiceInventoryCache implements Service {
     private static final Logger logger = LoggerFactory.getLogger(ServiceInventoryCache.class);
 
     private final ServiceInventory userService;
-    private final Cache<String, Integer> serviceNameCache;
-    private final Cache<String, Integer> addressIdCache;
-    private final Cache<Integer, ServiceInventory> serviceIdCache;
+    private final InventoryLookupCache<String, Integer> serviceNameCache;
+    private final InventoryLookupCache<String, Integer> addressIdCache;
+    private final InventoryLookupCache<Integer, ServiceInventory> serviceIdCache;
+    private int lastLoadedSequence = 0;
 
     private final ModuleManager moduleManager;
     private IServiceInventoryCacheDAO cacheDAO;
@@ -54,12 +55,9 @@ public class ServiceInventoryCache implements Service {
         this.userService.setName(Const.USER_CODE);
         this.userService.setIsAddress(BooleanUtils.FALSE);
 
-        long initialSize = moduleConfig.getMaxSizeOfServiceInventory() / 10L;
-        int initialCapacitySize = (int)(initialSize > Integer.MAX_VALUE ? Integer.MAX_VALUE : initialSize);
-
-        serviceNameCache = CacheBuilder.newBuilder().initialCapacity(initialCapacitySize).maximumSize(moduleConfig.getMaxSizeOfServiceInventory()).build();
-        addressIdCache = CacheBuilder.newBuilder().initialCapacity(initialCapacitySize).maximumSize(moduleConfig.getMaxSizeOfServiceInventory()).build();
-        serviceIdCache = CacheBuilder.newBuilder().initialCapacity(initialCapacitySize).maximumSize(moduleConfig.getMaxSizeOfServiceInventory()).build();
+        serviceNameCache = new InventoryLookupCache<>("service_name", moduleConfig.getMaxSizeOfServiceInventory(), moduleConfig.getInventoryMissCacheTTL());
+        addressIdCache = new InventoryLookupCache<>("service_address", moduleConfig.getMaxSizeOfServiceInventory(), moduleConfig.getInventoryMissCacheTTL());
+        serviceIdCache = new InventoryLookupCache<>("service_id", moduleConfig.getMaxSizeOfServiceInventory(), moduleConfig.getInventoryMissCacheTTL());
     }
 
     private IServiceInventoryCacheDAO getCacheDAO() {
@@ -69,28 +67,40 @@ public class ServiceInventoryCache implements Service {
         return this.cacheDAO;
     }
 
-    public int getServiceId(String serviceName) {
-        Integer serviceId = serviceNameCache.getIfPresent(ServiceInventory.buildId(serviceName));
+    void initTelemetry(MetricsCreator metricsCreator) {
+        serviceNameCache.initTelemetry(metricsCreator);
+        addressIdCache.initTelemetry(metricsCreator);
+        serviceIdCache.initTelemetry(metricsCreator);
+    }
 
-        if (Objects.isNull(serviceId) || serviceId == Const.NONE) {
-            serviceId = getCacheDAO().getServiceId(serviceName);
-            if (serviceId != Const.NONE) {
-                serviceNameCache.put(ServiceInventory.buildId(serviceName), serviceId);
+    /**
+     * Load the services registered after the last loaded one, all of them at the first time.
+     */
+    void loadNewInventories(int pageSize) {
+        lastLoadedSequence = InventoryLookupCache.loadAfter(lastLoadedSequence, pageSize, getCacheDAO()::loadAfter, serviceInventory -> {
+            serviceIdCache.put(serviceInventory.getSequence(), serviceInventory);
+            if (BooleanUtils.TRUE == serviceInventory.getIsAddress()) {
+                addressIdCache.put(serviceInventory.id(), serviceInventory.getSequence());
+            } else {
+                serviceNameCache.put(serviceInventory.id(), serviceInventory.getSequence());
             }
-        }
-        return serviceId;
+        }, serviceIdCache::isFull);
     }
 
-    public int getServiceId(int addressId) {
-        Integer serviceId = addressIdCache.getIfPresent(ServiceInventory.buildId(addressId));
+    public int getServiceId(String serviceName) {
+        Integer serviceId = serviceNameCache.get(ServiceInventory.buildId(serviceName), key -> {
+            int loaded = getCacheDAO().getServiceId(serviceName);
+            return loaded == Const.NONE ? null : loaded;
+        });
+        return isNull(serviceId) ? Const.NONE : serviceId;
+    }
 
-        if (Objects.isNull(serviceId) || serviceId == Const.NONE) {
-            serviceId = getCacheDAO().getServiceId(addressId);
-            if (serviceId != Const.NONE) {
-                addressIdCache.put(ServiceInventory.buildId(addressId), serviceId);
-            }
-        }
-        return serviceId;
+    public int getServiceId(int addressId) {
+        Integer serviceId = addressIdCache.get(ServiceInventory.buildId(addressId), key -> {
+            int loaded = getCacheDAO().getServiceId(addressId);
+            return loaded == Const.NONE ? null : loaded;
+        });
+        return isNull(serviceId) ? Const.NONE : serviceId;
     }
 
     public ServiceInventory get(int serviceId) {
@@ -102,14 +112,7 @@ public class ServiceInventoryCache implements Service {
             return userService;
         }
 
-        ServiceInventory serviceInventory = serviceIdCache.getIfPresent(serviceId);
-
-        if (isNull(serviceInventory)) {
-            serviceInventory = getCacheDAO().get(serviceId);
-            if (nonNull(serviceInventory)) {
-                serviceIdCache.put(serviceId, serviceInventory);
-            }
-        }
+        ServiceInventory serviceInventory = serviceIdCache.get(serviceId, key -> getCacheDAO().get(key));
 
         if (logger.isDebugEnabled()) {
             if (Objects.isNull(serviceInventory)) {
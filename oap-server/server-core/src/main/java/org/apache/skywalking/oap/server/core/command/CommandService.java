@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.command;
 
+import org.apache.skywalking.apm.network.trace.component.command.SamplingRateCommand;
 import org.apache.skywalking.apm.network.trace.component.command.ServiceResetCommand;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.module.Service;
@@ -29,9 +30,15 @@ import java.util.UUID;
  */
 public class CommandService implements Service {
     private final ModuleManager moduleManager;
+    private final int agentSampleNPer3Secs;
 
-    public CommandService(final ModuleManager moduleManager) {
+    /**
+     * @param agentSampleNPer3Secs the number of sampled traces in 3 seconds pushed to the agents, negative or zero means
+     * the agents use their local settings.
+     */
+    public CommandService(final ModuleManager moduleManager, final int agentSampleNPer3Secs) {
         this.moduleManager = moduleManager;
+        this.agentSampleNPer3Secs = agentSampleNPer3Secs;
     }
 
     public ServiceResetCommand newResetCommand(final int serviceInstanceId, final long time, final String serviceInstanceUUID) {
@@ -39,6 +46,16 @@ public class CommandService implements Service {
         return new ServiceResetCommand(serialNumber);
     }
 
+    /**
+     * @return the command changing the sampling rate of the agent, null if the agents use their local settings.
+     */
+    public SamplingRateCommand newSamplingRateCommand() {
+        if (agentSampleNPer3Secs <= 0) {
+            return null;
+        }
+        return new SamplingRateCommand(UUID.randomUUID().toString(), agentSampleNPer3Secs);
+    }
+
     private String generateSerialNumber(final int serviceInstanceId, final long time, final String serviceInstanceUUID) {
         return UUID.randomUUID().toString(); // Simply generate a uuid without taking care of the parameters
     }
@@ -40,6 +40,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * The results of the finished time ranges are cached by the {@link QueryExecutor}.
+ *
  * @author peng-yongsheng
  */
 public class MetricQueryService implements Service {
@@ -47,10 +49,12 @@ public class MetricQueryService implements Service {
     private static final Logger logger = LoggerFactory.getLogger(MetricQueryService.class);
 
     private final ModuleManager moduleManager;
+    private final QueryExecutor queryExecutor;
     private IMetricsQueryDAO metricQueryDAO;
 
-    public MetricQueryService(ModuleManager moduleManager) {
+    public MetricQueryService(ModuleManager moduleManager, QueryExecutor queryExecutor) {
         this.moduleManager = moduleManager;
+        this.queryExecutor = queryExecutor;
     }
 
     private IMetricsQueryDAO getMetricQueryDAO() {
@@ -79,7 +83,8 @@ public class MetricQueryService implements Service {
         where.getKeyValues().add(intKeyValues);
         ids.forEach(intKeyValues.getValues()::add);
 
-        return getMetricQueryDAO().getValues(indName, downsampling, startTB, endTB, where, ValueColumnIds.INSTANCE.getValueCName(indName), ValueColumnIds.INSTANCE.getValueFunction(indName));
+        String key = "values:" + indName + ":" + downsampling + ":" + startTB + ":" + endTB + ":" + ids;
+        return queryExecutor.cached(key, downsampling, endTB, () -> getMetricQueryDAO().getValues(ValueColumnIds.INSTANCE.getIndName(indName), downsampling, startTB, endTB, where, ValueColumnIds.INSTANCE.getValueCName(indName), ValueColumnIds.INSTANCE.getValueFunction(indName)));
     }
 
     public IntValues getLinearIntValues(final String indName, final String id, final Downsampling downsampling,
@@ -93,7 +98,8 @@ public class MetricQueryService implements Service {
             durationPoints.forEach(durationPoint -> ids.add(durationPoint.getPoint() + Const.ID_SPLIT + id));
         }
 
-        return getMetricQueryDAO().getLinearIntValues(indName, downsampling, ids, ValueColumnIds.INSTANCE.getValueCName(indName));
+        String key = "linear:" + indName + ":" + downsampling + ":" + startTB + ":" + endTB + ":" + id;
+        return queryExecutor.cached(key, downsampling, endTB, () -> getMetricQueryDAO().getLinearIntValues(ValueColumnIds.INSTANCE.getIndName(indName), downsampling, ids, ValueColumnIds.INSTANCE.getValueCName(indName)));
     }
 
     public Thermodynamic getThermodynamic(final String indName, final String id, final Downsampling downsampling,
@@ -109,6 +115,7 @@ public class MetricQueryService implements Service {
             }
         });
 
-        return getMetricQueryDAO().getThermodynamic(indName, downsampling, ids, ValueColumnIds.INSTANCE.getValueCName(indName));
+        String key = "thermodynamic:" + indName + ":" + downsampling + ":" + startTB + ":" + endTB + ":" + id;
+        return queryExecutor.cached(key, downsampling, endTB, () -> getMetricQueryDAO().getThermodynamic(ValueColumnIds.INSTANCE.getIndName(indName), downsampling, ids, ValueColumnIds.INSTANCE.getValueCName(indName)));
     }
 }
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import com.google.common.cache.*;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.util.concurrent.*;
+import org.apache.skywalking.oap.server.core.analysis.*;
+
+/**
+ * QueryExecutor runs the independent storage queries of one query concurrently in a bounded pool, and waits for them
+ * until the deadline of the query. When the pool is busy, the queries run in the calling thread.
+ *
+ * The results of the time ranges which have finished are cached for a while, as the dashboards repeat the same
+ * queries at every refresh. A range is finished when its end is {@link #FINISHED_DELAY} earlier than now, then the
+ * metrics of it have been persisted.
+ */
+public class QueryExecutor {
+
+    private static final long FINISHED_DELAY = TimeUnit.MINUTES.toMillis(5);
+    private static final long CACHE_EXPIRE_MINUTES = 10;
+
+    private final ExecutorService executor;
+    private final long timeout;
+    private final Cache<String, Object> resultCache;
+
+    /**
+     * @param timeout of every query, unit is second.
+     * @param cacheSize the max number of cached results, 0 means no cache.
+     */
+    public QueryExecutor(int threads, int timeout, int cacheSize) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads * 64),
+            new ThreadFactoryBuilder().setNameFormat("query-executor-%d").setDaemon(true).build(), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.timeout = TimeUnit.SECONDS.toMillis(timeout);
+        if (cacheSize > 0) {
+            this.resultCache = CacheBuilder.newBuilder().maximumSize(cacheSize).expireAfterWrite(CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES).build();
+        } else {
+            this.resultCache = null;
+        }
+    }
+
+    /**
+     * @return the deadline of the query starting now.
+     */
+    public long deadline() {
+        return System.currentTimeMillis() + timeout;
+    }
+
+    public <T> Future<T> submit(Callable<T> query) {
+        return executor.submit(query);
+    }
+
+    /**
+     * Wait for the result of the submitted query, the query is cancelled if the deadline passes.
+     */
+    public <T> T get(Future<T> future, long deadline) throws IOException {
+        try {
+            return future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IOException("Query timeout after " + timeout + " ms.", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Return the cached result of the key if the time range has finished, otherwise execute the query.
+     *
+     * @param key identifies the query and its conditions, including the time range.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T cached(String key, Downsampling downsampling, long endTB, Callable<T> query) throws IOException {
+        if (resultCache == null || !isFinished(downsampling, endTB)) {
+            return call(query);
+        }
+
+        Object result = resultCache.getIfPresent(key);
+        if (result == null) {
+            result = call(query);
+            if (result != null) {
+                resultCache.put(key, result);
+            }
+        }
+        return (T)result;
+    }
+
+    boolean isFinished(Downsampling downsampling, long endTB) {
+        return endTB < TimeBucket.getTimeBucket(System.currentTimeMillis() - FINISHED_DELAY, downsampling);
+    }
+
+    private <T> T call(Callable<T> query) throws IOException {
+        try {
+            return query.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Future;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.Downsampling;
@@ -43,6 +44,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * The client side and server side relations are loaded concurrently by the {@link QueryExecutor}.
+ *
  * @author peng-yongsheng
  */
 public class TopologyQueryService implements Service {
@@ -50,13 +53,15 @@ public class TopologyQueryService implements Service {
     private static final Logger logger = LoggerFactory.getLogger(TopologyQueryService.class);
 
     private final ModuleManager moduleManager;
+    private final QueryExecutor queryExecutor;
     private ITopologyQueryDAO topologyQueryDAO;
     private IMetadataQueryDAO metadataQueryDAO;
     private EndpointInventoryCache endpointInventoryCache;
     private IComponentLibraryCatalogService componentLibraryCatalogService;
 
-    public TopologyQueryService(ModuleManager moduleManager) {
+    public TopologyQueryService(ModuleManager moduleManager, QueryExecutor queryExecutor) {
         this.moduleManager = moduleManager;
+        this.queryExecutor = queryExecutor;
     }
 
     private IMetadataQueryDAO getMetadataQueryDAO() {
@@ -89,21 +94,28 @@ public class TopologyQueryService implements Service {
 
     public Topology getGlobalTopology(final Downsampling downsampling, final long startTB, final long endTB) throws IOException {
         logger.debug("Downsampling: {}, startTimeBucket: {}, endTimeBucket: {}", downsampling, startTB, endTB);
-        List<Call.CallDetail> serviceRelationServerCalls = getTopologyQueryDAO().loadServerSideServiceRelations(downsampling, startTB, endTB);
-        List<Call.CallDetail> serviceRelationClientCalls = getTopologyQueryDAO().loadClientSideServiceRelations(downsampling, startTB, endTB);
-
-        TopologyBuilder builder = new TopologyBuilder(moduleManager);
-        Topology topology = builder.build(serviceRelationClientCalls, serviceRelationServerCalls);
-
-        return topology;
+        String key = "globalTopology:" + downsampling + ":" + startTB + ":" + endTB;
+        return queryExecutor.cached(key, downsampling, endTB, () -> {
+            long deadline = queryExecutor.deadline();
+            Future<List<Call.CallDetail>> serverCalls = queryExecutor.submit(() -> getTopologyQueryDAO().loadServerSideServiceRelations(downsampling, startTB, endTB));
+            Future<List<Call.CallDetail>> clientCalls = queryExecutor.submit(() -> getTopologyQueryDAO().loadClientSideServiceRelations(downsampling, startTB, endTB));
+            List<Call.CallDetail> serviceRelationServerCalls = queryExecutor.get(serverCalls, deadline);
+            List<Call.CallDetail> serviceRelationClientCalls = queryExecutor.get(clientCalls, deadline);
+
+            TopologyBuilder builder = new TopologyBuilder(moduleManager);
+            return builder.build(serviceRelationClientCalls, serviceRelationServerCalls);
+        });
     }
 
     public Topology getServiceTopology(final Downsampling downsampling, final long startTB, final long endTB, final int serviceId) throws IOException {
         List<Integer> serviceIds = new ArrayList<>();
         serviceIds.add(serviceId);
 
-        List<Call.CallDetail> serviceRelationClientCalls = getTopologyQueryDAO().loadSpecifiedClientSideServiceRelations(downsampling, startTB, endTB, serviceIds);
-        List<Call.CallDetail> serviceRelationServerCalls = getTopologyQueryDAO().loadSpecifiedServerSideServiceRelations(downsampling, startTB, endTB, serviceIds);
+        long deadline = queryExecutor.deadline();
+        Future<List<Call.CallDetail>> clientCalls = queryExecutor.submit(() -> getTopologyQueryDAO().loadSpecifiedClientSideServiceRelations(downsampling, startTB, endTB, serviceIds));
+        Future<List<Call.CallDetail>> serverCalls = queryExecutor.submit(() -> getTopologyQueryDAO().loadSpecifiedServerSideServiceRelations(downsampling, startTB, endTB, serviceIds));
+        List<Call.CallDetail> serviceRelationClientCalls = queryExecutor.get(clientCalls, deadline);
+        List<Call.CallDetail> serviceRelationServerCalls = queryExecutor.get(serverCalls, deadline);
 
         TopologyBuilder builder = new TopologyBuilder(moduleManager);
         Topology topology = builder.build(serviceRelationClientCalls, serviceRelationServerCalls);
@@ -35,7 +35,6 @@ import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.query.ITraceQueryDAO;
 import org.apache.skywalking.oap.server.library.module.Service;
 import org.apache.skywalking.oap.server.library.module.*;
-import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 
 import static java.util.Objects.nonNull;
 
@@ -44,15 +43,22 @@ import static java.util.Objects.nonNull;
  */
 public class TraceQueryService implements Service {
 
+    private static final int SEGMENT_PAGE_SIZE = 100;
+
     private final ModuleManager moduleManager;
+    private final int maxSpansOfTrace;
     private ITraceQueryDAO traceQueryDAO;
     private ServiceInventoryCache serviceInventoryCache;
     private EndpointInventoryCache endpointInventoryCache;
     private NetworkAddressInventoryCache networkAddressInventoryCache;
     private IComponentLibraryCatalogService componentLibraryCatalogService;
 
-    public TraceQueryService(ModuleManager moduleManager) {
+    public TraceQueryService(ModuleManager moduleManager, int maxSpansOfTrace) {
+        if (maxSpansOfTrace <= 0) {
+            throw new IllegalArgumentException("maxSpansOfTrace must be positive: " + maxSpansOfTrace);
+        }
         this.moduleManager = moduleManager;
+        this.maxSpansOfTrace = maxSpansOfTrace;
     }
 
     private ITraceQueryDAO getTraceQueryDAO() {
@@ -100,45 +106,157 @@ public class TraceQueryService implements Service {
             serviceId, serviceInstanceId, endpointId, traceId, page.getLimit(), page.getFrom(), traceState, queryOrder);
     }
 
+    /**
+     * Query the whole trace, or the first {@link #maxSpansOfTrace} spans in the tree order if it is larger, the others
+     * of which are queried by {@link #queryTrace(String, String, Pagination)}.
+     */
     public Trace queryTrace(final String traceId) throws IOException {
+        return queryTrace(traceId, null, 0, maxSpansOfTrace);
+    }
+
+    /**
+     * Query one page of the spans of the trace in the tree order, for the traces too large to be queried at once.
+     *
+     * @param subtreeRoot the segment span id of the subtree root, null for the whole trace.
+     */
+    public Trace queryTrace(final String traceId, final String subtreeRoot, final Pagination paging) throws IOException {
+        PaginationUtils.Page page = PaginationUtils.INSTANCE.exchange(paging);
+        return queryTrace(traceId, subtreeRoot, page.getFrom(), page.getLimit());
+    }
+
+    /**
+     * The segments are read by pages, and only the ids of the spans and their parents are kept to sort the whole
+     * trace. The segments are kept too until the trace has more than {@link #maxSpansOfTrace} spans, then the
+     * segments of the spans in the range are read again. The full spans are built for the spans in the range only.
+     */
+    private Trace queryTrace(String traceId, String subtreeRoot, int from, int limit) throws IOException {
         Trace trace = new Trace();
 
-        List<SegmentRecord> segmentRecords = getTraceQueryDAO().queryByTraceId(traceId);
-        if (segmentRecords.isEmpty()) {
-            trace.getSpans().addAll(getTraceQueryDAO().doFlexibleTraceQuery(traceId));
-        } else {
+        TraceTree<SpanIndex> tree = new TraceTree<>();
+        List<SegmentRecord> keptSegments = new ArrayList<>();
+        String afterSegmentId = null;
+        List<SegmentRecord> segmentRecords;
+        do {
+            segmentRecords = getTraceQueryDAO().queryByTraceId(traceId, afterSegmentId, SEGMENT_PAGE_SIZE);
             for (SegmentRecord segment : segmentRecords) {
-                if (nonNull(segment)) {
-                    if (segment.getVersion() == 2) {
-                        SegmentObject segmentObject = SegmentObject.parseFrom(segment.getDataBinary());
-                        trace.getSpans().addAll(buildSpanV2List(traceId, segment.getSegmentId(), segment.getServiceId(), segmentObject.getSpansList()));
-                    } else {
-                        TraceSegmentObject segmentObject = TraceSegmentObject.parseFrom(segment.getDataBinary());
-                        trace.getSpans().addAll(buildSpanList(traceId, segment.getSegmentId(), segment.getServiceId(), segmentObject.getSpansList()));
+                indexSpans(tree, segment);
+                afterSegmentId = segment.getSegmentId();
+                if (keptSegments != null) {
+                    keptSegments.add(segment);
+                    if (tree.size() > maxSpansOfTrace) {
+                        keptSegments = null;
                     }
                 }
             }
         }
+        while (segmentRecords.size() == SEGMENT_PAGE_SIZE);
+
+        if (tree.size() == 0) {
+            // The storage doesn't save the segments, the spans are read by the flexible query at once.
+            TraceTree<Span> spanTree = new TraceTree<>();
+            getTraceQueryDAO().doFlexibleTraceQuery(traceId).forEach(span -> spanTree.add(span.getSegmentSpanId(), span.getSegmentParentSpanId(), span));
+            spanTree.sorted(subtreeRoot, from, limit).forEach(span -> {
+                span.setRoot(spanTree.isRoot(span.getSegmentSpanId()));
+                trace.getSpans().add(span);
+            });
+            return trace;
+        }
 
-        List<Span> sortedSpans = new LinkedList<>();
-        if (CollectionUtils.isNotEmpty(trace.getSpans())) {
-            List<Span> rootSpans = findRoot(trace.getSpans());
+        List<SpanIndex> pageSpans = tree.sorted(subtreeRoot, from, limit);
+        Set<String> pageSpanIds = new HashSet<>();
+        Set<String> segmentIds = new LinkedHashSet<>();
+        pageSpans.forEach(index -> {
+            pageSpanIds.add(index.segmentSpanId);
+            segmentIds.add(index.segmentId);
+        });
 
-            if (CollectionUtils.isNotEmpty(rootSpans)) {
-                rootSpans.forEach(span -> {
-                    List<Span> childrenSpan = new ArrayList<>();
-                    childrenSpan.add(span);
-                    findChildren(trace.getSpans(), span, childrenSpan);
-                    sortedSpans.addAll(childrenSpan);
-                });
+        Map<String, Span> spans = new HashMap<>();
+        if (keptSegments != null) {
+            for (SegmentRecord segment : keptSegments) {
+                if (segmentIds.contains(segment.getSegmentId())) {
+                    collectSpans(traceId, segment, pageSpanIds, spans);
+                }
+            }
+        } else {
+            List<String> segmentIdList = new ArrayList<>(segmentIds);
+            for (int i = 0; i < segmentIdList.size(); i += SEGMENT_PAGE_SIZE) {
+                List<String> batch = segmentIdList.subList(i, Math.min(i + SEGMENT_PAGE_SIZE, segmentIdList.size()));
+                for (SegmentRecord segment : getTraceQueryDAO().queryBySegmentIds(traceId, batch)) {
+                    collectSpans(traceId, segment, pageSpanIds, spans);
+                }
             }
         }
 
-        trace.getSpans().clear();
-        trace.getSpans().addAll(sortedSpans);
+        pageSpans.forEach(index -> {
+            Span span = spans.get(index.segmentSpanId);
+            if (nonNull(span)) {
+                span.setRoot(tree.isRoot(index.segmentSpanId));
+                trace.getSpans().add(span);
+            }
+        });
         return trace;
     }
 
+    private void collectSpans(String traceId, SegmentRecord segment, Set<String> segmentSpanIds,
+        Map<String, Span> spans) throws IOException {
+        for (Span span : buildSpans(traceId, segment)) {
+            if (segmentSpanIds.contains(span.getSegmentSpanId())) {
+                spans.put(span.getSegmentSpanId(), span);
+            }
+        }
+    }
+
+    private List<Span> buildSpans(String traceId, SegmentRecord segment) throws IOException {
+        if (segment.getVersion() == 2) {
+            SegmentObject segmentObject = SegmentObject.parseFrom(segment.getDataBinary());
+            return buildSpanV2List(traceId, segment.getSegmentId(), segment.getServiceId(), segmentObject.getSpansList());
+        } else {
+            TraceSegmentObject segmentObject = TraceSegmentObject.parseFrom(segment.getDataBinary());
+            return buildSpanList(traceId, segment.getSegmentId(), segment.getServiceId(), segmentObject.getSpansList());
+        }
+    }
+
+    /**
+     * Index the spans of the segment by the same parent as {@link Span#getSegmentParentSpanId()}, the parent in the
+     * last reference if there is any, otherwise the parent in the segment.
+     */
+    private void indexSpans(TraceTree<SpanIndex> tree, SegmentRecord segment) throws IOException {
+        String segmentId = segment.getSegmentId();
+        if (segment.getVersion() == 2) {
+            for (SpanObjectV2 spanObject : SegmentObject.parseFrom(segment.getDataBinary()).getSpansList()) {
+                String segmentParentSpanId = segmentId + Const.SEGMENT_SPAN_SPLIT + spanObject.getParentSpanId();
+                if (spanObject.getRefsCount() > 0) {
+                    SegmentReference reference = spanObject.getRefs(spanObject.getRefsCount() - 1);
+                    segmentParentSpanId = parentSegmentId(reference.getParentTraceSegmentId()) + Const.SEGMENT_SPAN_SPLIT + reference.getParentSpanId();
+                }
+                String segmentSpanId = segmentId + Const.SEGMENT_SPAN_SPLIT + spanObject.getSpanId();
+                tree.add(segmentSpanId, segmentParentSpanId, new SpanIndex(segmentId, segmentSpanId));
+            }
+        } else {
+            for (SpanObject spanObject : TraceSegmentObject.parseFrom(segment.getDataBinary()).getSpansList()) {
+                String segmentParentSpanId = segmentId + Const.SEGMENT_SPAN_SPLIT + spanObject.getParentSpanId();
+                if (spanObject.getRefsCount() > 0) {
+                    TraceSegmentReference reference = spanObject.getRefs(spanObject.getRefsCount() - 1);
+                    segmentParentSpanId = parentSegmentId(reference.getParentTraceSegmentId()) + Const.SEGMENT_SPAN_SPLIT + reference.getParentSpanId();
+                }
+                String segmentSpanId = segmentId + Const.SEGMENT_SPAN_SPLIT + spanObject.getSpanId();
+                tree.add(segmentSpanId, segmentParentSpanId, new SpanIndex(segmentId, segmentSpanId));
+            }
+        }
+    }
+
+    private static String parentSegmentId(UniqueId uniqueId) {
+        StringBuilder segmentIdBuilder = new StringBuilder();
+        for (int i = 0; i < uniqueId.getIdPartsList().size(); i++) {
+            if (i == 0) {
+                segmentIdBuilder.append(uniqueId.getIdPartsList().get(i));
+            } else {
+                segmentIdBuilder.append(".").append(uniqueId.getIdPartsList().get(i));
+            }
+        }
+        return segmentIdBuilder.toString();
+    }
+
     private List<Span> buildSpanV2List(String traceId, String segmentId, int serviceId,
         List<SpanObjectV2> spanObjects) {
         List<Span> spans = new ArrayList<>();
@@ -357,32 +475,16 @@ public class TraceQueryService implements Service {
         return spans;
     }
 
-    private List<Span> findRoot(List<Span> spans) {
-        List<Span> rootSpans = new ArrayList<>();
-        spans.forEach(span -> {
-            String segmentParentSpanId = span.getSegmentParentSpanId();
-
-            boolean hasParent = false;
-            for (Span subSpan : spans) {
-                if (segmentParentSpanId.equals(subSpan.getSegmentSpanId())) {
-                    hasParent = true;
-                }
-            }
-
-            if (!hasParent) {
-                span.setRoot(true);
-                rootSpans.add(span);
-            }
-        });
-        return rootSpans;
-    }
+    /**
+     * The span in the index of the paged query, the segment id is shared by the spans of the same segment.
+     */
+    private static class SpanIndex {
+        private final String segmentId;
+        private final String segmentSpanId;
 
-    private void findChildren(List<Span> spans, Span parentSpan, List<Span> childrenSpan) {
-        spans.forEach(span -> {
-            if (span.getSegmentParentSpanId().equals(parentSpan.getSegmentSpanId())) {
-                childrenSpan.add(span);
-                findChildren(spans, span, childrenSpan);
-            }
-        });
+        private SpanIndex(String segmentId, String segmentSpanId) {
+            this.segmentId = segmentId;
+            this.segmentSpanId = segmentSpanId;
+        }
     }
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import java.util.*;
+
+/**
+ * The index of the spans of one trace, by the segment span id and the segment parent span id only. The spans whose
+ * parent isn't in the trace are the roots. The spans are listed in the tree order, the children follow their parent,
+ * in the order of being added.
+ *
+ * @param <T> the span, or any compact node standing for it.
+ */
+class TraceTree<T> {
+
+    private final List<Node<T>> nodes = new ArrayList<>();
+    private final Map<String, Node<T>> spans = new HashMap<>();
+    private final Map<String, List<Node<T>>> children = new HashMap<>();
+
+    void add(String segmentSpanId, String segmentParentSpanId, T span) {
+        Node<T> node = new Node<>(segmentSpanId, segmentParentSpanId, span);
+        nodes.add(node);
+        spans.put(segmentSpanId, node);
+        children.computeIfAbsent(segmentParentSpanId, key -> new ArrayList<>()).add(node);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    boolean isRoot(String segmentSpanId) {
+        Node<T> node = spans.get(segmentSpanId);
+        return node != null && !spans.containsKey(node.segmentParentSpanId);
+    }
+
+    /**
+     * @return all spans in the tree order.
+     */
+    List<T> sorted() {
+        List<Node<T>> roots = new ArrayList<>();
+        for (Node<T> node : nodes) {
+            if (!spans.containsKey(node.segmentParentSpanId)) {
+                roots.add(node);
+            }
+        }
+        return sorted(roots, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param subtreeRoot the segment span id of the subtree root, or null for the whole trace.
+     * @return the spans in the range of the tree order, empty if the subtree root is not in the trace.
+     */
+    List<T> sorted(String subtreeRoot, int from, int limit) {
+        List<Node<T>> roots = new ArrayList<>();
+        if (subtreeRoot == null) {
+            for (Node<T> node : nodes) {
+                if (!spans.containsKey(node.segmentParentSpanId)) {
+                    roots.add(node);
+                }
+            }
+        } else if (spans.containsKey(subtreeRoot)) {
+            roots.add(spans.get(subtreeRoot));
+        }
+        return sorted(roots, from, limit);
+    }
+
+    /**
+     * Walk the tree depth first without recursion, the deep traces don't overflow the stack. Every span is visited
+     * once, even if the references form a cycle.
+     */
+    private List<T> sorted(List<Node<T>> roots, int from, int limit) {
+        List<T> sorted = new ArrayList<>(Math.min(limit, nodes.size()));
+        Set<Node<T>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        int index = 0;
+        for (Node<T> root : roots) {
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Node<T> node = stack.pop();
+                if (!visited.add(node)) {
+                    continue;
+                }
+                if (index >= from) {
+                    sorted.add(node.span);
+                    if (sorted.size() >= limit) {
+                        return sorted;
+                    }
+                }
+                index++;
+
+                List<Node<T>> nodeChildren = children.get(node.segmentSpanId);
+                if (nodeChildren != null) {
+                    for (int i = nodeChildren.size() - 1; i >= 0; i--) {
+                        stack.push(nodeChildren.get(i));
+                    }
+                }
+            }
+        }
+        return sorted;
+    }
+
+    private static class Node<T> {
+        private final String segmentSpanId;
+        private final String segmentParentSpanId;
+        private final T span;
+
+        private Node(String segmentSpanId, String segmentParentSpanId, T span) {
+            this.segmentSpanId = segmentSpanId;
+            this.segmentParentSpanId = segmentParentSpanId;
+            this.span = span;
+        }
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.register.worker;
 
+import java.io.IOException;
 import java.util.*;
 
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
@@ -27,6 +28,7 @@ import org.apache.skywalking.oap.server.core.register.RegisterSource;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
@@ -35,6 +37,13 @@ import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 import org.slf4j.*;
 
 /**
+ * The sources are registered in batch. The existing ones are read by one multi-get, the IDs of the new ones are
+ * reserved as one block with one lock, then all inserts and updates are written by one bulk request.
+ *
+ * The updates which only move the heartbeat time forward are kept in memory, and written in bulk every {@link
+ * #heartbeatFlushPeriod} seconds, the pending one is the latest stored state of the source too, so the next batch
+ * doesn't read it again.
+ *
  * @author peng-yongsheng
  */
 public class RegisterPersistentWorker extends AbstractWorker<RegisterSource> {
@@ -46,17 +55,25 @@ public class RegisterPersistentWorker extends AbstractWorker<RegisterSource> {
     private final Map<RegisterSource, RegisterSource> sources;
     private final IRegisterLockDAO registerLockDAO;
     private final IRegisterDAO registerDAO;
+    private final IBatchDAO batchDAO;
+    private final long heartbeatFlushPeriod;
+    private final Map<String, RegisterSource> pendingHeartbeats;
+    private long lastHeartbeatFlushTime;
     private final DataCarrier<RegisterSource> dataCarrier;
     private final HistogramMetrics workerLatencyHistogram;
 
     RegisterPersistentWorker(ModuleDefineHolder moduleDefineHolder, String modelName,
-                             IRegisterDAO registerDAO, int scopeId) {
+                             IRegisterDAO registerDAO, int scopeId, int heartbeatFlushPeriod) {
         super(moduleDefineHolder);
         this.modelName = modelName;
         this.sources = new HashMap<>();
         this.registerDAO = registerDAO;
         this.registerLockDAO = moduleDefineHolder.find(StorageModule.NAME).provider().getService(IRegisterLockDAO.class);
+        this.batchDAO = moduleDefineHolder.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
         this.scopeId = scopeId;
+        this.heartbeatFlushPeriod = heartbeatFlushPeriod * 1000L;
+        this.pendingHeartbeats = new HashMap<>();
+        this.lastHeartbeatFlushTime = System.currentTimeMillis();
         this.dataCarrier = new DataCarrier<>("MetricsPersistentWorker." + modelName, 1, 1000);
         MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
 
@@ -92,42 +109,89 @@ public class RegisterPersistentWorker extends AbstractWorker<RegisterSource> {
 
         try (HistogramMetrics.Timer timer = workerLatencyHistogram.createTimer()) {
             if (sources.size() > 1000 || registerSource.isEndOfBatch()) {
-                sources.values().forEach(source -> {
-                    try {
-                        RegisterSource dbSource = registerDAO.get(modelName, source.id());
-                        if (Objects.nonNull(dbSource)) {
-                            if (dbSource.combine(source)) {
-                                registerDAO.forceUpdate(modelName, dbSource);
-                            }
-                        } else {
-                            int sequence;
-                            if ((sequence = registerLockDAO.getId(scopeId, source)) != Const.NONE) {
-                                try {
-                                    dbSource = registerDAO.get(modelName, source.id());
-                                    if (Objects.nonNull(dbSource)) {
-                                        if (dbSource.combine(source)) {
-                                            registerDAO.forceUpdate(modelName, dbSource);
-                                        }
-                                    } else {
-                                        source.setSequence(sequence);
-                                        registerDAO.forceInsert(modelName, source);
-                                    }
-                                } catch (Throwable t) {
-                                    logger.error(t.getMessage(), t);
-                                }
-                            } else {
-                                logger.info("{} inventory register try lock and increment sequence failure.", DefaultScopeDefine.nameOf(scopeId));
-                            }
-                        }
-                    } catch (Throwable t) {
-                        logger.error(t.getMessage(), t);
-                    }
-                });
+                try {
+                    flush();
+                } catch (Throwable t) {
+                    logger.error(t.getMessage(), t);
+                }
                 sources.clear();
             }
         }
     }
 
+    private void flush() throws IOException {
+        List<PrepareRequest> requests = new ArrayList<>(sources.size());
+        List<RegisterSource> newSources = combineExisting(sources.values(), requests);
+
+        if (!newSources.isEmpty()) {
+            int sequence = registerLockDAO.getIdBlock(scopeId, newSources.size());
+            if (sequence != Const.NONE) {
+                // Others may register the same sources before the lock.
+                for (RegisterSource source : combineExisting(newSources, requests)) {
+                    source.setSequence(sequence++);
+                    requests.add(registerDAO.prepareBatchInsert(modelName, source));
+                }
+            } else {
+                logger.info("{} inventory register try lock and increment sequence failure.", DefaultScopeDefine.nameOf(scopeId));
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeatFlushTime >= heartbeatFlushPeriod) {
+            for (RegisterSource source : pendingHeartbeats.values()) {
+                requests.add(registerDAO.prepareBatchUpdate(modelName, source));
+            }
+            pendingHeartbeats.clear();
+            lastHeartbeatFlushTime = now;
+        }
+
+        batchDAO.synchronous(requests);
+    }
+
+    /**
+     * Combine the sources into the stored ones, and prepare the updates of the changed ones.
+     *
+     * @return the sources not stored yet.
+     */
+    private List<RegisterSource> combineExisting(Collection<RegisterSource> batch,
+        List<PrepareRequest> requests) throws IOException {
+        Map<String, RegisterSource> dbSources = new HashMap<>();
+        List<String> ids = new ArrayList<>(batch.size());
+        for (RegisterSource source : batch) {
+            RegisterSource pending = pendingHeartbeats.get(source.id());
+            if (pending != null) {
+                dbSources.put(pending.id(), pending);
+            } else {
+                ids.add(source.id());
+            }
+        }
+        if (!ids.isEmpty()) {
+            for (RegisterSource dbSource : registerDAO.multiGet(modelName, ids)) {
+                dbSources.put(dbSource.id(), dbSource);
+            }
+        }
+
+        List<RegisterSource> newSources = new ArrayList<>();
+        for (RegisterSource source : batch) {
+            RegisterSource dbSource = dbSources.get(source.id());
+            if (Objects.isNull(dbSource)) {
+                newSources.add(source);
+                continue;
+            }
+
+            boolean heartbeatOnly = source.getLastUpdateTime() <= dbSource.getLastUpdateTime();
+            if (dbSource.combine(source)) {
+                if (heartbeatOnly && heartbeatFlushPeriod > 0) {
+                    pendingHeartbeats.put(dbSource.id(), dbSource);
+                } else {
+                    pendingHeartbeats.remove(dbSource.id());
+                    requests.add(registerDAO.prepareBatchUpdate(modelName, dbSource));
+                }
+            }
+        }
+        return newSources;
+    }
+
     private class PersistentConsumer implements IConsumer<RegisterSource> {
 
         private final RegisterPersistentWorker persistent;
@@ -72,4 +72,29 @@ public class RemoteSenderService implements Service {
         }
         remoteClient.push(nextWorkName, streamData);
     }
+
+    /**
+     * During the handover after a cluster membership change, the other OAP servers may still route the stream data by
+     * their old client lists. The stream data which belongs to another server by the current client list is forwarded
+     * to it.
+     *
+     * @return true if the stream data has been forwarded to its owner.
+     */
+    public boolean forwardToOwner(String nextWorkName, StreamData streamData) {
+        RemoteClientManager clientManager = moduleManager.find(CoreModule.NAME).provider().getService(RemoteClientManager.class);
+        if (!clientManager.isInHandover()) {
+            return false;
+        }
+
+        List<RemoteClient> clientList = clientManager.getRemoteClient();
+        if (clientList.size() == 0) {
+            return false;
+        }
+        RemoteClient owner = hashCodeSelector.select(clientList, streamData);
+        if (owner.getAddress().isSelf()) {
+            return false;
+        }
+        owner.forward(nextWorkName, streamData);
+        return true;
+    }
 }
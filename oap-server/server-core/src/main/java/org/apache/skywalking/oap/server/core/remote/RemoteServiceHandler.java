@@ -21,10 +21,13 @@ package org.apache.skywalking.oap.server.core.remote;
 import io.grpc.stub.StreamObserver;
 import java.util.Objects;
 import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteAck;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessageBatch;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
@@ -52,9 +55,11 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
 
     private final ModuleDefineHolder moduleDefineHolder;
     private IWorkerInstanceGetter workerInstanceGetter;
+    private RemoteSenderService remoteSender;
     private CounterMetrics remoteInCounter;
     private CounterMetrics remoteInErrorCounter;
     private CounterMetrics remoteInTargetNotFoundCounter;
+    private CounterMetrics remoteInForwardCounter;
     private HistogramMetrics remoteInHistogram;
 
     public RemoteServiceHandler(ModuleDefineHolder moduleDefineHolder) {
@@ -69,46 +74,20 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
         remoteInTargetNotFoundCounter = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)
             .createCounter("remote_in_target_not_found_count", "The error number(server side) of inside remote handler target worker not found. May be caused by unmatched OAL scrips.",
                 MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+        remoteInForwardCounter = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)
+            .createCounter("remote_in_forward_count", "The number(server side) of inside remote metrics forwarded to the new owner during the handover.",
+                MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
         remoteInHistogram = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)
             .createHistogramMetric("remote_in_latency", "The latency(server side) of inside remote inside aggregate rpc.",
                 MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
     }
 
     @Override public StreamObserver<RemoteMessage> call(StreamObserver<Empty> responseObserver) {
-        if (Objects.isNull(workerInstanceGetter)) {
-            synchronized (RemoteServiceHandler.class) {
-                if (Objects.isNull(workerInstanceGetter)) {
-                    workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME).provider().getService(IWorkerInstanceGetter.class);
-                }
-            }
-        }
+        initWorkerInstanceGetter();
 
         return new StreamObserver<RemoteMessage>() {
             @Override public void onNext(RemoteMessage message) {
-                remoteInCounter.inc();
-                HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
-                try {
-                    String nextWorkerName = message.getNextWorkerName();
-                    RemoteData remoteData = message.getRemoteData();
-
-                    try {
-                        RemoteHandleWorker handleWorker = workerInstanceGetter.get(nextWorkerName);
-                        AbstractWorker nextWorker = handleWorker.getWorker();
-                        StreamData streamData = handleWorker.getStreamDataClass().newInstance();
-                        streamData.deserialize(remoteData);
-                        if (nextWorker != null) {
-                            nextWorker.in(streamData);
-                        } else {
-                            remoteInTargetNotFoundCounter.inc();
-                            logger.warn("Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.", nextWorkerName);
-                        }
-                    } catch (Throwable t) {
-                        remoteInErrorCounter.inc();
-                        logger.error(t.getMessage(), t);
-                    }
-                } finally {
-                    timer.finish();
-                }
+                handle(message);
             }
 
             @Override public void onError(Throwable throwable) {
@@ -121,4 +100,76 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
             }
         };
     }
+
+    /**
+     * The batches of one client arrive in a long-lived stream. Every batch is acknowledged with its size after all its
+     * messages have been handed to the workers, so the client knows the bytes in flight.
+     */
+    @Override public StreamObserver<RemoteMessageBatch> batchCall(StreamObserver<RemoteAck> responseObserver) {
+        initWorkerInstanceGetter();
+
+        return new StreamObserver<RemoteMessageBatch>() {
+            @Override public void onNext(RemoteMessageBatch batch) {
+                for (RemoteMessage message : batch.getMessagesList()) {
+                    handle(message);
+                }
+                responseObserver.onNext(RemoteAck.newBuilder().setBatchBytes(batch.getSerializedSize()).build());
+            }
+
+            @Override public void onError(Throwable throwable) {
+                logger.error(throwable.getMessage(), throwable);
+            }
+
+            @Override public void onCompleted() {
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    private RemoteSenderService getRemoteSender() {
+        if (Objects.isNull(remoteSender)) {
+            remoteSender = moduleDefineHolder.find(CoreModule.NAME).provider().getService(RemoteSenderService.class);
+        }
+        return remoteSender;
+    }
+
+    private void initWorkerInstanceGetter() {
+        if (Objects.isNull(workerInstanceGetter)) {
+            synchronized (RemoteServiceHandler.class) {
+                if (Objects.isNull(workerInstanceGetter)) {
+                    workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME).provider().getService(IWorkerInstanceGetter.class);
+                }
+            }
+        }
+    }
+
+    private void handle(RemoteMessage message) {
+        remoteInCounter.inc();
+        HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
+        try {
+            String nextWorkerName = message.getNextWorkerName();
+            RemoteData remoteData = message.getRemoteData();
+
+            try {
+                RemoteHandleWorker handleWorker = workerInstanceGetter.get(nextWorkerName);
+                AbstractWorker nextWorker = handleWorker.getWorker();
+                StreamData streamData = handleWorker.getStreamDataClass().newInstance();
+                streamData.deserialize(remoteData);
+                if (!message.getForwarded() && streamData instanceof Metrics && getRemoteSender().forwardToOwner(nextWorkerName, streamData)) {
+                    // The metrics are routed by hash code, this server isn't the owner any more.
+                    remoteInForwardCounter.inc();
+                } else if (nextWorker != null) {
+                    nextWorker.in(streamData);
+                } else {
+                    remoteInTargetNotFoundCounter.inc();
+                    logger.warn("Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.", nextWorkerName);
+                }
+            } catch (Throwable t) {
+                remoteInErrorCounter.inc();
+                logger.error(t.getMessage(), t);
+            }
+        } finally {
+            timer.finish();
+        }
+    }
 }
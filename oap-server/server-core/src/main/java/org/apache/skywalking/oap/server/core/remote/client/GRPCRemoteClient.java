@@ -18,22 +18,32 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import com.google.protobuf.CodedOutputStream;
 import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteAck;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessageBatch;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 import org.slf4j.Logger;
@@ -41,7 +51,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This is a wrapper of the gRPC client for sending message to each other OAP server. It contains a block queue to
- * buffering the message and sending the message by batch.
+ * buffering the message and sending the message by batch, in a long-lived flow-controlled stream.
+ *
+ * The OAP servers of the former versions don't serve the batch stream during a rolling upgrade, it is answered by
+ * UNIMPLEMENTED. Then the batches not acknowledged are sent again in the former client streams, and so are the later
+ * ones to this server, until the batch stream is tried again after {@link #BATCH_CALL_RECHECK_MILLIS}.
  *
  * @author peng-yongsheng
  */
@@ -49,15 +63,21 @@ public class GRPCRemoteClient implements RemoteClient {
 
     private static final Logger logger = LoggerFactory.getLogger(GRPCRemoteClient.class);
 
+    private static final int MAX_BATCH_BYTES = 512 * 1024;
+    private static final long MAX_IN_FLIGHT_BYTES = 8 * 1024 * 1024;
+    private static final long BATCH_CALL_RECHECK_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
     private final int channelSize;
     private final int bufferSize;
     private final Address address;
-    private final AtomicInteger concurrentStreamObserverNumber = new AtomicInteger(0);
     private GRPCClient client;
     private DataCarrier<RemoteMessage> carrier;
     private boolean isConnect;
     private CounterMetrics remoteOutCounter;
     private CounterMetrics remoteOutErrorCounter;
+    private GaugeMetrics remoteOutInFlightBytes;
+    private volatile RemoteStream stream;
+    private volatile long batchCallUnimplementedUntil;
     private int remoteTimeout;
 
     public GRPCRemoteClient(ModuleDefineHolder moduleDefineHolder, Address address, int channelSize,
@@ -73,6 +93,9 @@ public class GRPCRemoteClient implements RemoteClient {
         remoteOutErrorCounter = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)
             .createCounter("remote_out_error_count", "The error number(client side) of inside remote inside aggregate rpc.",
                 new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address.toString(), "N"));
+        remoteOutInFlightBytes = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)
+            .createGauge("remote_out_inflight_bytes", "The bytes(client side) sent but not acknowledged yet of inside remote inside aggregate rpc.",
+                new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address.toString(), "N"));
     }
 
     @Override public void connect() {
@@ -132,21 +155,38 @@ public class GRPCRemoteClient implements RemoteClient {
         this.getDataCarrier().produce(builder.build());
     }
 
+    @Override public void forward(String nextWorkerName, StreamData streamData) {
+        RemoteMessage.Builder builder = RemoteMessage.newBuilder();
+        builder.setNextWorkerName(nextWorkerName);
+        builder.setRemoteData(streamData.serialize());
+        builder.setForwarded(true);
+
+        this.getDataCarrier().produce(builder.build());
+    }
+
     class RemoteMessageConsumer implements IConsumer<RemoteMessage> {
         @Override public void init() {
         }
 
+        /**
+         * Pack the messages into batches no larger than {@link #MAX_BATCH_BYTES}, and send them in the persistent
+         * stream.
+         */
         @Override public void consume(List<RemoteMessage> remoteMessages) {
-            try {
-                StreamObserver<RemoteMessage> streamObserver = createStreamObserver();
-                for (RemoteMessage remoteMessage : remoteMessages) {
-                    remoteOutCounter.inc();
-                    streamObserver.onNext(remoteMessage);
+            RemoteMessageBatch.Builder batch = RemoteMessageBatch.newBuilder();
+            int batchBytes = 0;
+            for (RemoteMessage remoteMessage : remoteMessages) {
+                int messageBytes = CodedOutputStream.computeMessageSize(1, remoteMessage);
+                if (batchBytes > 0 && batchBytes + messageBytes > MAX_BATCH_BYTES) {
+                    send(batch.build());
+                    batch.clear();
+                    batchBytes = 0;
                 }
-                streamObserver.onCompleted();
-            } catch (Throwable t) {
-                remoteOutErrorCounter.inc();
-                logger.error(t.getMessage(), t);
+                batch.addMessages(remoteMessage);
+                batchBytes += messageBytes;
+            }
+            if (batchBytes > 0) {
+                send(batch.build());
             }
         }
 
@@ -159,49 +199,209 @@ public class GRPCRemoteClient implements RemoteClient {
     }
 
     /**
-     * Create a gRPC stream observer to sending stream data, one stream observer could send multiple stream data by a
-     * single consume. The max number of concurrency allowed at the same time is 10.
-     *
-     * @return stream observer
+     * Only called by the single consumer thread. Wait until the transport is ready and the acknowledged window allows,
+     * at most remoteTimeout seconds, otherwise the batch is dropped and the stream is reset.
+     */
+    private void send(RemoteMessageBatch batch) {
+        int size = batch.getMessagesCount();
+        try {
+            if (!isBatchCallUnimplemented()) {
+                RemoteStream stream = getStream();
+                if (stream.awaitReady(TimeUnit.SECONDS.toNanos(remoteTimeout)) && stream.send(batch)) {
+                    remoteOutCounter.inc(size);
+                    return;
+                }
+                if (!isBatchCallUnimplemented()) {
+                    remoteOutErrorCounter.inc(size);
+                    logger.warn("Remote stream to {} isn't ready in {} seconds, {} messages are dropped.", address, remoteTimeout, size);
+                    stream.cancel("Not ready in time");
+                    return;
+                }
+            }
+            sendByCall(batch);
+            remoteOutCounter.inc(size);
+        } catch (Throwable t) {
+            remoteOutErrorCounter.inc(size);
+            logger.error(t.getMessage(), t);
+        }
+    }
+
+    private boolean isBatchCallUnimplemented() {
+        return System.currentTimeMillis() < batchCallUnimplementedUntil;
+    }
+
+    /**
+     * Send the batch in a client stream of the former call, for the servers which don't serve the batch stream.
+     */
+    private void sendByCall(RemoteMessageBatch batch) {
+        int size = batch.getMessagesCount();
+        StreamObserver<RemoteMessage> streamObserver = getStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS).call(new StreamObserver<Empty>() {
+            @Override public void onNext(Empty empty) {
+            }
+
+            @Override public void onError(Throwable throwable) {
+                remoteOutErrorCounter.inc(size);
+                logger.error(throwable.getMessage(), throwable);
+            }
+
+            @Override public void onCompleted() {
+            }
+        });
+        for (RemoteMessage remoteMessage : batch.getMessagesList()) {
+            streamObserver.onNext(remoteMessage);
+        }
+        streamObserver.onCompleted();
+    }
+
+    private RemoteStream getStream() {
+        RemoteStream stream = this.stream;
+        if (stream == null || stream.isClosed()) {
+            stream = new RemoteStream();
+            getStub().batchCall(stream);
+            this.stream = stream;
+        }
+        return stream;
+    }
+
+    /**
+     * A long-lived bidirectional stream. The sender respects both the gRPC transport readiness and the window of the
+     * bytes which haven't been acknowledged by the server. The batches are kept until the first acknowledgement, to be
+     * sent again if the server turns out not to serve this stream.
      */
-    private StreamObserver<RemoteMessage> createStreamObserver() {
-        int sleepTotalMillis = 0;
-        int sleepMillis = 10;
-        while (concurrentStreamObserverNumber.incrementAndGet() > 10) {
-            concurrentStreamObserverNumber.addAndGet(-1);
+    private class RemoteStream implements ClientResponseObserver<RemoteMessageBatch, RemoteAck> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition readyCondition = lock.newCondition();
+        private final AtomicLong inFlightBytes = new AtomicLong();
+        private final List<RemoteMessageBatch> unconfirmed = new ArrayList<>();
+        private volatile ClientCallStreamObserver<RemoteMessageBatch> requestStream;
+        private volatile boolean confirmed;
+        private volatile boolean closed;
+
+        @Override public void beforeStart(ClientCallStreamObserver<RemoteMessageBatch> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.setOnReadyHandler(this::signal);
+        }
 
+        boolean awaitReady(long timeoutNanos) throws InterruptedException {
+            long nanos = timeoutNanos;
+            lock.lock();
             try {
-                Thread.sleep(sleepMillis);
-            } catch (InterruptedException e) {
-                logger.error(e.getMessage(), e);
+                while (!isReady()) {
+                    if (closed || nanos <= 0) {
+                        return false;
+                    }
+                    nanos = readyCondition.awaitNanos(nanos);
+                }
+                return true;
+            } finally {
+                lock.unlock();
             }
+        }
 
-            sleepTotalMillis += sleepMillis;
+        private boolean isReady() {
+            return !closed && requestStream.isReady() && inFlightBytes.get() < MAX_IN_FLIGHT_BYTES;
+        }
 
-            if (sleepTotalMillis > 60000) {
-                logger.warn("Remote client block times over 60 seconds.");
+        /**
+         * @return false if the stream is closed, the batch isn't sent.
+         */
+        boolean send(RemoteMessageBatch batch) {
+            if (confirmed) {
+                if (closed) {
+                    return false;
+                }
+            } else {
+                synchronized (unconfirmed) {
+                    if (closed) {
+                        return false;
+                    }
+                    if (!confirmed) {
+                        unconfirmed.add(batch);
+                    }
+                }
             }
+            remoteOutInFlightBytes.setValue(inFlightBytes.addAndGet(batch.getSerializedSize()));
+            requestStream.onNext(batch);
+            return true;
         }
 
-        return getStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS).call(new StreamObserver<Empty>() {
-            @Override public void onNext(Empty empty) {
+        void cancel(String message) {
+            close();
+            requestStream.cancel(message, null);
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        @Override public void onNext(RemoteAck ack) {
+            if (!confirmed) {
+                synchronized (unconfirmed) {
+                    confirmed = true;
+                    unconfirmed.clear();
+                }
             }
+            remoteOutInFlightBytes.setValue(inFlightBytes.addAndGet(-ack.getBatchBytes()));
+            signal();
+        }
 
-            @Override public void onError(Throwable throwable) {
-                concurrentStreamObserverNumber.addAndGet(-1);
+        @Override public void onError(Throwable throwable) {
+            if (Status.fromThrowable(throwable).getCode() == Status.Code.UNIMPLEMENTED) {
+                batchCallUnimplementedUntil = System.currentTimeMillis() + BATCH_CALL_RECHECK_MILLIS;
+                close();
+                logger.warn("Remote server {} doesn't serve the batch stream, send by the former call instead.", address);
+                resendByCall();
+            } else {
+                close();
                 logger.error(throwable.getMessage(), throwable);
             }
+        }
 
-            @Override public void onCompleted() {
-                concurrentStreamObserverNumber.addAndGet(-1);
+        private void resendByCall() {
+            List<RemoteMessageBatch> batches;
+            synchronized (unconfirmed) {
+                confirmed = true;
+                batches = new ArrayList<>(unconfirmed);
+                unconfirmed.clear();
             }
-        });
+            for (RemoteMessageBatch batch : batches) {
+                try {
+                    sendByCall(batch);
+                } catch (Throwable t) {
+                    remoteOutErrorCounter.inc(batch.getMessagesCount());
+                    logger.error(t.getMessage(), t);
+                }
+            }
+        }
+
+        @Override public void onCompleted() {
+            close();
+        }
+
+        private void close() {
+            closed = true;
+            remoteOutInFlightBytes.setValue(0);
+            signal();
+        }
+
+        private void signal() {
+            lock.lock();
+            try {
+                readyCondition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 
     @Override public void close() {
         if (Objects.nonNull(this.carrier)) {
             this.carrier.shutdownConsumers();
         }
+        RemoteStream stream = this.stream;
+        if (Objects.nonNull(stream) && !stream.isClosed()) {
+            stream.requestStream.onCompleted();
+        }
         if (Objects.nonNull(this.client)) {
             this.client.shutdown();
         }
@@ -32,4 +32,9 @@ public interface RemoteClient extends Comparable<RemoteClient> {
     void close();
 
     void push(String nextWorkerName, StreamData streamData);
+
+    /**
+     * Push the stream data received from another OAP server, which belongs to this client now.
+     */
+    void forward(String nextWorkerName, StreamData streamData);
 }
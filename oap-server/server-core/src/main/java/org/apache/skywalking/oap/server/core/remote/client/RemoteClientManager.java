@@ -56,11 +56,18 @@ public class RemoteClientManager implements Service {
 
     private static final Logger logger = LoggerFactory.getLogger(RemoteClientManager.class);
 
+    /**
+     * The other OAP servers refresh their client lists in their own schedule, keep forwarding the stream data routed by
+     * the old client lists in this period after a change.
+     */
+    private static final long HANDOVER_PERIOD_MILLIS = 30 * 1000;
+
     private final ModuleDefineHolder moduleDefineHolder;
     private ClusterNodesQuery clusterNodesQuery;
     private volatile List<RemoteClient> usingClients;
     private GaugeMetrics gauge;
     private int remoteTimeout;
+    private volatile long handoverDeadline;
 
     /**
      * Initial the manager for all remote communication clients.
@@ -159,6 +166,13 @@ public class RemoteClientManager implements Service {
         return usingClients;
     }
 
+    /**
+     * @return true if the client list has been changed in the last {@link #HANDOVER_PERIOD_MILLIS}.
+     */
+    public boolean isInHandover() {
+        return System.currentTimeMillis() < handoverDeadline;
+    }
+
     /**
      * Compare clients between exist clients and remote instance collection. Move the clients into new client collection
      * which are alive to avoid create a new channel. Shutdown the clients which could not find in cluster config.
@@ -205,6 +219,9 @@ public class RemoteClientManager implements Service {
 
         //for stable ordering for rolling selector
         Collections.sort(newRemoteClients);
+        if (!this.usingClients.isEmpty()) {
+            this.handoverDeadline = System.currentTimeMillis() + HANDOVER_PERIOD_MILLIS;
+        }
         this.usingClients = ImmutableList.copyOf(newRemoteClients);
 
         remoteClientCollection.values()
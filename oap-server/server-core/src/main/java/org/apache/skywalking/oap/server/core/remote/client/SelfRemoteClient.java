@@ -60,6 +60,10 @@ public class SelfRemoteClient implements RemoteClient {
         workerInstanceGetter.get(nextWorkerName).getWorker().in(streamData);
     }
 
+    @Override public void forward(String nextWorkerName, StreamData streamData) {
+        push(nextWorkerName, streamData);
+    }
+
     @Override public int compareTo(RemoteClient o) {
         return address.compareTo(o.getAddress());
     }
@@ -18,18 +18,83 @@
 
 package org.apache.skywalking.oap.server.core.remote.selector;
 
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
-import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 
 /**
+ * Select the client by consistent hashing. Every client owns {@link #VIRTUAL_NODES} points in the hash ring, by the
+ * hash of its address, the stream data belongs to the first point after its remote hash code. So when one OAP node
+ * joins or leaves the cluster, only about 1/n of the stream data change their owner, rather than almost all of them
+ * with the modulo of the cluster size.
+ *
+ * The ring is rebuilt only when the client list is replaced by {@link org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager}.
+ *
  * @author peng-yongsheng
  */
 public class HashCodeSelector implements RemoteClientSelector {
 
+    static final int VIRTUAL_NODES = 160;
+
+    private volatile Ring ring;
+
     @Override public RemoteClient select(List<RemoteClient> clients, StreamData streamData) {
-        int size = clients.size();
-        int selectIndex = Math.abs(streamData.remoteHashCode()) % size;
-        return clients.get(selectIndex);
+        Ring ring = this.ring;
+        if (ring == null || ring.clients != clients) {
+            ring = new Ring(clients);
+            this.ring = ring;
+        }
+        return ring.select(streamData.remoteHashCode());
+    }
+
+    private static class Ring {
+        private final List<RemoteClient> clients;
+        private final int[] points;
+        private final RemoteClient[] owners;
+
+        private Ring(List<RemoteClient> clients) {
+            this.clients = clients;
+            long[] sorted = new long[clients.size() * VIRTUAL_NODES];
+            for (int i = 0; i < clients.size(); i++) {
+                String address = clients.get(i).getAddress().toString();
+                for (int v = 0; v < VIRTUAL_NODES; v++) {
+                    int point = Hashing.murmur3_32().hashString(address + "#" + v, StandardCharsets.UTF_8).asInt();
+                    // High 32 bits for the point, low bits for the client index, then one sort orders both.
+                    sorted[i * VIRTUAL_NODES + v] = ((long)point << 32) | i;
+                }
+            }
+            Arrays.sort(sorted);
+
+            points = new int[sorted.length];
+            owners = new RemoteClient[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                points[i] = (int)(sorted[i] >> 32);
+                owners[i] = clients.get((int)sorted[i]);
+            }
+        }
+
+        private RemoteClient select(int hashCode) {
+            int index = Arrays.binarySearch(points, spread(hashCode));
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return owners[index == points.length ? 0 : index];
+        }
+
+        /**
+         * The remote hash codes are string hash codes mostly, mix them to spread in the whole ring.
+         */
+        private static int spread(int hashCode) {
+            int h = hashCode;
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h;
+        }
     }
 }
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.storage;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.request.*;
@@ -31,6 +32,13 @@ public interface IMetricsDAO extends DAO {
 
     List<Metrics> multiGet(Model model, List<String> ids) throws IOException;
 
+    /**
+     * Asynchronous version of {@link #multiGet(Model, List)}, let the caller prefetch the next batch while the current
+     * one is being combined. The storage implementation could complete the future in the caller thread, if it doesn't
+     * support asynchronous read.
+     */
+    CompletableFuture<List<Metrics>> multiGetAsync(Model model, List<String> ids);
+
     InsertRequest prepareBatchInsert(Model model, Metrics metrics) throws IOException;
 
     UpdateRequest prepareBatchUpdate(Model model, Metrics metrics) throws IOException;
@@ -19,7 +19,9 @@
 package org.apache.skywalking.oap.server.core.storage;
 
 import java.io.IOException;
+import java.util.List;
 import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.library.client.request.*;
 
 /**
  * @author peng-yongsheng
@@ -31,4 +33,10 @@ public interface IRegisterDAO extends DAO {
     void forceInsert(String modelName, RegisterSource source) throws IOException;
 
     void forceUpdate(String modelName, RegisterSource source) throws IOException;
+
+    List<RegisterSource> multiGet(String modelName, List<String> ids) throws IOException;
+
+    InsertRequest prepareBatchInsert(String modelName, RegisterSource source) throws IOException;
+
+    UpdateRequest prepareBatchUpdate(String modelName, RegisterSource source) throws IOException;
 }
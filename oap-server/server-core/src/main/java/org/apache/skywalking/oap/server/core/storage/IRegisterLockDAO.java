@@ -35,4 +35,14 @@ public interface IRegisterLockDAO extends DAO {
      * @return Unique ID.
      */
     int getId(int scopeId, RegisterSource registerSource);
+
+    /**
+     * Reserve a contiguous block of IDs with one lock, rather than one lock for every new inventory.
+     *
+     * @param scopeId for the id.
+     * @param size of the block, must be positive.
+     * @return the first ID of the block, the block is [first, first + size), or {@link
+     * org.apache.skywalking.oap.server.core.Const#NONE} if the lock failed.
+     */
+    int getIdBlock(int scopeId, int size);
 }
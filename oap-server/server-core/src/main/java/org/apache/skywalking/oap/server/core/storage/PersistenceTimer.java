@@ -18,8 +18,10 @@
 
 package org.apache.skywalking.oap.server.core.storage;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.analysis.worker.*;
@@ -31,6 +33,15 @@ import org.apache.skywalking.oap.server.telemetry.api.*;
 import org.slf4j.*;
 
 /**
+ * PersistenceTimer flushes the persistence workers periodically as a pipeline. The batch requests of the workers are
+ * built in parallel by the prepare executor, and each finished chunk of requests is handed to the timer thread through
+ * a bounded queue, then executed by the {@link IBatchDAO}, while the other workers are still being prepared. When the
+ * storage falls behind, the queue is full and the prepare threads are blocked.
+ *
+ * The bulk latencies are observed once a round, the prepare one until all of the workers are prepared, and the execute
+ * one is the total time of the executions in the round. The latencies of every worker and chunk are observed by the
+ * worker and chunk metrics, and by the model metrics of {@link PersistenceWorker}.
+ *
  * @author peng-yongsheng
  */
 public enum PersistenceTimer {
@@ -43,8 +54,12 @@ public enum PersistenceTimer {
     private CounterMetrics errorCounter;
     private HistogramMetrics prepareLatency;
     private HistogramMetrics executeLatency;
-    private long lastTime = System.currentTimeMillis();
-    private final List<PrepareRequest> prepareRequests = new ArrayList<>(50000);
+    private HistogramMetrics workerPrepareLatency;
+    private HistogramMetrics chunkExecuteLatency;
+    private volatile long lastTime = System.currentTimeMillis();
+    private ExecutorService prepareExecutorService;
+    private BlockingQueue<PrepareChunk> preparedChunks;
+    private int batchSize;
 
     PersistenceTimer() {
         this.debug = System.getProperty("debug") != null;
@@ -61,8 +76,17 @@ public enum PersistenceTimer {
             MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
         executeLatency = metricsCreator.createHistogramMetric("persistence_timer_bulk_execute_latency", "Latency of the execute stage in persistence timer",
             MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+        workerPrepareLatency = metricsCreator.createHistogramMetric("persistence_timer_worker_prepare_latency", "Latency of the prepare stage of a worker in persistence timer",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+        chunkExecuteLatency = metricsCreator.createHistogramMetric("persistence_timer_chunk_execute_latency", "Latency of the execution of a chunk in persistence timer",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
 
         if (!isStarted) {
+            batchSize = moduleConfig.getPersistentBatchSize();
+            preparedChunks = new ArrayBlockingQueue<>(moduleConfig.getPersistentMaxPendingBatches());
+            prepareExecutorService = Executors.newFixedThreadPool(moduleConfig.getPersistentPrepareThreads(),
+                new ThreadFactoryBuilder().setNameFormat("persistence-prepare-%d").setDaemon(true).build());
+
             Executors.newSingleThreadScheduledExecutor().scheduleWithFixedDelay(
                 new RunnableWithExceptionProtection(() -> extractDataAndSave(batchDAO),
                     t -> logger.error("Extract data and save failure.", t)), 5, moduleConfig.getPersistentPeriod(), TimeUnit.SECONDS);
@@ -79,39 +103,40 @@ public enum PersistenceTimer {
         long startTime = System.currentTimeMillis();
 
         try {
-            HistogramMetrics.Timer timer = prepareLatency.createTimer();
-
-            try {
-                List<PersistenceWorker> persistenceWorkers = new ArrayList<>();
-                persistenceWorkers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
-                persistenceWorkers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
-
-                persistenceWorkers.forEach(worker -> {
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("extract {} worker data and save", worker.getClass().getName());
-                    }
-
-                    if (worker.flushAndSwitch()) {
-                        worker.buildBatchRequests(prepareRequests);
+            List<PersistenceWorker> persistenceWorkers = new ArrayList<>();
+            persistenceWorkers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
+            persistenceWorkers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
+
+            HistogramMetrics.Timer prepareTimer = prepareLatency.createTimer();
+            AtomicInteger preparing = new AtomicInteger(persistenceWorkers.size());
+            if (persistenceWorkers.isEmpty()) {
+                prepareTimer.finish();
+            }
+            persistenceWorkers.forEach(worker -> prepareExecutorService.submit(() -> {
+                try {
+                    prepare(worker);
+                } catch (Throwable t) {
+                    errorCounter.inc();
+                    logger.error(t.getMessage(), t);
+                } finally {
+                    if (preparing.decrementAndGet() == 0) {
+                        prepareTimer.finish();
                     }
-
-                    worker.endOfRound(System.currentTimeMillis() - lastTime);
-                });
-
-                if (debug) {
-                    logger.info("build batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
                 }
-            } finally {
-                timer.finish();
+            }));
+
+            // Execute the prepared chunks as soon as they arrive, until all workers are prepared and the queue is drained.
+            long executeNanos = 0;
+            while (preparing.get() > 0 || !preparedChunks.isEmpty()) {
+                PrepareChunk chunk = preparedChunks.poll(100, TimeUnit.MILLISECONDS);
+                if (chunk != null) {
+                    executeNanos += execute(batchDAO, chunk);
+                }
             }
+            executeLatency.observe(executeNanos / 1.0E9D);
 
-            HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
-            try {
-                if (CollectionUtils.isNotEmpty(prepareRequests)) {
-                    batchDAO.synchronous(prepareRequests);
-                }
-            } finally {
-                executeLatencyTimer.finish();
+            if (debug) {
+                logger.info("build and execute batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
             }
         } catch (Throwable e) {
             errorCounter.inc();
@@ -121,7 +146,6 @@ public enum PersistenceTimer {
                 logger.debug("Persistence data save finish");
             }
 
-            prepareRequests.clear();
             lastTime = System.currentTimeMillis();
         }
 
@@ -129,4 +153,61 @@ public enum PersistenceTimer {
             logger.info("Batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
         }
     }
+
+    private void prepare(PersistenceWorker worker) throws InterruptedException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("extract {} worker data and save", worker.getModelName());
+        }
+
+        List<PrepareRequest> prepareRequests = new ArrayList<>();
+        HistogramMetrics.Timer timer = workerPrepareLatency.createTimer();
+        HistogramMetrics.Timer modelTimer = worker.getPrepareLatency().createTimer();
+        try {
+            if (worker.flushAndSwitch()) {
+                worker.buildBatchRequests(prepareRequests);
+            }
+
+            worker.endOfRound(System.currentTimeMillis() - lastTime);
+        } finally {
+            modelTimer.finish();
+            timer.finish();
+        }
+
+        for (int from = 0; from < prepareRequests.size(); from += batchSize) {
+            List<PrepareRequest> requests = prepareRequests.subList(from, Math.min(from + batchSize, prepareRequests.size()));
+            // Blocked here when the storage falls behind.
+            preparedChunks.put(new PrepareChunk(worker, requests));
+        }
+    }
+
+    /**
+     * @return the nanoseconds of the execution.
+     */
+    private long execute(IBatchDAO batchDAO, PrepareChunk chunk) {
+        long startNanos = System.nanoTime();
+        HistogramMetrics.Timer timer = chunkExecuteLatency.createTimer();
+        HistogramMetrics.Timer modelTimer = chunk.worker.getExecuteLatency().createTimer();
+        try {
+            if (CollectionUtils.isNotEmpty(chunk.requests)) {
+                batchDAO.synchronous(chunk.requests);
+            }
+        } catch (Throwable t) {
+            errorCounter.inc();
+            logger.error("Execute batch requests of model " + chunk.worker.getModelName() + " failure.", t);
+        } finally {
+            modelTimer.finish();
+            timer.finish();
+        }
+        return System.nanoTime() - startNanos;
+    }
+
+    private static class PrepareChunk {
+        private final PersistenceWorker worker;
+        private final List<PrepareRequest> requests;
+
+        private PrepareChunk(PersistenceWorker worker, List<PrepareRequest> requests) {
+            this.worker = worker;
+            this.requests = requests;
+        }
+    }
 }
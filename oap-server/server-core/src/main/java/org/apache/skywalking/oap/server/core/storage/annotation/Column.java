@@ -34,6 +34,12 @@ public @interface Column {
      */
     boolean isValue() default false;
 
+    /**
+     * The value column queried by the metrics name, when the metrics has more than one value column. Otherwise, the
+     * first value column is.
+     */
+    boolean isDefaultValue() default false;
+
     /**
      * The function is used in aggregation query.
      */
@@ -27,25 +27,63 @@ import org.apache.skywalking.oap.server.core.query.sql.Function;
 public enum ValueColumnIds {
     INSTANCE;
 
+    private static final String COLUMN_SPLIT = "_";
+
     private Map<String, ValueColumn> mapping = new HashMap<>();
+    /**
+     * The value columns of the metrics with more than one value, such as p50 of percentile, queried by the metrics name
+     * and the column name joined by {@link #COLUMN_SPLIT}.
+     */
+    private Map<String, ValueColumn> columnMapping = new HashMap<>();
 
     public void putIfAbsent(String indName, String valueCName, Function function) {
-        mapping.putIfAbsent(indName, new ValueColumn(valueCName, function));
+        putIfAbsent(indName, valueCName, function, false);
+    }
+
+    /**
+     * The default value column of a metrics, or the first one if none is the default, is queried by the metrics name,
+     * every value column is also queried by the metrics name with the column name suffix.
+     *
+     * @param isDefaultValue replace the value column put before as the one queried by the metrics name.
+     */
+    public void putIfAbsent(String indName, String valueCName, Function function, boolean isDefaultValue) {
+        ValueColumn column = new ValueColumn(indName, valueCName, function);
+        if (isDefaultValue) {
+            mapping.put(indName, column);
+        } else {
+            mapping.putIfAbsent(indName, column);
+        }
+        columnMapping.putIfAbsent(indName + COLUMN_SPLIT + valueCName, column);
     }
 
     public String getValueCName(String indName) {
-        return mapping.get(indName).valueCName;
+        return find(indName).valueCName;
     }
 
     public Function getValueFunction(String indName) {
-        return mapping.get(indName).function;
+        return find(indName).function;
+    }
+
+    /**
+     * @return the metrics name of the storage, which is different from the given name when a value column of it is
+     * queried by the name with the column name suffix.
+     */
+    public String getIndName(String indName) {
+        return find(indName).indName;
+    }
+
+    private ValueColumn find(String indName) {
+        ValueColumn column = mapping.get(indName);
+        return column != null ? column : columnMapping.get(indName);
     }
 
     class ValueColumn {
+        private final String indName;
         private final String valueCName;
         private final Function function;
 
-        private ValueColumn(String valueCName, Function function) {
+        private ValueColumn(String indName, String valueCName, Function function) {
+            this.indName = indName;
             this.valueCName = valueCName;
             this.function = function;
         }
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.storage.cache;
 
+import java.util.List;
 import org.apache.skywalking.oap.server.core.register.EndpointInventory;
 import org.apache.skywalking.oap.server.core.storage.DAO;
 
@@ -29,4 +30,10 @@ public interface IEndpointInventoryCacheDAO extends DAO {
     int getEndpointId(int serviceId, String endpointName, int detectPoint);
 
     EndpointInventory get(int endpointId);
+
+    /**
+     * @return at most the given size of inventories, whose sequence is greater than the given one, in ascending order
+     * of the sequence.
+     */
+    List<EndpointInventory> loadAfter(int sequence, int size);
 }
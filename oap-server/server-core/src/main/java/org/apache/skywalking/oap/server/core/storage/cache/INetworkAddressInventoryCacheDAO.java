@@ -32,4 +32,10 @@ public interface INetworkAddressInventoryCacheDAO extends DAO {
     NetworkAddressInventory get(int addressId);
 
     List<NetworkAddressInventory> loadLastUpdate(long lastUpdateTime);
+
+    /**
+     * @return at most the given size of inventories, whose sequence is greater than the given one, in ascending order
+     * of the sequence.
+     */
+    List<NetworkAddressInventory> loadAfter(int sequence, int size);
 }
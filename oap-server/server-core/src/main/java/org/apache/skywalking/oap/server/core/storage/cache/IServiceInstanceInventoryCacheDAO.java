@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.storage.cache;
 
+import java.util.List;
 import org.apache.skywalking.oap.server.core.register.ServiceInstanceInventory;
 import org.apache.skywalking.oap.server.core.storage.DAO;
 
@@ -31,4 +32,10 @@ public interface IServiceInstanceInventoryCacheDAO extends DAO {
     int getServiceInstanceId(int serviceId, String uuid);
 
     int getServiceInstanceId(int serviceId, int addressId);
+
+    /**
+     * @return at most the given size of inventories, whose sequence is greater than the given one, in ascending order
+     * of the sequence.
+     */
+    List<ServiceInstanceInventory> loadAfter(int sequence, int size);
 }
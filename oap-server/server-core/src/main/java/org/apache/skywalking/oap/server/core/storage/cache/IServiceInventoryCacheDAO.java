@@ -34,4 +34,10 @@ public interface IServiceInventoryCacheDAO extends DAO {
     ServiceInventory get(int serviceId);
 
     List<ServiceInventory> loadLastUpdate(long lastUpdateTime);
+
+    /**
+     * @return at most the given size of inventories, whose sequence is greater than the given one, in ascending order
+     * of the sequence.
+     */
+    List<ServiceInventory> loadAfter(int sequence, int size);
 }
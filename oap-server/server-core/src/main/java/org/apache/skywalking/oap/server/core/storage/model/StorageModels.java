@@ -67,7 +67,7 @@ public class StorageModels implements IModelGetter, IModelSetter, IModelOverride
                     logger.debug("The field named {} with the {} type", column.columnName(), field.getType());
                 }
                 if (column.isValue()) {
-                    ValueColumnIds.INSTANCE.putIfAbsent(modelName, column.columnName(), column.function());
+                    ValueColumnIds.INSTANCE.putIfAbsent(modelName, column.columnName(), column.function(), column.isDefaultValue());
                 }
             }
         }
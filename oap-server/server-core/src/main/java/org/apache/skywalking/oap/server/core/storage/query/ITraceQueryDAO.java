@@ -35,6 +35,16 @@ public interface ITraceQueryDAO extends Service {
 
     List<SegmentRecord> queryByTraceId(String traceId) throws IOException;
 
+    /**
+     * Read the segments of the trace by the pages of ascending segment id.
+     *
+     * @param afterSegmentId read the segments whose id is greater than it, null for the first page.
+     * @param limit the max number of segments in the page.
+     */
+    List<SegmentRecord> queryByTraceId(String traceId, String afterSegmentId, int limit) throws IOException;
+
+    List<SegmentRecord> queryBySegmentIds(String traceId, List<String> segmentIds) throws IOException;
+
     /**
      * This method gives more flexible for unnative
      * @param traceId
@@ -45,6 +45,22 @@ public class LimitedSizeDataCollectionTest {
         }
     }
 
+    @Test
+    public void testPutOutOfOrder() {
+        LimitedSizeDataCollection<MockStorageData> collection = new LimitedSizeDataCollection<>(3);
+        long[] latencies = new long[] {8, 2, 6, 1, 9, 4, 7};
+        for (long latency : latencies) {
+            collection.put(new MockStorageData(latency));
+        }
+
+        int[] expected = new int[] {7, 8, 9};
+        int i = 0;
+        for (MockStorageData data : collection.collection()) {
+            Assert.assertEquals(expected[i++], data.latency);
+        }
+        Assert.assertEquals(3, i);
+    }
+
     private class MockStorageData implements ComparableStorageData {
         private long latency;
 
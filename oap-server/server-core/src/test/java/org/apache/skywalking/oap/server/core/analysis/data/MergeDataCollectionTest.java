@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.*;
+
+public class MergeDataCollectionTest {
+    @Test
+    public void testMerge() {
+        MergeDataCollection<Metrics> collection = new MergeDataCollection<>(4);
+        for (int round = 0; round < 3; round++) {
+            for (int entity = 0; entity < 100; entity++) {
+                collection.merge(new MockMetrics(entity, 201912011200L, 1));
+                collection.merge(new MockMetrics(entity, 201912011201L, 2));
+            }
+        }
+
+        Assert.assertEquals(200, collection.size());
+        Assert.assertEquals(200, collection.collection().size());
+
+        Assert.assertEquals(3, ((MockMetrics)collection.get(new MockMetrics(7, 201912011200L, 0))).getValue());
+        Assert.assertEquals(6, ((MockMetrics)collection.get(new MockMetrics(7, 201912011201L, 0))).getValue());
+        Assert.assertFalse(collection.containsKey(new MockMetrics(100, 201912011200L, 0)));
+
+        long total = 0;
+        for (Metrics metrics : collection.collection()) {
+            total += ((MockMetrics)metrics).getValue();
+        }
+        Assert.assertEquals(100 * 3 + 100 * 6, total);
+    }
+
+    @Test
+    public void testReuseAfterClear() {
+        MergeDataCollection<Metrics> collection = new MergeDataCollection<>(4);
+        for (int entity = 0; entity < 100; entity++) {
+            collection.put(new MockMetrics(entity, 201912011200L, 1));
+        }
+        collection.clear();
+
+        Assert.assertEquals(0, collection.size());
+        Assert.assertFalse(collection.collection().iterator().hasNext());
+
+        MockMetrics metrics = new MockMetrics(1, 201912011200L, 1);
+        Assert.assertSame(metrics, collection.merge(metrics));
+        Assert.assertEquals(1, collection.collection().size());
+    }
+
+    @Test
+    public void testHashCollision() {
+        MergeDataCollection<Metrics> collection = new MergeDataCollection<>(4);
+        // Different entities with the same remote hash code are still different keys.
+        collection.merge(new CollisionMetrics(1, 201912011200L, 1));
+        collection.merge(new CollisionMetrics(2, 201912011200L, 1));
+        collection.merge(new CollisionMetrics(1, 201912011200L, 1));
+
+        Assert.assertEquals(2, collection.size());
+        Assert.assertEquals(2, ((MockMetrics)collection.get(new CollisionMetrics(1, 201912011200L, 0))).getValue());
+    }
+
+    private static class MockMetrics extends CountMetrics {
+        private final int entity;
+
+        private MockMetrics(int entity, long timeBucket, long value) {
+            this.entity = entity;
+            setTimeBucket(timeBucket);
+            combine(value);
+        }
+
+        @Override public String id() {
+            return getTimeBucket() + "_" + entity;
+        }
+
+        @Override public Metrics toHour() {
+            return null;
+        }
+
+        @Override public Metrics toDay() {
+            return null;
+        }
+
+        @Override public Metrics toMonth() {
+            return null;
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override public int remoteHashCode() {
+            return entity;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            MockMetrics metrics = (MockMetrics)o;
+            return entity == metrics.entity && getTimeBucket() == metrics.getTimeBucket();
+        }
+
+        @Override public int hashCode() {
+            return Objects.hash(entity, getTimeBucket());
+        }
+    }
+
+    private static class CollisionMetrics extends MockMetrics {
+        private CollisionMetrics(int entity, long timeBucket, long value) {
+            super(entity, timeBucket, value);
+        }
+
+        @Override public int remoteHashCode() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MaxLongMetrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.*;
+
+public class MetricsSessionCacheTest {
+    @Test
+    public void testSizeBounded() {
+        MetricsSessionCache cache = new MetricsSessionCache(2);
+        cache.put(new MockMetrics(1, 201912011200L));
+        cache.put(new MockMetrics(2, 201912011200L));
+        Assert.assertNotNull(cache.get(new MockMetrics(1, 201912011200L)));
+
+        // The least recently used one, entity 2, is evicted.
+        cache.put(new MockMetrics(3, 201912011200L));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get(new MockMetrics(2, 201912011200L)));
+        Assert.assertNotNull(cache.get(new MockMetrics(1, 201912011200L)));
+
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testEvictOldTimeBucket() {
+        MetricsSessionCache cache = new MetricsSessionCache(100);
+        cache.put(new MockMetrics(1, 201912011200L));
+        cache.put(new MockMetrics(1, 201912011201L));
+
+        cache.flushed(201912011201L);
+        cache.endOfRound();
+        Assert.assertEquals(1, cache.size());
+        Assert.assertNotNull(cache.get(new MockMetrics(1, 201912011201L)));
+
+        // Keep the time bucket flushed in the last round.
+        cache.put(new MockMetrics(1, 201912011202L));
+        cache.flushed(201912011202L);
+        cache.endOfRound();
+        Assert.assertEquals(2, cache.size());
+
+        cache.flushed(201912011202L);
+        cache.endOfRound();
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(2, cache.getEvictionCount());
+    }
+
+    private static class MockMetrics extends MaxLongMetrics {
+        private final int entity;
+
+        private MockMetrics(int entity, long timeBucket) {
+            this.entity = entity;
+            setTimeBucket(timeBucket);
+        }
+
+        @Override public String id() {
+            return getTimeBucket() + "_" + entity;
+        }
+
+        @Override public Metrics toHour() {
+            return null;
+        }
+
+        @Override public Metrics toDay() {
+            return null;
+        }
+
+        @Override public Metrics toMonth() {
+            return null;
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override public int remoteHashCode() {
+            return entity;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof MockMetrics)) {
+                return false;
+            }
+            MockMetrics metrics = (MockMetrics)o;
+            return entity == metrics.entity && getTimeBucket() == metrics.getTimeBucket();
+        }
+
+        @Override public int hashCode() {
+            return 31 * entity + (int)getTimeBucket();
+        }
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
+import java.util.Base64;
 import org.junit.*;
 
 /**
@@ -66,4 +67,34 @@ public class IntKeyLongValueHashMapTestCase {
 
         Assert.assertEquals("1,100|2,200|5,500|6,600|7,700", intKeyLongValueHashMap.toStorageData());
     }
+
+    @Test
+    public void binaryEncoding() {
+        byte[] data = intKeyLongValueHashMap.toBytes();
+        Assert.assertTrue(data.length < "1,100|2,200|5,500|6,600|7,700".length());
+
+        IntKeyLongValueHashMap decoded = IntKeyLongValueHashMap.fromStorageData(data);
+        Assert.assertEquals(5, decoded.size());
+        Assert.assertEquals(100, decoded.get(1).getValue());
+        Assert.assertEquals(700, decoded.get(7).getValue());
+
+        // The binary field of Elasticsearch returns the base64 of the bytes.
+        decoded = IntKeyLongValueHashMap.fromStorageData(Base64.getEncoder().encodeToString(data));
+        Assert.assertEquals("1,100|2,200|5,500|6,600|7,700", decoded.toStorageData());
+
+        // The legacy data is still readable.
+        decoded = IntKeyLongValueHashMap.fromStorageData("1,100|2,-200");
+        Assert.assertEquals(-200, decoded.get(2).getValue());
+
+        Assert.assertTrue(IntKeyLongValueHashMap.fromStorageData(new IntKeyLongValueHashMap().toBytes()).isEmpty());
+        Assert.assertTrue(IntKeyLongValueHashMap.fromStorageData("").isEmpty());
+        Assert.assertTrue(IntKeyLongValueHashMap.fromStorageData(null).isEmpty());
+    }
+
+    @Test
+    public void decode() {
+        long[] values = new long[8];
+        IntKeyLongValueHashMap.decode("1,100|2,200|5,500|6,600|7,700", (key, value) -> values[key] = value);
+        Assert.assertArrayEquals(new long[] {0, 100, 200, 0, 0, 500, 600, 700}, values);
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QuantileSketchTest {
+
+    @Test
+    public void testExactSmallValues() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 20; i++) {
+            sketch.insert(i);
+        }
+
+        Assert.assertEquals(10, sketch.quantile(50));
+        Assert.assertEquals(19, sketch.quantile(95));
+        Assert.assertEquals(20, sketch.quantile(99));
+    }
+
+    @Test
+    public void testRelativeError() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 100000; i++) {
+            sketch.insert(i);
+        }
+
+        int[] ranks = {50, 75, 90, 95, 99};
+        int[] results = new int[ranks.length];
+        sketch.quantiles(ranks, results);
+        for (int i = 0; i < ranks.length; i++) {
+            int expected = ranks[i] * 1000;
+            Assert.assertTrue(Math.abs(results[i] - expected) <= expected / QuantileSketch.SUB_BUCKETS);
+        }
+    }
+
+    @Test
+    public void testIndexIsMonotonic() {
+        int previous = QuantileSketch.index(0);
+        for (int value = 1; value < 1 << 20; value++) {
+            int index = QuantileSketch.index(value);
+            Assert.assertTrue(index == previous || index == previous + 1);
+            previous = index;
+        }
+        Assert.assertTrue(QuantileSketch.index(Integer.MAX_VALUE) > previous);
+    }
+
+    @Test
+    public void testMerge() {
+        QuantileSketch low = new QuantileSketch();
+        QuantileSketch high = new QuantileSketch();
+        for (int i = 0; i < 50; i++) {
+            low.insert(10);
+            high.insert(5000);
+        }
+
+        low.merge(high);
+        Assert.assertEquals(100, low.getTotal());
+        Assert.assertEquals(10, low.quantile(50));
+        Assert.assertEquals(5000, low.quantile(99), 5000 / QuantileSketch.SUB_BUCKETS);
+    }
+
+    @Test
+    public void testStorageData() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.insert(3);
+        sketch.insert(300);
+        sketch.insert(300);
+        sketch.insert(30000);
+
+        QuantileSketch restored = new QuantileSketch(sketch.toStorageData());
+        Assert.assertEquals(sketch.getTotal(), restored.getTotal());
+        Assert.assertEquals(sketch.toStorageData(), restored.toStorageData());
+        Assert.assertEquals(sketch.quantile(50), restored.quantile(50));
+        Assert.assertEquals(sketch.quantile(99), restored.quantile(99));
+
+        QuantileSketch empty = new QuantileSketch(new QuantileSketch().toStorageData());
+        Assert.assertEquals(0, empty.getTotal());
+        Assert.assertEquals(0, empty.quantile(99));
+    }
+
+    @Test
+    public void testCopyFrom() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.insert(100);
+
+        QuantileSketch copy = new QuantileSketch();
+        copy.copyFrom(sketch);
+        sketch.insert(100);
+
+        Assert.assertEquals(1, copy.getTotal());
+        Assert.assertEquals(2, sketch.getTotal());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.cache;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.core.register.EndpointInventory;
+import org.junit.*;
+
+public class InventoryLookupCacheTest {
+
+    @Test
+    public void testMissIsRemembered() {
+        InventoryLookupCache<String, Integer> cache = new InventoryLookupCache<>("test", 100, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNull(cache.get("unknown", key -> {
+                loads.incrementAndGet();
+                return null;
+            }));
+        }
+        Assert.assertEquals(1, loads.get());
+
+        cache.put("unknown", 5);
+        Assert.assertEquals(5, (int)cache.get("unknown", key -> null));
+    }
+
+    @Test
+    public void testMissIsNotRememberedWithoutTTL() {
+        InventoryLookupCache<String, Integer> cache = new InventoryLookupCache<>("test", 100, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            cache.get("unknown", key -> {
+                loads.incrementAndGet();
+                return null;
+            });
+        }
+        Assert.assertEquals(10, loads.get());
+    }
+
+    @Test
+    public void testConcurrentMissesLoadOnce() throws Exception {
+        InventoryLookupCache<String, Integer> cache = new InventoryLookupCache<>("test", 100, 60);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> cache.get("endpoint", key -> {
+                loads.incrementAndGet();
+                try {
+                    loading.await(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 3;
+            })));
+        }
+        loading.countDown();
+        for (Future<Integer> future : futures) {
+            Assert.assertEquals(3, (int)future.get());
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testLoadAfter() {
+        List<EndpointInventory> storage = new ArrayList<>();
+        for (int i = 1; i <= 25; i++) {
+            EndpointInventory inventory = new EndpointInventory();
+            inventory.setSequence(i);
+            storage.add(inventory);
+        }
+
+        List<Integer> loaded = new ArrayList<>();
+        int lastSequence = InventoryLookupCache.loadAfter(0, 10, (sequence, size) -> {
+            List<EndpointInventory> page = new ArrayList<>();
+            for (EndpointInventory inventory : storage) {
+                if (inventory.getSequence() > sequence && page.size() < size) {
+                    page.add(inventory);
+                }
+            }
+            return page;
+        }, inventory -> loaded.add(inventory.getSequence()), () -> false);
+
+        Assert.assertEquals(25, lastSequence);
+        Assert.assertEquals(25, loaded.size());
+        Assert.assertEquals(1, (int)loaded.get(0));
+        Assert.assertEquals(25, (int)loaded.get(24));
+    }
+}
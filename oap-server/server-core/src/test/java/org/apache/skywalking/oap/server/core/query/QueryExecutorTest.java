@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.junit.*;
+
+public class QueryExecutorTest {
+
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        QueryExecutor executor = new QueryExecutor(2, 10, 0);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        long deadline = executor.deadline();
+        Future<Boolean> first = executor.submit(() -> {
+            bothStarted.countDown();
+            return bothStarted.await(5, TimeUnit.SECONDS);
+        });
+        Future<Boolean> second = executor.submit(() -> {
+            bothStarted.countDown();
+            return bothStarted.await(5, TimeUnit.SECONDS);
+        });
+
+        Assert.assertTrue(executor.get(first, deadline));
+        Assert.assertTrue(executor.get(second, deadline));
+    }
+
+    @Test(expected = IOException.class)
+    public void testDeadline() throws IOException {
+        QueryExecutor executor = new QueryExecutor(1, 10, 0);
+        Future<Integer> slow = executor.submit(() -> {
+            Thread.sleep(5000);
+            return 1;
+        });
+        executor.get(slow, System.currentTimeMillis() + 50);
+    }
+
+    @Test
+    public void testOnlyFinishedRangeIsCached() throws IOException {
+        QueryExecutor executor = new QueryExecutor(1, 10, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            executor.cached("finished", Downsampling.Minute, 201901010000L, calls::incrementAndGet);
+        }
+        Assert.assertEquals(1, calls.get());
+
+        for (int i = 0; i < 3; i++) {
+            executor.cached("unfinished", Downsampling.Minute, 299901010000L, calls::incrementAndGet);
+        }
+        Assert.assertEquals(4, calls.get());
+    }
+}
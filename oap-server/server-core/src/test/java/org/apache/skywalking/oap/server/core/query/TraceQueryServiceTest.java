@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import org.apache.skywalking.apm.network.language.agent.UniqueId;
+import org.apache.skywalking.apm.network.language.agent.v2.*;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.cache.ServiceInventoryCache;
+import org.apache.skywalking.oap.server.core.query.entity.Pagination;
+import org.apache.skywalking.oap.server.core.query.entity.Span;
+import org.apache.skywalking.oap.server.core.query.entity.Trace;
+import org.apache.skywalking.oap.server.core.storage.StorageModule;
+import org.apache.skywalking.oap.server.core.storage.query.ITraceQueryDAO;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.junit.*;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class TraceQueryServiceTest {
+
+    private static final String TRACE_ID = "1.1.0";
+
+    /**
+     * The segments sorted by the segment id, as the storage pages them.
+     */
+    private final TreeMap<String, SegmentRecord> segments = new TreeMap<>();
+    private ITraceQueryDAO traceQueryDAO;
+    private ModuleManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        traceQueryDAO = mock(ITraceQueryDAO.class);
+        when(traceQueryDAO.queryByTraceId(eq(TRACE_ID), anyString(), anyInt())).thenAnswer(invocation -> {
+            String afterSegmentId = (String)invocation.getArguments()[1];
+            int limit = (Integer)invocation.getArguments()[2];
+            Collection<SegmentRecord> after = afterSegmentId == null ? segments.values() : segments.tailMap(afterSegmentId, false).values();
+            return after.stream().limit(limit).collect(Collectors.toList());
+        });
+        when(traceQueryDAO.queryBySegmentIds(eq(TRACE_ID), anyListOf(String.class))).thenAnswer(invocation -> {
+            List<SegmentRecord> records = new ArrayList<>();
+            for (Object segmentId : (List)invocation.getArguments()[1]) {
+                records.add(segments.get(segmentId));
+            }
+            return records;
+        });
+
+        ModuleServiceHolder storage = mock(ModuleServiceHolder.class);
+        when(storage.getService(ITraceQueryDAO.class)).thenReturn(traceQueryDAO);
+        ModuleProviderHolder storageHolder = mock(ModuleProviderHolder.class);
+        when(storageHolder.provider()).thenReturn(storage);
+        ModuleServiceHolder core = mock(ModuleServiceHolder.class);
+        when(core.getService(ServiceInventoryCache.class)).thenReturn(mock(ServiceInventoryCache.class));
+        ModuleProviderHolder coreHolder = mock(ModuleProviderHolder.class);
+        when(coreHolder.provider()).thenReturn(core);
+        manager = mock(ModuleManager.class);
+        when(manager.find(StorageModule.NAME)).thenReturn(storageHolder);
+        when(manager.find(CoreModule.NAME)).thenReturn(coreHolder);
+    }
+
+    @Test
+    public void testWholeTrace() throws Exception {
+        addTrace();
+
+        Trace trace = new TraceQueryService(manager, 100).queryTrace(TRACE_ID);
+
+        Assert.assertEquals(Arrays.asList("1.1.1S0", "1.1.1S1", "1.1.2S0", "1.1.2S1", "1.1.1S2", "1.1.3S0"), ids(trace));
+        Assert.assertTrue(trace.getSpans().get(0).isRoot());
+        Assert.assertFalse(trace.getSpans().get(2).isRoot());
+        // The segments read by pages are kept to build the spans.
+        verify(traceQueryDAO, never()).queryBySegmentIds(anyString(), anyListOf(String.class));
+    }
+
+    @Test
+    public void testLargeTraceTruncated() throws Exception {
+        addTrace();
+
+        Trace trace = new TraceQueryService(manager, 4).queryTrace(TRACE_ID);
+
+        Assert.assertEquals(Arrays.asList("1.1.1S0", "1.1.1S1", "1.1.2S0", "1.1.2S1"), ids(trace));
+        // Only the segments of the first spans are read again.
+        verify(traceQueryDAO).queryBySegmentIds(TRACE_ID, Arrays.asList("1.1.1", "1.1.2"));
+    }
+
+    @Test
+    public void testPages() throws Exception {
+        addTrace();
+        TraceQueryService service = new TraceQueryService(manager, 4);
+
+        Assert.assertEquals(Arrays.asList("1.1.1S0", "1.1.1S1"), ids(service.queryTrace(TRACE_ID, null, paging(1, 2))));
+        Assert.assertEquals(Arrays.asList("1.1.2S0", "1.1.2S1"), ids(service.queryTrace(TRACE_ID, null, paging(2, 2))));
+        Trace last = service.queryTrace(TRACE_ID, null, paging(3, 2));
+        Assert.assertEquals(Arrays.asList("1.1.1S2", "1.1.3S0"), ids(last));
+        Assert.assertFalse(last.getSpans().get(0).isRoot());
+        Assert.assertTrue(service.queryTrace(TRACE_ID, null, paging(4, 2)).getSpans().isEmpty());
+    }
+
+    @Test
+    public void testSubtree() throws Exception {
+        addTrace();
+        TraceQueryService service = new TraceQueryService(manager, 100);
+
+        Assert.assertEquals(Arrays.asList("1.1.1S1", "1.1.2S0", "1.1.2S1"), ids(service.queryTrace(TRACE_ID, "1.1.1S1", paging(1, 10))));
+        Assert.assertEquals(Collections.singletonList("1.1.3S0"), ids(service.queryTrace(TRACE_ID, "1.1.1S2", paging(2, 1))));
+        Assert.assertTrue(service.queryTrace(TRACE_ID, "1.1.9S0", paging(1, 10)).getSpans().isEmpty());
+    }
+
+    @Test
+    public void testSegmentPages() throws Exception {
+        for (int i = 0; i < 250; i++) {
+            addSegment(1000 + i, span(0, -1));
+        }
+
+        Trace trace = new TraceQueryService(manager, 1000).queryTrace(TRACE_ID);
+
+        Assert.assertEquals(250, trace.getSpans().size());
+        verify(traceQueryDAO).queryByTraceId(TRACE_ID, null, 100);
+        verify(traceQueryDAO).queryByTraceId(TRACE_ID, "1.1.1099", 100);
+        verify(traceQueryDAO).queryByTraceId(TRACE_ID, "1.1.1199", 100);
+        verify(traceQueryDAO, never()).queryByTraceId(TRACE_ID, "1.1.1249", 100);
+    }
+
+    @Test
+    public void testFlexibleTraceQuery() throws Exception {
+        // The storage of Zipkin or Jaeger doesn't save the segments.
+        when(traceQueryDAO.doFlexibleTraceQuery(TRACE_ID)).thenReturn(Arrays.asList(
+            flexibleSpan("B", "A"), flexibleSpan("A", ""), flexibleSpan("C", "A"), flexibleSpan("D", "B")));
+        TraceQueryService service = new TraceQueryService(manager, 3);
+
+        Trace trace = service.queryTrace(TRACE_ID);
+        Assert.assertEquals(Arrays.asList("A", "B", "D"), ids(trace));
+        Assert.assertTrue(trace.getSpans().get(0).isRoot());
+        Assert.assertFalse(trace.getSpans().get(1).isRoot());
+
+        Assert.assertEquals(Collections.singletonList("C"), ids(service.queryTrace(TRACE_ID, null, paging(2, 3))));
+        Assert.assertEquals(Arrays.asList("B", "D"), ids(service.queryTrace(TRACE_ID, "B", paging(1, 3))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxSpansOfTrace() {
+        new TraceQueryService(manager, 0);
+    }
+
+    /**
+     * Segment 1 is the entry, segment 2 is called by its span 1, and segment 3 is called by its span 2.
+     */
+    private void addTrace() {
+        addSegment(1, span(0, -1), span(1, 0), span(2, 0));
+        addSegment(2, span(0, -1).addRefs(ref(1, 1)), span(1, 0));
+        addSegment(3, span(0, -1).addRefs(ref(1, 2)));
+    }
+
+    private void addSegment(long id, SpanObjectV2.Builder... spans) {
+        SegmentObject.Builder segmentObject = SegmentObject.newBuilder().setTraceSegmentId(uniqueId(id));
+        for (SpanObjectV2.Builder span : spans) {
+            segmentObject.addSpans(span);
+        }
+        SegmentRecord record = new SegmentRecord();
+        record.setSegmentId("1.1." + id);
+        record.setTraceId(TRACE_ID);
+        record.setServiceId(1);
+        record.setVersion(2);
+        record.setDataBinary(segmentObject.build().toByteArray());
+        segments.put(record.getSegmentId(), record);
+    }
+
+    private static SpanObjectV2.Builder span(int spanId, int parentSpanId) {
+        return SpanObjectV2.newBuilder().setSpanId(spanId).setParentSpanId(parentSpanId).setOperationName("/users");
+    }
+
+    private static SegmentReference ref(long parentSegment, int parentSpanId) {
+        return SegmentReference.newBuilder().setParentTraceSegmentId(uniqueId(parentSegment)).setParentSpanId(parentSpanId).build();
+    }
+
+    private static UniqueId uniqueId(long segment) {
+        return UniqueId.newBuilder().addIdParts(1).addIdParts(1).addIdParts(segment).build();
+    }
+
+    private static Span flexibleSpan(String id, String parentId) {
+        Span span = new Span();
+        span.setSegmentSpanId(id);
+        span.setSegmentParentSpanId(parentId);
+        return span;
+    }
+
+    private static Pagination paging(int pageNum, int pageSize) {
+        Pagination paging = new Pagination();
+        paging.setPageNum(pageNum);
+        paging.setPageSize(pageSize);
+        return paging;
+    }
+
+    private static List<String> ids(Trace trace) {
+        return trace.getSpans().stream().map(Span::getSegmentSpanId).collect(Collectors.toList());
+    }
+}
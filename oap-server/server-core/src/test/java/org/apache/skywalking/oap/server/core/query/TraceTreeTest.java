@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import java.util.*;
+import org.junit.*;
+
+public class TraceTreeTest {
+
+    @Test
+    public void testTreeOrder() {
+        TraceTree<String> tree = new TraceTree<>();
+        // The child segment comes before its parent segment.
+        tree.add("B.0", "A.1", "B.0");
+        tree.add("B.1", "B.0", "B.1");
+        tree.add("A.0", "A.-1", "A.0");
+        tree.add("A.1", "A.0", "A.1");
+        tree.add("A.2", "A.0", "A.2");
+
+        Assert.assertEquals(Arrays.asList("A.0", "A.1", "B.0", "B.1", "A.2"), tree.sorted());
+        Assert.assertTrue(tree.isRoot("A.0"));
+        Assert.assertFalse(tree.isRoot("B.0"));
+    }
+
+    @Test
+    public void testPageAndSubtree() {
+        TraceTree<String> tree = new TraceTree<>();
+        tree.add("A.0", "A.-1", "A.0");
+        tree.add("A.1", "A.0", "A.1");
+        tree.add("B.0", "A.1", "B.0");
+        tree.add("B.1", "B.0", "B.1");
+        tree.add("A.2", "A.0", "A.2");
+
+        Assert.assertEquals(Arrays.asList("B.0", "B.1"), tree.sorted(null, 2, 2));
+        Assert.assertEquals(Arrays.asList("A.1", "B.0", "B.1"), tree.sorted("A.1", 0, 10));
+        Assert.assertEquals(Collections.emptyList(), tree.sorted("C.0", 0, 10));
+    }
+
+    @Test
+    public void testDeepTrace() {
+        TraceTree<Integer> tree = new TraceTree<>();
+        int depth = 100000;
+        for (int i = 0; i < depth; i++) {
+            tree.add("A." + i, "A." + (i - 1), i);
+        }
+
+        List<Integer> sorted = tree.sorted();
+        Assert.assertEquals(depth, sorted.size());
+        Assert.assertEquals(depth - 1, (int)sorted.get(depth - 1));
+    }
+}
@@ -18,12 +18,17 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcServerRule;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.RemoteServiceHandler;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.core.worker.*;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
@@ -54,10 +59,7 @@ public class GRPCRemoteClientTestCase {
 
         TestWorker worker = new TestWorker(moduleManager);
         workerInstancesService.put(nextWorkerName, worker, TestStreamData.class);
-    }
 
-    @Test
-    public void testPush() throws InterruptedException {
         MetricsCreator metricsCreator = mock(MetricsCreator.class);
         when(metricsCreator.createCounter(any(), any(), any(), any())).thenReturn(new CounterMetrics() {
             @Override public void inc() {
@@ -69,6 +71,28 @@ public class GRPCRemoteClientTestCase {
             }
         });
 
+        when(metricsCreator.createGauge(any(), any(), any(), any())).thenReturn(new GaugeMetrics() {
+            @Override public void inc() {
+
+            }
+
+            @Override public void inc(double value) {
+
+            }
+
+            @Override public void dec() {
+
+            }
+
+            @Override public void dec(double value) {
+
+            }
+
+            @Override public void setValue(double value) {
+
+            }
+        });
+
         when(metricsCreator.createHistogramMetric(any(), any(), any(), any())).thenReturn(new HistogramMetrics() {
             @Override public Timer createTimer() {
                 return super.createTimer();
@@ -82,7 +106,10 @@ public class GRPCRemoteClientTestCase {
         ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
         moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
         telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, metricsCreator);
+    }
 
+    @Test
+    public void testPush() throws InterruptedException {
         grpcServerRule.getServiceRegistry().addService(new RemoteServiceHandler(moduleManager));
 
         Address address = new Address("not-important", 11, false);
@@ -98,6 +125,41 @@ public class GRPCRemoteClientTestCase {
         TimeUnit.SECONDS.sleep(2);
     }
 
+    @Test
+    public void testFallbackToCall() throws InterruptedException {
+        CountDownLatch received = new CountDownLatch(12);
+        // A server of the former version, which only serves the call.
+        grpcServerRule.getServiceRegistry().addService(new RemoteServiceGrpc.RemoteServiceImplBase() {
+            @Override public StreamObserver<RemoteMessage> call(StreamObserver<Empty> responseObserver) {
+                return new StreamObserver<RemoteMessage>() {
+                    @Override public void onNext(RemoteMessage message) {
+                        received.countDown();
+                    }
+
+                    @Override public void onError(Throwable throwable) {
+                    }
+
+                    @Override public void onCompleted() {
+                        responseObserver.onNext(Empty.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+        });
+
+        Address address = new Address("not-important", 11, false);
+        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10, 10));
+        doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
+        remoteClient.connect();
+
+        for (int i = 0; i < 12; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+
+        // Including the messages sent in the batch stream before the server answered UNIMPLEMENTED.
+        Assert.assertTrue(received.await(10, TimeUnit.SECONDS));
+    }
+
     public static class TestStreamData extends StreamData {
 
         private long value;
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HashCodeSelectorTest {
+
+    private static final int DATA_SIZE = 10000;
+
+    @Test
+    public void testOnlyFewOwnersChangedWhenNodeJoins() {
+        List<RemoteClient> clients = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            clients.add(mockClient("10.0.0." + i));
+        }
+
+        HashCodeSelector selector = new HashCodeSelector();
+        Map<Integer, RemoteClient> owners = new HashMap<>();
+        List<RemoteClient> fourNodes = ImmutableList.copyOf(clients);
+        for (int i = 0; i < DATA_SIZE; i++) {
+            owners.put(i, selector.select(fourNodes, new TestStreamData(("service-" + i).hashCode())));
+        }
+
+        clients.add(mockClient("10.0.0.4"));
+        List<RemoteClient> fiveNodes = ImmutableList.copyOf(clients);
+        int moved = 0;
+        for (int i = 0; i < DATA_SIZE; i++) {
+            RemoteClient owner = selector.select(fiveNodes, new TestStreamData(("service-" + i).hashCode()));
+            if (owner != owners.get(i)) {
+                moved++;
+                Assert.assertSame(clients.get(4), owner);
+            }
+        }
+
+        // About 1/5 of the data move to the new node, the modulo hash moves about 4/5.
+        Assert.assertTrue(moved > DATA_SIZE / 10);
+        Assert.assertTrue(moved < DATA_SIZE * 3 / 10);
+    }
+
+    @Test
+    public void testBalance() {
+        List<RemoteClient> clients = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            clients.add(mockClient("oap-" + i));
+        }
+        clients = ImmutableList.copyOf(clients);
+
+        HashCodeSelector selector = new HashCodeSelector();
+        Map<RemoteClient, Integer> counts = new HashMap<>();
+        for (int i = 0; i < DATA_SIZE; i++) {
+            counts.merge(selector.select(clients, new TestStreamData(i)), 1, Integer::sum);
+        }
+
+        for (RemoteClient client : clients) {
+            int count = counts.getOrDefault(client, 0);
+            Assert.assertTrue(count > DATA_SIZE / 3 * 0.7);
+            Assert.assertTrue(count < DATA_SIZE / 3 * 1.3);
+        }
+    }
+
+    private RemoteClient mockClient(String host) {
+        RemoteClient client = mock(RemoteClient.class);
+        when(client.getAddress()).thenReturn(new Address(host, 11800, false));
+        return client;
+    }
+
+    private static class TestStreamData extends StreamData {
+        private final int hashCode;
+
+        private TestStreamData(int hashCode) {
+            this.hashCode = hashCode;
+        }
+
+        @Override public int remoteHashCode() {
+            return hashCode;
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.annotation;
+
+import java.lang.reflect.Field;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics;
+import org.apache.skywalking.oap.server.core.query.sql.Function;
+import org.junit.*;
+
+public class ValueColumnIdsTest {
+
+    @Test
+    public void testPercentileColumns() {
+        // Registered the same way as the storage models do, p99 isn't declared first.
+        for (Field field : PercentileMetrics.class.getDeclaredFields()) {
+            Column column = field.getAnnotation(Column.class);
+            if (column != null && column.isValue()) {
+                ValueColumnIds.INSTANCE.putIfAbsent("endpoint_percentile", column.columnName(), column.function(), column.isDefaultValue());
+            }
+        }
+
+        Assert.assertEquals("endpoint_percentile", ValueColumnIds.INSTANCE.getIndName("endpoint_percentile"));
+        Assert.assertEquals("p99", ValueColumnIds.INSTANCE.getValueCName("endpoint_percentile"));
+        for (String percentile : new String[] {"p50", "p75", "p90", "p95", "p99"}) {
+            String name = "endpoint_percentile_" + percentile;
+            Assert.assertEquals("endpoint_percentile", ValueColumnIds.INSTANCE.getIndName(name));
+            Assert.assertEquals(percentile, ValueColumnIds.INSTANCE.getValueCName(name));
+            Assert.assertEquals(Function.Avg, ValueColumnIds.INSTANCE.getValueFunction(name));
+        }
+    }
+
+    @Test
+    public void testDefaultValueColumn() {
+        ValueColumnIds.INSTANCE.putIfAbsent("service_percentile", "p99", Function.Avg, true);
+        ValueColumnIds.INSTANCE.putIfAbsent("service_percentile", "p50", Function.Avg, false);
+        ValueColumnIds.INSTANCE.putIfAbsent("all_percentile", "p50", Function.Avg, false);
+        ValueColumnIds.INSTANCE.putIfAbsent("all_percentile", "p99", Function.Avg, true);
+        ValueColumnIds.INSTANCE.putIfAbsent("all_percentile", "p75", Function.Avg, false);
+
+        // Whatever the order of the value columns is.
+        Assert.assertEquals("p99", ValueColumnIds.INSTANCE.getValueCName("service_percentile"));
+        Assert.assertEquals("p99", ValueColumnIds.INSTANCE.getValueCName("all_percentile"));
+        Assert.assertEquals("p75", ValueColumnIds.INSTANCE.getValueCName("all_percentile_p75"));
+    }
+
+    @Test
+    public void testMetricsNameFirst() {
+        ValueColumnIds.INSTANCE.putIfAbsent("service_resp", "value", Function.Avg);
+        ValueColumnIds.INSTANCE.putIfAbsent("service_resp_value", "value", Function.Sum);
+
+        // The metrics named like a value column of another one is still queried by its own name.
+        Assert.assertEquals("service_resp_value", ValueColumnIds.INSTANCE.getIndName("service_resp_value"));
+        Assert.assertEquals(Function.Sum, ValueColumnIds.INSTANCE.getValueFunction("service_resp_value"));
+    }
+}
@@ -42,8 +42,8 @@ class DataStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
         this.directory = directory;
         this.offsetStream = new OffsetStream(directory, offsetFileMaxSize);
-        this.writer = new DataStreamWriter<>(directory, offsetStream.getOffset().getWriteOffset(), dataFileMaxSize);
         this.reader = new DataStreamReader<>(directory, offsetStream.getOffset().getReadOffset(), parser, callBack);
+        this.writer = new DataStreamWriter<>(directory, offsetStream.getOffset().getWriteOffset(), dataFileMaxSize, reader::wakeUp);
     }
 
     void clean() throws IOException {
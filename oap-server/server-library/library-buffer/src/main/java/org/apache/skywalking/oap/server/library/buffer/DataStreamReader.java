@@ -20,28 +20,50 @@ package org.apache.skywalking.oap.server.library.buffer;
 
 import com.google.protobuf.*;
 import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.*;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.PrefixFileFilter;
-import org.apache.skywalking.apm.util.*;
+import org.apache.skywalking.apm.util.StringUtil;
 import org.slf4j.*;
 
 /**
+ * The reader maps the sealed segment files, and parses the records straight from the mapped buffer, the length prefix of
+ * every record is the index of the next one. The segment being written is read up to the committed offset only. The
+ * reader waits for the notification of the writer when all committed data has been read.
+ *
+ * The records which the call back refused are kept and retried before reading more, at most {@link #MAX_RETRY_TIMES}
+ * times.
+ *
  * @author peng-yongsheng
  */
 public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
 
     private static final Logger logger = LoggerFactory.getLogger(DataStreamReader.class);
 
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_RETRY_TIMES = 10;
+    private static final long RETRY_INTERVAL_MILLIS = 500;
+    private static final long MAX_IDLE_MILLIS = 1000;
+    private static final int TAIL_BUFFER_SIZE = 1024 * 1024;
+
     private final File directory;
     private final Offset.ReadOffset readOffset;
     private final Parser<MESSAGE_TYPE> parser;
     private final CallBack<MESSAGE_TYPE> callBack;
-    private final int collectionSize = 100;
-    private final BufferDataCollection<MESSAGE_TYPE> bufferDataCollection;
+    private final List<BufferData<MESSAGE_TYPE>> retryList = new ArrayList<>(BATCH_SIZE);
+    private final Object signal = new Object();
+    private boolean notified = false;
+    private int retryTimes = 0;
     private File readingFile;
-    private InputStream inputStream;
+    private FileChannel readingChannel;
+    private MappedByteBuffer mappedFile;
+    private ByteBuffer tailBuffer = ByteBuffer.allocate(TAIL_BUFFER_SIZE);
 
     DataStreamReader(File directory, Offset.ReadOffset readOffset, Parser<MESSAGE_TYPE> parser,
         CallBack<MESSAGE_TYPE> callBack) {
@@ -49,47 +71,38 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
         this.readOffset = readOffset;
         this.parser = parser;
         this.callBack = callBack;
-        this.bufferDataCollection = new BufferDataCollection<>(collectionSize);
     }
 
     void initialize() {
         preRead();
 
-        Executors.newSingleThreadScheduledExecutor().scheduleWithFixedDelay(
-            new RunnableWithExceptionProtection(this::read,
-                t -> logger.error("Buffer data pre read failure.", t)), 3, 1, TimeUnit.SECONDS);
+        Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BufferStreamReader-" + directory.getName());
+            thread.setDaemon(true);
+            return thread;
+        }).submit(this::readLoop);
     }
 
-    private void preRead() {
-        String fileName = readOffset.getFileName();
-        if (StringUtil.isEmpty(fileName)) {
-            openInputStream(readEarliestDataFile());
-        } else {
-            File readingFile = new File(directory, fileName);
-            if (readingFile.exists()) {
-                openInputStream(readingFile);
-                try {
-                    inputStream.skip(readOffset.getOffset());
-                } catch (IOException e) {
-                    logger.error(e.getMessage(), e);
-                }
-            } else {
-                openInputStream(readEarliestDataFile());
-            }
+    /**
+     * Called by the writer when new records have been committed.
+     */
+    void wakeUp() {
+        synchronized (signal) {
+            notified = true;
+            signal.notify();
         }
     }
 
-    private void openInputStream(File readingFile) {
-        try {
-            this.readingFile = readingFile;
-            if (Objects.nonNull(inputStream)) {
-                inputStream.close();
+    private void preRead() {
+        String fileName = readOffset.getFileName();
+        if (!StringUtil.isEmpty(fileName)) {
+            File file = new File(directory, fileName);
+            if (file.exists()) {
+                readingFile = file;
+                return;
             }
-
-            inputStream = new FileInputStream(readingFile);
-        } catch (IOException e) {
-            logger.error(e.getMessage(), e);
         }
+        readingFile = readEarliestDataFile();
     }
 
     private File readEarliestDataFile() {
@@ -105,77 +118,244 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
         }
     }
 
-    private void read() {
-        if (logger.isDebugEnabled()) {
-            logger.debug("Read buffer data");
+    private void readLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                boolean hasMore;
+                if (retryList.isEmpty()) {
+                    hasMore = read();
+                } else {
+                    hasMore = retry();
+                }
+
+                if (!hasMore) {
+                    await(retryList.isEmpty() ? MAX_IDLE_MILLIS : RETRY_INTERVAL_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                logger.error("Buffer data read failure.", t);
+                try {
+                    await(MAX_IDLE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
         }
+    }
 
-        try {
-            if (readOffset.getOffset() == readingFile.length() && !readOffset.isCurrentWriteFile()) {
-                FileUtils.forceDelete(readingFile);
-                openInputStream(readEarliestDataFile());
+    private void await(long millis) throws InterruptedException {
+        synchronized (signal) {
+            if (!notified) {
+                signal.wait(millis);
+            }
+            notified = false;
+        }
+    }
+
+    /**
+     * Read one batch of the committed records.
+     *
+     * @return true if there may be more records to read right now.
+     */
+    private boolean read() throws IOException {
+        if (readingFile == null || !readingFile.exists()) {
+            switchFile(readEarliestDataFile());
+            if (readingFile == null) {
+                return false;
             }
+        }
 
-            while (readOffset.getOffset() < readingFile.length()) {
-                BufferData<MESSAGE_TYPE> bufferData = new BufferData<>(parser.parseDelimitedFrom(inputStream));
-
-                if (bufferData.getMessageType() != null) {
-                    boolean isComplete = callBack.call(bufferData);
-                    final int serialized = bufferData.getMessageType().getSerializedSize();
-                    final int offset = CodedOutputStream.computeUInt32SizeNoTag(serialized) + serialized;
-                    readOffset.setOffset(readOffset.getOffset() + offset);
-
-                    if (!isComplete) {
-                        if (bufferDataCollection.size() == collectionSize) {
-                            reCall();
-                        }
-                        bufferDataCollection.add(bufferData);
-                    }
-
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("collection size: {}, max size: {}", bufferDataCollection.size(), collectionSize);
-                    }
-                } else if (bufferDataCollection.size() > 0) {
-                    reCall();
-                } else {
-                    try {
-                        TimeUnit.SECONDS.sleep(5);
-                    } catch (InterruptedException e) {
-                        logger.error(e.getMessage(), e);
-                    }
+        boolean isCurrentWriteFile = readOffset.isCurrentWriteFile();
+        long position = readOffset.getOffset();
+        long end = isCurrentWriteFile ? Math.min(readOffset.getWriteOffset(), readingFile.length()) : readingFile.length();
+
+        if (position >= end) {
+            if (!isCurrentWriteFile) {
+                File readFile = readingFile;
+                switchFile(readEarliestDataFileExcept(readFile.getName()));
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Delete the read buffer data file: {}", readFile.getAbsolutePath());
                 }
+                FileUtils.forceDelete(readFile);
+                return readingFile != null;
+            }
+            return false;
+        }
+
+        ByteBuffer window = isCurrentWriteFile ? readTail(position, end) : mapSealed(position, end);
+        int count = 0;
+        while (count < BATCH_SIZE && window.hasRemaining()) {
+            int recordStart = window.position();
+            int length = readRawVarint32(window);
+            if (length < 0 || length > window.remaining()) {
+                window.position(recordStart);
+                break;
+            }
+
+            ByteBuffer record = window.slice();
+            record.limit(length);
+            window.position(window.position() + length);
+            count++;
+
+            BufferData<MESSAGE_TYPE> bufferData = new BufferData<>(parser.parseFrom(record));
+            if (!callBack.call(bufferData)) {
+                retryList.add(bufferData);
+            }
+        }
+
+        long consumed = window.position();
+        if (count == 0) {
+            if (!isCurrentWriteFile) {
+                logger.warn("Skip the incomplete tail of buffer data file: {}, from offset: {}", readingFile.getAbsolutePath(), position);
+                consumed = end - position;
+            } else if (window.limit() == tailBuffer.capacity()) {
+                // The record is larger than the tail buffer.
+                tailBuffer = ByteBuffer.allocate(tailBuffer.capacity() * 2);
+                return true;
             }
+        }
+        readOffset.setOffset(position + consumed);
+        retryTimes = 0;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Read {} buffer data, retry size: {}", count, retryList.size());
+        }
+        return count > 0 && (count == BATCH_SIZE || position + consumed < end) || !isCurrentWriteFile;
+    }
 
-            if (bufferDataCollection.size() > 0) {
-                reCall();
+    /**
+     * The sealed file will not change anymore, map the whole file once, and parse the records from the mapped memory.
+     */
+    private ByteBuffer mapSealed(long position, long end) throws IOException {
+        if (mappedFile == null) {
+            mappedFile = channel().map(FileChannel.MapMode.READ_ONLY, 0, Math.min(end, Integer.MAX_VALUE));
+        }
+        ByteBuffer window = mappedFile.duplicate();
+        window.limit((int)Math.min(end, mappedFile.capacity()));
+        window.position((int)position);
+        return window.slice();
+    }
+
+    /**
+     * The file is being appended, read the committed part into the reused buffer, rather than mapping a growing region
+     * again and again.
+     */
+    private ByteBuffer readTail(long position, long end) throws IOException {
+        tailBuffer.clear();
+        tailBuffer.limit((int)Math.min(tailBuffer.capacity(), end - position));
+        FileChannel channel = channel();
+        long readPosition = position;
+        while (tailBuffer.hasRemaining()) {
+            int read = channel.read(tailBuffer, readPosition);
+            if (read < 0) {
+                break;
             }
-        } catch (IOException e) {
-            logger.error(e.getMessage(), e);
-        }
-    }
-
-    private void reCall() {
-        int maxCycle = 10;
-        for (int i = 1; i <= maxCycle; i++) {
-            if (bufferDataCollection.size() > 0) {
-                List<BufferData<MESSAGE_TYPE>> bufferDataList = bufferDataCollection.export();
-                for (BufferData<MESSAGE_TYPE> data : bufferDataList) {
-                    if (!callBack.call(data)) {
-                        if (i != maxCycle) {
-                            bufferDataCollection.add(data);
-                        }
-                    }
+            readPosition += read;
+        }
+        tailBuffer.flip();
+        return tailBuffer;
+    }
+
+    private FileChannel channel() throws IOException {
+        if (readingChannel == null) {
+            readingChannel = FileChannel.open(readingFile.toPath(), StandardOpenOption.READ);
+        }
+        return readingChannel;
+    }
+
+    private void switchFile(File file) throws IOException {
+        if (readingChannel != null) {
+            readingChannel.close();
+            readingChannel = null;
+        }
+        if (mappedFile != null) {
+            unmap(mappedFile);
+            mappedFile = null;
+        }
+        readingFile = file;
+    }
+
+    /**
+     * Release the mapped memory before the file is deleted, rather than when the buffer is collected by GC, otherwise
+     * the deleted files stay mapped, and can't be deleted at all on Windows. The parsed records don't refer to the
+     * mapped memory, they copy the bytes.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                // Java 8
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
                 }
+                return;
+            }
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (Exception e) {
+            logger.warn("Unmap the buffer data file failure, it is released by GC.", e);
+        }
+    }
 
-                try {
-                    TimeUnit.MILLISECONDS.sleep(500);
-                } catch (InterruptedException e) {
-                    logger.error(e.getMessage(), e);
+    private File readEarliestDataFileExcept(String fileName) {
+        String[] fileNames = directory.list(new PrefixFileFilter(BufferFileUtils.DATA_FILE_PREFIX));
+
+        if (fileNames != null && fileNames.length > 0) {
+            BufferFileUtils.sort(fileNames);
+            for (String name : fileNames) {
+                if (!name.equals(fileName)) {
+                    readOffset.setFileName(name);
+                    readOffset.setOffset(0);
+                    return new File(directory, name);
                 }
-            } else {
-                break;
             }
         }
+        return null;
+    }
+
+    /**
+     * @return true if all refused records have been handled.
+     */
+    private boolean retry() {
+        retryTimes++;
+        Iterator<BufferData<MESSAGE_TYPE>> iterator = retryList.iterator();
+        while (iterator.hasNext()) {
+            if (callBack.call(iterator.next())) {
+                iterator.remove();
+            }
+        }
+
+        if (retryTimes >= MAX_RETRY_TIMES && !retryList.isEmpty()) {
+            logger.warn("Drop {} buffer data after {} retries.", retryList.size(), retryTimes);
+            retryList.clear();
+        }
+        return retryList.isEmpty();
+    }
+
+    /**
+     * @return the varint32 at the position of the buffer, or -1 if the buffer ends in the middle of it.
+     */
+    private static int readRawVarint32(ByteBuffer buffer) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            byte b = buffer.get();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        return -1;
     }
 
     public interface CallBack<MESSAGE_TYPE extends GeneratedMessageV3> {
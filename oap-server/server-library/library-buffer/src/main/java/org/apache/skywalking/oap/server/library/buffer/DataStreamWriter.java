@@ -20,29 +20,55 @@ package org.apache.skywalking.oap.server.library.buffer;
 
 import com.google.protobuf.*;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.*;
 import org.apache.commons.io.FileUtils;
 import org.apache.skywalking.apm.util.StringUtil;
 import org.slf4j.*;
 
 /**
+ * The writer appends the length delimited records into the pending buffer only, a single commit thread writes the
+ * pending records of all writers to the segment file and forces them to disk with one fsync (group commit). The write
+ * offset is moved forward after the fsync, so the reader never sees the records which are not durable, then the reader
+ * is notified.
+ *
+ * When the write or the fsync fails, the same batch is written again at the same offset, after {@link
+ * #RETRY_INTERVAL_MILLIS}, until it succeeds. The writers are held by the full pending buffer in the meantime, rather
+ * than losing the records.
+ *
  * @author peng-yongsheng
  */
 class DataStreamWriter<MESSAGE_TYPE extends GeneratedMessageV3> {
 
     private static final Logger logger = LoggerFactory.getLogger(DataStreamWriter.class);
 
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PENDING_SIZE = 4 * 1024 * 1024;
+    private static final long RETRY_INTERVAL_MILLIS = 500;
+
     private final File directory;
     private final Offset.WriteOffset writeOffset;
-
     private final int dataFileMaxSize;
+    private final Runnable committedListener;
 
     private boolean initialized = false;
-    private FileOutputStream outputStream;
+    private File writingFile;
+    private FileChannel channel;
 
-    DataStreamWriter(File directory, Offset.WriteOffset writeOffset, int dataFileMaxSize) {
+    /**
+     * Guarded by this. Writers append to the pending buffer, the commit thread swaps it with the committing one, when
+     * the committing one has been committed.
+     */
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer committing = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    DataStreamWriter(File directory, Offset.WriteOffset writeOffset, int dataFileMaxSize, Runnable committedListener) {
         this.directory = directory;
         this.dataFileMaxSize = dataFileMaxSize;
         this.writeOffset = writeOffset;
+        this.committedListener = committedListener;
     }
 
     synchronized void initialize() throws IOException {
@@ -59,8 +85,14 @@ class DataStreamWriter<MESSAGE_TYPE extends GeneratedMessageV3> {
                 }
             }
 
-            outputStream = FileUtils.openOutputStream(writingFile, true);
+            openChannel(writingFile);
             initialized = true;
+
+            Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "BufferStreamCommitter-" + directory.getName());
+                thread.setDaemon(true);
+                return thread;
+            }).submit(this::commitLoop);
         }
     }
 
@@ -75,24 +107,106 @@ class DataStreamWriter<MESSAGE_TYPE extends GeneratedMessageV3> {
             logger.info("Create a new buffer data file: {}", writingFile.getAbsolutePath());
         }
 
-        writeOffset.setOffset(0);
-        writeOffset.setFileName(writingFile.getName());
-
         return writingFile;
     }
 
+    /**
+     * The records written before restart are durable up to the file length, which maybe later than the write offset
+     * recorded in the offset file.
+     */
+    private void openChannel(File writingFile) throws IOException {
+        channel = FileChannel.open(writingFile.toPath(), StandardOpenOption.WRITE);
+        this.writingFile = writingFile;
+        writeOffset.setOffset(channel.size());
+        writeOffset.setFileName(writingFile.getName());
+    }
+
     synchronized void write(AbstractMessageLite messageLite) {
         try {
-            messageLite.writeDelimitedTo(outputStream);
-            long position = outputStream.getChannel().position();
-            writeOffset.setOffset(position);
-            if (position >= (FileUtils.ONE_MB * dataFileMaxSize)) {
-                File writingFile = createNewFile();
-                outputStream.close();
-                outputStream = FileUtils.openOutputStream(writingFile, true);
+            while (pending.position() >= MAX_PENDING_SIZE) {
+                // The disk can't keep up, hold the writer until the commit thread drains the pending buffer.
+                wait();
             }
+
+            int serialized = messageLite.getSerializedSize();
+            int recordSize = CodedOutputStream.computeUInt32SizeNoTag(serialized) + serialized;
+            ensureCapacity(recordSize);
+
+            CodedOutputStream output = CodedOutputStream.newInstance(pending.array(), pending.position(), recordSize);
+            output.writeUInt32NoTag(serialized);
+            messageLite.writeTo(output);
+            output.checkNoSpaceLeft();
+            pending.position(pending.position() + recordSize);
+            notifyAll();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ensureCapacity(int recordSize) {
+        if (pending.remaining() < recordSize) {
+            ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + recordSize));
+            pending.flip();
+            newBuffer.put(pending);
+            pending = newBuffer;
+        }
+    }
+
+    private void commitLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (committing.position() == 0) {
+                    synchronized (this) {
+                        while (pending.position() == 0) {
+                            wait();
+                        }
+                        ByteBuffer swap = committing;
+                        committing = pending;
+                        pending = swap;
+                        notifyAll();
+                    }
+                }
+                commit();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                logger.error("Buffer data commit failure, retry the {} bytes later.", committing.position(), t);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(RETRY_INTERVAL_MILLIS);
+                    if (!channel.isOpen()) {
+                        channel = FileChannel.open(writingFile.toPath(), StandardOpenOption.WRITE);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable reopenFailure) {
+                    logger.error("Reopen buffer data file failure.", reopenFailure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Only called in the commit thread. The batch is written at the committed offset, so a failed and partially
+     * written batch is overwritten by its retry.
+     */
+    private void commit() throws IOException {
+        ByteBuffer batch = (ByteBuffer)committing.duplicate().flip();
+        long position = writeOffset.getOffset();
+        while (batch.hasRemaining()) {
+            position += channel.write(batch, position);
+        }
+        channel.force(false);
+        committing.clear();
+
+        writeOffset.setOffset(position);
+        if (position >= (FileUtils.ONE_MB * dataFileMaxSize)) {
+            // Open the new file before closing the current one, the current one is still usable if it fails.
+            FileChannel committedChannel = channel;
+            openChannel(createNewFile());
+            committedChannel.close();
         }
+        committedListener.run();
     }
 }
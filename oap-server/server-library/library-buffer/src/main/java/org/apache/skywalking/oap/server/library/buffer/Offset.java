@@ -53,8 +53,8 @@ class Offset {
     }
 
     static class ReadOffset {
-        @Getter @Setter private String fileName;
-        @Getter @Setter private long offset = 0;
+        @Getter @Setter private volatile String fileName;
+        @Getter @Setter private volatile long offset = 0;
         private final WriteOffset writeOffset;
 
         private ReadOffset(WriteOffset writeOffset) {
@@ -64,10 +64,17 @@ class Offset {
         boolean isCurrentWriteFile() {
             return fileName.equals(writeOffset.fileName);
         }
+
+        /**
+         * @return the committed offset of the file being written.
+         */
+        long getWriteOffset() {
+            return writeOffset.offset;
+        }
     }
 
     static class WriteOffset {
-        @Getter @Setter private String fileName;
-        @Getter @Setter private long offset = 0;
+        @Getter @Setter private volatile String fileName;
+        @Getter @Setter private volatile long offset = 0;
     }
 }
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.apache.commons.io.filefilter.PrefixFileFilter;
+import org.apache.skywalking.apm.network.language.agent.*;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class DataStreamTestCase {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+    private Offset offset;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = temporaryFolder.newFolder("buffer");
+        offset = new Offset();
+    }
+
+    @Test
+    public void testGroupCommit() throws Exception {
+        AtomicInteger commits = new AtomicInteger();
+        DataStreamWriter<TraceSegmentObject> writer = new DataStreamWriter<>(directory, offset.getWriteOffset(), 10, commits::incrementAndGet);
+        writer.initialize();
+
+        // The commit thread can't take the pending records until all of them are written.
+        synchronized (writer) {
+            for (int i = 0; i < 100; i++) {
+                writer.write(segment(i, 10));
+            }
+        }
+        waitUntil(() -> commits.get() > 0);
+
+        Assert.assertEquals(1, commits.get());
+        Assert.assertEquals(sequence(0, 100), readSpanIds());
+        Assert.assertEquals(new File(directory, offset.getWriteOffset().getFileName()).length(), offset.getWriteOffset().getOffset());
+    }
+
+    @Test
+    public void testRolloverAtDataFileMaxSize() throws Exception {
+        DataStreamWriter<TraceSegmentObject> writer = new DataStreamWriter<>(directory, offset.getWriteOffset(), 1, () -> {
+        });
+        writer.initialize();
+        String firstFileName = offset.getWriteOffset().getFileName();
+
+        for (int i = 0; i < 150; i++) {
+            writer.write(segment(i, 10 * 1024));
+        }
+        waitUntil(() -> sequence(0, 150).equals(readSpanIds()));
+
+        String[] fileNames = dataFileNames();
+        Assert.assertEquals(2, fileNames.length);
+        Assert.assertEquals(firstFileName, fileNames[0]);
+        Assert.assertTrue(new File(directory, fileNames[0]).length() >= 1024 * 1024);
+        Assert.assertEquals(fileNames[1], offset.getWriteOffset().getFileName());
+    }
+
+    @Test
+    public void testCommitFailureIsRetried() throws Exception {
+        DataStreamWriter<TraceSegmentObject> writer = new DataStreamWriter<>(directory, offset.getWriteOffset(), 10, () -> {
+        });
+        writer.initialize();
+        for (int i = 0; i < 10; i++) {
+            writer.write(segment(i, 10));
+        }
+        waitUntil(() -> sequence(0, 10).equals(readSpanIds()));
+
+        // The next commit fails, its records are written again by the retry, rather than dropped.
+        Field channelField = DataStreamWriter.class.getDeclaredField("channel");
+        channelField.setAccessible(true);
+        ((FileChannel)channelField.get(writer)).close();
+
+        for (int i = 10; i < 20; i++) {
+            writer.write(segment(i, 10));
+        }
+        waitUntil(() -> sequence(0, 20).equals(readSpanIds()));
+        Assert.assertEquals(new File(directory, offset.getWriteOffset().getFileName()).length(), offset.getWriteOffset().getOffset());
+    }
+
+    @Test
+    public void testReaderResumesFromOffset() throws Exception {
+        List<Long> read = Collections.synchronizedList(new ArrayList<>());
+        DataStreamReader<TraceSegmentObject> reader = new DataStreamReader<>(directory, offset.getReadOffset(), TraceSegmentObject.parser(), bufferData -> {
+            read.add(bufferData.getMessageType().getSpans(0).getSpanId() + 0L);
+            return true;
+        });
+        DataStreamWriter<TraceSegmentObject> writer = new DataStreamWriter<>(directory, offset.getWriteOffset(), 10, reader::wakeUp);
+        writer.initialize();
+        reader.initialize();
+
+        for (int i = 0; i < 10; i++) {
+            writer.write(segment(i, 10));
+        }
+        waitUntil(() -> read.size() == 10 && offset.getReadOffset().getOffset() == offset.getWriteOffset().getOffset());
+        Assert.assertEquals(sequence(0, 10), read);
+
+        // Restart from the persistent offset, only the records after it are read.
+        Offset restarted = new Offset();
+        restarted.deserialize(offset.serialize());
+        List<Long> readAfterRestart = Collections.synchronizedList(new ArrayList<>());
+        DataStreamReader<TraceSegmentObject> restartedReader = new DataStreamReader<>(directory, restarted.getReadOffset(), TraceSegmentObject.parser(), bufferData -> {
+            readAfterRestart.add(bufferData.getMessageType().getSpans(0).getSpanId() + 0L);
+            return true;
+        });
+        DataStreamWriter<TraceSegmentObject> restartedWriter = new DataStreamWriter<>(directory, restarted.getWriteOffset(), 10, restartedReader::wakeUp);
+        restartedWriter.initialize();
+        restartedReader.initialize();
+
+        for (int i = 10; i < 15; i++) {
+            restartedWriter.write(segment(i, 10));
+        }
+        waitUntil(() -> readAfterRestart.size() >= 5);
+        Assert.assertEquals(sequence(10, 15), readAfterRestart);
+    }
+
+    private static TraceSegmentObject segment(int spanId, int size) {
+        char[] operationName = new char[size];
+        Arrays.fill(operationName, 'a');
+        return TraceSegmentObject.newBuilder()
+            .addSpans(SpanObject.newBuilder().setSpanId(spanId).setOperationName(new String(operationName)))
+            .build();
+    }
+
+    private static List<Long> sequence(int from, int to) {
+        List<Long> sequence = new ArrayList<>();
+        for (long i = from; i < to; i++) {
+            sequence.add(i);
+        }
+        return sequence;
+    }
+
+    private String[] dataFileNames() {
+        String[] fileNames = directory.list(new PrefixFileFilter(BufferFileUtils.DATA_FILE_PREFIX));
+        BufferFileUtils.sort(fileNames);
+        return fileNames;
+    }
+
+    /**
+     * @return the span ids of the records in all data files, or null if a file ends in the middle of a record.
+     */
+    private List<Long> readSpanIds() {
+        List<Long> spanIds = new ArrayList<>();
+        for (String fileName : dataFileNames()) {
+            try (InputStream input = new BufferedInputStream(new FileInputStream(new File(directory, fileName)))) {
+                TraceSegmentObject segment;
+                while ((segment = TraceSegmentObject.parseDelimitedFrom(input)) != null) {
+                    spanIds.add(segment.getSpans(0).getSpanId() + 0L);
+                }
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return spanIds;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("Timeout", System.currentTimeMillis() < deadline);
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+}
@@ -37,6 +37,7 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.net.ssl.SSLContext;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
@@ -56,6 +57,7 @@ import org.apache.http.nio.entity.NStringEntity;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.skywalking.oap.server.library.client.Client;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
@@ -298,6 +300,29 @@ public class ElasticSearchClient implements Client {
         return client.search(searchRequest);
     }
 
+    /**
+     * Same as {@link #ids(String, String[])}, but doesn't block the caller thread.
+     */
+    public CompletableFuture<SearchResponse> idsAsync(String indexName, String[] ids) {
+        indexName = formatIndexName(indexName);
+
+        SearchRequest searchRequest = new SearchRequest(indexName);
+        searchRequest.types(TYPE);
+        searchRequest.source().query(QueryBuilders.idsQuery().addIds(ids)).size(ids.length);
+
+        CompletableFuture<SearchResponse> future = new CompletableFuture<>();
+        client.searchAsync(searchRequest, new ActionListener<SearchResponse>() {
+            @Override public void onResponse(SearchResponse response) {
+                future.complete(response);
+            }
+
+            @Override public void onFailure(Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
     public void forceInsert(String indexName, String id, XContentBuilder source) throws IOException {
         IndexRequest request = prepareInsert(indexName, id, source);
         request.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
@@ -346,9 +371,7 @@ public class ElasticSearchClient implements Client {
     }
 
     public void synchronousBulk(BulkRequest request) {
-        request.timeout(TimeValue.timeValueMinutes(2));
-        request.setRefreshPolicy(WriteRequest.RefreshPolicy.WAIT_UNTIL);
-        request.waitForActiveShards(ActiveShardCount.ONE);
+        prepareBulk(request);
         try {
             int size = request.requests().size();
             BulkResponse responses = client.bulk(request);
@@ -358,6 +381,32 @@ public class ElasticSearchClient implements Client {
         }
     }
 
+    /**
+     * Same as {@link #synchronousBulk(BulkRequest)}, but doesn't block the caller thread, and leaves the failures of the
+     * bulk and its items to the caller.
+     */
+    public CompletableFuture<BulkResponse> bulkAsync(BulkRequest request) {
+        prepareBulk(request);
+
+        CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+        client.bulkAsync(request, new ActionListener<BulkResponse>() {
+            @Override public void onResponse(BulkResponse response) {
+                future.complete(response);
+            }
+
+            @Override public void onFailure(Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private void prepareBulk(BulkRequest request) {
+        request.timeout(TimeValue.timeValueMinutes(2));
+        request.setRefreshPolicy(WriteRequest.RefreshPolicy.WAIT_UNTIL);
+        request.waitForActiveShards(ActiveShardCount.ONE);
+    }
+
     public BulkProcessor createBulkProcessor(int bulkActions, int flushInterval, int concurrentRequests) {
         BulkProcessor.Listener listener = new BulkProcessor.Listener() {
             @Override
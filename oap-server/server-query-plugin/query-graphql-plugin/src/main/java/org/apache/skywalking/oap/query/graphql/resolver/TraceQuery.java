@@ -79,4 +79,12 @@ public class TraceQuery implements GraphQLQueryResolver {
     public Trace queryTrace(final String traceId) throws IOException {
         return getQueryService().queryTrace(traceId);
     }
+
+    /**
+     * The page of the spans of a large trace in the tree order, optionally of the subtree of one span.
+     */
+    public Trace queryTrace(final String traceId, final String subtreeRoot,
+        final Pagination paging) throws IOException {
+        return getQueryService().queryTrace(traceId, subtreeRoot, paging);
+    }
 }
@@ -18,7 +18,6 @@
 
 package org.apache.skywalking.oap.server.receiver.envoy.als;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.Duration;
 import com.google.protobuf.Timestamp;
 import io.envoyproxy.envoy.api.v2.core.Address;
@@ -29,11 +28,6 @@ import io.envoyproxy.envoy.data.accesslog.v2.HTTPAccessLogEntry;
 import io.envoyproxy.envoy.data.accesslog.v2.HTTPRequestProperties;
 import io.envoyproxy.envoy.data.accesslog.v2.HTTPResponseProperties;
 import io.envoyproxy.envoy.service.accesslog.v2.StreamAccessLogsMessage;
-import io.kubernetes.client.ApiClient;
-import io.kubernetes.client.Configuration;
-import io.kubernetes.client.apis.CoreV1Api;
-import io.kubernetes.client.apis.ExtensionsV1beta1Api;
-import io.kubernetes.client.models.*;
 import io.kubernetes.client.util.Config;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -46,11 +40,9 @@ import org.apache.skywalking.oap.server.receiver.envoy.EnvoyMetricReceiverConfig
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -61,22 +53,19 @@ import java.util.concurrent.atomic.AtomicReference;
 public class K8sALSServiceMeshHTTPAnalysis implements ALSHTTPAnalysis {
     private static final Logger logger = LoggerFactory.getLogger(K8sALSServiceMeshHTTPAnalysis.class);
 
-    private static final String ADDRESS_TYPE_INTERNAL_IP = "InternalIP";
-
-    private static final String VALID_PHASE = "Running";
-
     @Getter(AccessLevel.PROTECTED)
     private final AtomicReference<Map<String, ServiceMetaInfo>> ipServiceMap = new AtomicReference<>();
 
-    private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(1, new ThreadFactoryBuilder()
-            .setNameFormat("load-pod-%d").setDaemon(true).build());
-
     @Override public String name() {
         return "k8s-mesh";
     }
 
     @Override public void init(EnvoyMetricReceiverConfig config) {
-        executorService.scheduleAtFixedRate(this::loadPodInfo, 0,15, TimeUnit.SECONDS);
+        try {
+            new PodIndex(Config.defaultClient(), ipServiceMap).start();
+        } catch (IOException e) {
+            logger.error("Create the kubernetes client failure.", e);
+        }
     }
 
     private boolean invalidPodList() {
@@ -84,65 +73,6 @@ public class K8sALSServiceMeshHTTPAnalysis implements ALSHTTPAnalysis {
         return map == null || map.isEmpty();
     }
 
-    private void loadPodInfo() {
-        try {
-            ApiClient client = Config.defaultClient();
-            client.getHttpClient().setReadTimeout(20, TimeUnit.SECONDS);
-            Configuration.setDefaultApiClient(client);
-            CoreV1Api api = new CoreV1Api();
-            V1PodList list = api.listPodForAllNamespaces(null, null, null,
-                    null, null, null, null, null, null);
-            Map<String, ServiceMetaInfo> ipMap = new HashMap<>(list.getItems().size());
-            long startTime = System.nanoTime();
-            for (V1Pod item : list.getItems()) {
-                if (!item.getStatus().getPhase().equals(VALID_PHASE)) {
-                    logger.debug("Invalid pod {} is not in a valid phase {}", item.getMetadata().getName(), item.getStatus().getPhase());
-                    continue;
-                }
-                if (item.getStatus().getPodIP().equals(item.getStatus().getHostIP())) {
-                    logger.debug("Pod {}.{} is removed because hostIP and podIP are identical ", item.getMetadata().getName(),
-                            item.getMetadata().getNamespace());
-                    continue;
-                }
-                ipMap.put(item.getStatus().getPodIP(), createServiceMetaInfo(item.getMetadata()));
-            }
-            logger.info("Load {} pods in {}ms", ipMap.size(), (System.nanoTime() - startTime) / 1_000_000);
-            ipServiceMap.set(ipMap);
-        } catch (Throwable th) {
-            logger.error("run load pod error", th);
-        }
-    }
-
-    private ServiceMetaInfo createServiceMetaInfo(final V1ObjectMeta podMeta) {
-        ExtensionsV1beta1Api extensionsApi = new ExtensionsV1beta1Api();
-        DependencyResource dr = new DependencyResource(podMeta);
-        DependencyResource meta = dr
-                .getOwnerResource("ReplicaSet", ownerReference ->
-                        extensionsApi.readNamespacedReplicaSet(ownerReference.getName(), podMeta.getNamespace(),
-                "", true, true).getMetadata());
-        ServiceMetaInfo result = new ServiceMetaInfo();
-        if (meta.getMetadata().getOwnerReferences() != null && meta.getMetadata().getOwnerReferences().size() > 0) {
-            V1OwnerReference owner = meta.getMetadata().getOwnerReferences().get(0);
-            result.setServiceName(String.format("%s.%s", owner.getName(), meta.getMetadata().getNamespace()));
-        } else {
-            result.setServiceName(String.format("%s.%s", meta.getMetadata().getName(), meta.getMetadata().getNamespace()));
-        }
-        result.setServiceInstanceName(String.format("%s.%s", podMeta.getName(), podMeta.getNamespace()));
-        result.setTags(transformLabelsToTags(podMeta.getLabels()));
-        return result;
-    }
-
-    private List<ServiceMetaInfo.KeyValue> transformLabelsToTags(final Map<String, String> labels) {
-        if (labels == null || labels.size() < 1) {
-            return Collections.emptyList();
-        }
-        List<ServiceMetaInfo.KeyValue> result = new ArrayList<>(labels.size());
-        for (Map.Entry<String, String> each : labels.entrySet()) {
-            result.add(new ServiceMetaInfo.KeyValue(each.getKey(), each.getValue()));
-        }
-        return result;
-    }
-
     @Override public List<Source> analysis(StreamAccessLogsMessage.Identifier identifier,
         HTTPAccessLogEntry entry, Role role) {
         if (invalidPodList()) {
@@ -358,8 +288,9 @@ public class K8sALSServiceMeshHTTPAnalysis implements ALSHTTPAnalysis {
             logger.debug("Unknown ip {}, ip -> service is null", ip);
             return ServiceMetaInfo.UNKNOWN;
         }
-        if (map.containsKey(ip)) {
-            return map.get(ip);
+        ServiceMetaInfo info = map.get(ip);
+        if (info != null) {
+            return info;
         }
         logger.debug("Unknown ip {}, ip -> service is {}", ip, map);
         return ServiceMetaInfo.UNKNOWN;
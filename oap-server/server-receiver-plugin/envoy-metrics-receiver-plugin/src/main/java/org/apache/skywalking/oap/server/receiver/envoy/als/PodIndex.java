@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.envoy.als;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.reflect.TypeToken;
+import io.kubernetes.client.ApiClient;
+import io.kubernetes.client.ApiException;
+import io.kubernetes.client.apis.CoreV1Api;
+import io.kubernetes.client.apis.ExtensionsV1beta1Api;
+import io.kubernetes.client.models.*;
+import io.kubernetes.client.util.Watch;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.*;
+
+/**
+ * The index from the pod IP to the service meta info. It lists the pods once, then watches the changes from the
+ * resource version of the list, and updates the index by every change. The watch resumes from the last seen resource
+ * version when it times out or breaks, even by an exception, the pods are listed again only when that version is too
+ * old.
+ *
+ * The service of a pod is named by the owner of its ReplicaSet, the ReplicaSets are cached by the namespace and name,
+ * so all the pods of one Deployment are resolved by one API call.
+ */
+class PodIndex {
+    private static final Logger logger = LoggerFactory.getLogger(PodIndex.class);
+
+    private static final String VALID_PHASE = "Running";
+    private static final int WATCH_TIMEOUT_SECONDS = 300;
+    private static final long RETRY_INTERVAL_MILLIS = 5000;
+    private static final int HTTP_GONE = 410;
+
+    private final ApiClient client;
+    private final CoreV1Api coreApi;
+    private final ExtensionsV1beta1Api extensionsApi;
+    private final AtomicReference<Map<String, ServiceMetaInfo>> ipServiceMap;
+    private final Cache<String, V1ObjectMeta> replicaSets;
+
+    /**
+     * Only changed by the watching thread.
+     */
+    private Map<String, ServiceMetaInfo> index = new ConcurrentHashMap<>();
+    private final Map<String, String> podIPs = new HashMap<>();
+    private final Map<String, String> ipOwners = new HashMap<>();
+    /**
+     * The resource version of the last list or change, null if the pods should be listed. Only changed by the watching
+     * thread.
+     */
+    private String resourceVersion;
+
+    PodIndex(ApiClient client, AtomicReference<Map<String, ServiceMetaInfo>> ipServiceMap) {
+        this.client = client;
+        this.client.getHttpClient().setReadTimeout(WATCH_TIMEOUT_SECONDS + 30, TimeUnit.SECONDS);
+        this.coreApi = new CoreV1Api(client);
+        this.extensionsApi = new ExtensionsV1beta1Api(client);
+        this.ipServiceMap = ipServiceMap;
+        this.replicaSets = CacheBuilder.newBuilder().maximumSize(100_000).expireAfterWrite(10, TimeUnit.MINUTES).build();
+    }
+
+    void start() {
+        Thread thread = new Thread(this::run, "k8s-pod-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                sync();
+            } catch (Throwable t) {
+                logger.error("Watch pods failure, resource version: {}", resourceVersion, t);
+                try {
+                    Thread.sleep(RETRY_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * List the pods if no resource version to watch from, then watch the changes until the watch ends.
+     */
+    void sync() throws ApiException, IOException {
+        if (resourceVersion == null) {
+            list();
+        }
+        watch();
+    }
+
+    private void list() throws ApiException {
+        long startTime = System.nanoTime();
+        V1PodList list = coreApi.listPodForAllNamespaces(null, null, null,
+            null, null, null, null, null, null);
+
+        index = new ConcurrentHashMap<>(list.getItems().size());
+        podIPs.clear();
+        ipOwners.clear();
+        for (V1Pod pod : list.getItems()) {
+            onEvent("ADDED", pod);
+        }
+        ipServiceMap.set(index);
+        logger.info("Load {} pods in {}ms", index.size(), (System.nanoTime() - startTime) / 1_000_000);
+        resourceVersion = list.getMetadata().getResourceVersion();
+    }
+
+    private void watch() throws ApiException, IOException {
+        try (Watch<V1Pod> watch = Watch.createWatch(client,
+            coreApi.listPodForAllNamespacesCall(null, null, null, null, null, null, resourceVersion, WATCH_TIMEOUT_SECONDS, true, null, null),
+            new TypeToken<Watch.Response<V1Pod>>() {
+            }.getType())) {
+            for (Watch.Response<V1Pod> event : watch) {
+                if ("ERROR".equals(event.type)) {
+                    if (event.status != null && event.status.getCode() != null && event.status.getCode() == HTTP_GONE) {
+                        logger.info("The resource version {} of pods is too old, list them again.", resourceVersion);
+                        resourceVersion = null;
+                        return;
+                    }
+                    throw new IOException("Watch pods error: " + event.status);
+                }
+                onEvent(event.type, event.object);
+                resourceVersion = event.object.getMetadata().getResourceVersion();
+            }
+        }
+    }
+
+    void onEvent(String type, V1Pod pod) {
+        String uid = pod.getMetadata().getUid();
+        if ("DELETED".equals(type) || !isValid(pod)) {
+            remove(uid);
+            return;
+        }
+
+        String ip = pod.getStatus().getPodIP();
+        String formerIP = podIPs.put(uid, ip);
+        if (formerIP != null && !formerIP.equals(ip)) {
+            removeIP(formerIP, uid);
+        }
+        ipOwners.put(ip, uid);
+        index.put(ip, createServiceMetaInfo(pod.getMetadata()));
+    }
+
+    private boolean isValid(V1Pod pod) {
+        V1PodStatus status = pod.getStatus();
+        if (status == null || !VALID_PHASE.equals(status.getPhase()) || status.getPodIP() == null) {
+            logger.debug("Invalid pod {} is not in a valid phase", pod.getMetadata().getName());
+            return false;
+        }
+        if (status.getPodIP().equals(status.getHostIP())) {
+            logger.debug("Pod {}.{} is removed because hostIP and podIP are identical ", pod.getMetadata().getName(),
+                pod.getMetadata().getNamespace());
+            return false;
+        }
+        return true;
+    }
+
+    private void remove(String uid) {
+        String ip = podIPs.remove(uid);
+        if (ip != null) {
+            removeIP(ip, uid);
+        }
+    }
+
+    /**
+     * The IP may have been taken by a new pod already.
+     */
+    private void removeIP(String ip, String uid) {
+        if (uid.equals(ipOwners.get(ip))) {
+            ipOwners.remove(ip);
+            index.remove(ip);
+        }
+    }
+
+    private ServiceMetaInfo createServiceMetaInfo(final V1ObjectMeta podMeta) {
+        DependencyResource dr = new DependencyResource(podMeta);
+        DependencyResource meta = dr.getOwnerResource("ReplicaSet", ownerReference ->
+            readReplicaSet(ownerReference.getName(), podMeta.getNamespace()));
+        ServiceMetaInfo result = new ServiceMetaInfo();
+        if (meta.getMetadata().getOwnerReferences() != null && meta.getMetadata().getOwnerReferences().size() > 0) {
+            V1OwnerReference owner = meta.getMetadata().getOwnerReferences().get(0);
+            result.setServiceName(String.format("%s.%s", owner.getName(), meta.getMetadata().getNamespace()));
+        } else {
+            result.setServiceName(String.format("%s.%s", meta.getMetadata().getName(), meta.getMetadata().getNamespace()));
+        }
+        result.setServiceInstanceName(String.format("%s.%s", podMeta.getName(), podMeta.getNamespace()));
+        result.setTags(transformLabelsToTags(podMeta.getLabels()));
+        return result;
+    }
+
+    private V1ObjectMeta readReplicaSet(String name, String namespace) throws ApiException {
+        String key = namespace + "/" + name;
+        V1ObjectMeta meta = replicaSets.getIfPresent(key);
+        if (meta == null) {
+            meta = extensionsApi.readNamespacedReplicaSet(name, namespace, "", true, true).getMetadata();
+            if (meta != null) {
+                replicaSets.put(key, meta);
+            }
+        }
+        return meta;
+    }
+
+    private List<ServiceMetaInfo.KeyValue> transformLabelsToTags(final Map<String, String> labels) {
+        if (labels == null || labels.size() < 1) {
+            return Collections.emptyList();
+        }
+        List<ServiceMetaInfo.KeyValue> result = new ArrayList<>(labels.size());
+        for (Map.Entry<String, String> each : labels.entrySet()) {
+            result.add(new ServiceMetaInfo.KeyValue(each.getKey(), each.getValue()));
+        }
+        return result;
+    }
+}
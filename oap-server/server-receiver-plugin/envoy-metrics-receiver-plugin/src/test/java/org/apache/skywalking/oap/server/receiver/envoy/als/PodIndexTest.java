@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.envoy.als;
+
+import com.squareup.okhttp.mockwebserver.*;
+import io.kubernetes.client.ApiClient;
+import io.kubernetes.client.models.*;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.*;
+import org.powermock.reflect.Whitebox;
+
+public class PodIndexTest {
+
+    private final AtomicReference<Map<String, ServiceMetaInfo>> ipServiceMap = new AtomicReference<>();
+    private PodIndex index;
+
+    @Before
+    public void setUp() {
+        index = new PodIndex(new ApiClient(), ipServiceMap);
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        index.onEvent("ADDED", pod("uid1", "productpage", "10.44.2.54", "Running"));
+        index.onEvent("ADDED", pod("uid2", "review", "10.44.2.55", "Pending"));
+        Map<String, ServiceMetaInfo> map = indexMap();
+        Assert.assertEquals("productpage.default", map.get("10.44.2.54").getServiceName());
+        Assert.assertNull(map.get("10.44.2.55"));
+
+        index.onEvent("MODIFIED", pod("uid2", "review", "10.44.2.55", "Running"));
+        Assert.assertEquals("review.default", map.get("10.44.2.55").getServiceInstanceName());
+
+        index.onEvent("MODIFIED", pod("uid1", "productpage", "10.44.2.60", "Running"));
+        Assert.assertNull(map.get("10.44.2.54"));
+        Assert.assertNotNull(map.get("10.44.2.60"));
+
+        index.onEvent("DELETED", pod("uid2", "review", "10.44.2.55", "Running"));
+        Assert.assertNull(map.get("10.44.2.55"));
+    }
+
+    @Test
+    public void testReusedIPNotRemovedByFormerPod() {
+        index.onEvent("ADDED", pod("uid1", "review-v1", "10.44.2.55", "Running"));
+        index.onEvent("ADDED", pod("uid2", "review-v2", "10.44.2.55", "Running"));
+        index.onEvent("DELETED", pod("uid1", "review-v1", "10.44.2.55", "Running"));
+
+        Assert.assertEquals("review-v2.default", indexMap().get("10.44.2.55").getServiceName());
+    }
+
+    @Test
+    public void testResumeWatchFromLatestVersion() throws Exception {
+        MockWebServer server = new MockWebServer();
+        try {
+            server.enqueue(new MockResponse().setBody(
+                "{\"kind\":\"PodList\",\"apiVersion\":\"v1\",\"metadata\":{\"resourceVersion\":\"100\"},"
+                    + "\"items\":[" + podJson("uid1", "productpage", "10.44.2.54", "100") + "]}"));
+            server.enqueue(new MockResponse().setBody(
+                event("ADDED", podJson("uid2", "review", "10.44.2.55", "101"))
+                    + event("MODIFIED", podJson("uid1", "productpage", "10.44.2.60", "102"))
+                    + event("ERROR", status(500, "InternalError"))));
+            server.enqueue(new MockResponse().setBody(
+                event("DELETED", podJson("uid2", "review", "10.44.2.55", "103"))
+                    + event("ERROR", status(410, "Gone"))));
+            server.enqueue(new MockResponse().setBody(
+                "{\"kind\":\"PodList\",\"apiVersion\":\"v1\",\"metadata\":{\"resourceVersion\":\"200\"},"
+                    + "\"items\":[" + podJson("uid3", "details", "10.44.2.56", "200") + "]}"));
+            server.enqueue(new MockResponse().setBody(""));
+            server.start();
+            index = new PodIndex(new ApiClient().setBasePath("http://" + server.getHostName() + ":" + server.getPort()), ipServiceMap);
+
+            // The watch breaks by an error after the changes.
+            try {
+                index.sync();
+                Assert.fail("The error event should break the watch.");
+            } catch (IOException e) {
+                Assert.assertEquals("102", Whitebox.getInternalState(index, "resourceVersion"));
+            }
+            Assert.assertFalse(server.takeRequest().getPath().contains("watch=true"));
+            String watch = server.takeRequest().getPath();
+            Assert.assertTrue(watch.contains("watch=true"));
+            Assert.assertTrue(watch.contains("resourceVersion=100"));
+            Assert.assertEquals("productpage.default", ipServiceMap.get().get("10.44.2.60").getServiceName());
+            Assert.assertNull(ipServiceMap.get().get("10.44.2.54"));
+            Assert.assertEquals("review.default", ipServiceMap.get().get("10.44.2.55").getServiceName());
+
+            // Resumes from the latest change without listing again, until the version is too old.
+            index.sync();
+            watch = server.takeRequest().getPath();
+            Assert.assertTrue(watch.contains("watch=true"));
+            Assert.assertTrue(watch.contains("resourceVersion=102"));
+            Assert.assertNull(ipServiceMap.get().get("10.44.2.55"));
+            Assert.assertNull(Whitebox.getInternalState(index, "resourceVersion"));
+
+            // Lists again, then watches from the version of the new list.
+            index.sync();
+            Assert.assertFalse(server.takeRequest().getPath().contains("watch=true"));
+            watch = server.takeRequest().getPath();
+            Assert.assertTrue(watch.contains("resourceVersion=200"));
+            Assert.assertEquals(Collections.singleton("10.44.2.56"), ipServiceMap.get().keySet());
+            Assert.assertEquals("200", Whitebox.getInternalState(index, "resourceVersion"));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ServiceMetaInfo> indexMap() {
+        return (Map<String, ServiceMetaInfo>)Whitebox.getInternalState(index, "index");
+    }
+
+    private static V1Pod pod(String uid, String name, String ip, String phase) {
+        V1Pod pod = new V1Pod();
+        V1ObjectMeta meta = new V1ObjectMeta();
+        meta.setUid(uid);
+        meta.setName(name);
+        meta.setNamespace("default");
+        pod.setMetadata(meta);
+        V1PodStatus status = new V1PodStatus();
+        status.setPhase(phase);
+        status.setPodIP(ip);
+        status.setHostIP("10.0.0.1");
+        pod.setStatus(status);
+        return pod;
+    }
+
+    private static String podJson(String uid, String name, String ip, String resourceVersion) {
+        return "{\"metadata\":{\"uid\":\"" + uid + "\",\"name\":\"" + name + "\",\"namespace\":\"default\","
+            + "\"resourceVersion\":\"" + resourceVersion + "\"},"
+            + "\"status\":{\"phase\":\"Running\",\"podIP\":\"" + ip + "\",\"hostIP\":\"10.0.0.1\"}}";
+    }
+
+    private static String status(int code, String reason) {
+        return "{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"metadata\":{},\"status\":\"Failure\","
+            + "\"reason\":\"" + reason + "\",\"code\":" + code + "}";
+    }
+
+    private static String event(String type, String object) {
+        return "{\"type\":\"" + type + "\",\"object\":" + object + "}\n";
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.skywalking.apm.network.common.Command;
 import org.apache.skywalking.apm.network.common.Commands;
 import org.apache.skywalking.apm.network.register.v2.ServiceInstancePingGrpc;
 import org.apache.skywalking.apm.network.register.v2.ServiceInstancePingPkg;
+import org.apache.skywalking.apm.network.trace.component.command.SamplingRateCommand;
 import org.apache.skywalking.apm.network.trace.component.command.ServiceResetCommand;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.cache.ServiceInstanceInventoryCache;
@@ -63,7 +64,13 @@ public class ServiceInstancePingServiceHandler extends ServiceInstancePingGrpc.S
         ServiceInstanceInventory serviceInstanceInventory = serviceInstanceInventoryCache.get(serviceInstanceId);
         if (Objects.nonNull(serviceInstanceInventory)) {
             serviceInventoryRegister.heartbeat(serviceInstanceInventory.getServiceId(), heartBeatTime);
-            responseObserver.onNext(Commands.getDefaultInstance());
+
+            final SamplingRateCommand samplingRateCommand = commandService.newSamplingRateCommand();
+            if (Objects.nonNull(samplingRateCommand)) {
+                responseObserver.onNext(Commands.newBuilder().addCommands(samplingRateCommand.serialize().build()).build());
+            } else {
+                responseObserver.onNext(Commands.getDefaultInstance());
+            }
         } else {
             logger.warn("Can't find service by service instance id from cache," +
                 " service instance id is: {}, will send a reset command to agent side", serviceInstanceId);
@@ -31,7 +31,27 @@ public class ZipkinReceiverConfig extends ModuleConfig {
     private int port;
     private String contextPath;
     private int expireTime = 20;
+    /**
+     * The seconds to wait for the late spans after the root span of a trace arrived.
+     */
+    private int quietTime = 3;
+    /**
+     * The max number of the cached traces, not a bound of their memory.
+     */
     private int maxCacheSize = 1_000_000;
+    /**
+     * The number of threads transferring the finished traces. The timer and the receiving threads transfer the traces
+     * themselves when all of them are busy and 64 traces per thread are waiting.
+     */
+    private int transferThreads = 2;
+    /**
+     * The max number of the span requests decoded at the same time, the others are refused by HTTP 429.
+     */
+    private int maxConcurrentRequests = 16;
+    /**
+     * The max bytes of a span request body, after inflated if compressed, the larger ones are refused by HTTP 413.
+     */
+    private int maxRequestBodySize = 16 * 1024 * 1024;
     private boolean needAnalysis = false;
     private boolean registerZipkinEndpoint = true;
 }
@@ -30,6 +30,7 @@ import org.apache.skywalking.oap.server.receiver.sharing.server.CoreRegisterLink
 import org.apache.skywalking.oap.server.receiver.trace.module.TraceModule;
 import org.apache.skywalking.oap.server.receiver.trace.provider.parser.ISegmentParserService;
 import org.apache.skywalking.oap.server.receiver.zipkin.analysis.*;
+import org.apache.skywalking.oap.server.receiver.zipkin.handler.SpanProcessor;
 import org.apache.skywalking.oap.server.receiver.zipkin.handler.SpanV1JettyHandler;
 import org.apache.skywalking.oap.server.receiver.zipkin.handler.SpanV2JettyHandler;
 import org.apache.skywalking.oap.server.receiver.zipkin.analysis.transform.Zipkin2SkyWalkingTransfer;
@@ -68,8 +69,9 @@ public class ZipkinReceiverProvider extends ModuleProvider {
         jettyServer = new JettyServer(config.getHost(), config.getPort(), config.getContextPath());
         jettyServer.initialize();
 
-        jettyServer.addHandler(new SpanV1JettyHandler(config, getManager()));
-        jettyServer.addHandler(new SpanV2JettyHandler(config, getManager()));
+        SpanProcessor processor = new SpanProcessor(config, getManager());
+        jettyServer.addHandler(new SpanV1JettyHandler(processor));
+        jettyServer.addHandler(new SpanV2JettyHandler(processor));
 
         if (config.isNeedAnalysis()) {
             ISegmentParserService segmentParseService = getManager().find(TraceModule.NAME).provider().getService(ISegmentParserService.class);
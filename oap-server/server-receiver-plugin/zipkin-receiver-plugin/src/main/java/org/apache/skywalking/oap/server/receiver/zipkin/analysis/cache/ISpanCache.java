@@ -25,4 +25,9 @@ import zipkin2.Span;
  */
 public interface ISpanCache {
     void addSpan(Span span);
+
+    /**
+     * @return true if the cache holds as many traces as it could, and the new spans should be refused for now.
+     */
+    boolean isFull();
 }
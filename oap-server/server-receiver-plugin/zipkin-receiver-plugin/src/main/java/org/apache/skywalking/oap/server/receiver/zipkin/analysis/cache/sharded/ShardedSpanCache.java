@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.zipkin.analysis.cache.sharded;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.apache.skywalking.oap.server.receiver.zipkin.ZipkinReceiverConfig;
+import org.apache.skywalking.oap.server.receiver.zipkin.analysis.cache.ISpanCache;
+import org.apache.skywalking.oap.server.receiver.zipkin.analysis.data.ZipkinTrace;
+import org.apache.skywalking.oap.server.receiver.zipkin.analysis.transform.Zipkin2SkyWalkingTransfer;
+import org.slf4j.*;
+import zipkin2.Span;
+
+/**
+ * Assemble the spans of the Zipkin traces, and transfer the trace when it is finished.
+ *
+ * The traces are sharded by the trace id, every shard has its own lock, so the spans of different traces rarely wait
+ * for each other. A trace is finished {@link ZipkinReceiverConfig#getQuietTime()} seconds after the root span and the
+ * later spans arrived, or {@link ZipkinReceiverConfig#getExpireTime()} seconds after its first span at the latest.
+ *
+ * Every shard checks the finished traces by a timing wheel of one second ticks, so one tick only visits the traces due
+ * in it, rather than all of the cached traces. The timer only collects the finished traces under the shard locks, they
+ * are transferred by {@link ZipkinReceiverConfig#getTransferThreads()} threads. When a shard holds its part of {@link
+ * ZipkinReceiverConfig#getMaxCacheSize()}, the oldest trace is transferred at once to make room. The cache reports
+ * itself full when all of the shards are, so the receiver refuses the new spans rather than spilling every trace
+ * early.
+ */
+public class ShardedSpanCache implements ISpanCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedSpanCache.class);
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 64;
+
+    private final Shard[] shards;
+    private final long expireMillis;
+    private final long quietMillis;
+    private final Consumer<ZipkinTrace> finisher;
+    private final int capacity;
+    private final AtomicInteger cachedTraces = new AtomicInteger();
+
+    public ShardedSpanCache(ZipkinReceiverConfig config) {
+        this(config, transferExecutor(config.getTransferThreads()), System.currentTimeMillis());
+
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ZipkinSpanCacheTimer");
+            thread.setDaemon(true);
+            return thread;
+        }).scheduleAtFixedRate(() -> {
+            try {
+                tick(System.currentTimeMillis());
+            } catch (Throwable t) {
+                logger.error(t.getMessage(), t);
+            }
+        }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    ShardedSpanCache(ZipkinReceiverConfig config, Consumer<ZipkinTrace> finisher, long now) {
+        this.expireMillis = TimeUnit.SECONDS.toMillis(config.getExpireTime());
+        this.quietMillis = TimeUnit.SECONDS.toMillis(config.getQuietTime());
+        this.finisher = finisher;
+
+        int shardNum = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors() * 4, 1));
+        int maxTracesOfShard = Math.max(config.getMaxCacheSize() / shardNum, 1);
+        this.capacity = maxTracesOfShard * shardNum;
+        this.shards = new Shard[shardNum];
+        for (int i = 0; i < shardNum; i++) {
+            shards[i] = new Shard(maxTracesOfShard, now / TICK_MILLIS);
+        }
+    }
+
+    @Override public void addSpan(Span span) {
+        addSpan(span, System.currentTimeMillis());
+    }
+
+    void addSpan(Span span, long now) {
+        ZipkinTrace spilled = shardOf(span.traceId()).addSpan(span, now);
+        if (spilled != null) {
+            finisher.accept(spilled);
+        }
+    }
+
+    @Override public boolean isFull() {
+        return cachedTraces.get() >= capacity;
+    }
+
+    /**
+     * Transfer the traces finished before the given time.
+     */
+    void tick(long now) {
+        List<ZipkinTrace> finished = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.advance(now, finished);
+        }
+        finished.forEach(finisher);
+    }
+
+    private Shard shardOf(String traceId) {
+        int h = traceId.hashCode();
+        h ^= h >>> 16;
+        return shards[h & (shards.length - 1)];
+    }
+
+    /**
+     * @return the finisher handing the traces to a bounded pool, the caller transfers the trace itself when the queue
+     * is full.
+     */
+    private static Consumer<ZipkinTrace> transferExecutor(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("transferThreads must be positive, but is " + threads);
+        }
+        AtomicInteger threadNum = new AtomicInteger();
+        ExecutorService executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads * 64), runnable -> {
+            Thread thread = new Thread(runnable, "ZipkinTraceTransfer-" + threadNum.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        return trace -> executor.execute(() -> transfer(trace));
+    }
+
+    private static void transfer(ZipkinTrace trace) {
+        try {
+            Zipkin2SkyWalkingTransfer.INSTANCE.transfer(trace);
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+            logger.warn("Zipkin trace:" + trace);
+        }
+    }
+
+    private static long tickOf(long millis) {
+        return (millis + TICK_MILLIS - 1) / TICK_MILLIS;
+    }
+
+    private class Shard {
+        private final int maxTraces;
+        /**
+         * In the order of the first span, so the eldest is spilled first.
+         */
+        private final LinkedHashMap<String, AssemblingTrace> traces = new LinkedHashMap<>();
+        private final List<List<AssemblingTrace>> wheel = new ArrayList<>(WHEEL_SIZE);
+        private long currentTick;
+
+        private Shard(int maxTraces, long currentTick) {
+            this.maxTraces = maxTraces;
+            this.currentTick = currentTick;
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * @return the eldest trace removed to make room for the new one, or null.
+         */
+        private synchronized ZipkinTrace addSpan(Span span, long now) {
+            ZipkinTrace spilled = null;
+            AssemblingTrace trace = traces.get(span.traceId());
+            if (trace == null) {
+                if (traces.size() >= maxTraces) {
+                    Iterator<AssemblingTrace> eldest = traces.values().iterator();
+                    AssemblingTrace removed = eldest.next();
+                    eldest.remove();
+                    removed.finished = true;
+                    spilled = removed.trace;
+                    cachedTraces.decrementAndGet();
+                }
+                trace = new AssemblingTrace(span.traceId(), now + expireMillis);
+                traces.put(span.traceId(), trace);
+                cachedTraces.incrementAndGet();
+                schedule(trace, trace.deadline);
+            }
+            trace.trace.addSpan(span);
+
+            if (span.parentId() == null) {
+                trace.rootArrived = true;
+            }
+            if (trace.rootArrived) {
+                trace.finishTime = Math.min(trace.deadline, now + quietMillis);
+                if (tickOf(trace.finishTime) < trace.scheduledTick) {
+                    // The former slot becomes stale, and is skipped when its tick comes.
+                    schedule(trace, trace.finishTime);
+                }
+            }
+            return spilled;
+        }
+
+        private synchronized void advance(long now, List<ZipkinTrace> finished) {
+            long nowTick = now / TICK_MILLIS;
+            while (currentTick < nowTick) {
+                currentTick++;
+                int slot = (int)(currentTick % WHEEL_SIZE);
+                List<AssemblingTrace> due = wheel.get(slot);
+                wheel.set(slot, new ArrayList<>());
+
+                for (AssemblingTrace trace : due) {
+                    if (trace.finished || trace.scheduledTick < currentTick || trace.scheduledTick % WHEEL_SIZE != slot) {
+                        // Finished, or moved to another slot.
+                        continue;
+                    }
+                    if (trace.scheduledTick > currentTick) {
+                        // Due in the later rounds of the wheel.
+                        wheel.get(slot).add(trace);
+                    } else if (trace.finishTime <= now) {
+                        trace.finished = true;
+                        traces.remove(trace.traceId);
+                        cachedTraces.decrementAndGet();
+                        finished.add(trace.trace);
+                    } else {
+                        schedule(trace, trace.finishTime);
+                    }
+                }
+            }
+        }
+
+        private void schedule(AssemblingTrace trace, long time) {
+            trace.scheduledTick = Math.max(tickOf(time), currentTick + 1);
+            wheel.get((int)(trace.scheduledTick % WHEEL_SIZE)).add(trace);
+        }
+    }
+
+    private static class AssemblingTrace {
+        private final String traceId;
+        private final ZipkinTrace trace = new ZipkinTrace();
+        private final long deadline;
+        private long finishTime;
+        private long scheduledTick;
+        private boolean rootArrived;
+        private boolean finished;
+
+        private AssemblingTrace(String traceId, long deadline) {
+            this.traceId = traceId;
+            this.deadline = deadline;
+            this.finishTime = deadline;
+        }
+    }
+}
@@ -54,9 +54,4 @@ public class ZipkinTrace {
                 "spans=" + spans +
                 '}';
     }
-
-    public static class TriggerTrace extends ZipkinTrace {
-
-
-    }
 }
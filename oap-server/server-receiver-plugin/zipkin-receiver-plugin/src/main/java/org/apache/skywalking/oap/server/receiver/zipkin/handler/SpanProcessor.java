@@ -19,51 +19,138 @@
 package org.apache.skywalking.oap.server.receiver.zipkin.handler;
 
 import java.io.*;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.zip.GZIPInputStream;
-import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.*;
+import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.cache.*;
 import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.receiver.zipkin.ZipkinReceiverConfig;
 import org.apache.skywalking.oap.server.receiver.zipkin.analysis.ZipkinSkyWalkingTransfer;
+import org.apache.skywalking.oap.server.receiver.zipkin.analysis.cache.CacheFactory;
 import org.apache.skywalking.oap.server.receiver.zipkin.trace.SpanForward;
 import zipkin2.Span;
 import zipkin2.codec.SpanBytesDecoder;
 
+/**
+ * Decode the spans of the Zipkin HTTP requests, shared by the V1 and V2 handlers.
+ *
+ * At most {@link ZipkinReceiverConfig#getMaxConcurrentRequests()} requests are decoded at the same time, every one
+ * reads its body into a buffer taken from a pool of the same size, which grows as the data arrives, and is copied out
+ * once in its real length. The Content-Length header is only used to refuse the too large bodies early, the inflated
+ * size of a compressed body is checked while reading, so {@link ZipkinReceiverConfig#getMaxRequestBodySize()} bounds
+ * the memory of a request either way.
+ *
+ * A request is refused by HTTP 429 before reading, when all of the permits are taken or the span cache of the analysis
+ * mode is full. The spans are forwarded to the storage in the request thread, so a slow storage holds the permits, and
+ * the reporters are told to retry later instead of the large bodies piling up in the heap.
+ */
 public class SpanProcessor {
-    private SourceReceiver receiver;
-    private ServiceInventoryCache serviceInventoryCache;
-    private EndpointInventoryCache endpointInventoryCache;
-    private int encode;
-
-    public SpanProcessor(SourceReceiver receiver,
-        ServiceInventoryCache serviceInventoryCache,
-        EndpointInventoryCache endpointInventoryCache, int encode) {
-        this.receiver = receiver;
-        this.serviceInventoryCache = serviceInventoryCache;
-        this.endpointInventoryCache = endpointInventoryCache;
-        this.encode = encode;
+    static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private final ZipkinReceiverConfig config;
+    private final Semaphore permits;
+    private final BlockingQueue<byte[]> buffers;
+    private final ZipkinSkyWalkingTransfer transfer;
+    private final Map<Integer, SpanForward> forwards;
+
+    public SpanProcessor(ZipkinReceiverConfig config, ModuleManager manager) {
+        if (config.getMaxConcurrentRequests() <= 0) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be positive, but is " + config.getMaxConcurrentRequests());
+        }
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxConcurrentRequests());
+        this.buffers = new ArrayBlockingQueue<>(config.getMaxConcurrentRequests());
+        this.transfer = new ZipkinSkyWalkingTransfer();
+
+        SourceReceiver receiver = manager.find(CoreModule.NAME).provider().getService(SourceReceiver.class);
+        ServiceInventoryCache serviceInventoryCache = manager.find(CoreModule.NAME).provider().getService(ServiceInventoryCache.class);
+        EndpointInventoryCache endpointInventoryCache = manager.find(CoreModule.NAME).provider().getService(EndpointInventoryCache.class);
+        this.forwards = new HashMap<>();
+        for (int encode : new int[] {SpanEncode.PROTO3, SpanEncode.JSON_V2, SpanEncode.THRIFT, SpanEncode.JSON_V1}) {
+            forwards.put(encode, new SpanForward(config, receiver, serviceInventoryCache, endpointInventoryCache, encode));
+        }
     }
 
-    void convert(ZipkinReceiverConfig config, SpanBytesDecoder decoder, HttpServletRequest request) throws IOException {
-        InputStream inputStream = getInputStream(request);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        byte[] buffer = new byte[2048];
-        int readCntOnce;
+    /**
+     * @return the HTTP status of the response, 202 if the spans are accepted, 413 if the body is too large, or 429 if
+     * the request is refused because of too many requests in process.
+     */
+    int convert(SpanBytesDecoder decoder, int encode, HttpServletRequest request) throws IOException {
+        if (config.isNeedAnalysis() && CacheFactory.INSTANCE.get(config).isFull()) {
+            return SC_TOO_MANY_REQUESTS;
+        }
+        if (!permits.tryAcquire()) {
+            return SC_TOO_MANY_REQUESTS;
+        }
+        try {
+            byte[] body = readBody(request);
+            if (body == null) {
+                return HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE;
+            }
+            List<Span> spanList = decoder.decodeList(body);
 
-        while ((readCntOnce = inputStream.read(buffer)) >= 0) {
-            out.write(buffer, 0, readCntOnce);
+            if (config.isNeedAnalysis()) {
+                transfer.doTransfer(config, spanList);
+            } else {
+                forwards.get(encode).send(spanList);
+            }
+            return HttpServletResponse.SC_ACCEPTED;
+        } finally {
+            permits.release();
         }
+    }
 
-        List<Span> spanList = decoder.decodeList(out.toByteArray());
+    /**
+     * @return the body, or null if it is larger than {@link ZipkinReceiverConfig#getMaxRequestBodySize()}.
+     */
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        int maxBodySize = config.getMaxRequestBodySize();
+        if (request.getContentLength() > maxBodySize) {
+            return null;
+        }
 
-        if (config.isNeedAnalysis()) {
-            ZipkinSkyWalkingTransfer transfer = new ZipkinSkyWalkingTransfer();
-            transfer.doTransfer(config, spanList);
-        } else {
-            SpanForward forward = new SpanForward(config, receiver, serviceInventoryCache, endpointInventoryCache, encode);
-            forward.send(spanList);
+        InputStream inputStream = getInputStream(request);
+        byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new byte[INITIAL_BUFFER_SIZE];
+        }
+        try {
+            int length = 0;
+            while (true) {
+                length = readFully(inputStream, buffer, length);
+                if (length > maxBodySize) {
+                    return null;
+                }
+                if (length < buffer.length) {
+                    return Arrays.copyOf(buffer, length);
+                }
+                if (length == maxBodySize) {
+                    return inputStream.read() < 0 ? Arrays.copyOf(buffer, length) : null;
+                }
+                buffer = Arrays.copyOf(buffer, (int)Math.min(buffer.length * 2L, maxBodySize));
+            }
+        } finally {
+            if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+                buffers.offer(buffer);
+            }
+        }
+    }
+
+    /**
+     * @return the length of the data in the buffer, less than the buffer size only if the stream ends.
+     */
+    private static int readFully(InputStream inputStream, byte[] buffer, int offset) throws IOException {
+        int readCntOnce;
+        while (offset < buffer.length && (readCntOnce = inputStream.read(buffer, offset, buffer.length - offset)) >= 0) {
+            offset += readCntOnce;
         }
+        return offset;
     }
 
     private InputStream getInputStream(HttpServletRequest request) throws IOException {
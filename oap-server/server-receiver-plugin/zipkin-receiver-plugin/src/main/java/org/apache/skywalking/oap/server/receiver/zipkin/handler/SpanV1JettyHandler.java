@@ -19,29 +19,17 @@
 package org.apache.skywalking.oap.server.receiver.zipkin.handler;
 
 import javax.servlet.http.*;
-import org.apache.skywalking.oap.server.core.CoreModule;
-import org.apache.skywalking.oap.server.core.cache.*;
-import org.apache.skywalking.oap.server.core.source.SourceReceiver;
-import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.server.jetty.JettyHandler;
-import org.apache.skywalking.oap.server.receiver.zipkin.ZipkinReceiverConfig;
 import org.slf4j.*;
 import zipkin2.codec.SpanBytesDecoder;
 
 public class SpanV1JettyHandler extends JettyHandler {
     private static final Logger logger = LoggerFactory.getLogger(SpanV1JettyHandler.class);
 
-    private ZipkinReceiverConfig config;
-    private SourceReceiver sourceReceiver;
-    private ServiceInventoryCache serviceInventoryCache;
-    private EndpointInventoryCache endpointInventoryCache;
+    private final SpanProcessor processor;
 
-    public SpanV1JettyHandler(ZipkinReceiverConfig config,
-        ModuleManager manager) {
-        sourceReceiver = manager.find(CoreModule.NAME).provider().getService(SourceReceiver.class);
-        serviceInventoryCache = manager.find(CoreModule.NAME).provider().getService(ServiceInventoryCache.class);
-        endpointInventoryCache = manager.find(CoreModule.NAME).provider().getService(EndpointInventoryCache.class);
-        this.config = config;
+    public SpanV1JettyHandler(SpanProcessor processor) {
+        this.processor = processor;
     }
 
     @Override
@@ -63,10 +51,7 @@ public class SpanV1JettyHandler extends JettyHandler {
                 ? SpanBytesDecoder.THRIFT
                 : SpanBytesDecoder.JSON_V1;
 
-            SpanProcessor processor = new SpanProcessor(sourceReceiver, serviceInventoryCache, endpointInventoryCache, encode);
-            processor.convert(config, decoder, request);
-
-            response.setStatus(202);
+            response.setStatus(processor.convert(decoder, encode, request));
         } catch (Exception e) {
             response.setStatus(500);
 
@@ -19,12 +19,7 @@
 package org.apache.skywalking.oap.server.receiver.zipkin.handler;
 
 import javax.servlet.http.*;
-import org.apache.skywalking.oap.server.core.CoreModule;
-import org.apache.skywalking.oap.server.core.cache.*;
-import org.apache.skywalking.oap.server.core.source.SourceReceiver;
-import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.server.jetty.JettyHandler;
-import org.apache.skywalking.oap.server.receiver.zipkin.ZipkinReceiverConfig;
 import org.slf4j.*;
 import zipkin2.codec.SpanBytesDecoder;
 
@@ -34,17 +29,10 @@ import zipkin2.codec.SpanBytesDecoder;
 public class SpanV2JettyHandler extends JettyHandler {
     private static final Logger logger = LoggerFactory.getLogger(SpanV2JettyHandler.class);
 
-    private ZipkinReceiverConfig config;
-    private SourceReceiver sourceReceiver;
-    private ServiceInventoryCache serviceInventoryCache;
-    private EndpointInventoryCache endpointInventoryCache;
+    private final SpanProcessor processor;
 
-    public SpanV2JettyHandler(ZipkinReceiverConfig config,
-        ModuleManager manager) {
-        sourceReceiver = manager.find(CoreModule.NAME).provider().getService(SourceReceiver.class);
-        serviceInventoryCache = manager.find(CoreModule.NAME).provider().getService(ServiceInventoryCache.class);
-        endpointInventoryCache = manager.find(CoreModule.NAME).provider().getService(EndpointInventoryCache.class);
-        this.config = config;
+    public SpanV2JettyHandler(SpanProcessor processor) {
+        this.processor = processor;
     }
 
     @Override
@@ -66,10 +54,7 @@ public class SpanV2JettyHandler extends JettyHandler {
                 ? SpanBytesDecoder.PROTO3
                 : SpanBytesDecoder.JSON_V2;
 
-            SpanProcessor processor = new SpanProcessor(sourceReceiver, serviceInventoryCache, endpointInventoryCache, encode);
-            processor.convert(config, decoder, request);
-
-            response.setStatus(202);
+            response.setStatus(processor.convert(decoder, encode, request));
         } catch (Exception e) {
             response.setStatus(500);
 
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.zipkin.analysis.cache.sharded;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.receiver.zipkin.ZipkinReceiverConfig;
+import org.apache.skywalking.oap.server.receiver.zipkin.analysis.data.ZipkinTrace;
+import org.junit.*;
+import zipkin2.Span;
+
+public class ShardedSpanCacheTest {
+
+    private static final long NOW = 1_560_000_000_000L;
+
+    private final List<ZipkinTrace> finished = new ArrayList<>();
+
+    @Test
+    public void testFinishAfterRootAndQuietTime() {
+        ShardedSpanCache cache = new ShardedSpanCache(new ZipkinReceiverConfig(), finished::add, NOW);
+        cache.addSpan(span("a1", "2", "1"), NOW);
+        cache.addSpan(span("a1", "1", null), NOW + 1000);
+
+        cache.tick(NOW + 3000);
+        Assert.assertTrue(finished.isEmpty());
+
+        // A late span delays the finish.
+        cache.addSpan(span("a1", "3", "1"), NOW + 3500);
+        cache.tick(NOW + 5000);
+        Assert.assertTrue(finished.isEmpty());
+
+        cache.tick(NOW + 7000);
+        Assert.assertEquals(1, finished.size());
+        Assert.assertEquals(3, finished.get(0).getSpans().size());
+    }
+
+    @Test
+    public void testExpireWithoutRoot() {
+        ShardedSpanCache cache = new ShardedSpanCache(new ZipkinReceiverConfig(), finished::add, NOW);
+        cache.addSpan(span("b1", "2", "1"), NOW);
+
+        cache.tick(NOW + 19000);
+        Assert.assertTrue(finished.isEmpty());
+
+        cache.tick(NOW + 21000);
+        Assert.assertEquals(1, finished.size());
+
+        cache.tick(NOW + 100000);
+        Assert.assertEquals(1, finished.size());
+    }
+
+    @Test
+    public void testSpillEldest() {
+        ZipkinReceiverConfig config = new ZipkinReceiverConfig();
+        config.setMaxCacheSize(1);
+        ShardedSpanCache cache = new ShardedSpanCache(config, finished::add, NOW);
+        for (int i = 0; i < 1000; i++) {
+            cache.addSpan(span(Integer.toHexString(i + 1), "1", null), NOW);
+        }
+        int spilled = finished.size();
+        Assert.assertTrue(spilled > 0);
+
+        cache.tick(NOW + 21000);
+        Assert.assertEquals(1000, finished.size());
+    }
+
+    @Test
+    public void testFullUntilFinished() {
+        ZipkinReceiverConfig config = new ZipkinReceiverConfig();
+        config.setMaxCacheSize(1);
+        ShardedSpanCache cache = new ShardedSpanCache(config, finished::add, NOW);
+        Assert.assertFalse(cache.isFull());
+
+        for (int i = 0; i < 1000; i++) {
+            cache.addSpan(span(Integer.toHexString(i + 1), "1", null), NOW);
+        }
+        Assert.assertTrue(cache.isFull());
+
+        cache.tick(NOW + 21000);
+        Assert.assertFalse(cache.isFull());
+    }
+
+    private static Span span(String traceId, String id, String parentId) {
+        return Span.newBuilder().traceId(traceId).id(id).parentId(parentId).name("test").build();
+    }
+}
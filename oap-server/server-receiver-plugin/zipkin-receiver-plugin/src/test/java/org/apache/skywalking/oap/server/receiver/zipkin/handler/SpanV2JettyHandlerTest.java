@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.zipkin.handler;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.*;
+import javax.servlet.http.*;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.cache.*;
+import org.apache.skywalking.oap.server.core.source.Source;
+import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.receiver.zipkin.ZipkinReceiverConfig;
+import org.junit.*;
+import org.mockito.ArgumentCaptor;
+import zipkin2.Endpoint;
+import zipkin2.Span;
+import zipkin2.codec.SpanBytesEncoder;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class SpanV2JettyHandlerTest {
+
+    private final List<Source> received = new CopyOnWriteArrayList<>();
+    private final ZipkinReceiverConfig config = new ZipkinReceiverConfig();
+    private ModuleManager manager;
+
+    @Before
+    public void setUp() {
+        SourceReceiver receiver = mock(SourceReceiver.class);
+        doAnswer(invocation -> received.add((Source)invocation.getArguments()[0])).when(receiver).receive(any(Source.class));
+        ServiceInventoryCache serviceInventoryCache = mock(ServiceInventoryCache.class);
+        when(serviceInventoryCache.getServiceId(anyString())).thenReturn(1);
+        EndpointInventoryCache endpointInventoryCache = mock(EndpointInventoryCache.class);
+        when(endpointInventoryCache.getEndpointId(anyInt(), anyString(), anyInt())).thenReturn(1);
+
+        ModuleServiceHolder serviceHolder = mock(ModuleServiceHolder.class);
+        when(serviceHolder.getService(SourceReceiver.class)).thenReturn(receiver);
+        when(serviceHolder.getService(ServiceInventoryCache.class)).thenReturn(serviceInventoryCache);
+        when(serviceHolder.getService(EndpointInventoryCache.class)).thenReturn(endpointInventoryCache);
+        ModuleProviderHolder providerHolder = mock(ModuleProviderHolder.class);
+        when(providerHolder.provider()).thenReturn(serviceHolder);
+        manager = mock(ModuleManager.class);
+        when(manager.find(CoreModule.NAME)).thenReturn(providerHolder);
+    }
+
+    @Test
+    public void testPlainBody() throws Exception {
+        byte[] body = SpanBytesEncoder.JSON_V2.encodeList(spans(3));
+
+        Assert.assertEquals(202, post(newHandler(), request(body, false)));
+        Assert.assertEquals(3, received.size());
+    }
+
+    @Test
+    public void testGzipBody() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(SpanBytesEncoder.JSON_V2.encodeList(spans(3000)));
+        }
+
+        Assert.assertEquals(202, post(newHandler(), request(compressed.toByteArray(), true)));
+        Assert.assertEquals(3000, received.size());
+    }
+
+    @Test
+    public void testTooLargeBody() throws Exception {
+        byte[] body = SpanBytesEncoder.JSON_V2.encodeList(spans(3));
+        config.setMaxRequestBodySize(body.length - 1);
+        SpanV2JettyHandler handler = newHandler();
+
+        Assert.assertEquals(413, post(handler, request(body, false)));
+
+        // The inflated size is checked too, whatever the compressed length is.
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        }
+        Assert.assertEquals(413, post(handler, request(compressed.toByteArray(), true)));
+        Assert.assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void testTooManyRequests() throws Exception {
+        config.setMaxConcurrentRequests(1);
+        SpanV2JettyHandler handler = newHandler();
+        byte[] body = SpanBytesEncoder.JSON_V2.encodeList(spans(1));
+
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        InputStream blocking = new FilterInputStream(new ByteArrayInputStream(body)) {
+            @Override public int read(byte[] b, int off, int len) throws IOException {
+                reading.countDown();
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return super.read(b, off, len);
+            }
+        };
+        HttpServletRequest slowRequest = request(body, false);
+        when(slowRequest.getInputStream()).thenReturn(new DelegatingServletInputStream(blocking));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> slow = executor.submit(() -> post(handler, slowRequest));
+            Assert.assertTrue(reading.await(10, TimeUnit.SECONDS));
+
+            Assert.assertEquals(429, post(handler, request(body, false)));
+
+            proceed.countDown();
+            Assert.assertEquals(202, slow.get(10, TimeUnit.SECONDS).intValue());
+            Assert.assertEquals(202, post(handler, request(body, false)));
+        } finally {
+            proceed.countDown();
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(2, received.size());
+    }
+
+    private SpanV2JettyHandler newHandler() {
+        return new SpanV2JettyHandler(new SpanProcessor(config, manager));
+    }
+
+    private static int post(SpanV2JettyHandler handler, HttpServletRequest request) {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        handler.doPost(request, response);
+        ArgumentCaptor<Integer> status = ArgumentCaptor.forClass(Integer.class);
+        verify(response).setStatus(status.capture());
+        return status.getValue();
+    }
+
+    private static HttpServletRequest request(byte[] body, boolean gzip) throws IOException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader("Content-Type")).thenReturn("application/json");
+        if (gzip) {
+            when(request.getHeader("accept-encoding")).thenReturn("gzip");
+        }
+        when(request.getContentLength()).thenReturn(body.length);
+        when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(new ByteArrayInputStream(body)));
+        return request;
+    }
+
+    private static List<Span> spans(int count) {
+        List<Span> spans = new ArrayList<>(count);
+        long now = System.currentTimeMillis() * 1000;
+        for (int i = 0; i < count; i++) {
+            spans.add(Span.newBuilder()
+                .traceId(Integer.toHexString(i / 3 + 1))
+                .id(Integer.toHexString(i + 1))
+                .name("get /users")
+                .kind(Span.Kind.SERVER)
+                .localEndpoint(Endpoint.newBuilder().serviceName("frontend").build())
+                .timestamp(now)
+                .duration(1000)
+                .build());
+        }
+        return spans;
+    }
+
+    private static class DelegatingServletInputStream extends ServletInputStream {
+        private final InputStream delegate;
+        private boolean finished;
+
+        private DelegatingServletInputStream(InputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override public int read() throws IOException {
+            int b = delegate.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            int length = delegate.read(b, off, len);
+            finished = length < 0;
+            return length;
+        }
+
+        @Override public boolean isFinished() {
+            return finished;
+        }
+
+        @Override public boolean isReady() {
+            return true;
+        }
+
+        @Override public void setReadListener(ReadListener readListener) {
+        }
+    }
+}
@@ -36,6 +36,10 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
     @Setter private int bulkActions = 2000;
     @Setter private int flushInterval = 10;
     @Setter private int concurrentRequests = 2;
+    /**
+     * The max megabytes of one bulk written by the persistence timer, the bulk size adapts below it.
+     */
+    @Setter private int maxBulkSize = 5;
     @Setter private int syncBulkActions = 3;
     @Setter private String user;
     @Setter private String password;
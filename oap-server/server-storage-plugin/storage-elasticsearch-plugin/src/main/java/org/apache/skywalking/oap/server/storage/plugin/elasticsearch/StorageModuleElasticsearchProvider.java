@@ -69,6 +69,8 @@ import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query.TopNR
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query.TopologyQueryEsDAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query.TraceQueryEsDAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.ttl.ElasticsearchStorageTTL;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 
 /**
  * @author peng-yongsheng, jian.tan
@@ -77,6 +79,7 @@ public class StorageModuleElasticsearchProvider extends ModuleProvider {
 
     protected final StorageModuleElasticsearchConfig config;
     protected ElasticSearchClient elasticSearchClient;
+    private BatchProcessEsDAO batchProcessEsDAO;
 
     public StorageModuleElasticsearchProvider() {
         super();
@@ -105,8 +108,9 @@ public class StorageModuleElasticsearchProvider extends ModuleProvider {
         }
         elasticSearchClient = new ElasticSearchClient(config.getClusterNodes(), config.getProtocol(), config.getTrustStorePath(), config.getTrustStorePass(), config.getNameSpace(), config.getUser(), config.getPassword());
 
-        this.registerServiceImplementation(IBatchDAO.class, new BatchProcessEsDAO(elasticSearchClient, config.getBulkActions(), config.getFlushInterval(), config.getConcurrentRequests()));
-        this.registerServiceImplementation(StorageDAO.class, new StorageEsDAO(elasticSearchClient));
+        batchProcessEsDAO = new BatchProcessEsDAO(elasticSearchClient, config.getBulkActions(), config.getFlushInterval(), config.getConcurrentRequests(), config.getMaxBulkSize());
+        this.registerServiceImplementation(IBatchDAO.class, batchProcessEsDAO);
+        this.registerServiceImplementation(StorageDAO.class, new StorageEsDAO(getManager(), elasticSearchClient));
         this.registerServiceImplementation(IRegisterLockDAO.class, new RegisterLockDAOImpl(elasticSearchClient));
         this.registerServiceImplementation(IHistoryDeleteDAO.class, new HistoryDeleteEsDAO(getManager(), elasticSearchClient, new ElasticsearchStorageTTL()));
 
@@ -128,11 +132,13 @@ public class StorageModuleElasticsearchProvider extends ModuleProvider {
     @Override
     public void start() throws ModuleStartException {
         overrideCoreModuleTTLConfig();
+        batchProcessEsDAO.initTelemetry(getManager().find(TelemetryModule.NAME).provider().getService(MetricsCreator.class));
 
         try {
             elasticSearchClient.connect();
 
-            StorageEsInstaller installer = new StorageEsInstaller(getManager(), config.getIndexShardsNumber(), config.getIndexReplicasNumber(), config.getIndexRefreshInterval());
+            ConfigService configService = getManager().find(CoreModule.NAME).provider().getService(ConfigService.class);
+            StorageEsInstaller installer = new StorageEsInstaller(getManager(), config.getIndexShardsNumber(), config.getIndexReplicasNumber(), config.getIndexRefreshInterval(), configService.isGroupMetricsBinaryEncoding());
             installer.install(elasticSearchClient);
 
             RegisterLockInstaller lockInstaller = new RegisterLockInstaller(elasticSearchClient);
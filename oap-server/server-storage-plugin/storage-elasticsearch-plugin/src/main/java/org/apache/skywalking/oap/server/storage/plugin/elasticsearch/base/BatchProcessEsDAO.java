@@ -18,12 +18,14 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
-import java.util.List;
+import java.util.*;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.library.client.request.*;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
-import org.elasticsearch.action.bulk.*;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.slf4j.*;
@@ -39,13 +41,22 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
     private final int bulkActions;
     private final int flushInterval;
     private final int concurrentRequests;
+    private final BulkWriter bulkWriter;
 
+    /**
+     * @param maxBulkSize the max megabytes of one bulk of the synchronous requests.
+     */
     public BatchProcessEsDAO(ElasticSearchClient client, int bulkActions, int flushInterval,
-        int concurrentRequests) {
+        int concurrentRequests, int maxBulkSize) {
         super(client);
         this.bulkActions = bulkActions;
         this.flushInterval = flushInterval;
         this.concurrentRequests = concurrentRequests;
+        this.bulkWriter = new BulkWriter(client, maxBulkSize * 1024L * 1024L, concurrentRequests);
+    }
+
+    public void initTelemetry(MetricsCreator metricsCreator) {
+        bulkWriter.initTelemetry(metricsCreator);
     }
 
     @Override public void asynchronous(InsertRequest insertRequest) {
@@ -58,16 +69,16 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
 
     @Override public void synchronous(List<PrepareRequest> prepareRequests) {
         if (CollectionUtils.isNotEmpty(prepareRequests)) {
-            BulkRequest request = new BulkRequest();
+            List<DocWriteRequest> requests = new ArrayList<>(prepareRequests.size());
 
             for (PrepareRequest prepareRequest : prepareRequests) {
                 if (prepareRequest instanceof InsertRequest) {
-                    request.add((IndexRequest)prepareRequest);
+                    requests.add((IndexRequest)prepareRequest);
                 } else {
-                    request.add((UpdateRequest)prepareRequest);
+                    requests.add((UpdateRequest)prepareRequest);
                 }
             }
-            getClient().synchronousBulk(request);
+            bulkWriter.write(requests);
         }
     }
 }
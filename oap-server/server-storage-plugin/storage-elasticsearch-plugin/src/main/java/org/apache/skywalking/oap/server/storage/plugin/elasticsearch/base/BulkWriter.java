@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.telemetry.api.*;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.*;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.*;
+
+/**
+ * Write the requests of one persistence round by the bulks of limited bytes, at most the given number of bulks are in
+ * flight at the same time, rather than one bulk of the whole round.
+ *
+ * The byte limit of a bulk adapts to Elasticsearch, it halves when a bulk is rejected, fails or is slower than {@link
+ * #SLOW_BULK_MILLIS}, and grows by {@link #MIN_BULK_BYTES} when a bulk is faster than {@link #FAST_BULK_MILLIS}. The
+ * items rejected by the full queues or the unavailable shards, and the items of the failed bulks are retried with
+ * backoff, the other failed items would fail again, so they are only logged.
+ */
+class BulkWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkWriter.class);
+
+    private static final long MIN_BULK_BYTES = 512 * 1024;
+    /**
+     * The bulk waits for the index refresh, so its latency includes a refresh interval mostly.
+     */
+    private static final long SLOW_BULK_MILLIS = 10000;
+    private static final long FAST_BULK_MILLIS = 3000;
+    private static final int MAX_RETRY_TIMES = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 200;
+    /**
+     * The bytes of the action line of an item in the bulk body.
+     */
+    private static final int ITEM_OVERHEAD_BYTES = 100;
+
+    private final ElasticSearchClient client;
+    private final long maxBulkBytes;
+    private final Semaphore inFlight;
+    private final AtomicLong bulkBytes;
+
+    private volatile HistogramMetrics bulkLatency;
+    private volatile CounterMetrics rejectedCounter;
+    private volatile CounterMetrics retriedCounter;
+    private volatile CounterMetrics failedCounter;
+    private volatile GaugeMetrics bulkBytesGauge;
+
+    /**
+     * @param maxBulkBytes the max bytes of the items in one bulk.
+     * @param concurrentRequests the max number of the bulks in flight.
+     */
+    BulkWriter(ElasticSearchClient client, long maxBulkBytes, int concurrentRequests) {
+        this.client = client;
+        this.maxBulkBytes = Math.max(maxBulkBytes, MIN_BULK_BYTES);
+        this.inFlight = new Semaphore(Math.max(concurrentRequests, 1));
+        this.bulkBytes = new AtomicLong(this.maxBulkBytes);
+
+        initTelemetry(new MetricsCreatorNoop());
+    }
+
+    /**
+     * The writer is created when the storage prepares, the services of the other modules can't be found until all of
+     * the modules are prepared, so the metrics are created when the storage starts, no-op before that.
+     */
+    void initTelemetry(MetricsCreator metricsCreator) {
+        MetricsTag.Keys keys = MetricsTag.EMPTY_KEY;
+        MetricsTag.Values values = MetricsTag.EMPTY_VALUE;
+        bulkLatency = metricsCreator.createHistogramMetric("elasticsearch_bulk_latency", "The latency of the bulks of Elasticsearch", keys, values);
+        rejectedCounter = metricsCreator.createCounter("elasticsearch_bulk_rejected_count", "The number of the bulks rejected or failed by Elasticsearch", keys, values);
+        retriedCounter = metricsCreator.createCounter("elasticsearch_bulk_retried_item_count", "The number of the bulk items retried", keys, values);
+        failedCounter = metricsCreator.createCounter("elasticsearch_bulk_failed_item_count", "The number of the bulk items failed and dropped", keys, values);
+        bulkBytesGauge = metricsCreator.createGauge("elasticsearch_bulk_size_bytes", "The current byte limit of a bulk", keys, values);
+        bulkBytesGauge.setValue(bulkBytes.get());
+    }
+
+    void write(List<DocWriteRequest> requests) {
+        List<DocWriteRequest> pending = requests;
+        for (int retryTimes = 0; !pending.isEmpty(); retryTimes++) {
+            if (retryTimes > 0) {
+                if (retryTimes > MAX_RETRY_TIMES) {
+                    logger.error("Drop {} bulk items after {} retries.", pending.size(), MAX_RETRY_TIMES);
+                    failedCounter.inc(pending.size());
+                    return;
+                }
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS << (retryTimes - 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failedCounter.inc(pending.size());
+                    return;
+                }
+                retriedCounter.inc(pending.size());
+            }
+            pending = writeOnce(pending);
+        }
+    }
+
+    /**
+     * @return the requests to retry.
+     */
+    private List<DocWriteRequest> writeOnce(List<DocWriteRequest> requests) {
+        List<DocWriteRequest> retries = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+
+        int from = 0;
+        while (from < requests.size()) {
+            long limit = bulkBytes.get();
+            BulkRequest bulk = new BulkRequest();
+            long bytes = 0;
+            int to = from;
+            while (to < requests.size()) {
+                long size = sizeOf(requests.get(to));
+                if (to > from && bytes + size > limit) {
+                    break;
+                }
+                bulk.add(requests.get(to));
+                bytes += size;
+                to++;
+            }
+            List<DocWriteRequest> items = requests.subList(from, to);
+            from = to;
+
+            inFlight.acquireUninterruptibly();
+            HistogramMetrics.Timer timer = bulkLatency.createTimer();
+            long startTime = System.currentTimeMillis();
+            CompletableFuture<BulkResponse> future;
+            try {
+                future = client.bulkAsync(bulk);
+            } catch (Throwable t) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(t);
+            }
+            futures.add(future.handle((response, failure) -> {
+                try {
+                    timer.finish();
+                    onBulkDone(items, response, failure, System.currentTimeMillis() - startTime, retries);
+                } catch (Throwable t) {
+                    logger.error(t.getMessage(), t);
+                } finally {
+                    inFlight.release();
+                }
+                return null;
+            }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return retries;
+    }
+
+    private void onBulkDone(List<DocWriteRequest> items, BulkResponse response, Throwable failure, long latency,
+        List<DocWriteRequest> retries) {
+        if (failure != null) {
+            logger.error("Bulk of {} items failure, retry it.", items.size(), failure);
+            rejectedCounter.inc();
+            retries.addAll(items);
+            adapt(latency, true);
+            return;
+        }
+
+        boolean rejected = false;
+        BulkItemResponse[] itemResponses = response.getItems();
+        for (int i = 0; i < itemResponses.length; i++) {
+            BulkItemResponse itemResponse = itemResponses[i];
+            if (!itemResponse.isFailed()) {
+                continue;
+            }
+            RestStatus status = itemResponse.getFailure().getStatus();
+            if (status == RestStatus.TOO_MANY_REQUESTS || status == RestStatus.SERVICE_UNAVAILABLE) {
+                rejected = true;
+                retries.add(items.get(i));
+            } else {
+                logger.error("Bulk item {} of index {} failure: {}", itemResponse.getId(), itemResponse.getIndex(), itemResponse.getFailureMessage());
+                failedCounter.inc();
+            }
+        }
+        if (rejected) {
+            rejectedCounter.inc();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Bulk of {} items took {} millis, size limit: {} bytes", items.size(), latency, bulkBytes.get());
+        }
+        adapt(latency, rejected);
+    }
+
+    private void adapt(long latency, boolean rejected) {
+        long updated;
+        if (rejected || latency > SLOW_BULK_MILLIS) {
+            updated = bulkBytes.updateAndGet(bytes -> Math.max(bytes / 2, MIN_BULK_BYTES));
+        } else if (latency < FAST_BULK_MILLIS) {
+            updated = bulkBytes.updateAndGet(bytes -> Math.min(bytes + MIN_BULK_BYTES, maxBulkBytes));
+        } else {
+            return;
+        }
+        bulkBytesGauge.setValue(updated);
+    }
+
+    static long sizeOf(DocWriteRequest request) {
+        long size = ITEM_OVERHEAD_BYTES;
+        if (request instanceof IndexRequest) {
+            IndexRequest indexRequest = (IndexRequest)request;
+            if (indexRequest.source() != null) {
+                size += indexRequest.source().length();
+            }
+        } else if (request instanceof UpdateRequest) {
+            UpdateRequest updateRequest = (UpdateRequest)request;
+            if (updateRequest.doc() != null && updateRequest.doc().source() != null) {
+                size += updateRequest.doc().source().length();
+            }
+            if (updateRequest.upsertRequest() != null && updateRequest.upsertRequest().source() != null) {
+                size += updateRequest.upsertRequest().source().length();
+            }
+        }
+        return size;
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
+import org.apache.skywalking.oap.server.core.analysis.metrics.QuantileSketch;
 import org.apache.skywalking.oap.server.core.storage.model.DataTypeMapping;
 
 /**
@@ -26,6 +27,20 @@ import org.apache.skywalking.oap.server.core.storage.model.DataTypeMapping;
  */
 public class ColumnTypeEsMapping implements DataTypeMapping {
 
+    private final boolean groupMetricsBinaryEncoding;
+
+    public ColumnTypeEsMapping() {
+        this(false);
+    }
+
+    /**
+     * @param groupMetricsBinaryEncoding map the {@link IntKeyLongValueHashMap} to the binary type, which is neither
+     * indexed nor saved in the doc values, for the bytes of {@link IntKeyLongValueHashMap#toBytes()}.
+     */
+    public ColumnTypeEsMapping(boolean groupMetricsBinaryEncoding) {
+        this.groupMetricsBinaryEncoding = groupMetricsBinaryEncoding;
+    }
+
     @Override public String transform(Class<?> type) {
         if (Integer.class.equals(type) || int.class.equals(type)) {
             return "integer";
@@ -36,7 +51,9 @@ public class ColumnTypeEsMapping implements DataTypeMapping {
         } else if (String.class.equals(type)) {
             return "keyword";
         } else if (IntKeyLongValueHashMap.class.equals(type)) {
-            return "text";
+            return groupMetricsBinaryEncoding ? "binary" : "text";
+        } else if (QuantileSketch.class.equals(type)) {
+            return "binary";
         } else if (byte[].class.equals(type)) {
             return "binary";
         } else {
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
 import java.io.IOException;
 import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.query.sql.Where;
 import org.apache.skywalking.oap.server.core.storage.AbstractDAO;
@@ -59,10 +60,21 @@ public abstract class EsDAO extends AbstractDAO<ElasticSearchClient> {
     }
 
     protected XContentBuilder map2builder(Map<String, Object> objectMap) throws IOException {
+        return map2builder(objectMap, false);
+    }
+
+    /**
+     * @param groupMetricsBinaryEncoding write the {@link IntKeyLongValueHashMap} in the binary encoding, into the
+     * binary field.
+     */
+    protected XContentBuilder map2builder(Map<String, Object> objectMap,
+        boolean groupMetricsBinaryEncoding) throws IOException {
         XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
         for (String key : objectMap.keySet()) {
             Object value = objectMap.get(key);
-            if (value instanceof StorageDataType) {
+            if (groupMetricsBinaryEncoding && value instanceof IntKeyLongValueHashMap) {
+                builder.field(key, ((IntKeyLongValueHashMap)value).toBytes());
+            } else if (value instanceof StorageDataType) {
                 builder.field(key, ((StorageDataType)value).toStorageData());
             } else {
                 builder.field(key, value);
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
@@ -33,15 +34,24 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 public class MetricsEsDAO extends EsDAO implements IMetricsDAO {
 
     private final StorageBuilder<Metrics> storageBuilder;
+    private final boolean groupMetricsBinaryEncoding;
 
-    MetricsEsDAO(ElasticSearchClient client, StorageBuilder<Metrics> storageBuilder) {
+    MetricsEsDAO(ElasticSearchClient client, StorageBuilder<Metrics> storageBuilder,
+        boolean groupMetricsBinaryEncoding) {
         super(client);
         this.storageBuilder = storageBuilder;
+        this.groupMetricsBinaryEncoding = groupMetricsBinaryEncoding;
     }
 
     @Override public List<Metrics> multiGet(Model model, List<String> ids) throws IOException {
-        SearchResponse response = getClient().ids(model.getName(), ids.toArray(new String[0]));
+        return toMetrics(getClient().ids(model.getName(), ids.toArray(new String[0])));
+    }
+
+    @Override public CompletableFuture<List<Metrics>> multiGetAsync(Model model, List<String> ids) {
+        return getClient().idsAsync(model.getName(), ids.toArray(new String[0])).thenApply(this::toMetrics);
+    }
 
+    private List<Metrics> toMetrics(SearchResponse response) {
         List<Metrics> result = new ArrayList<>((int)response.getHits().totalHits);
         for (int i = 0; i < response.getHits().totalHits; i++) {
             Metrics source = storageBuilder.map2Data(response.getHits().getAt(i).getSourceAsMap());
@@ -51,13 +61,13 @@ public class MetricsEsDAO extends EsDAO implements IMetricsDAO {
     }
 
     @Override public ElasticSearchInsertRequest prepareBatchInsert(Model model, Metrics metrics) throws IOException {
-        XContentBuilder builder = map2builder(storageBuilder.data2Map(metrics));
+        XContentBuilder builder = map2builder(storageBuilder.data2Map(metrics), groupMetricsBinaryEncoding);
         String modelName = TimeSeriesUtils.timeSeries(model, metrics.getTimeBucket());
         return getClient().prepareInsert(modelName, metrics.id(), builder);
     }
 
     @Override public ElasticSearchUpdateRequest prepareBatchUpdate(Model model, Metrics metrics) throws IOException {
-        XContentBuilder builder = map2builder(storageBuilder.data2Map(metrics));
+        XContentBuilder builder = map2builder(storageBuilder.data2Map(metrics), groupMetricsBinaryEncoding);
         String modelName = TimeSeriesUtils.timeSeries(model, metrics.getTimeBucket());
         return getClient().prepareUpdate(modelName, metrics.id(), builder);
     }
@@ -19,10 +19,12 @@
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
 import java.io.IOException;
+import java.util.*;
 import org.apache.skywalking.oap.server.core.register.RegisterSource;
 import org.apache.skywalking.oap.server.core.storage.*;
-import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.*;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 /**
@@ -55,4 +57,25 @@ public class RegisterEsDAO extends EsDAO implements IRegisterDAO {
         XContentBuilder builder = map2builder(storageBuilder.data2Map(source));
         getClient().forceUpdate(modelName, source.id(), builder);
     }
+
+    @Override public List<RegisterSource> multiGet(String modelName, List<String> ids) throws IOException {
+        SearchResponse response = getClient().ids(modelName, ids.toArray(new String[0]));
+        List<RegisterSource> result = new ArrayList<>((int)response.getHits().totalHits);
+        for (int i = 0; i < response.getHits().totalHits; i++) {
+            result.add(storageBuilder.map2Data(response.getHits().getAt(i).getSourceAsMap()));
+        }
+        return result;
+    }
+
+    @Override public ElasticSearchInsertRequest prepareBatchInsert(String modelName,
+        RegisterSource source) throws IOException {
+        XContentBuilder builder = map2builder(storageBuilder.data2Map(source));
+        return getClient().prepareInsert(modelName, source.id(), builder);
+    }
+
+    @Override public ElasticSearchUpdateRequest prepareBatchUpdate(String modelName,
+        RegisterSource source) throws IOException {
+        XContentBuilder builder = map2builder(storageBuilder.data2Map(source));
+        return getClient().prepareUpdate(modelName, source.id(), builder);
+    }
 }
@@ -18,23 +18,33 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
+import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.analysis.record.Record;
 import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.core.config.ConfigService;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 
 /**
  * @author peng-yongsheng
  */
 public class StorageEsDAO extends EsDAO implements StorageDAO {
 
-    public StorageEsDAO(ElasticSearchClient client) {
+    private final ModuleDefineHolder moduleDefineHolder;
+
+    public StorageEsDAO(ModuleDefineHolder moduleDefineHolder, ElasticSearchClient client) {
         super(client);
+        this.moduleDefineHolder = moduleDefineHolder;
     }
 
+    /**
+     * Called when the core module starts the streams, its config service is ready.
+     */
     @Override public IMetricsDAO newMetricsDao(StorageBuilder<Metrics> storageBuilder) {
-        return new MetricsEsDAO(getClient(), storageBuilder);
+        ConfigService configService = moduleDefineHolder.find(CoreModule.NAME).provider().getService(ConfigService.class);
+        return new MetricsEsDAO(getClient(), storageBuilder, configService.isGroupMetricsBinaryEncoding());
     }
 
     @Override public IRegisterDAO newRegisterDao(StorageBuilder<RegisterSource> storageBuilder) {
@@ -40,12 +40,13 @@ public class StorageEsInstaller extends ModelInstaller {
     private final int indexRefreshInterval;
     private final ColumnTypeEsMapping columnTypeEsMapping;
 
-    public StorageEsInstaller(ModuleManager moduleManager, int indexShardsNumber, int indexReplicasNumber, int indexRefreshInterval) {
+    public StorageEsInstaller(ModuleManager moduleManager, int indexShardsNumber, int indexReplicasNumber,
+        int indexRefreshInterval, boolean groupMetricsBinaryEncoding) {
         super(moduleManager);
         this.indexShardsNumber = indexShardsNumber;
         this.indexReplicasNumber = indexReplicasNumber;
         this.indexRefreshInterval = indexRefreshInterval;
-        this.columnTypeEsMapping = new ColumnTypeEsMapping();
+        this.columnTypeEsMapping = new ColumnTypeEsMapping(groupMetricsBinaryEncoding);
     }
 
     @Override protected boolean isExists(Client client, Model model) throws StorageException {
@@ -29,6 +29,7 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.*;
 
 /**
@@ -99,4 +100,25 @@ public class NetworkAddressInventoryCacheEsDAO extends EsDAO implements INetwork
 
         return addressInventories;
     }
+
+    @Override public List<NetworkAddressInventory> loadAfter(int sequence, int size) {
+        List<NetworkAddressInventory> inventories = new ArrayList<>();
+
+        try {
+            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+            searchSourceBuilder.query(QueryBuilders.rangeQuery(NetworkAddressInventory.SEQUENCE).gt(sequence));
+            searchSourceBuilder.sort(NetworkAddressInventory.SEQUENCE, SortOrder.ASC);
+            searchSourceBuilder.size(size);
+
+            SearchResponse response = getClient().search(NetworkAddressInventory.INDEX_NAME, searchSourceBuilder);
+
+            for (SearchHit searchHit : response.getHits().getHits()) {
+                inventories.add(this.builder.map2Data(searchHit.getSourceAsMap()));
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+
+        return inventories;
+    }
 }
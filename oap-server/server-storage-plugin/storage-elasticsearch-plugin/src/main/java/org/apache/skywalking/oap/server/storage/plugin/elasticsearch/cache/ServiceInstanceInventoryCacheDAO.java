@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.cache;
 
+import java.util.*;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.register.*;
 import org.apache.skywalking.oap.server.core.storage.cache.IServiceInstanceInventoryCacheDAO;
@@ -28,6 +29,7 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.*;
 
 /**
@@ -85,4 +87,25 @@ public class ServiceInstanceInventoryCacheDAO extends EsDAO implements IServiceI
             return Const.NONE;
         }
     }
+
+    @Override public List<ServiceInstanceInventory> loadAfter(int sequence, int size) {
+        List<ServiceInstanceInventory> inventories = new ArrayList<>();
+
+        try {
+            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+            searchSourceBuilder.query(QueryBuilders.rangeQuery(ServiceInstanceInventory.SEQUENCE).gt(sequence));
+            searchSourceBuilder.sort(ServiceInstanceInventory.SEQUENCE, SortOrder.ASC);
+            searchSourceBuilder.size(size);
+
+            SearchResponse response = getClient().search(ServiceInstanceInventory.INDEX_NAME, searchSourceBuilder);
+
+            for (SearchHit searchHit : response.getHits().getHits()) {
+                inventories.add(this.builder.map2Data(searchHit.getSourceAsMap()));
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+
+        return inventories;
+    }
 }
@@ -30,6 +30,7 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.*;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.*;
 
 /**
@@ -114,4 +115,25 @@ public class ServiceInventoryCacheEsDAO extends EsDAO implements IServiceInvento
 
         return serviceInventories;
     }
+
+    @Override public List<ServiceInventory> loadAfter(int sequence, int size) {
+        List<ServiceInventory> inventories = new ArrayList<>();
+
+        try {
+            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+            searchSourceBuilder.query(QueryBuilders.rangeQuery(ServiceInventory.SEQUENCE).gt(sequence));
+            searchSourceBuilder.sort(ServiceInventory.SEQUENCE, SortOrder.ASC);
+            searchSourceBuilder.size(size);
+
+            SearchResponse response = getClient().search(ServiceInventory.INDEX_NAME, searchSourceBuilder);
+
+            for (SearchHit searchHit : response.getHits().getHits()) {
+                inventories.add(this.builder.map2Data(searchHit.getSourceAsMap()));
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+
+        return inventories;
+    }
 }
@@ -41,6 +41,14 @@ public class RegisterLockDAOImpl extends EsDAO implements IRegisterLockDAO {
     }
 
     @Override public int getId(int scopeId, RegisterSource registerSource) {
+        return getIdBlock(scopeId, 1);
+    }
+
+    /**
+     * Move the sequence forward by the block size, the versioned update fails if another OAP instance moved it in
+     * the meantime.
+     */
+    @Override public int getIdBlock(int scopeId, int size) {
         String id = scopeId + "";
 
         int sequence = Const.NONE;
@@ -52,9 +60,8 @@ public class RegisterLockDAOImpl extends EsDAO implements IRegisterLockDAO {
                 sequence = ((Number)source.get(RegisterLockIndex.COLUMN_SEQUENCE)).intValue();
                 long version = response.getVersion();
 
+                lock(id, sequence + size, version);
                 sequence++;
-
-                lock(id, sequence, version);
             }
         } catch (Throwable t) {
             logger.warn("Try to lock the row with the id {} failure, error message: {}", id, t.getMessage());
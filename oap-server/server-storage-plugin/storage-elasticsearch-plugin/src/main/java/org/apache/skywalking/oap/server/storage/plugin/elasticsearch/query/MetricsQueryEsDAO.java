@@ -141,17 +141,12 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
                 thermodynamic.setAxisYStep(axisYStep);
                 numOfSteps = ((Number)source.get(ThermodynamicMetrics.NUM_OF_STEPS)).intValue() + 1;
 
-                String value = (String)source.get(ThermodynamicMetrics.DETAIL_GROUP);
-                IntKeyLongValueHashMap intKeyLongValues = new IntKeyLongValueHashMap(5);
-                intKeyLongValues.toObject(value);
+                long[] values = new long[numOfSteps];
+                IntKeyLongValueHashMap.decode(source.get(ThermodynamicMetrics.DETAIL_GROUP), (key, keyValue) -> values[key] = keyValue);
 
-                List<Long> axisYValues = new ArrayList<>();
-                for (int i = 0; i < numOfSteps; i++) {
-                    axisYValues.add(0L);
-                }
-
-                for (IntKeyLongValue intKeyLongValue : intKeyLongValues.values()) {
-                    axisYValues.set(intKeyLongValue.getKey(), intKeyLongValue.getValue());
+                List<Long> axisYValues = new ArrayList<>(numOfSteps);
+                for (long axisYValue : values) {
+                    axisYValues.add(axisYValue);
                 }
 
                 thermodynamicValueMatrix.add(axisYValues);
@@ -131,27 +131,64 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
 
         SearchResponse response = getClient().search(SegmentRecord.INDEX_NAME, sourceBuilder);
 
+        return buildRecords(response);
+    }
+
+    @Override
+    public List<SegmentRecord> queryByTraceId(String traceId, String afterSegmentId, int limit) throws IOException {
+        SearchSourceBuilder sourceBuilder = SearchSourceBuilder.searchSource();
+        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
+        boolQueryBuilder.must().add(QueryBuilders.termQuery(SegmentRecord.TRACE_ID, traceId));
+        if (afterSegmentId != null) {
+            boolQueryBuilder.must().add(QueryBuilders.rangeQuery(SegmentRecord.SEGMENT_ID).gt(afterSegmentId));
+        }
+        sourceBuilder.query(boolQueryBuilder);
+        sourceBuilder.sort(SegmentRecord.SEGMENT_ID, SortOrder.ASC);
+        sourceBuilder.size(limit);
+
+        SearchResponse response = getClient().search(SegmentRecord.INDEX_NAME, sourceBuilder);
+        return buildRecords(response);
+    }
+
+    @Override
+    public List<SegmentRecord> queryBySegmentIds(String traceId, List<String> segmentIds) throws IOException {
+        SearchSourceBuilder sourceBuilder = SearchSourceBuilder.searchSource();
+        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
+        boolQueryBuilder.must().add(QueryBuilders.termQuery(SegmentRecord.TRACE_ID, traceId));
+        boolQueryBuilder.must().add(QueryBuilders.termsQuery(SegmentRecord.SEGMENT_ID, segmentIds));
+        sourceBuilder.query(boolQueryBuilder);
+        sourceBuilder.size(segmentIds.size());
+
+        SearchResponse response = getClient().search(SegmentRecord.INDEX_NAME, sourceBuilder);
+        return buildRecords(response);
+    }
+
+    private List<SegmentRecord> buildRecords(SearchResponse response) {
         List<SegmentRecord> segmentRecords = new ArrayList<>();
         for (SearchHit searchHit : response.getHits().getHits()) {
-            SegmentRecord segmentRecord = new SegmentRecord();
-            segmentRecord.setSegmentId((String)searchHit.getSourceAsMap().get(SegmentRecord.SEGMENT_ID));
-            segmentRecord.setTraceId((String)searchHit.getSourceAsMap().get(SegmentRecord.TRACE_ID));
-            segmentRecord.setServiceId(((Number)searchHit.getSourceAsMap().get(SegmentRecord.SERVICE_ID)).intValue());
-            segmentRecord.setEndpointName((String)searchHit.getSourceAsMap().get(SegmentRecord.ENDPOINT_NAME));
-            segmentRecord.setStartTime(((Number)searchHit.getSourceAsMap().get(SegmentRecord.START_TIME)).longValue());
-            segmentRecord.setEndTime(((Number)searchHit.getSourceAsMap().get(SegmentRecord.END_TIME)).longValue());
-            segmentRecord.setLatency(((Number)searchHit.getSourceAsMap().get(SegmentRecord.LATENCY)).intValue());
-            segmentRecord.setIsError(((Number)searchHit.getSourceAsMap().get(SegmentRecord.IS_ERROR)).intValue());
-            String dataBinaryBase64 = (String)searchHit.getSourceAsMap().get(SegmentRecord.DATA_BINARY);
-            if (!Strings.isNullOrEmpty(dataBinaryBase64)) {
-                segmentRecord.setDataBinary(Base64.getDecoder().decode(dataBinaryBase64));
-            }
-            segmentRecord.setVersion(((Number)searchHit.getSourceAsMap().get(SegmentRecord.VERSION)).intValue());
-            segmentRecords.add(segmentRecord);
+            segmentRecords.add(buildRecord(searchHit));
         }
         return segmentRecords;
     }
 
+    private SegmentRecord buildRecord(SearchHit searchHit) {
+        SegmentRecord segmentRecord = new SegmentRecord();
+        segmentRecord.setSegmentId((String)searchHit.getSourceAsMap().get(SegmentRecord.SEGMENT_ID));
+        segmentRecord.setTraceId((String)searchHit.getSourceAsMap().get(SegmentRecord.TRACE_ID));
+        segmentRecord.setServiceId(((Number)searchHit.getSourceAsMap().get(SegmentRecord.SERVICE_ID)).intValue());
+        segmentRecord.setEndpointName((String)searchHit.getSourceAsMap().get(SegmentRecord.ENDPOINT_NAME));
+        segmentRecord.setStartTime(((Number)searchHit.getSourceAsMap().get(SegmentRecord.START_TIME)).longValue());
+        segmentRecord.setEndTime(((Number)searchHit.getSourceAsMap().get(SegmentRecord.END_TIME)).longValue());
+        segmentRecord.setLatency(((Number)searchHit.getSourceAsMap().get(SegmentRecord.LATENCY)).intValue());
+        segmentRecord.setIsError(((Number)searchHit.getSourceAsMap().get(SegmentRecord.IS_ERROR)).intValue());
+        String dataBinaryBase64 = (String)searchHit.getSourceAsMap().get(SegmentRecord.DATA_BINARY);
+        if (!Strings.isNullOrEmpty(dataBinaryBase64)) {
+            segmentRecord.setDataBinary(Base64.getDecoder().decode(dataBinaryBase64));
+        }
+        segmentRecord.setVersion(((Number)searchHit.getSourceAsMap().get(SegmentRecord.VERSION)).intValue());
+        return segmentRecord;
+    }
+
     @Override public List<Span> doFlexibleTraceQuery(String traceId) throws IOException {
         return Collections.emptyList();
     }
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.Function;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.telemetry.api.*;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.*;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.*;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class BulkWriterTest {
+
+    private static final int KB = 1024;
+
+    private final List<BulkRequest> bulks = new CopyOnWriteArrayList<>();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final List<Long> bulkBytes = new CopyOnWriteArrayList<>();
+    private ElasticSearchClient client;
+    private MetricsCreator metricsCreator;
+
+    @Before
+    public void setUp() {
+        client = mock(ElasticSearchClient.class);
+
+        metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createCounter(anyString(), anyString(), any(MetricsTag.Keys.class), any(MetricsTag.Values.class))).thenReturn(counter(new AtomicLong()));
+        when(metricsCreator.createCounter(eq("elasticsearch_bulk_failed_item_count"), anyString(), any(MetricsTag.Keys.class), any(MetricsTag.Values.class))).thenReturn(counter(failed));
+        when(metricsCreator.createCounter(eq("elasticsearch_bulk_retried_item_count"), anyString(), any(MetricsTag.Keys.class), any(MetricsTag.Values.class))).thenReturn(counter(retried));
+        when(metricsCreator.createHistogramMetric(anyString(), anyString(), any(MetricsTag.Keys.class), any(MetricsTag.Values.class))).thenReturn(new HistogramMetrics() {
+            @Override public void observe(double value) {
+            }
+        });
+        when(metricsCreator.createGauge(anyString(), anyString(), any(MetricsTag.Keys.class), any(MetricsTag.Values.class))).thenReturn(new GaugeMetrics() {
+            @Override public void inc() {
+            }
+
+            @Override public void inc(double value) {
+            }
+
+            @Override public void dec() {
+            }
+
+            @Override public void dec(double value) {
+            }
+
+            @Override public void setValue(double value) {
+                bulkBytes.add((long)value);
+            }
+        });
+    }
+
+    @Test
+    public void testSizeOf() {
+        IndexRequest index = new IndexRequest("index", "type", "1").source(new byte[1000], XContentType.JSON);
+        Assert.assertEquals(1100, BulkWriter.sizeOf(index));
+
+        UpdateRequest update = new UpdateRequest("index", "type", "1")
+            .doc(new byte[1000], XContentType.JSON)
+            .upsert(new byte[2000], XContentType.JSON);
+        Assert.assertEquals(3100, BulkWriter.sizeOf(update));
+
+        Assert.assertEquals(100, BulkWriter.sizeOf(new DeleteRequest("index", "type", "1")));
+    }
+
+    @Test
+    public void testSplitBySize() {
+        respond(request -> RestStatus.OK);
+        List<DocWriteRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            requests.add(index(i, 300 * KB));
+        }
+
+        // 3 items of 300KB fit in a bulk of 1MB, the 4th doesn't.
+        writer(1024 * KB).write(requests);
+
+        Assert.assertEquals(3, bulks.size());
+        Assert.assertEquals(requests.subList(0, 3), bulks.get(0).requests());
+        Assert.assertEquals(requests.subList(3, 6), bulks.get(1).requests());
+        Assert.assertEquals(requests.subList(6, 7), bulks.get(2).requests());
+        Assert.assertEquals(0, failed.get());
+    }
+
+    @Test
+    public void testRetryRejectedItemsOnly() {
+        AtomicInteger calls = new AtomicInteger();
+        respond(request -> {
+            if (calls.get() > 1) {
+                return RestStatus.OK;
+            }
+            switch (request.id()) {
+                case "1":
+                    return RestStatus.TOO_MANY_REQUESTS;
+                case "2":
+                    return RestStatus.SERVICE_UNAVAILABLE;
+                case "3":
+                    return RestStatus.BAD_REQUEST;
+                default:
+                    return RestStatus.OK;
+            }
+        }, calls);
+        List<DocWriteRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(index(i, KB));
+        }
+
+        writer(1024 * KB).write(requests);
+
+        Assert.assertEquals(2, bulks.size());
+        Assert.assertEquals(requests.subList(1, 3), bulks.get(1).requests());
+        Assert.assertEquals(2, retried.get());
+        // The bad request would fail again, so it is dropped at once.
+        Assert.assertEquals(1, failed.get());
+    }
+
+    @Test
+    public void testDropAfterMaxRetryTimes() {
+        respond(request -> RestStatus.TOO_MANY_REQUESTS);
+
+        writer(1024 * KB).write(Arrays.asList(index(0, KB), index(1, KB)));
+
+        // The first try and 3 retries.
+        Assert.assertEquals(4, bulks.size());
+        Assert.assertEquals(6, retried.get());
+        Assert.assertEquals(2, failed.get());
+    }
+
+    @Test
+    public void testAdaptBulkBytes() {
+        AtomicInteger calls = new AtomicInteger();
+        when(client.bulkAsync(any(BulkRequest.class))).thenAnswer(invocation -> {
+            bulks.add((BulkRequest)invocation.getArguments()[0]);
+            if (calls.incrementAndGet() <= 3) {
+                CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+                future.completeExceptionally(new IOException("Connection reset"));
+                return future;
+            }
+            return CompletableFuture.completedFuture(response(RestStatus.OK));
+        });
+        BulkWriter writer = writer(2048 * KB);
+
+        // Halved by every failed bulk, but not below 512KB, then grows by 512KB for the fast bulk.
+        writer.write(Collections.singletonList(index(0, KB)));
+        Assert.assertEquals(Arrays.asList(2048L * KB, 1024L * KB, 512L * KB, 512L * KB, 1024L * KB), bulkBytes);
+        Assert.assertEquals(0, failed.get());
+
+        // Grows up to the max bytes.
+        for (int i = 0; i < 3; i++) {
+            writer.write(Collections.singletonList(index(i, KB)));
+        }
+        Assert.assertEquals(Arrays.asList(1536L * KB, 2048L * KB, 2048L * KB), bulkBytes.subList(5, 8));
+    }
+
+    private BulkWriter writer(long maxBulkBytes) {
+        BulkWriter writer = new BulkWriter(client, maxBulkBytes, 2);
+        writer.initTelemetry(metricsCreator);
+        return writer;
+    }
+
+    private void respond(Function<DocWriteRequest, RestStatus> status) {
+        respond(status, new AtomicInteger());
+    }
+
+    /**
+     * @param calls increased before the statuses of a bulk are decided.
+     */
+    private void respond(Function<DocWriteRequest, RestStatus> status, AtomicInteger calls) {
+        when(client.bulkAsync(any(BulkRequest.class))).thenAnswer(invocation -> {
+            BulkRequest bulk = (BulkRequest)invocation.getArguments()[0];
+            bulks.add(bulk);
+            calls.incrementAndGet();
+            RestStatus[] statuses = new RestStatus[bulk.requests().size()];
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = status.apply(bulk.requests().get(i));
+            }
+            return CompletableFuture.completedFuture(response(statuses));
+        });
+    }
+
+    private static BulkResponse response(RestStatus... statuses) {
+        BulkItemResponse[] items = new BulkItemResponse[statuses.length];
+        for (int i = 0; i < statuses.length; i++) {
+            items[i] = mock(BulkItemResponse.class);
+            if (statuses[i] != RestStatus.OK) {
+                BulkItemResponse.Failure failure = mock(BulkItemResponse.Failure.class);
+                when(failure.getStatus()).thenReturn(statuses[i]);
+                when(items[i].isFailed()).thenReturn(true);
+                when(items[i].getFailure()).thenReturn(failure);
+            }
+        }
+        BulkResponse response = mock(BulkResponse.class);
+        when(response.getItems()).thenReturn(items);
+        return response;
+    }
+
+    private static IndexRequest index(int id, int sourceBytes) {
+        return new IndexRequest("index", "type", String.valueOf(id)).source(new byte[sourceBytes], XContentType.JSON);
+    }
+
+    private static CounterMetrics counter(AtomicLong count) {
+        return new CounterMetrics() {
+            @Override public void inc() {
+                count.incrementAndGet();
+            }
+
+            @Override public void inc(double value) {
+                count.addAndGet((long)value);
+            }
+        };
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
 import org.junit.*;
 
 /**
@@ -39,5 +40,15 @@ public class ElasticSearchColumnTypeMappingTestCase {
         Assert.assertEquals("double", mapping.transform(Double.class));
 
         Assert.assertEquals("keyword", mapping.transform(String.class));
+
+        Assert.assertEquals("text", mapping.transform(IntKeyLongValueHashMap.class));
+    }
+
+    @Test
+    public void testGroupMetricsBinaryEncoding() {
+        ColumnTypeEsMapping mapping = new ColumnTypeEsMapping(true);
+
+        Assert.assertEquals("binary", mapping.transform(IntKeyLongValueHashMap.class));
+        Assert.assertEquals("keyword", mapping.transform(String.class));
     }
 }
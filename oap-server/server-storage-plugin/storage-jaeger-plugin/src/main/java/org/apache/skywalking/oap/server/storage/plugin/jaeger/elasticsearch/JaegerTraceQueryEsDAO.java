@@ -149,6 +149,16 @@ public class JaegerTraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
         return Collections.emptyList();
     }
 
+    @Override
+    public List<SegmentRecord> queryByTraceId(String traceId, String afterSegmentId, int limit) throws IOException {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<SegmentRecord> queryBySegmentIds(String traceId, List<String> segmentIds) throws IOException {
+        return Collections.emptyList();
+    }
+
     @Override public List<Span> doFlexibleTraceQuery(
         String traceId) throws IOException {
         SearchSourceBuilder sourceBuilder = SearchSourceBuilder.searchSource();
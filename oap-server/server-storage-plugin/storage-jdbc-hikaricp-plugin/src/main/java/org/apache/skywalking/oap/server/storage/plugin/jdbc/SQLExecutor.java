@@ -40,14 +40,30 @@ public class SQLExecutor implements InsertRequest, UpdateRequest {
         this.param = param;
     }
 
+    public String getSql() {
+        return sql;
+    }
+
     public void invoke(Connection connection) throws SQLException {
-        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            setParameters(preparedStatement);
+
+            logger.debug("execute aql in batch: {}", sql);
+            preparedStatement.execute();
+        }
+    }
+
+    /**
+     * Add the parameters into the batch of the prepared statement, which must be prepared by the same sql.
+     */
+    public void addBatch(PreparedStatement preparedStatement) throws SQLException {
+        setParameters(preparedStatement);
+        preparedStatement.addBatch();
+    }
 
+    private void setParameters(PreparedStatement preparedStatement) throws SQLException {
         for (int i = 0; i < param.size(); i++) {
             preparedStatement.setObject(i + 1, param.get(i));
         }
-
-        logger.debug("execute aql in batch: {}", sql);
-        preparedStatement.execute();
     }
 }
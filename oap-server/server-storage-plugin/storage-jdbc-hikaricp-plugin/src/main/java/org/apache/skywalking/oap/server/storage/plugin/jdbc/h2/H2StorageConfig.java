@@ -33,4 +33,12 @@ public class H2StorageConfig extends ModuleConfig {
     private String user = "";
     private String password = "";
     private int metadataQueryMaxSize = 5000;
+    /**
+     * The max number of sql of the same statement in one JDBC batch.
+     */
+    private int maxSizeOfBatchSql = 100;
+    /**
+     * The number of threads executing the batches in parallel, each one holds a connection while executing.
+     */
+    private int batchThreads = 2;
 }
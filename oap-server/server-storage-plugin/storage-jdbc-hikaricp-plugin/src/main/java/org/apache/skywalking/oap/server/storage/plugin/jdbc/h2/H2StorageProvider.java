@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2;
 
 import java.util.Properties;
 import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.config.ConfigService;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.storage.cache.*;
 import org.apache.skywalking.oap.server.core.storage.query.*;
@@ -69,8 +70,8 @@ public class H2StorageProvider extends ModuleProvider {
         settings.setProperty("dataSource.password", config.getPassword());
         h2Client = new JDBCHikariCPClient(settings);
 
-        this.registerServiceImplementation(IBatchDAO.class, new H2BatchDAO(h2Client));
-        this.registerServiceImplementation(StorageDAO.class, new H2StorageDAO(h2Client));
+        this.registerServiceImplementation(IBatchDAO.class, new H2BatchDAO(h2Client, config.getMaxSizeOfBatchSql(), config.getBatchThreads()));
+        this.registerServiceImplementation(StorageDAO.class, new H2StorageDAO(getManager(), h2Client));
 
         lockDAO = new H2RegisterLockDAO(h2Client);
         this.registerServiceImplementation(IRegisterLockDAO.class, lockDAO);
@@ -95,7 +96,8 @@ public class H2StorageProvider extends ModuleProvider {
         try {
             h2Client.connect();
 
-            H2TableInstaller installer = new H2TableInstaller(getManager());
+            ConfigService configService = getManager().find(CoreModule.NAME).provider().getService(ConfigService.class);
+            H2TableInstaller installer = new H2TableInstaller(getManager(), configService.isGroupMetricsBinaryEncoding());
             installer.install(h2Client);
 
             new H2RegisterLockInstaller().install(h2Client, lockDAO);
@@ -18,8 +18,10 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.sql.*;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.*;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
@@ -32,6 +34,11 @@ import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
 import org.slf4j.*;
 
 /**
+ * The requests are grouped by the sql, each group is split into the chunks of at most {@link #maxSizeOfBatchSql}
+ * requests. Every chunk is executed as one JDBC batch in one transaction, and the chunks are executed in parallel over
+ * the pooled connections. If a chunk fails, it is rolled back and executed again one by one, so one failure doesn't
+ * make the rest of the chunk failure.
+ *
  * @author wusheng, peng-yongsheng
  */
 public class H2BatchDAO implements IBatchDAO {
@@ -40,9 +47,20 @@ public class H2BatchDAO implements IBatchDAO {
 
     private JDBCHikariCPClient h2Client;
     private final DataCarrier<PrepareRequest> dataCarrier;
+    private final int maxSizeOfBatchSql;
+    private final ExecutorService executorService;
 
-    public H2BatchDAO(JDBCHikariCPClient h2Client) {
+    public H2BatchDAO(JDBCHikariCPClient h2Client, int maxSizeOfBatchSql, int batchThreads) {
+        if (maxSizeOfBatchSql <= 0) {
+            throw new IllegalArgumentException("maxSizeOfBatchSql must be positive, but is " + maxSizeOfBatchSql);
+        }
+        if (batchThreads <= 0) {
+            throw new IllegalArgumentException("batchThreads must be positive, but is " + batchThreads);
+        }
         this.h2Client = h2Client;
+        this.maxSizeOfBatchSql = maxSizeOfBatchSql;
+        this.executorService = Executors.newFixedThreadPool(batchThreads,
+            new ThreadFactoryBuilder().setNameFormat("jdbc-batch-%d").setDaemon(true).build());
 
         String name = "H2_ASYNCHRONOUS_BATCH_PERSISTENT";
         BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, 1, 20);
@@ -65,13 +83,54 @@ public class H2BatchDAO implements IBatchDAO {
             logger.debug("batch sql statements execute, data size: {}", prepareRequests.size());
         }
 
-        try (Connection connection = h2Client.getConnection()) {
-            for (PrepareRequest prepareRequest : prepareRequests) {
+        Map<String, List<SQLExecutor>> groups = new LinkedHashMap<>();
+        for (PrepareRequest prepareRequest : prepareRequests) {
+            SQLExecutor sqlExecutor = (SQLExecutor)prepareRequest;
+            groups.computeIfAbsent(sqlExecutor.getSql(), sql -> new ArrayList<>()).add(sqlExecutor);
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        groups.forEach((sql, sqlExecutors) -> {
+            for (int from = 0; from < sqlExecutors.size(); from += maxSizeOfBatchSql) {
+                List<SQLExecutor> chunk = sqlExecutors.subList(from, Math.min(from + maxSizeOfBatchSql, sqlExecutors.size()));
+                futures.add(executorService.submit(() -> executeChunk(sql, chunk)));
+            }
+        });
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error(e.getMessage(), e);
+                return;
+            } catch (ExecutionException e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    private void executeChunk(String sql, List<SQLExecutor> chunk) {
+        try (Connection connection = h2Client.getTransactionConnection()) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                for (SQLExecutor sqlExecutor : chunk) {
+                    sqlExecutor.addBatch(preparedStatement);
+                }
+                preparedStatement.executeBatch();
+                connection.commit();
+                return;
+            } catch (SQLException e) {
+                connection.rollback();
+                logger.warn("Batch of {} sql failure, execute them one by one. {}", chunk.size(), e.getMessage());
+            }
+
+            for (SQLExecutor sqlExecutor : chunk) {
                 try {
-                    SQLExecutor sqlExecutor = (SQLExecutor)prepareRequest;
                     sqlExecutor.invoke(connection);
+                    connection.commit();
                 } catch (SQLException e) {
                     // Just avoid one execution failure makes the rest of batch failure.
+                    connection.rollback();
                     logger.error(e.getMessage(), e);
                 }
             }
@@ -19,6 +19,8 @@
 package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
 import java.io.IOException;
+import java.sql.*;
+import java.util.*;
 import org.apache.skywalking.oap.server.core.register.EndpointInventory;
 import org.apache.skywalking.oap.server.core.storage.cache.IEndpointInventoryCacheDAO;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
@@ -48,4 +50,33 @@ public class H2EndpointInventoryCacheDAO extends H2SQLExecutor implements IEndpo
             return null;
         }
     }
+
+    @Override public List<EndpointInventory> loadAfter(int sequence, int size) {
+        List<EndpointInventory> inventories = new ArrayList<>();
+
+        try {
+            StringBuilder sql = new StringBuilder("select * from ");
+            sql.append(EndpointInventory.INDEX_NAME);
+            sql.append(" where ").append(EndpointInventory.SEQUENCE).append(">? ");
+            sql.append(" order by ").append(EndpointInventory.SEQUENCE).append(" limit ").append(size);
+
+            try (Connection connection = h2Client.getConnection()) {
+                try (ResultSet resultSet = h2Client.executeQuery(connection, sql.toString(), sequence)) {
+                    EndpointInventory inventory;
+                    do {
+                        inventory = (EndpointInventory)toStorageData(resultSet, EndpointInventory.INDEX_NAME, new EndpointInventory.Builder());
+                        if (inventory != null) {
+                            inventories.add(inventory);
+                        }
+                    }
+                    while (inventory != null);
+                }
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+        return inventories;
+    }
 }
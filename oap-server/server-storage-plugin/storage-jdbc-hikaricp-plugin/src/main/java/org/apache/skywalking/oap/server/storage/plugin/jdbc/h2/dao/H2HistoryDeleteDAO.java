@@ -50,21 +50,31 @@ public class H2HistoryDeleteDAO implements IHistoryDeleteDAO {
 
     @Override
     public void deleteHistory(Model model, String timeBucketColumnName) throws IOException {
-        ConfigService configService = moduleDefineHolder.find(CoreModule.NAME).provider().getService(ConfigService.class);
-
         SQLBuilder dataDeleteSQL = new SQLBuilder("delete from " + model.getName() + " where ").append(timeBucketColumnName).append("<= ?");
 
         try (Connection connection = client.getConnection()) {
-            TTLCalculator ttlCalculator;
-            if (model.isRecord()) {
-                ttlCalculator = storageTTL.recordCalculator();
-            } else {
-                ttlCalculator = storageTTL.metricsCalculator(model.getDownsampling());
-            }
-            long timeBefore = ttlCalculator.timeBefore(new DateTime(), configService.getDataTTLConfig());
-            client.execute(connection, dataDeleteSQL.toString(), timeBefore);
+            client.execute(connection, dataDeleteSQL.toString(), timeBefore(model));
         } catch (JDBCClientException | SQLException e) {
             throw new IOException(e.getMessage(), e);
         }
     }
+
+    /**
+     * @return the time bucket, the data of which and before are expired.
+     */
+    protected long timeBefore(Model model) {
+        ConfigService configService = moduleDefineHolder.find(CoreModule.NAME).provider().getService(ConfigService.class);
+
+        TTLCalculator ttlCalculator;
+        if (model.isRecord()) {
+            ttlCalculator = storageTTL.recordCalculator();
+        } else {
+            ttlCalculator = storageTTL.metricsCalculator(model.getDownsampling());
+        }
+        return ttlCalculator.timeBefore(new DateTime(), configService.getDataTTLConfig());
+    }
+
+    protected JDBCHikariCPClient getClient() {
+        return client;
+    }
 }
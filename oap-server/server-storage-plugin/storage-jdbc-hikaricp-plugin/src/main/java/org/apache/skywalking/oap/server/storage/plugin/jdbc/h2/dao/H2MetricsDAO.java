@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
@@ -33,10 +34,13 @@ public class H2MetricsDAO extends H2SQLExecutor implements IMetricsDAO {
 
     private JDBCHikariCPClient h2Client;
     private StorageBuilder<Metrics> storageBuilder;
+    private final boolean groupMetricsBinaryEncoding;
 
-    public H2MetricsDAO(JDBCHikariCPClient h2Client, StorageBuilder<Metrics> storageBuilder) {
+    public H2MetricsDAO(JDBCHikariCPClient h2Client, StorageBuilder<Metrics> storageBuilder,
+        boolean groupMetricsBinaryEncoding) {
         this.h2Client = h2Client;
         this.storageBuilder = storageBuilder;
+        this.groupMetricsBinaryEncoding = groupMetricsBinaryEncoding;
     }
 
     @Override public List<Metrics> multiGet(Model model, List<String> ids) throws IOException {
@@ -48,11 +52,24 @@ public class H2MetricsDAO extends H2SQLExecutor implements IMetricsDAO {
         return result;
     }
 
+    /**
+     * JDBC doesn't support asynchronous read, query in the caller thread.
+     */
+    @Override public CompletableFuture<List<Metrics>> multiGetAsync(Model model, List<String> ids) {
+        CompletableFuture<List<Metrics>> future = new CompletableFuture<>();
+        try {
+            future.complete(multiGet(model, ids));
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+        return future;
+    }
+
     @Override public SQLExecutor prepareBatchInsert(Model model, Metrics metrics) throws IOException {
-        return getInsertExecutor(model.getName(), metrics, storageBuilder);
+        return getInsertExecutor(model.getName(), metrics, storageBuilder, groupMetricsBinaryEncoding);
     }
 
     @Override public SQLExecutor prepareBatchUpdate(Model model, Metrics metrics) throws IOException {
-        return getUpdateExecutor(model.getName(), metrics, storageBuilder);
+        return getUpdateExecutor(model.getName(), metrics, storageBuilder, groupMetricsBinaryEncoding);
     }
 }
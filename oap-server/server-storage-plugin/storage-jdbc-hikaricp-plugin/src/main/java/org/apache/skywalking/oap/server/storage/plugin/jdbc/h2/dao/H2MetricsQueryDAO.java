@@ -177,17 +177,12 @@ public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO
                     axisYStep = resultSet.getInt("step");
                     String id = resultSet.getString("id");
                     numOfSteps = resultSet.getInt("num_of_steps") + 1;
-                    String value = resultSet.getString("detail_group");
-                    IntKeyLongValueHashMap intKeyLongValues = new IntKeyLongValueHashMap(5);
-                    intKeyLongValues.toObject(value);
+                    long[] values = new long[numOfSteps];
+                    IntKeyLongValueHashMap.decode(getObject(resultSet, "detail_group"), (key, keyValue) -> values[key] = keyValue);
 
-                    List<Long> axisYValues = new ArrayList<>();
-                    for (int i = 0; i < numOfSteps; i++) {
-                        axisYValues.add(0L);
-                    }
-
-                    for (IntKeyLongValue intKeyLongValue : intKeyLongValues.values()) {
-                        axisYValues.set(intKeyLongValue.getKey(), intKeyLongValue.getValue());
+                    List<Long> axisYValues = new ArrayList<>(numOfSteps);
+                    for (long axisYValue : values) {
+                        axisYValues.add(axisYValue);
                     }
 
                     thermodynamicValueMatrix.put(id, axisYValues);
@@ -20,10 +20,12 @@ package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
 import java.io.IOException;
 import java.sql.*;
+import java.util.*;
 import org.apache.skywalking.oap.server.core.register.RegisterSource;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
 import org.slf4j.*;
 
 /**
@@ -60,4 +62,21 @@ public class H2RegisterDAO extends H2SQLExecutor implements IRegisterDAO {
             throw new IOException(e.getMessage(), e);
         }
     }
+
+    @Override public List<RegisterSource> multiGet(String modelName, List<String> ids) throws IOException {
+        List<StorageData> storageDataList = getByIDs(h2Client, modelName, ids.toArray(new String[0]), storageBuilder);
+        List<RegisterSource> result = new ArrayList<>(storageDataList.size());
+        for (StorageData storageData : storageDataList) {
+            result.add((RegisterSource)storageData);
+        }
+        return result;
+    }
+
+    @Override public SQLExecutor prepareBatchInsert(String modelName, RegisterSource source) throws IOException {
+        return getInsertExecutor(modelName, source, storageBuilder);
+    }
+
+    @Override public SQLExecutor prepareBatchUpdate(String modelName, RegisterSource source) throws IOException {
+        return getUpdateExecutor(modelName, source, storageBuilder);
+    }
 }
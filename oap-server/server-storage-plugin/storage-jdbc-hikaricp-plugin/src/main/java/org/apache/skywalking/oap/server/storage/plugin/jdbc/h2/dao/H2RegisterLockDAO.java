@@ -42,14 +42,17 @@ public class H2RegisterLockDAO implements IRegisterLockDAO {
     }
 
     @Override public int getId(int scopeId, RegisterSource registerSource) {
+        return getIdBlock(scopeId, 1);
+    }
+
+    @Override public int getIdBlock(int scopeId, int size) {
         try (Connection connection = h2Client.getTransactionConnection()) {
             ResultSet resultSet = h2Client.executeQuery(connection, "select sequence from " + H2RegisterLockInstaller.LOCK_TABLE_NAME + " where id = " + scopeId + " for update");
             while (resultSet.next()) {
                 int sequence = resultSet.getInt("sequence");
-                sequence++;
-                h2Client.execute(connection, "update " + H2RegisterLockInstaller.LOCK_TABLE_NAME + " set sequence = " + sequence + " where id = " + scopeId);
+                h2Client.execute(connection, "update " + H2RegisterLockInstaller.LOCK_TABLE_NAME + " set sequence = " + (sequence + size) + " where id = " + scopeId);
                 connection.commit();
-                return sequence;
+                return sequence + 1;
             }
         } catch (JDBCClientException | SQLException e) {
             logger.error("try inventory register lock for scope id={} name={} failure.", scopeId, scopeId);
@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.sql.*;
 import java.util.*;
 import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
 import org.apache.skywalking.oap.server.core.register.ServiceInstanceInventory;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
@@ -93,13 +94,25 @@ public class H2SQLExecutor {
             Map data = new HashMap();
             List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
             for (ModelColumn column : columns) {
-                data.put(column.getColumnName().getName(), rs.getObject(column.getColumnName().getStorageName()));
+                data.put(column.getColumnName().getName(), getObject(rs, column.getColumnName().getStorageName()));
             }
             return storageBuilder.map2Data(data);
         }
         return null;
     }
 
+    /**
+     * @return the column value, the bytes rather than the {@link Blob} of the binary columns.
+     */
+    protected static Object getObject(ResultSet rs, String columnName) throws SQLException {
+        Object value = rs.getObject(columnName);
+        if (value instanceof Blob) {
+            Blob blob = (Blob)value;
+            return blob.getBytes(1, (int)blob.length());
+        }
+        return value;
+    }
+
     protected int getEntityIDByID(JDBCHikariCPClient h2Client, String entityColumnName, String modelName, String id) {
         try (Connection connection = h2Client.getConnection()) {
             try (ResultSet rs = h2Client.executeQuery(connection, "SELECT " + entityColumnName + " FROM " + modelName + " WHERE ID=?", id)) {
@@ -114,6 +127,15 @@ public class H2SQLExecutor {
     }
 
     protected SQLExecutor getInsertExecutor(String modelName, StorageData metrics, StorageBuilder storageBuilder) throws IOException {
+        return getInsertExecutor(modelName, metrics, storageBuilder, false);
+    }
+
+    /**
+     * @param groupMetricsBinaryEncoding write the {@link IntKeyLongValueHashMap} in the binary encoding, into the
+     * binary column.
+     */
+    protected SQLExecutor getInsertExecutor(String modelName, StorageData metrics, StorageBuilder storageBuilder,
+        boolean groupMetricsBinaryEncoding) throws IOException {
         Map<String, Object> objectMap = storageBuilder.data2Map(metrics);
 
         SQLBuilder sqlBuilder = new SQLBuilder("INSERT INTO " + modelName + " VALUES");
@@ -129,7 +151,9 @@ public class H2SQLExecutor {
             }
 
             Object value = objectMap.get(column.getColumnName().getName());
-            if (value instanceof StorageDataType) {
+            if (groupMetricsBinaryEncoding && value instanceof IntKeyLongValueHashMap) {
+                param.add(((IntKeyLongValueHashMap)value).toBytes());
+            } else if (value instanceof StorageDataType) {
                 param.add(((StorageDataType)value).toStorageData());
             } else {
                 param.add(value);
@@ -141,6 +165,15 @@ public class H2SQLExecutor {
     }
 
     protected SQLExecutor getUpdateExecutor(String modelName, StorageData metrics, StorageBuilder storageBuilder) throws IOException {
+        return getUpdateExecutor(modelName, metrics, storageBuilder, false);
+    }
+
+    /**
+     * @param groupMetricsBinaryEncoding write the {@link IntKeyLongValueHashMap} in the binary encoding, into the
+     * binary column.
+     */
+    protected SQLExecutor getUpdateExecutor(String modelName, StorageData metrics, StorageBuilder storageBuilder,
+        boolean groupMetricsBinaryEncoding) throws IOException {
         Map<String, Object> objectMap = storageBuilder.data2Map(metrics);
 
         SQLBuilder sqlBuilder = new SQLBuilder("UPDATE " + modelName + " SET ");
@@ -154,7 +187,9 @@ public class H2SQLExecutor {
             }
 
             Object value = objectMap.get(column.getColumnName().getName());
-            if (value instanceof StorageDataType) {
+            if (groupMetricsBinaryEncoding && value instanceof IntKeyLongValueHashMap) {
+                param.add(((IntKeyLongValueHashMap)value).toBytes());
+            } else if (value instanceof StorageDataType) {
                 param.add(((StorageDataType)value).toStorageData());
             } else {
                 param.add(value);
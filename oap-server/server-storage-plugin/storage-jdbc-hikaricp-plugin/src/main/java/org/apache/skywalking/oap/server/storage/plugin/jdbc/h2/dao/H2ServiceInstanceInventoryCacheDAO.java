@@ -19,6 +19,8 @@
 package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
 import java.io.IOException;
+import java.sql.*;
+import java.util.*;
 import org.apache.skywalking.oap.server.core.register.ServiceInstanceInventory;
 import org.apache.skywalking.oap.server.core.storage.cache.IServiceInstanceInventoryCacheDAO;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
@@ -58,4 +60,33 @@ public class H2ServiceInstanceInventoryCacheDAO extends H2SQLExecutor implements
     private int getByID(String id) {
         return getEntityIDByID(h2Client, ServiceInstanceInventory.SEQUENCE, ServiceInstanceInventory.INDEX_NAME, id);
     }
+
+    @Override public List<ServiceInstanceInventory> loadAfter(int sequence, int size) {
+        List<ServiceInstanceInventory> inventories = new ArrayList<>();
+
+        try {
+            StringBuilder sql = new StringBuilder("select * from ");
+            sql.append(ServiceInstanceInventory.INDEX_NAME);
+            sql.append(" where ").append(ServiceInstanceInventory.SEQUENCE).append(">? ");
+            sql.append(" order by ").append(ServiceInstanceInventory.SEQUENCE).append(" limit ").append(size);
+
+            try (Connection connection = h2Client.getConnection()) {
+                try (ResultSet resultSet = h2Client.executeQuery(connection, sql.toString(), sequence)) {
+                    ServiceInstanceInventory inventory;
+                    do {
+                        inventory = (ServiceInstanceInventory)toStorageData(resultSet, ServiceInstanceInventory.INDEX_NAME, new ServiceInstanceInventory.Builder());
+                        if (inventory != null) {
+                            inventories.add(inventory);
+                        }
+                    }
+                    while (inventory != null);
+                }
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+        return inventories;
+    }
 }
@@ -85,4 +85,33 @@ public class H2ServiceInventoryCacheDAO extends H2SQLExecutor implements IServic
         }
         return serviceInventories;
     }
+
+    @Override public List<ServiceInventory> loadAfter(int sequence, int size) {
+        List<ServiceInventory> inventories = new ArrayList<>();
+
+        try {
+            StringBuilder sql = new StringBuilder("select * from ");
+            sql.append(ServiceInventory.INDEX_NAME);
+            sql.append(" where ").append(ServiceInventory.SEQUENCE).append(">? ");
+            sql.append(" order by ").append(ServiceInventory.SEQUENCE).append(" limit ").append(size);
+
+            try (Connection connection = h2Client.getConnection()) {
+                try (ResultSet resultSet = h2Client.executeQuery(connection, sql.toString(), sequence)) {
+                    ServiceInventory inventory;
+                    do {
+                        inventory = (ServiceInventory)toStorageData(resultSet, ServiceInventory.INDEX_NAME, new ServiceInventory.Builder());
+                        if (inventory != null) {
+                            inventories.add(inventory);
+                        }
+                    }
+                    while (inventory != null);
+                }
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+        return inventories;
+    }
 }
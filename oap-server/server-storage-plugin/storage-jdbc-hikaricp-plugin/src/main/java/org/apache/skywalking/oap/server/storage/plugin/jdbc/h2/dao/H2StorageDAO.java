@@ -18,25 +18,34 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
+import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.analysis.record.Record;
 import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.core.config.ConfigService;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 
 /**
  * @author wusheng, peng-yongsheng
  */
 public class H2StorageDAO implements StorageDAO {
 
+    private final ModuleDefineHolder moduleDefineHolder;
     private JDBCHikariCPClient h2Client;
 
-    public H2StorageDAO(JDBCHikariCPClient h2Client) {
+    public H2StorageDAO(ModuleDefineHolder moduleDefineHolder, JDBCHikariCPClient h2Client) {
+        this.moduleDefineHolder = moduleDefineHolder;
         this.h2Client = h2Client;
     }
 
+    /**
+     * Called when the core module starts the streams, its config service is ready.
+     */
     @Override public IMetricsDAO newMetricsDao(StorageBuilder<Metrics> storageBuilder) {
-        return new H2MetricsDAO(h2Client, storageBuilder);
+        ConfigService configService = moduleDefineHolder.find(CoreModule.NAME).provider().getService(ConfigService.class);
+        return new H2MetricsDAO(h2Client, storageBuilder, configService.isGroupMetricsBinaryEncoding());
     }
 
     @Override public IRegisterDAO newRegisterDao(StorageBuilder<RegisterSource> storageBuilder) {
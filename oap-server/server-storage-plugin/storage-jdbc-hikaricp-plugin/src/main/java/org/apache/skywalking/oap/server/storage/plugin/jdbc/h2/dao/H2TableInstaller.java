@@ -22,6 +22,7 @@ import java.sql.*;
 
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
+import org.apache.skywalking.oap.server.core.analysis.metrics.QuantileSketch;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
 import org.apache.skywalking.oap.server.core.storage.StorageException;
 import org.apache.skywalking.oap.server.core.storage.model.*;
@@ -35,8 +36,19 @@ import org.slf4j.*;
 public class H2TableInstaller extends ModelInstaller {
     private static final Logger logger = LoggerFactory.getLogger(H2TableInstaller.class);
 
-    public H2TableInstaller(ModuleManager moduleManager) {
+    private final boolean groupMetricsBinaryEncoding;
+
+    /**
+     * @param groupMetricsBinaryEncoding save the {@link IntKeyLongValueHashMap} in the binary columns, for the bytes of
+     * {@link IntKeyLongValueHashMap#toBytes()}.
+     */
+    public H2TableInstaller(ModuleManager moduleManager, boolean groupMetricsBinaryEncoding) {
         super(moduleManager);
+        this.groupMetricsBinaryEncoding = groupMetricsBinaryEncoding;
+    }
+
+    protected boolean isGroupMetricsBinaryEncoding() {
+        return groupMetricsBinaryEncoding;
     }
 
     @Override protected boolean isExists(Client client, Model model) throws StorageException {
@@ -59,13 +71,13 @@ public class H2TableInstaller extends ModelInstaller {
     @Override protected void createTable(Client client, Model model) throws StorageException {
         JDBCHikariCPClient h2Client = (JDBCHikariCPClient)client;
         SQLBuilder tableCreateSQL = new SQLBuilder("CREATE TABLE IF NOT EXISTS " + model.getName() + " (");
-        tableCreateSQL.appendLine("id VARCHAR(300) PRIMARY KEY, ");
-        for (int i = 0; i < model.getColumns().size(); i++) {
-            ModelColumn column = model.getColumns().get(i);
+        tableCreateSQL.appendLine("id VARCHAR(300) NOT NULL, ");
+        for (ModelColumn column : model.getColumns()) {
             ColumnName name = column.getColumnName();
-            tableCreateSQL.appendLine(name.getStorageName() + " " + getColumnType(model, name, column.getType()) + (i != model.getColumns().size() - 1 ? "," : ""));
+            tableCreateSQL.appendLine(name.getStorageName() + " " + getColumnType(model, name, column.getType()) + ",");
         }
-        tableCreateSQL.appendLine(")");
+        tableCreateSQL.appendLine("PRIMARY KEY (" + getPrimaryKey(model) + ")");
+        tableCreateSQL.appendLine(")" + getTableOptions(model));
 
         if (logger.isDebugEnabled()) {
             logger.debug("creating table: " + tableCreateSQL.toStringInNewLine());
@@ -81,6 +93,20 @@ public class H2TableInstaller extends ModelInstaller {
 
     }
 
+    /**
+     * @return the columns of the primary key, separated by comma.
+     */
+    protected String getPrimaryKey(Model model) {
+        return "id";
+    }
+
+    /**
+     * @return the options after the column definitions of the create table statement.
+     */
+    protected String getTableOptions(Model model) {
+        return "";
+    }
+
     protected String getColumnType(Model model, ColumnName name, Class<?> type) {
         if (Integer.class.equals(type) || int.class.equals(type)) {
             return "INT";
@@ -91,6 +117,8 @@ public class H2TableInstaller extends ModelInstaller {
         } else if (String.class.equals(type)) {
             return "VARCHAR(2000)";
         } else if (IntKeyLongValueHashMap.class.equals(type)) {
+            return groupMetricsBinaryEncoding ? "BLOB" : "VARCHAR(20000)";
+        } else if (QuantileSketch.class.equals(type)) {
             return "VARCHAR(20000)";
         } else if (byte[].class.equals(type)) {
             if (DefaultScopeDefine.SEGMENT == model.getScopeId()) {
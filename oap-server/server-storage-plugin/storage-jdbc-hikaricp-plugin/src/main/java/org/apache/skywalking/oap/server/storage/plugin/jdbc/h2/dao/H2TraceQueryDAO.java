@@ -142,10 +142,46 @@ public class H2TraceQueryDAO implements ITraceQueryDAO {
     }
 
     @Override public List<SegmentRecord> queryByTraceId(String traceId) throws IOException {
+        return querySegments("select * from " + SegmentRecord.INDEX_NAME + " where " + SegmentRecord.TRACE_ID + " = ?", traceId);
+    }
+
+    @Override
+    public List<SegmentRecord> queryByTraceId(String traceId, String afterSegmentId, int limit) throws IOException {
+        StringBuilder sql = new StringBuilder();
+        List<Object> parameters = new ArrayList<>(2);
+        sql.append("select * from ").append(SegmentRecord.INDEX_NAME).append(" where ").append(SegmentRecord.TRACE_ID).append(" = ?");
+        parameters.add(traceId);
+        if (afterSegmentId != null) {
+            sql.append(" and ").append(SegmentRecord.SEGMENT_ID).append(" > ?");
+            parameters.add(afterSegmentId);
+        }
+        sql.append(" order by ").append(SegmentRecord.SEGMENT_ID);
+        buildLimit(sql, 0, limit);
+
+        return querySegments(sql.toString(), parameters.toArray(new Object[0]));
+    }
+
+    @Override
+    public List<SegmentRecord> queryBySegmentIds(String traceId, List<String> segmentIds) throws IOException {
+        StringBuilder sql = new StringBuilder();
+        List<Object> parameters = new ArrayList<>(segmentIds.size() + 1);
+        sql.append("select * from ").append(SegmentRecord.INDEX_NAME).append(" where ").append(SegmentRecord.TRACE_ID).append(" = ?");
+        parameters.add(traceId);
+        sql.append(" and ").append(SegmentRecord.SEGMENT_ID).append(" in (");
+        for (int i = 0; i < segmentIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            parameters.add(segmentIds.get(i));
+        }
+        sql.append(")");
+
+        return querySegments(sql.toString(), parameters.toArray(new Object[0]));
+    }
+
+    private List<SegmentRecord> querySegments(String sql, Object... parameters) throws IOException {
         List<SegmentRecord> segmentRecords = new ArrayList<>();
         try (Connection connection = h2Client.getConnection()) {
 
-            try (ResultSet resultSet = h2Client.executeQuery(connection, "select * from " + SegmentRecord.INDEX_NAME + " where " + SegmentRecord.TRACE_ID + " = ?", traceId)) {
+            try (ResultSet resultSet = h2Client.executeQuery(connection, sql, parameters)) {
                 while (resultSet.next()) {
                     SegmentRecord segmentRecord = new SegmentRecord();
                     segmentRecord.setSegmentId(resultSet.getString(SegmentRecord.SEGMENT_ID));
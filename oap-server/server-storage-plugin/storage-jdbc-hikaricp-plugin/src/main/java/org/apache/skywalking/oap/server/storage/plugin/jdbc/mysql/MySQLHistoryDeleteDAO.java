@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.ttl.StorageTTL;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.H2HistoryDeleteDAO;
+import org.joda.time.DateTime;
+import org.slf4j.*;
+
+/**
+ * Drop the expired partitions of the partitioned tables, which frees the space at once without scanning and locking the
+ * rows, and create the partitions of the upcoming days or months by splitting the last one. The tables created without
+ * partitions, such as the ones created before the partition being enabled, still delete the rows.
+ */
+public class MySQLHistoryDeleteDAO extends H2HistoryDeleteDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(MySQLHistoryDeleteDAO.class);
+
+    private final boolean enablePartition;
+
+    public MySQLHistoryDeleteDAO(ModuleDefineHolder moduleDefineHolder, JDBCHikariCPClient client,
+        StorageTTL storageTTL, boolean enablePartition) {
+        super(moduleDefineHolder, client, storageTTL);
+        this.enablePartition = enablePartition;
+    }
+
+    @Override
+    public void deleteHistory(Model model, String timeBucketColumnName) throws IOException {
+        if (!enablePartition || !MySQLPartitions.isPartitioned(model)) {
+            super.deleteHistory(model, timeBucketColumnName);
+            return;
+        }
+
+        JDBCHikariCPClient client = getClient();
+        Map<String, Long> partitions;
+        try (Connection connection = client.getConnection()) {
+            partitions = queryPartitions(client, connection, model);
+            if (partitions != null) {
+                createUpcomingPartitions(client, connection, model, partitions);
+                dropExpiredPartitions(client, connection, model, partitions);
+            }
+        } catch (JDBCClientException | SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+
+        if (partitions == null) {
+            super.deleteHistory(model, timeBucketColumnName);
+        }
+    }
+
+    /**
+     * @return the upper bounds of the partitions by the names, except the last one, null if the table isn't
+     * partitioned.
+     */
+    private Map<String, Long> queryPartitions(JDBCHikariCPClient client, Connection connection,
+        Model model) throws JDBCClientException, SQLException {
+        Map<String, Long> partitions = new LinkedHashMap<>();
+        try (ResultSet resultSet = client.executeQuery(connection, "select PARTITION_NAME, PARTITION_DESCRIPTION from information_schema.PARTITIONS where TABLE_SCHEMA = DATABASE() and TABLE_NAME = ? order by PARTITION_ORDINAL_POSITION", model.getName())) {
+            while (resultSet.next()) {
+                String name = resultSet.getString(1);
+                if (name == null) {
+                    // The only row of the table without partitions.
+                    return null;
+                }
+                if (!MySQLPartitions.MAX_PARTITION.equals(name)) {
+                    partitions.put(name, Long.parseLong(resultSet.getString(2)));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private void createUpcomingPartitions(JDBCHikariCPClient client, Connection connection, Model model,
+        Map<String, Long> partitions) throws JDBCClientException {
+        long maxBound = partitions.isEmpty() ? Long.MIN_VALUE : Collections.max(partitions.values());
+
+        List<String> definitions = new ArrayList<>();
+        for (long unit : MySQLPartitions.upcoming(model, new DateTime())) {
+            if (MySQLPartitions.upperBound(model, unit) > maxBound) {
+                definitions.add(MySQLPartitions.definition(model, unit));
+            }
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+        definitions.add(MySQLPartitions.maxDefinition());
+
+        SQLBuilder sql = new SQLBuilder("alter table " + model.getName() + " reorganize partition " + MySQLPartitions.MAX_PARTITION + " into (");
+        sql.append(String.join(", ", definitions)).append(")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("create partitions of table {}, sql: {}", model.getName(), sql.toString());
+        }
+        client.execute(connection, sql.toString());
+    }
+
+    private void dropExpiredPartitions(JDBCHikariCPClient client, Connection connection, Model model,
+        Map<String, Long> partitions) throws JDBCClientException {
+        long timeBefore = timeBefore(model);
+
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, Long> partition : partitions.entrySet()) {
+            if (MySQLPartitions.isExpired(partition.getValue(), timeBefore)) {
+                expired.add(partition.getKey());
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        String sql = "alter table " + model.getName() + " drop partition " + String.join(", ", expired);
+        if (logger.isDebugEnabled()) {
+            logger.debug("drop partitions of table {}, sql: {}", model.getName(), sql);
+        }
+        client.execute(connection, sql);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.joda.time.DateTime;
+import org.joda.time.format.*;
+
+/**
+ * The range partitions of the time series tables by the time bucket, daily for the records and the minute metrics, and
+ * monthly for the hour, day and month metrics. A partition is named by its day or month, such as p20190821 or p201908,
+ * and the last partition {@link #MAX_PARTITION} holds the time buckets beyond them.
+ *
+ * The upper bound of a partition is the first day or month after it, padded by zeros to the digits of the time bucket,
+ * which is less than every time bucket of that day or month, and greater than all of the partition.
+ */
+class MySQLPartitions {
+
+    static final String MAX_PARTITION = "pmax";
+
+    /**
+     * The number of the days or months created ahead of now.
+     */
+    private static final int AHEAD = 3;
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormat.forPattern("yyyyMMdd");
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormat.forPattern("yyyyMM");
+
+    static boolean isPartitioned(Model model) {
+        return model.isDeleteHistory() && model.getDownsampling() != Downsampling.None;
+    }
+
+    static String partitionColumn() {
+        return Metrics.TIME_BUCKET;
+    }
+
+    /**
+     * @return the partition clause of the create table statement, from today or this month to {@link #AHEAD} ones.
+     */
+    static String partitionClause(Model model, DateTime now) {
+        StringBuilder clause = new StringBuilder(" PARTITION BY RANGE (").append(partitionColumn()).append(") (");
+        for (long unit : upcoming(model, now)) {
+            clause.append(definition(model, unit)).append(", ");
+        }
+        clause.append(maxDefinition()).append(")");
+        return clause.toString();
+    }
+
+    /**
+     * @return the days or months from now to {@link #AHEAD} ones, in the format of the partition names.
+     */
+    static List<Long> upcoming(Model model, DateTime now) {
+        List<Long> units = new ArrayList<>(AHEAD + 1);
+        for (int i = 0; i <= AHEAD; i++) {
+            if (isDaily(model)) {
+                units.add(Long.valueOf(now.plusDays(i).toString(DAY_FORMATTER)));
+            } else {
+                units.add(Long.valueOf(now.plusMonths(i).toString(MONTH_FORMATTER)));
+            }
+        }
+        return units;
+    }
+
+    static String name(long unit) {
+        return "p" + unit;
+    }
+
+    static String definition(Model model, long unit) {
+        return "PARTITION " + name(unit) + " VALUES LESS THAN (" + upperBound(model, unit) + ")";
+    }
+
+    static String maxDefinition() {
+        return "PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE";
+    }
+
+    /**
+     * @return the exclusive upper bound of the time buckets in the partition.
+     */
+    static long upperBound(Model model, long unit) {
+        long next;
+        if (isDaily(model)) {
+            next = Long.valueOf(DAY_FORMATTER.parseDateTime(String.valueOf(unit)).plusDays(1).toString(DAY_FORMATTER));
+        } else {
+            next = Long.valueOf(MONTH_FORMATTER.parseDateTime(String.valueOf(unit)).plusMonths(1).toString(MONTH_FORMATTER));
+        }
+        return next * padding(model);
+    }
+
+    /**
+     * The upper bound is the first time bucket of the next day or month, so the partition is dropped once that time
+     * bucket is expired, one time bucket later than the last one of the partition.
+     *
+     * @param timeBefore the time bucket, the data of which and before are expired.
+     */
+    static boolean isExpired(long upperBound, long timeBefore) {
+        return upperBound <= timeBefore;
+    }
+
+    private static boolean isDaily(Model model) {
+        return model.getDownsampling() == Downsampling.Second || model.getDownsampling() == Downsampling.Minute;
+    }
+
+    /**
+     * @return the multiplier from the day or month to the digits of the time bucket.
+     */
+    private static long padding(Model model) {
+        switch (model.getDownsampling()) {
+            case Second:
+                return 1000000L;
+            case Minute:
+                return 10000L;
+            case Hour:
+                return 10000L;
+            case Day:
+                return 100L;
+            default:
+                return 1L;
+        }
+    }
+}
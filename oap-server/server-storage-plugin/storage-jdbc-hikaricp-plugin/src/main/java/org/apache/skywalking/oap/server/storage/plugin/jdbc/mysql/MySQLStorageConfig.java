@@ -33,5 +33,18 @@ import java.util.Properties;
 public final class MySQLStorageConfig extends ModuleConfig {
     
     private int metadataQueryMaxSize = 5000;
+    /**
+     * The max number of sql of the same statement in one JDBC batch.
+     */
+    private int maxSizeOfBatchSql = 100;
+    /**
+     * The number of threads executing the batches in parallel, each one holds a connection while executing.
+     */
+    private int batchThreads = 4;
+    /**
+     * Partition the tables of the records and metrics by the time bucket, then the expired data are dropped by the
+     * partitions rather than deleted by the rows. Only the tables created after enabling it are partitioned.
+     */
+    private boolean enablePartition = false;
     private Properties properties;
 }
@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
 import java.sql.*;
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
+import org.apache.skywalking.oap.server.core.analysis.metrics.QuantileSketch;
 import org.apache.skywalking.oap.server.core.register.RegisterSource;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
 import org.apache.skywalking.oap.server.core.storage.StorageException;
@@ -31,6 +32,7 @@ import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariC
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.H2TableInstaller;
+import org.joda.time.DateTime;
 import org.slf4j.*;
 
 import static org.apache.skywalking.oap.server.core.source.DefaultScopeDefine.*;
@@ -44,8 +46,12 @@ public class MySQLTableInstaller extends H2TableInstaller {
 
     private static final Logger logger = LoggerFactory.getLogger(MySQLTableInstaller.class);
 
-    public MySQLTableInstaller(ModuleManager moduleManager) {
-        super(moduleManager);
+    private final boolean enablePartition;
+
+    public MySQLTableInstaller(ModuleManager moduleManager, boolean enablePartition,
+        boolean groupMetricsBinaryEncoding) {
+        super(moduleManager, groupMetricsBinaryEncoding);
+        this.enablePartition = enablePartition;
         /*
          * Override column because the default column names in core have syntax conflict with MySQL.
          */
@@ -59,6 +65,27 @@ public class MySQLTableInstaller extends H2TableInstaller {
         this.createIndexes(jdbcHikariCPClient, model);
     }
 
+    /**
+     * MySQL requires every unique key of a partitioned table to include the partition column.
+     */
+    @Override protected String getPrimaryKey(Model model) {
+        if (isPartitioned(model)) {
+            return "id, " + MySQLPartitions.partitionColumn();
+        }
+        return super.getPrimaryKey(model);
+    }
+
+    @Override protected String getTableOptions(Model model) {
+        if (isPartitioned(model)) {
+            return MySQLPartitions.partitionClause(model, new DateTime());
+        }
+        return super.getTableOptions(model);
+    }
+
+    private boolean isPartitioned(Model model) {
+        return enablePartition && MySQLPartitions.isPartitioned(model);
+    }
+
     @Override
     protected String getColumnType(Model model, ColumnName name, Class<?> type) {
         if (Integer.class.equals(type) || int.class.equals(type)) {
@@ -77,6 +104,8 @@ public class MySQLTableInstaller extends H2TableInstaller {
             }
             return "VARCHAR(2000)";
         } else if (IntKeyLongValueHashMap.class.equals(type)) {
+            return isGroupMetricsBinaryEncoding() ? "MEDIUMBLOB" : "MEDIUMTEXT";
+        } else if (QuantileSketch.class.equals(type)) {
             return "MEDIUMTEXT";
         } else if (byte[].class.equals(type)) {
             return "MEDIUMTEXT";
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
+
+import java.sql.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.junit.*;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class H2BatchDAOTest {
+
+    private static final String BAD_VALUE = "bad";
+
+    /**
+     * The values of every executed JDBC batch.
+     */
+    private final List<List<Object>> batches = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * The values of the sql executed one by one.
+     */
+    private final List<Object> executed = Collections.synchronizedList(new ArrayList<>());
+    private JDBCHikariCPClient client;
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> statement());
+        client = mock(JDBCHikariCPClient.class);
+        when(client.getTransactionConnection()).thenReturn(connection);
+    }
+
+    @Test
+    public void testChunking() throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(client, 3, 2);
+        List<PrepareRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            requests.add(new SQLExecutor("insert into a values(?)", Collections.singletonList("a" + i)));
+            if (i < 2) {
+                requests.add(new SQLExecutor("insert into b values(?)", Collections.singletonList("b" + i)));
+            }
+        }
+
+        batchDAO.synchronous(requests);
+
+        // Grouped by the sql, and split into the chunks of at most 3.
+        Set<List<Object>> expected = new HashSet<>(Arrays.asList(
+            Arrays.asList("a0", "a1", "a2"),
+            Arrays.asList("a3", "a4", "a5"),
+            Collections.singletonList("a6"),
+            Arrays.asList("b0", "b1")));
+        Assert.assertEquals(expected, new HashSet<>(batches));
+        Assert.assertEquals(4, batches.size());
+        verify(connection, times(4)).commit();
+        verify(connection, never()).rollback();
+        Assert.assertTrue(executed.isEmpty());
+    }
+
+    @Test
+    public void testExecuteOneByOneAfterBatchFailure() throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(client, 10, 1);
+        List<PrepareRequest> requests = new ArrayList<>();
+        for (String value : new String[] {"a", BAD_VALUE, "c", "d"}) {
+            requests.add(new SQLExecutor("insert into a values(?)", Collections.singletonList(value)));
+        }
+
+        batchDAO.synchronous(requests);
+
+        Assert.assertTrue(batches.isEmpty());
+        // Only the bad one fails, the others of the chunk are executed and committed.
+        Assert.assertEquals(Arrays.asList("a", "c", "d"), executed);
+        verify(connection, times(3)).commit();
+        // The failed batch, and then the bad one.
+        verify(connection, times(2)).rollback();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxSizeOfBatchSql() {
+        new H2BatchDAO(client, 0, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBatchThreads() {
+        new H2BatchDAO(client, 100, 0);
+    }
+
+    /**
+     * A statement which fails to execute the bad value, alone or in a batch.
+     */
+    private PreparedStatement statement() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Object[] current = new Object[1];
+        List<Object> pending = new ArrayList<>();
+        doAnswer(invocation -> current[0] = invocation.getArguments()[1]).when(statement).setObject(anyInt(), any());
+        doAnswer(invocation -> pending.add(current[0])).when(statement).addBatch();
+        when(statement.executeBatch()).thenAnswer(invocation -> {
+            if (pending.contains(BAD_VALUE)) {
+                throw new BatchUpdateException();
+            }
+            batches.add(new ArrayList<>(pending));
+            return new int[pending.size()];
+        });
+        when(statement.execute()).thenAnswer(invocation -> {
+            if (BAD_VALUE.equals(current[0])) {
+                throw new SQLException("Bad value");
+            }
+            executed.add(current[0]);
+            return false;
+        });
+        return statement;
+    }
+}
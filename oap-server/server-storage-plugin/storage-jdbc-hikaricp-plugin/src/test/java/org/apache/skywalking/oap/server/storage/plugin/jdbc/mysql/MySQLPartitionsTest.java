@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.joda.time.DateTime;
+import org.junit.*;
+
+public class MySQLPartitionsTest {
+
+    /**
+     * The upcoming days and months cross the year.
+     */
+    private static final DateTime NOW = new DateTime(2019, 12, 30, 10, 30, 15);
+
+    @Test
+    public void testIsPartitioned() {
+        Assert.assertTrue(MySQLPartitions.isPartitioned(model(Downsampling.Minute)));
+        Assert.assertFalse(MySQLPartitions.isPartitioned(model(Downsampling.None)));
+        Assert.assertFalse(MySQLPartitions.isPartitioned(new Model("endpoint_cpm", Collections.emptyList(), true, false, 0, Downsampling.Minute, false)));
+    }
+
+    @Test
+    public void testSecond() {
+        assertPartitions(Downsampling.Second, 20191230235959L, Arrays.asList(20191230L, 20191231L, 20200101L, 20200102L),
+            Arrays.asList(20191231000000L, 20200101000000L, 20200102000000L, 20200103000000L));
+    }
+
+    @Test
+    public void testMinute() {
+        assertPartitions(Downsampling.Minute, 201912302359L, Arrays.asList(20191230L, 20191231L, 20200101L, 20200102L),
+            Arrays.asList(201912310000L, 202001010000L, 202001020000L, 202001030000L));
+    }
+
+    @Test
+    public void testHour() {
+        assertPartitions(Downsampling.Hour, 2019123123L, Arrays.asList(201912L, 202001L, 202002L, 202003L),
+            Arrays.asList(2020010000L, 2020020000L, 2020030000L, 2020040000L));
+    }
+
+    @Test
+    public void testDay() {
+        assertPartitions(Downsampling.Day, 20191231L, Arrays.asList(201912L, 202001L, 202002L, 202003L),
+            Arrays.asList(20200100L, 20200200L, 20200300L, 20200400L));
+    }
+
+    @Test
+    public void testMonth() {
+        assertPartitions(Downsampling.Month, 201912L, Arrays.asList(201912L, 202001L, 202002L, 202003L),
+            Arrays.asList(202001L, 202002L, 202003L, 202004L));
+    }
+
+    @Test
+    public void testLeapDay() {
+        Model model = model(Downsampling.Minute);
+        Assert.assertEquals(202002290000L, MySQLPartitions.upperBound(model, 20200228L));
+        Assert.assertEquals(202003010000L, MySQLPartitions.upperBound(model, 20200229L));
+    }
+
+    /**
+     * @param lastTimeBucket the last time bucket of the first upcoming partition.
+     * @param upperBounds the upper bounds of the upcoming partitions, each one is the first time bucket of the next
+     * partition.
+     */
+    private static void assertPartitions(Downsampling downsampling, long lastTimeBucket, List<Long> upcoming,
+        List<Long> upperBounds) {
+        Model model = model(downsampling);
+        Assert.assertEquals(upcoming, MySQLPartitions.upcoming(model, NOW));
+
+        StringBuilder clause = new StringBuilder(" PARTITION BY RANGE (time_bucket) (");
+        for (int i = 0; i < upcoming.size(); i++) {
+            long unit = upcoming.get(i);
+            long upperBound = upperBounds.get(i);
+            Assert.assertEquals(upperBound, MySQLPartitions.upperBound(model, unit));
+
+            String definition = MySQLPartitions.definition(model, unit);
+            Assert.assertEquals("PARTITION p" + unit + " VALUES LESS THAN (" + upperBound + ")", definition);
+            clause.append(definition).append(", ");
+        }
+        clause.append("PARTITION pmax VALUES LESS THAN MAXVALUE)");
+        Assert.assertEquals(clause.toString(), MySQLPartitions.partitionClause(model, NOW));
+
+        // The partition is kept while its time buckets are being expired, and dropped once the next one begins to.
+        long upperBound = upperBounds.get(0);
+        Assert.assertTrue(lastTimeBucket < upperBound);
+        Assert.assertFalse(MySQLPartitions.isExpired(upperBound, lastTimeBucket - 1));
+        Assert.assertFalse(MySQLPartitions.isExpired(upperBound, lastTimeBucket));
+        Assert.assertTrue(MySQLPartitions.isExpired(upperBound, upperBound));
+        Assert.assertTrue(MySQLPartitions.isExpired(upperBound, upperBounds.get(1)));
+    }
+
+    private static Model model(Downsampling downsampling) {
+        return new Model("endpoint_cpm", Collections.emptyList(), true, true, 0, downsampling, false);
+    }
+}
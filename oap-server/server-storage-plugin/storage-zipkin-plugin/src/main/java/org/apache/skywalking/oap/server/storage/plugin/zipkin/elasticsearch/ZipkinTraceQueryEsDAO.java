@@ -148,6 +148,16 @@ public class ZipkinTraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
         return Collections.emptyList();
     }
 
+    @Override
+    public List<SegmentRecord> queryByTraceId(String traceId, String afterSegmentId, int limit) throws IOException {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<SegmentRecord> queryBySegmentIds(String traceId, List<String> segmentIds) throws IOException {
+        return Collections.emptyList();
+    }
+
     @Override public List<org.apache.skywalking.oap.server.core.query.entity.Span> doFlexibleTraceQuery(
         String traceId) throws IOException {
         SearchSourceBuilder sourceBuilder = SearchSourceBuilder.searchSource();